@@ -0,0 +1,386 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: AStarSearch.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+
+/**
+ * Point-to-point shortest path search over the word graph guided by a lower bound on the distance to the target.
+ *
+ * The bound comes from the adjacency rule the graph was built with {@link AdjacencyRule#getDistanceBound(CharSequence,
+ * CharSequence)}. Under {@link OneEditRule} every edge changes a word by exactly one edit, so it is the edit distance;
+ * rules whose edges span more edits give a weaker bound, since an A* heuristic that overestimates returns paths that
+ * are not the shortest. The bound changes by at most 1 along an edge, which makes it a consistent A* heuristic: a
+ * vertex is final the first time it is settled, and the search stops when the target is.
+ *
+ * Edit distance costs O(length^2), so a vertex is first queued with the bound from the lengths alone, which is weaker
+ * and costs nothing. Only when the vertex reaches the front of the queue is its full bound computed; if that raises
+ * its estimate, it is queued again behind the vertices that now come first. Many vertices are never taken out of the
+ * queue and never pay for an edit distance.
+ *
+ * No precomputation is needed, which makes this the strategy with the smallest memory use.
+ */
+public class AStarSearch implements DistanceOracle {
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the vertex with id v, null when the graph is compressed
+     */
+    private final int[][] adjacency;
+
+    /**
+     * The graph in compressed form, null when it is held as {@link #adjacency}
+     */
+    private final CompressedIntGraph compressed;
+
+    /**
+     * The word of every vertex id
+     */
+    private final WordArena words;
+
+    /**
+     * The rule the edges were found with, which gives the lower bounds
+     */
+    private final AdjacencyRule rule;
+
+    /**
+     * Search buffers shared by all threads
+     */
+    private final SearchPool<Search> searches;
+
+    /**
+     * Expanded vertices and bound evaluations of the last search of each thread
+     */
+    private final ThreadLocal<int[]> lastCounts = ThreadLocal.withInitial(() -> new int[2]);
+
+    /**
+     * Constructs the search
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param words arena holding the word of every vertex id
+     * @param rule the adjacency rule the edges were found with
+     */
+    public AStarSearch(int[][] adjacency, WordArena words, AdjacencyRule rule) {
+        this(adjacency, words, rule, SearchPool.defaultCapacity());
+    }
+
+    /**
+     * Constructs the search with a bound on the searches that run at the same time
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param words arena holding the word of every vertex id
+     * @param rule the adjacency rule the edges were found with
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public AStarSearch(int[][] adjacency, WordArena words, AdjacencyRule rule, int concurrency) {
+        this(adjacency, null, words, rule, concurrency);
+    }
+
+    /**
+     * Constructs the search over a compressed graph, which is decoded as it is searched
+     *
+     * @param compressed the graph
+     * @param words arena holding the word of every vertex id
+     * @param rule the adjacency rule the edges were found with
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public AStarSearch(CompressedIntGraph compressed, WordArena words, AdjacencyRule rule, int concurrency) {
+        this(null, compressed, words, rule, concurrency);
+    }
+
+    /**
+     * Constructs the search over a graph in either form
+     * @param adjacency the adjacency arrays, null if compressed is given
+     * @param compressed the compressed graph, null if adjacency is given
+     * @param words arena holding the word of every vertex id
+     * @param rule the adjacency rule the edges were found with
+     * @param concurrency largest number of sets of search buffers
+     */
+    private AStarSearch(int[][] adjacency, CompressedIntGraph compressed, WordArena words, AdjacencyRule rule,
+            int concurrency) {
+        if((adjacency == null) == (compressed == null) || words == null || rule == null
+                || words.size() != NeighborReader.order(adjacency, compressed)) {
+            throw new IllegalArgumentException();
+        }
+        this.adjacency = adjacency;
+        this.compressed = compressed;
+        this.words = words;
+        this.rule = rule;
+        int n = words.size();
+        this.searches = new SearchPool<Search>(() -> new Search(n), concurrency);
+    }
+
+    @Override
+    public int getDistance(int source, int target) {
+        Search search = searches.acquire();
+        try {
+            return search.run(source, target);
+        } finally {
+            release(search);
+        }
+    }
+
+    @Override
+    public int[] getPath(int source, int target) {
+        Search search = searches.acquire();
+        try {
+            int distance = search.run(source, target);
+            if(distance < 0) return null;
+            int[] path = new int[distance+1];
+            for(int i = distance, v = target; i >= 0; i--, v = search.parent[v]) path[i] = v;
+            return path;
+        } finally {
+            release(search);
+        }
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return FootprintReport.align(FootprintReport.OBJECT_HEADER + 6*FootprintReport.REFERENCE);	//the words belong to the snapshot
+    }
+
+    /**
+     * Gets the number of vertices settled (expanded) by the last search of the calling thread
+     *
+     * @return number of expanded vertices
+     */
+    public int getLastExpandedCount() {
+        return lastCounts.get()[0];
+    }
+
+    /**
+     * Gets the number of full lower bounds, edit distances under {@link OneEditRule}, computed by the last search of
+     * the calling thread
+     *
+     * @return number of bound evaluations
+     */
+    public int getLastHeuristicCount() {
+        return lastCounts.get()[1];
+    }
+
+    /**
+     * Gets the largest number of searches that run at the same time
+     *
+     * @return the size bound of the buffer pool
+     */
+    public int getConcurrency() {
+        return searches.getCapacity();
+    }
+
+    /**
+     * Counts the vertices a plain breadth first search settles before it settles target, to compare with
+     * {@link #getLastExpandedCount()}
+     *
+     * @param source id of the first vertex
+     * @param target id of the second vertex
+     * @return number of vertices expanded by breadth first search
+     */
+    public int countBreadthFirstExpanded(int source, int target) {
+        NeighborReader reader = new NeighborReader(adjacency, compressed);
+        int[] dist = new int[words.size()];
+        int[] queue = new int[dist.length];
+        Arrays.fill(dist, -1);
+        dist[source] = 0;
+        queue[0] = source;
+        int tail = 1;
+        for(int head = 0; head < tail; head++) {
+            int v = queue[head];
+            if(v == target) return head+1;
+            int[] neighbors = reader.read(v);
+            for(int i = 0; i < reader.getDegree(); i++) {
+                int w = neighbors[i];
+                if(dist[w] == -1) {
+                    dist[w] = dist[v]+1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Records the counts of a finished search for the calling thread, clears the buffers and returns them to the pool
+     * @param search buffers taken from {@link #searches}
+     */
+    private void release(Search search) {
+        int[] counts = lastCounts.get();
+        counts[0] = search.expanded;
+        counts[1] = search.evaluations;
+        search.reset();
+        searches.release(search);
+    }
+
+    /**
+     * A* search buffers with a bucket queue on the estimate f = g + h. A vertex queued with its length bound can
+     * get a smaller estimate than the vertex that reached it, so the scan of the buckets moves back when that happens.
+     */
+    private class Search {
+
+        /**
+         * Distance from the source to every reached vertex, -1 if not reached
+         */
+        private final int[] g;
+
+        /**
+         * The vertex before every reached vertex on its shortest path
+         */
+        private final int[] parent;
+
+        /**
+         * Whether a vertex has been settled
+         */
+        private final boolean[] closed;
+
+        /**
+         * Whether the full bound of a vertex to the target has been computed
+         */
+        private final boolean[] exact;
+
+        /**
+         * The lower bound used for every reached vertex
+         */
+        private final int[] h;
+
+        /**
+         * Every vertex reached by the last search
+         */
+        private final int[] touched;
+
+        /**
+         * Number of entries in {@link #touched}
+         */
+        private int touchedCount;
+
+        /**
+         * buckets[f] holds the queued vertices with estimate f
+         */
+        private int[][] buckets;
+
+        /**
+         * Number of vertices in each bucket
+         */
+        private int[] bucketSize;
+
+        /**
+         * The lowest bucket that may be non-empty
+         */
+        private int cursor;
+
+        /**
+         * Number of vertices settled by the last search
+         */
+        private int expanded;
+
+        /**
+         * Number of full bounds computed by the last search
+         */
+        private int evaluations;
+
+        /**
+         * Reads the neighbor lists
+         */
+        private final NeighborReader reader;
+
+        /**
+         * Creates buffers for a graph of n vertices
+         * @param n number of vertices
+         */
+        private Search(int n) {
+            reader = new NeighborReader(adjacency, compressed);
+            g = new int[n];
+            parent = new int[n];
+            closed = new boolean[n];
+            exact = new boolean[n];
+            h = new int[n];
+            touched = new int[n];
+            buckets = new int[16][];
+            bucketSize = new int[16];
+            cursor = Integer.MAX_VALUE;
+            Arrays.fill(g, -1);
+        }
+
+        /**
+         * Runs the search. {@link #reset()} must be called before the next search.
+         *
+         * @param source id of the first vertex
+         * @param target id of the second vertex
+         * @return the distance from source to target, -1 if there is no path
+         */
+        private int run(int source, int target) {
+            expanded = 0;
+            evaluations = 0;
+            CharSequence goal = words.view(target);
+            touched[touchedCount++] = source;
+            g[source] = 0;
+            parent[source] = -1;
+            h[source] = rule.getLengthBound(words.length(source), goal.length());
+            push(source, h[source]);
+            while(true) {
+                while(cursor < bucketSize.length && bucketSize[cursor] == 0) cursor++;
+                if(cursor >= bucketSize.length) return -1;			//every reachable vertex is settled
+                int v = buckets[cursor][--bucketSize[cursor]];
+                if(closed[v] || g[v]+h[v] != cursor) continue;		//stale entry
+                if(!exact[v]) {
+                    //replace the length bound by the full bound, and queue again if the estimate went up
+                    exact[v] = true;
+                    evaluations++;
+                    int distance = rule.getDistanceBound(words.view(v), goal);
+                    if(distance > h[v]) {
+                        h[v] = distance;
+                        push(v, g[v]+distance);
+                        continue;
+                    }
+                }
+                closed[v] = true;
+                expanded++;
+                if(v == target) return g[v];
+                int[] neighbors = reader.read(v);
+                for(int i = 0; i < reader.getDegree(); i++) {
+                    int w = neighbors[i];
+                    if(closed[w] || (g[w] != -1 && g[w] <= g[v]+1)) continue;
+                    if(g[w] == -1) {
+                        touched[touchedCount++] = w;
+                        h[w] = rule.getLengthBound(words.length(w), goal.length());
+                    }
+                    g[w] = g[v]+1;
+                    parent[w] = v;
+                    push(w, g[w]+h[w]);
+                }
+            }
+        }
+
+        /**
+         * Puts a vertex in the bucket of its estimate
+         * @param v id of the vertex
+         * @param f its estimated path length through v
+         */
+        private void push(int v, int f) {
+            if(f >= buckets.length) {
+                int size = Math.max(f+1, 2*buckets.length);
+                buckets = Arrays.copyOf(buckets, size);
+                bucketSize = Arrays.copyOf(bucketSize, size);
+            }
+            if(buckets[f] == null) buckets[f] = new int[8];
+            if(bucketSize[f] == buckets[f].length) buckets[f] = Arrays.copyOf(buckets[f], 2*bucketSize[f]);
+            buckets[f][bucketSize[f]++] = v;
+            cursor = Math.min(cursor, f);
+        }
+
+        /**
+         * Clears the state written by the last search
+         */
+        private void reset() {
+            for(int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                g[v] = -1;
+                closed[v] = false;
+                exact[v] = false;
+            }
+            touchedCount = 0;
+            Arrays.fill(bucketSize, 0);
+            cursor = Integer.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: AdjacencyRule.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+/**
+ * Decides which words of a dictionary are joined by an edge in {@link GraphProcessor}.
+ *
+ * A rule has two sides that must agree: a predicate for one pair of words, and a generator that finds every adjacent
+ * pair of a whole dictionary at once. The generator is what builds the graph, so a rule should derive candidate
+ * pairs from an index over the words (shared wildcard patterns, deletions, sorted letters) rather than test every
+ * pair. The default generator does test every pair, for rules that have no better way.
+ *
+ * Words are compared ignoring case. Generators look words up as they are stored in the arena, which is in upper case
+ * when the arena is filled by {@link WordProcessor#loadWords(String, WordArena)}.
+ *
+ * @see OneEditRule
+ * @see TranspositionRule
+ * @see AnagramRule
+ */
+public interface AdjacencyRule {
+
+	/**
+	 * Receives the edges found by {@link AdjacencyRule#findEdges(WordArena, EdgeConsumer)}
+	 */
+	@FunctionalInterface
+	public interface EdgeConsumer {
+
+		/**
+		 * Receives one edge
+		 *
+		 * @param id1 id of one word of the edge
+		 * @param id2 id of the other word
+		 */
+		public void accept(int id1, int id2);
+	}
+
+	/**
+	 * Checks whether two words are adjacent. A word is never adjacent to itself.
+	 *
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @return true if an edge joins the words
+	 */
+	public boolean isAdjacent(CharSequence word1, CharSequence word2);
+
+	/**
+	 * Gives a lower bound on the number of edges of any path between two words, which {@link AStarSearch} is guided
+	 * by. It must never exceed the distance in any graph of this rule, and must change by at most 1 along an edge.
+	 * The default, 0, is right for every rule and makes the search a breadth first search.
+	 *
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @return the lower bound
+	 */
+	public default int getDistanceBound(CharSequence word1, CharSequence word2) {
+		return 0;
+	}
+
+	/**
+	 * Gives a lower bound on the distance between words of two lengths, which costs nothing to compute. It must not
+	 * exceed {@link #getDistanceBound(CharSequence, CharSequence)} of any two words of these lengths.
+	 *
+	 * @param length1 length of the first word
+	 * @param length2 length of the second word
+	 * @return the lower bound, 0 by default
+	 */
+	public default int getLengthBound(int length1, int length2) {
+		return 0;
+	}
+
+
+	/**
+	 * Finds every pair of adjacent words of an arena. Each edge is reported at least once, with its ids in any
+	 * order; repeats are dropped by the caller.
+	 *
+	 * @param words the words
+	 * @param edges receives the ids of the words of every edge
+	 */
+	public default void findEdges(WordArena words, EdgeConsumer edges) {
+		for(int i = 0; i < words.size()-1; i++) {
+			for(int j = i+1; j < words.size(); j++) {
+				if(isAdjacent(words.view(i), words.view(j))) edges.accept(i, j);
+			}
+		}
+	}
+}
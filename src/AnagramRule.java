@@ -0,0 +1,101 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: AnagramRule.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Words are adjacent when the longer one holds every letter of the shorter one plus exactly one more, in any order,
+ * so TEA, RATE and TEARS form a ladder (anagram plus one).
+ *
+ * Edges are found through signatures, the letters of a word sorted. Every word is filed under its signature; then
+ * each letter of every signature is deleted in turn and the words filed under the shorter signature are the
+ * neighbors of the word.
+ */
+public class AnagramRule implements AdjacencyRule {
+
+    @Override
+    public boolean isAdjacent(CharSequence word1, CharSequence word2) {
+        if(word1 == null || word2 == null) throw new IllegalArgumentException();
+        if(word1.length() < word2.length()) {
+            CharSequence temp = word1;
+            word1 = word2;
+            word2 = temp;
+        }
+        if(word1.length()-word2.length() != 1) return false;
+        char[] longer = signature(word1).toCharArray();
+        char[] shorter = signature(word2).toCharArray();
+        int skipped = 0;
+        for(int i = 0; i < shorter.length; i++) {								//merge, skipping one letter of the longer
+            if(shorter[i] != longer[i+skipped]) {
+                if(++skipped > 1 || shorter[i] != longer[i+skipped]) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Every edge adds or removes one letter, so the letters held by only one of two words, counted with repeats, are
+     * at most their distance in the graph
+     */
+    @Override
+    public int getDistanceBound(CharSequence word1, CharSequence word2) {
+        String letters1 = signature(word1), letters2 = signature(word2);
+        int i = 0, j = 0, shared = 0;
+        while(i < letters1.length() && j < letters2.length()) {					//merge the sorted letters
+            int order = Character.compare(letters1.charAt(i), letters2.charAt(j));
+            if(order == 0) shared++;
+            if(order <= 0) i++;
+            if(order >= 0) j++;
+        }
+        return letters1.length() + letters2.length() - 2*shared;
+    }
+
+    /**
+     * Every edge changes the length by exactly 1
+     */
+    @Override
+    public int getLengthBound(int length1, int length2) {
+        return Math.abs(length1-length2);
+    }
+
+    @Override
+    public void findEdges(WordArena words, EdgeConsumer edges) {
+        String[] signatures = new String[words.size()];
+        Map<String, List<Integer>> bySignature = new HashMap<String, List<Integer>>();
+        for(int id = 0; id < words.size(); id++) {
+            signatures[id] = signature(words.view(id));
+            bySignature.computeIfAbsent(signatures[id], s -> new ArrayList<Integer>(1)).add(id);
+        }
+
+        for(int id = 0; id < words.size(); id++) {
+            String signature = signatures[id];
+            for(int i = 0; i < signature.length(); i++) {
+                if(i > 0 && signature.charAt(i) == signature.charAt(i-1)) continue;	//same letter, same signature
+                List<Integer> shorter = bySignature.get(signature.substring(0, i) + signature.substring(i+1));
+                if(shorter == null) continue;
+                for(int other : shorter) edges.accept(other, id);
+            }
+        }
+    }
+
+    /**
+     * Sorts the letters of a word
+     *
+     * @param word the word
+     * @return its letters in upper case and in order
+     */
+    private static String signature(CharSequence word) {
+        char[] letters = new char[word.length()];
+        for(int i = 0; i < letters.length; i++) letters[i] = Character.toUpperCase(word.charAt(i));
+        Arrays.sort(letters);
+        return new String(letters);
+    }
+}
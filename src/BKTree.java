@@ -0,0 +1,224 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: BKTree.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A Burkhard-Keller tree over dictionary words using the edit distance from
+ * {@link WordProcessor#editDistance(CharSequence, CharSequence)} as its metric.
+ *
+ * Every child of a node is stored under its distance to that node. Because edit distance satisfies the triangle
+ * inequality, a search for words within distance k of a query only has to descend into the children whose key lies in
+ * [d-k, d+k], where d is the distance between the query and the current node. This lets fuzzy lookups visit a small
+ * part of the dictionary instead of comparing the query against every word.
+ *
+ * Nodes hold the ids of their words in a {@link WordArena} and compare against them in place, so a tree built over the
+ * arena of a dictionary holds no word Strings; only the words returned by a lookup are copied out.
+ */
+public class BKTree {
+
+    /**
+     * The words the nodes refer to
+     */
+    private final WordArena words;
+
+    /**
+     * The root node of the tree, null if the tree is empty
+     */
+    private BKNode root;
+
+    /**
+     * Number of distinct words stored in the tree
+     */
+    private int size;
+
+    /**
+     * Constructs an empty tree that keeps its words in an arena of its own
+     */
+    public BKTree() {
+        this(new WordArena());
+    }
+
+    /**
+     * Constructs an empty tree over the words of an arena. Words are only in the tree once they are added.
+     *
+     * @param words the arena holding the words of the tree
+     */
+    public BKTree(WordArena words) {
+        if(words == null) throw new IllegalArgumentException();
+        this.words = words;
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Adds a word to the tree, first adding it to the arena if it is not there. Words already in the tree are ignored.
+     *
+     * @param word the word to be added
+     * @return true if the word was added, false if it was null or already present
+     */
+    public boolean add(String word) {
+        if(word == null) return false;
+        return add(words.add(word));
+    }
+
+    /**
+     * Adds a word of the arena to the tree. Words already in the tree are ignored.
+     *
+     * @param id the id of the word in the arena
+     * @return true if the word was added, false if it was already present
+     */
+    public boolean add(int id) {
+        if(root == null) {
+            root = new BKNode(id);
+            size++;
+            return true;
+        }
+        CharSequence word = words.view(id);
+        BKNode cur = root;
+        while(true) {
+            int d = WordProcessor.editDistance(word, words.view(cur.word));
+            if(d == 0) return false;							//the word is already in the tree
+            BKNode child = cur.children.get(d);
+            if(child == null) {
+                cur.children.put(d, new BKNode(id));
+                size++;
+                return true;
+            }
+            cur = child;
+        }
+    }
+
+    /**
+     * Finds all words within the given edit distance of the query.
+     *
+     * @param query the word to look up, it does not need to be in the tree
+     * @param maxDistance the largest edit distance a returned word may have
+     * @return the matching words ordered by distance to the query, then alphabetically
+     */
+    public List<String> search(String query, int maxDistance) {
+        List<String> result = new ArrayList<String>();
+        if(query == null || root == null || maxDistance < 0) return result;
+
+        List<Integer> distances = new ArrayList<Integer>();
+        Deque<BKNode> stack = new ArrayDeque<BKNode>();
+        stack.push(root);
+        while(!stack.isEmpty()) {
+            BKNode cur = stack.pop();
+            int d = WordProcessor.editDistance(query, words.view(cur.word));
+            if(d <= maxDistance) {
+                result.add(words.getWord(cur.word));
+                distances.add(d);
+            }
+            for(int key = Math.max(1, d-maxDistance); key <= d+maxDistance; key++) {
+                BKNode child = cur.children.get(key);	//only children in [d-k, d+k] can hold a match
+                if(child != null) stack.push(child);
+            }
+        }
+
+        //sort the matches by distance then by word
+        Integer[] order = new Integer[result.size()];
+        for(int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Integer.compare(distances.get(a), distances.get(b));
+            return cmp != 0 ? cmp : result.get(a).compareTo(result.get(b));
+        });
+        List<String> sorted = new ArrayList<String>(order.length);
+        for(int i : order) sorted.add(result.get(i));
+        return sorted;
+    }
+
+    /**
+     * Finds the word closest to the query. The search radius shrinks each time a closer word is found, so the tree is
+     * pruned more aggressively as the search goes on. Ties are broken alphabetically.
+     *
+     * @param query the word to look up, it does not need to be in the tree
+     * @param maxDistance the largest edit distance the returned word may have
+     * @return the closest word within maxDistance of the query, or null if there is none
+     */
+    public String nearest(String query, int maxDistance) {
+        if(query == null || root == null || maxDistance < 0) return null;
+
+        CharSequence best = null;
+        int bestDistance = maxDistance;
+        Deque<BKNode> stack = new ArrayDeque<BKNode>();
+        stack.push(root);
+        while(!stack.isEmpty()) {
+            BKNode cur = stack.pop();
+            CharSequence word = words.view(cur.word);
+            int d = WordProcessor.editDistance(query, word);
+            if(d < bestDistance || (d == bestDistance && (best == null || CharSequence.compare(word, best) < 0))) {
+                best = word;
+                bestDistance = d;
+                if(d == 0) return best.toString();					//exact match, nothing can be closer
+            }
+            for(int key = Math.max(1, d-bestDistance); key <= d+bestDistance; key++) {
+                BKNode child = cur.children.get(key);
+                if(child != null) stack.push(child);
+            }
+        }
+        return best == null ? null : best.toString();
+    }
+
+    /**
+     * Gets the number of words in the tree
+     *
+     * @return the number of distinct words stored in the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap used by the nodes and their child maps, not counting the arena of the words
+     *
+     * @return estimated bytes {@link FootprintReport}
+     */
+    public long getMemoryBytes() {
+        long bytes = FootprintReport.align(FootprintReport.OBJECT_HEADER + 2*FootprintReport.REFERENCE + 4);
+        if(root == null) return bytes;
+        Deque<BKNode> stack = new ArrayDeque<BKNode>();
+        stack.push(root);
+        while(!stack.isEmpty()) {
+            BKNode cur = stack.pop();
+            bytes += FootprintReport.align(FootprintReport.OBJECT_HEADER + 4 + FootprintReport.REFERENCE);
+            bytes += FootprintReport.hashMap(cur.children.size());			//distance keys are cached Integers
+            for(BKNode child : cur.children.values()) stack.push(child);
+        }
+        return bytes;
+    }
+
+    /**
+     * A node of the tree holding one word and its children keyed by their distance to that word.
+     */
+    private static class BKNode {
+
+        /**
+         * The id of the word stored in this node
+         */
+        private final int word;
+
+        /**
+         * Children of this node, keyed by their edit distance to {@link #word}
+         */
+        private final HashMap<Integer, BKNode> children;
+
+        /**
+         * Constructs a leaf node
+         * @param word the id of the word stored in this node
+         */
+        private BKNode(int word) {
+            this.word = word;
+            this.children = new HashMap<Integer, BKNode>();
+        }
+    }
+}
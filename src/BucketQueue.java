@@ -0,0 +1,110 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: BucketQueue.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+
+/**
+ * A bucket queue (Dial's algorithm) for Dijkstra searches whose edge weights are small positive integers.
+ * 
+ * While a search removes ids of priority p, every queued id has a priority in [p, p+maxWeight], so maxWeight+1 
+ * buckets used as a ring are enough. Inserting and lowering a priority are O(1): a lowered id is simply added to 
+ * its new bucket and its old entry is skipped when it is reached. Priorities must be inserted in the order a 
+ * Dijkstra search produces them (never below the last removed priority).
+ */
+public class BucketQueue implements IntPriorityQueue {
+    
+    /**
+     * The ring of buckets, bucket b holds the entries with priority p where p % buckets.length == b
+     */
+    private int[][] buckets;
+    
+    /**
+     * Number of entries in each bucket, including stale ones
+     */
+    private final int[] bucketSize;
+    
+    /**
+     * priority[id] is the current priority of id while it is queued
+     */
+    private final int[] priority;
+    
+    /**
+     * Whether each id is queued
+     */
+    private final boolean[] queued;
+    
+    /**
+     * The priority of the bucket being emptied, -1 before the first insertion of a search
+     */
+    private int current;
+    
+    /**
+     * Number of queued ids
+     */
+    private int size;
+    
+    /**
+     * Constructs an empty queue
+     * @param capacity number of possible ids
+     * @param maxWeight the largest edge weight of the search
+     */
+    public BucketQueue(int capacity, int maxWeight) {
+        if(maxWeight < 1) throw new IllegalArgumentException();
+        buckets = new int[maxWeight+1][8];
+        bucketSize = new int[maxWeight+1];
+        priority = new int[capacity];
+        queued = new boolean[capacity];
+        current = -1;
+        size = 0;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    @Override
+    public boolean insertOrDecrease(int id, int priority) {
+        if(queued[id] && priority >= this.priority[id]) return false;
+        if(!queued[id]) {
+            queued[id] = true;
+            size++;
+        }
+        if(current == -1) current = priority;			//the first id of a search sets the start of the ring
+        this.priority[id] = priority;
+        int b = priority % buckets.length;
+        if(bucketSize[b] == buckets[b].length) buckets[b] = Arrays.copyOf(buckets[b], 2*bucketSize[b]);
+        buckets[b][bucketSize[b]++] = id;
+        return true;
+    }
+    
+    @Override
+    public int removeMin() {
+        while(true) {
+            int b = current % buckets.length;
+            while(bucketSize[b] > 0) {
+                int id = buckets[b][--bucketSize[b]];
+                if(queued[id] && priority[id] == current) {	//skip entries left behind by a lowered priority
+                    queued[id] = false;
+                    size--;
+                    return id;
+                }
+            }
+            current++;
+        }
+    }
+    
+    @Override
+    public void clear() {
+        for(int b = 0; b < buckets.length; b++) {
+            for(int i = 0; i < bucketSize[b]; i++) queued[buckets[b][i]] = false;
+            bucketSize[b] = 0;
+        }
+        size = 0;
+        current = -1;
+    }
+}
@@ -0,0 +1,252 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: ComboMiner.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Finds pairs of words at a given shortest distance, the "interesting combos" of few_interesting_combos.txt, and
+ * writes them one per line in the same format, for example COMEDO:CHARGE : 49.
+ *
+ * No distance matrix is built. Sources are taken in batches, and a breadth first search runs from every source of a
+ * batch in parallel, each thread with its own buffers. A search stops at the target distance, so it only visits the
+ * words within that distance. The results of a batch are then written in source order, which makes the output
+ * depend on the seed alone and not on thread timing, and flushed before the next batch starts.
+ *
+ * Pairs are bucketed by the length of their first word. When sampling, every bucket takes up to a quota of pairs,
+ * one random partner per source word, and mining stops as soon as every bucket is full. When enumerating, every pair
+ * at the distance is written once.
+ */
+public class ComboMiner {
+
+    /**
+     * Number of sources searched in parallel before their pairs are written
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the word with id v, in both directions
+     */
+    private final int[][] adjacency;
+
+    /**
+     * The words, the id of a word is its index in {@link #adjacency}
+     */
+    private final WordArena words;
+
+    /**
+     * Per thread search buffers
+     */
+    private final ThreadLocal<Search> searches;
+
+    /**
+     * Constructs a miner over a graph, which must not be changed while mining
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the word with id v
+     * @param words the words of the graph
+     */
+    public ComboMiner(int[][] adjacency, WordArena words) {
+        if(adjacency == null || words == null || adjacency.length != words.size()) throw new IllegalArgumentException();
+        this.adjacency = adjacency;
+        this.words = words;
+        this.searches = ThreadLocal.withInitial(() -> new Search(adjacency.length));
+    }
+
+    /**
+     * Writes pairs of words at a shortest distance
+     *
+     * @param distance the shortest distance of every pair, at least 1
+     * @param minLength the shortest first word
+     * @param maxLength the longest first word
+     * @param perLength the number of pairs to sample for every length of the first word, 0 to write every pair
+     * @param seed seed of the order of the sources and of the partners picked
+     * @param out receives one line per pair
+     * @return the number of pairs written
+     * @throws IOException if writing fails
+     */
+    public long mine(int distance, int minLength, int maxLength, int perLength, long seed, Writer out)
+            throws IOException {
+        if(distance < 1 || minLength > maxLength || perLength < 0 || out == null) throw new IllegalArgumentException();
+        boolean sampling = perLength > 0;
+        int first = Math.max(minLength, 0);
+        int[] sources = IntStream.range(0, words.size())
+            .filter(v -> words.length(v) >= first && words.length(v) <= maxLength).toArray();
+        if(sampling) shuffle(sources, new Random(seed));
+
+        int buckets = Math.min(maxLength, maxLength(sources))-first+1;
+        int[] taken = new int[Math.max(buckets, 0)];
+        int[] waiting = new int[taken.length];							//sources per bucket not yet searched
+        for(int v : sources) waiting[words.length(v)-first]++;
+        int open = 0;														//buckets that can still take pairs
+        for(int b = 0; b < waiting.length; b++) if(waiting[b] > 0) open++;
+        Set<Long> written = new HashSet<Long>();
+
+        long count = 0;
+        int next = 0;
+        while(next < sources.length && open > 0) {
+            int[] batch = new int[Math.min(BATCH_SIZE, sources.length-next)];
+            int size = 0;
+            for(; next < sources.length && size < batch.length; next++) {
+                int bucket = words.length(sources[next])-first;
+                if(sampling && taken[bucket] == perLength) continue;			//bucket already full
+                batch[size++] = sources[next];
+            }
+            int[][] partners = new int[size][];
+            int[] searched = Arrays.copyOf(batch, size);
+            IntStream.range(0, size).parallel().forEach(i -> {
+                int source = searched[i];
+                int[] found = searches.get().atDistance(source, distance);
+                if(sampling) {
+                    partners[i] = found.length == 0 ? found
+                        : new int[] {found[new Random(seed*31 + source).nextInt(found.length)]};
+                } else {
+                    partners[i] = Arrays.stream(found).filter(w -> w > source).toArray();	//each pair once
+                }
+            });
+
+            for(int i = 0; i < size; i++) {
+                int bucket = words.length(searched[i])-first;
+                for(int partner : partners[i]) {
+                    if(sampling) {
+                        if(taken[bucket] == perLength) break;
+                        long key = (long) Math.min(searched[i], partner) << 32 | Math.max(searched[i], partner);
+                        if(!written.add(key)) continue;						//found from its other end before
+                        if(++taken[bucket] == perLength) open--;
+                    }
+                    out.write(format(words.getWord(searched[i]), words.getWord(partner), distance));
+                    count++;
+                }
+                if(--waiting[bucket] == 0 && (!sampling || taken[bucket] < perLength)) open--;
+            }
+            out.flush();
+        }
+        return count;
+    }
+
+    /**
+     * Writes a longest shortest path of every connected component {@link GraphAnalytics#getComponentDiametralPairs()}
+     *
+     * @param minDistance the shortest distance worth writing, components with shorter longest paths are skipped
+     * @param out receives one line per component, largest components first
+     * @return the number of pairs written
+     * @throws IOException if writing fails
+     */
+    public long mineLongest(int minDistance, Writer out) throws IOException {
+        List<String> vertices = new ArrayList<String>(words.size());
+        for(int v = 0; v < words.size(); v++) vertices.add(words.getWord(v));
+        GraphAnalytics<String> analytics = new GraphAnalytics<String>(vertices, adjacency);
+        long count = 0;
+        for(List<String> pair : analytics.getComponentDiametralPairs()) {
+            int distance = analytics.getEccentricity(pair.get(0));
+            if(distance < minDistance) continue;
+            out.write(format(pair.get(0), pair.get(1), distance));
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Formats a pair like the lines of few_interesting_combos.txt
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @param distance their shortest distance
+     * @return the line, ending with a line break
+     */
+    public static String format(String word1, String word2, int distance) {
+        return word1 + ":" + word2 + " : " + distance + "\n";
+    }
+
+    /**
+     * Gets the length of the longest word among some ids
+     * @param ids word ids
+     * @return the largest length, -1 if there are no ids
+     */
+    private int maxLength(int[] ids) {
+        int longest = -1;
+        for(int v : ids) longest = Math.max(longest, words.length(v));
+        return longest;
+    }
+
+    /**
+     * Shuffles ids in place (Fisher-Yates)
+     * @param ids the ids
+     * @param random source of the order
+     */
+    private static void shuffle(int[] ids, Random random) {
+        for(int i = ids.length-1; i > 0; i--) {
+            int j = random.nextInt(i+1);
+            int temp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = temp;
+        }
+    }
+
+    /**
+     * Breadth first search buffers. Between searches every entry of dist is -1.
+     */
+    private class Search {
+
+        /**
+         * Distance of every word from the source of the running search, -1 if not reached
+         */
+        private final int[] dist;
+
+        /**
+         * The reached words in order of discovery
+         */
+        private final int[] queue;
+
+        /**
+         * Creates buffers for a graph of n words
+         * @param n number of words
+         */
+        private Search(int n) {
+            dist = new int[n];
+            queue = new int[n];
+            Arrays.fill(dist, -1);
+        }
+
+        /**
+         * Finds the words at a distance from a source, without expanding any word at that distance
+         * @param source the id of the source word
+         * @param distance the distance
+         * @return the ids of the words at exactly that distance, in order of discovery
+         */
+        private int[] atDistance(int source, int distance) {
+            dist[source] = 0;
+            queue[0] = source;
+            int head = 0, tail = 1, level = 0;
+            while(head < tail) {
+                int v = queue[head];
+                if(dist[v] == distance) {
+                    level = head;										//the rest of the queue is at the distance
+                    break;
+                }
+                head++;
+                for(int w : adjacency[v]) {
+                    if(dist[w] == -1) {
+                        dist[w] = dist[v]+1;
+                        queue[tail++] = w;
+                    }
+                }
+                level = tail;
+            }
+            int[] found = Arrays.copyOfRange(queue, level, tail);
+            for(int i = 0; i < tail; i++) dist[queue[i]] = -1;
+            return found;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: CompressedIntGraph.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only {@link IntGraphADT} that keeps every neighbor list in one byte array, delta-encoded with variable-length
+ * integers.
+ *
+ * The list of vertex v is its degree, then its first neighbor as the zigzag-encoded difference from v, then the gap
+ * from each neighbor to the next, minus one, as the lists are sorted and have no repeats. Every number is written
+ * 7 bits per byte, low bits first, with the high bit set on every byte but the last. After a locality ordering
+ * {@link VertexReordering} most neighbors are close to their vertex and to each other, so most numbers fit in one
+ * byte and an edge end costs about one byte instead of the four of an int array, plus the 16 byte header of every
+ * array. {@link #getOffset(int)} finds the start of a list in an int array of offsets. {@link GraphProcessor} can keep
+ * the adjacency of its snapshots in this form {@link GraphProcessor#setCompressedAdjacency(boolean)}, and the
+ * searches read it through a {@link NeighborReader}.
+ *
+ * Lists are read in order by a {@link Cursor}, which decodes one neighbor per call without creating objects; random
+ * access to the i-th neighbor has to decode the i before it. Every edge weighs 1. The methods that change the graph
+ * change nothing and return false, like any call whose valid conditions are violated.
+ */
+public class CompressedIntGraph implements IntGraphADT {
+
+    /**
+     * Reads the neighbors of one vertex at a time. A cursor is not thread safe; every thread uses its own.
+     */
+    public class Cursor {
+
+        /**
+         * Position in {@link #bytes} of the next number
+         */
+        private int position;
+
+        /**
+         * Neighbors not yet read
+         */
+        private int remaining;
+
+        /**
+         * The last neighbor read, the vertex itself before the first
+         */
+        private int current;
+
+        /**
+         * Whether the next neighbor is the first of its list
+         */
+        private boolean first;
+
+        /**
+         * Constructs a cursor with no vertex
+         */
+        private Cursor() {
+            remaining = 0;
+        }
+
+        /**
+         * Starts reading the neighbors of a vertex
+         *
+         * @param vertex id of the vertex
+         * @return its degree, 0 if it does not exist
+         */
+        public int reset(int vertex) {
+            if(!exists(vertex)) {
+                remaining = 0;
+                return 0;
+            }
+            position = offsets[vertex];
+            remaining = readVarint();
+            current = vertex;
+            first = true;
+            return remaining;
+        }
+
+        /**
+         * Checks whether there are neighbors left
+         *
+         * @return true if {@link #next()} has a neighbor to return
+         */
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /**
+         * Reads the next neighbor, in increasing order of ids
+         *
+         * @return id of the neighbor, -1 if there is none left
+         */
+        public int next() {
+            if(remaining == 0) return -1;
+            remaining--;
+            int value = readVarint();
+            if(first) {
+                current += (value >>> 1) ^ -(value & 1);						//zigzag: the sign is the low bit
+                first = false;
+            } else {
+                current += value+1;
+            }
+            return current;
+        }
+
+        /**
+         * Decodes all neighbors of a vertex
+         *
+         * @param vertex id of the vertex
+         * @param into receives the neighbors in increasing order, at least {@link #getMaxDegree()} long
+         * @return the degree of the vertex, 0 if it does not exist
+         */
+        public int read(int vertex, int[] into) {
+            int d = reset(vertex);
+            for(int i = 0; i < d; i++) into[i] = next();
+            return d;
+        }
+
+        /**
+         * Decodes the number at {@link #position} and moves past it
+         * @return the number
+         */
+        private int readVarint() {
+            int b = bytes[position++];
+            if(b >= 0) return b;												//one byte, the common case
+            int value = b & 0x7F;
+            for(int shift = 7; ; shift += 7) {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if(b >= 0) return value;
+            }
+        }
+    }
+
+    /**
+     * The encoded lists of all vertices, back to back
+     */
+    private final byte[] bytes;
+
+    /**
+     * offsets[v] is the position in {@link #bytes} of the list of v, offsets[order] the end of the last list
+     */
+    private final int[] offsets;
+
+    /**
+     * Number of edges
+     */
+    private final int size;
+
+    /**
+     * The largest degree of a vertex
+     */
+    private final int maxDegree;
+
+    /**
+     * Cursor of the calling thread for the methods of {@link IntGraphADT}
+     */
+    private final ThreadLocal<Cursor> cursors;
+
+    /**
+     * Queue of the breadth first searches of the calling thread
+     */
+    private final ThreadLocal<int[]> queues;
+
+    /**
+     * Compresses a graph, reading every neighbor list once
+     *
+     * @param graph the graph
+     * @throws IllegalArgumentException if the encoded lists would take more than 2 GB
+     */
+    public CompressedIntGraph(IntGraphADT graph) {
+        if(graph == null) throw new IllegalArgumentException();
+        int n = graph.order();
+        offsets = new int[n+1];
+        Encoder out = new Encoder(Math.max(16, 2*graph.size() + n));
+        int[] list = new int[16];
+        long ends = 0;
+        int max = 0;
+        for(int v = 0; v < n; v++) {
+            int d = graph.degree(v);
+            max = Math.max(max, d);
+            if(list.length < d) list = new int[Math.max(d, 2*list.length)];
+            for(int i = 0; i < d; i++) list[i] = graph.getNeighbor(v, i);
+            offsets[v] = out.length;
+            out.encode(v, list, d);
+            ends += d;
+        }
+        offsets[n] = out.length;
+        bytes = Arrays.copyOf(out.bytes, out.length);
+        size = (int) (ends/2);
+        maxDegree = max;
+        cursors = ThreadLocal.withInitial(Cursor::new);
+        queues = ThreadLocal.withInitial(() -> new int[n]);
+    }
+
+    /**
+     * Compresses adjacency arrays
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     * @throws IllegalArgumentException if the encoded lists would take more than 2 GB
+     */
+    public CompressedIntGraph(int[][] adjacency) {
+        if(adjacency == null) throw new IllegalArgumentException();
+        int n = adjacency.length;
+        offsets = new int[n+1];
+        long ends = 0;
+        int max = 0;
+        for(int[] list : adjacency) {
+            ends += list.length;
+            max = Math.max(max, list.length);
+        }
+        Encoder out = new Encoder((int) Math.min(Integer.MAX_VALUE-8, Math.max(16, ends + n)));
+        for(int v = 0; v < n; v++) {
+            offsets[v] = out.length;
+            out.encode(v, adjacency[v].clone(), adjacency[v].length);
+        }
+        offsets[n] = out.length;
+        bytes = Arrays.copyOf(out.bytes, out.length);
+        size = (int) (ends/2);
+        maxDegree = max;
+        cursors = ThreadLocal.withInitial(Cursor::new);
+        queues = ThreadLocal.withInitial(() -> new int[n]);
+    }
+
+    /**
+     * Creates a cursor over the neighbor lists, for the calling thread only
+     *
+     * @return a new cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Gets the position of the list of a vertex in the byte array
+     *
+     * @param vertex id of the vertex
+     * @return the offset of its list, -1 if it does not exist
+     */
+    public int getOffset(int vertex) {
+        return exists(vertex) ? offsets[vertex] : -1;
+    }
+
+    /**
+     * Gets the largest degree of a vertex, the length a buffer needs for {@link Cursor#read(int, int[])}
+     *
+     * @return the largest number of neighbors of a vertex
+     */
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Decodes the neighbors of one vertex
+     *
+     * @param vertex id of the vertex
+     * @return a new array of its neighbor ids in increasing order, empty if it does not exist
+     */
+    public int[] getNeighbors(int vertex) {
+        Cursor cursor = cursors.get();
+        int[] list = new int[cursor.reset(vertex)];
+        for(int i = 0; i < list.length; i++) list[i] = cursor.next();
+        return list;
+    }
+
+    /**
+     * Gets the length of the encoded lists
+     *
+     * @return bytes of the byte array, without the offsets
+     */
+    public int getEncodedBytes() {
+        return bytes.length;
+    }
+
+    /**
+     * Gets the heap taken by the graph: the byte array and the offsets
+     *
+     * @return estimated bytes {@link FootprintReport}
+     */
+    public long getMemoryBytes() {
+        return FootprintReport.align(FootprintReport.OBJECT_HEADER + 4*FootprintReport.REFERENCE + 8)
+            + FootprintReport.array(bytes.length, 1) + FootprintReport.array(offsets.length, 4);
+    }
+
+    /**
+     * Gets the heap taken by int adjacency arrays of the same graph, as built by {@link IntGraph#toAdjacency()}
+     *
+     * @return estimated bytes {@link FootprintReport}
+     */
+    public long getUncompressedBytes() {
+        long rows = FootprintReport.array(order(), FootprintReport.REFERENCE);
+        for(int v = 0; v < order(); v++) rows += FootprintReport.array(degree(v), 4);
+        return rows;
+    }
+
+    /**
+     * Runs a breadth first search over the compressed lists
+     *
+     * @param source id of the vertex to search from
+     * @param dist receives the number of edges from source to every vertex, -1 if there is no path
+     * @return the number of vertices reached
+     */
+    public int breadthFirst(int source, int[] dist) {
+        Arrays.fill(dist, -1);
+        if(!exists(source)) return 0;
+        Cursor cursor = cursors.get();
+        int[] queue = queues.get();
+        dist[source] = 0;
+        queue[0] = source;
+        int tail = 1;
+        for(int head = 0; head < tail; head++) {
+            int v = queue[head];
+            cursor.reset(v);
+            while(cursor.hasNext()) {
+                int w = cursor.next();
+                if(dist[w] == -1) {
+                    dist[w] = dist[v]+1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Decodes the graph into adjacency arrays, for the search engines that take them
+     *
+     * @return array where entry v holds the ids of all neighbors of v, in increasing order
+     */
+    public int[][] toAdjacency() {
+        Cursor cursor = cursors.get();
+        int[][] adjacency = new int[order()][];
+        for(int v = 0; v < adjacency.length; v++) {
+            adjacency[v] = new int[cursor.reset(v)];
+            for(int i = 0; i < adjacency[v].length; i++) adjacency[v][i] = cursor.next();
+        }
+        return adjacency;
+    }
+
+    @Override
+    public int addVertex() {
+        return -1;
+    }
+
+    @Override
+    public boolean addEdge(int vertex1, int vertex2) {
+        return false;
+    }
+
+    @Override
+    public boolean removeEdge(int vertex1, int vertex2) {
+        return false;
+    }
+
+    @Override
+    public boolean isAdjacent(int vertex1, int vertex2) {
+        if(!exists(vertex2)) return false;
+        Cursor cursor = cursors.get();
+        cursor.reset(vertex1);
+        while(cursor.hasNext()) {
+            int w = cursor.next();
+            if(w >= vertex2) return w == vertex2;								//the list is sorted
+        }
+        return false;
+    }
+
+    @Override
+    public boolean setEdgeWeight(int from, int to, int weight) {
+        return false;
+    }
+
+    @Override
+    public int getEdgeWeight(int from, int to) {
+        return isAdjacent(from, to) ? 1 : -1;
+    }
+
+    @Override
+    public int degree(int vertex) {
+        return cursors.get().reset(vertex);
+    }
+
+    @Override
+    public int getNeighbor(int vertex, int index) {
+        Cursor cursor = cursors.get();
+        if(index < 0 || index >= cursor.reset(vertex)) return -1;
+        for(int i = 0; i < index; i++) cursor.next();
+        return cursor.next();
+    }
+
+    @Override
+    public int getNeighborWeight(int vertex, int index) {
+        return index >= 0 && index < degree(vertex) ? 1 : -1;
+    }
+
+    @Override
+    public void forEachNeighbor(int vertex, IntConsumer action) {
+        if(action == null) return;
+        Cursor cursor = cursors.get();
+        cursor.reset(vertex);
+        while(cursor.hasNext()) action.accept(cursor.next());
+    }
+
+    @Override
+    public int order() {
+        return offsets.length-1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether a vertex exists
+     * @param vertex id of the vertex
+     * @return true if it is a vertex of the graph
+     */
+    private boolean exists(int vertex) {
+        return vertex >= 0 && vertex < offsets.length-1;
+    }
+
+    /**
+     * Appends encoded neighbor lists to a growing byte array
+     */
+    private static class Encoder {
+
+        /**
+         * The encoded bytes in the first {@link #length} entries
+         */
+        private byte[] bytes;
+
+        /**
+         * Number of bytes written
+         */
+        private int length;
+
+        /**
+         * Constructs an empty encoder
+         * @param capacity the number of bytes expected
+         */
+        private Encoder(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        /**
+         * Appends the list of one vertex
+         * @param vertex id of the vertex
+         * @param list its neighbors in the first d entries, sorted in place
+         * @param d its degree
+         */
+        private void encode(int vertex, int[] list, int d) {
+            Arrays.sort(list, 0, d);
+            writeVarint(d);
+            for(int i = 0; i < d; i++) {
+                if(i == 0) {
+                    int delta = list[0]-vertex;
+                    writeVarint((delta << 1) ^ (delta >> 31));					//zigzag: small of either sign
+                } else {
+                    if(list[i] == list[i-1]) throw new IllegalArgumentException("repeated neighbor of " + vertex);
+                    writeVarint(list[i]-list[i-1]-1);
+                }
+            }
+        }
+
+        /**
+         * Appends a number, 7 bits per byte
+         * @param value the number, read as unsigned
+         */
+        private void writeVarint(int value) {
+            if(length+5 > bytes.length) {
+                long grown = Math.min(Integer.MAX_VALUE-8L, 2L*bytes.length);
+                if(grown < length+5) throw new IllegalArgumentException("more than 2 GB of neighbor lists");
+                bytes = Arrays.copyOf(bytes, (int) grown);
+            }
+            while((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: DijkstraSearch.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm over a graph stored as int adjacency and weight arrays.
+ *
+ * The queue is a {@link BucketQueue} when every weight is at most {@link #BUCKET_LIMIT}, which makes every queue
+ * operation O(1), and an {@link IndexedMinHeap} with O(log n) decrease-key otherwise. Searches borrow distance,
+ * parent and queue arrays from a bounded {@link SearchPool}, and only the entries touched by a search are reset
+ * before they go back, so a query costs time proportional to the part of the graph it explores.
+ */
+public class DijkstraSearch {
+
+    /**
+     * Largest edge weight for which a bucket queue is used
+     */
+    public static final int BUCKET_LIMIT = 64;
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the vertex with id v, null when the graph is compressed
+     */
+    private final int[][] adjacency;
+
+    /**
+     * The graph in compressed form, null when it is held as {@link #adjacency}
+     */
+    private final CompressedIntGraph compressed;
+
+    /**
+     * weights[v][i] is the weight of the edge from v to adjacency[v][i], null when every edge has weight 1
+     */
+    private final int[][] weights;
+
+    /**
+     * The largest edge weight
+     */
+    private final int maxWeight;
+
+    /**
+     * Search buffers shared by all threads
+     */
+    private final SearchPool<Buffers> buffers;
+
+    /**
+     * Number of vertices settled by the last search of each thread
+     */
+    private final ThreadLocal<int[]> lastSettled = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Constructs the search
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param weights weights[v][i] is the positive weight of the edge from v to adjacency[v][i], or null for weight 1
+     */
+    public DijkstraSearch(int[][] adjacency, int[][] weights) {
+        this(adjacency, weights, SearchPool.defaultCapacity());
+    }
+
+    /**
+     * Constructs the search with a bound on the searches that run at the same time
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param weights weights[v][i] is the positive weight of the edge from v to adjacency[v][i], or null for weight 1
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public DijkstraSearch(int[][] adjacency, int[][] weights, int concurrency) {
+        this(adjacency, null, weights, concurrency);
+    }
+
+    /**
+     * Constructs the search over a compressed graph, which is decoded as it is searched
+     *
+     * @param compressed the graph
+     * @param weights weights[v][i] is the positive weight of the edge from v to its i-th neighbor in increasing
+     *                order of ids, or null for weight 1
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public DijkstraSearch(CompressedIntGraph compressed, int[][] weights, int concurrency) {
+        this(null, compressed, weights, concurrency);
+    }
+
+    /**
+     * Constructs the search over a graph in either form
+     * @param adjacency the adjacency arrays, null if compressed is given
+     * @param compressed the compressed graph, null if adjacency is given
+     * @param weights the edge weights in the order the neighbors are read, or null for weight 1
+     * @param concurrency largest number of sets of search buffers
+     */
+    private DijkstraSearch(int[][] adjacency, CompressedIntGraph compressed, int[][] weights, int concurrency) {
+        if((adjacency == null) == (compressed == null)) throw new IllegalArgumentException();
+        this.adjacency = adjacency;
+        this.compressed = compressed;
+        this.weights = weights;
+        int max = 1;
+        if(weights != null) {
+            for(int[] row : weights) for(int w : row) max = Math.max(max, w);
+        }
+        this.maxWeight = max;
+        int n = NeighborReader.order(adjacency, compressed);
+        this.buffers = new SearchPool<Buffers>(() -> new Buffers(n), concurrency);
+    }
+
+    /**
+     * Gets the total weight of a shortest path between two vertices
+     *
+     * @param source id of the first vertex
+     * @param target id of the second vertex
+     * @return the weight of a shortest path, 0 if they are equal, -1 if there is no path
+     */
+    public int getDistance(int source, int target) {
+        Buffers b = buffers.acquire();
+        try {
+            return b.run(source, target);
+        } finally {
+            release(b);
+        }
+    }
+
+    /**
+     * Gets the vertices on a shortest path between two vertices
+     *
+     * @param source id of the first vertex
+     * @param target id of the second vertex
+     * @return ids of the vertices on the path from source to target, null if there is no path
+     */
+    public int[] getPath(int source, int target) {
+        Buffers b = buffers.acquire();
+        try {
+            if(b.run(source, target) < 0) return null;
+            int length = 1;
+            for(int v = target; v != source; v = b.parent[v]) length++;
+            int[] path = new int[length];
+            for(int i = length-1, v = target; i >= 0; i--, v = b.parent[v]) path[i] = v;
+            return path;
+        } finally {
+            release(b);
+        }
+    }
+
+    /**
+     * Computes shortest paths from one vertex to every vertex
+     *
+     * @param source id of the vertex to search from
+     * @param dist receives the weight of a shortest path to every vertex, -1 if there is no path
+     * @param parent receives the vertex before every vertex on its shortest path, -1 for the source and unreached vertices
+     */
+    public void singleSource(int source, int[] dist, int[] parent) {
+        Buffers b = buffers.acquire();
+        try {
+            b.run(source, -1);
+            System.arraycopy(b.dist, 0, dist, 0, dist.length);
+            System.arraycopy(b.parent, 0, parent, 0, parent.length);
+        } finally {
+            release(b);
+        }
+        for(int v = 0; v < dist.length; v++) if(dist[v] == -1) parent[v] = -1;
+    }
+
+    /**
+     * Gets the number of vertices settled by the last search of the calling thread
+     *
+     * @return number of settled vertices
+     */
+    public int getLastSettledCount() {
+        return lastSettled.get()[0];
+    }
+
+    /**
+     * Gets the largest number of searches that run at the same time
+     *
+     * @return the size bound of the buffer pool
+     */
+    public int getConcurrency() {
+        return buffers.getCapacity();
+    }
+
+    /**
+     * Records the settled count for the calling thread, clears the buffers and returns them to the pool
+     * @param b buffers taken from {@link #buffers}
+     */
+    private void release(Buffers b) {
+        lastSettled.get()[0] = b.settled;
+        b.reset();
+        buffers.release(b);
+    }
+
+    /**
+     * Search buffers, used by one search at a time
+     */
+    private class Buffers {
+
+        /**
+         * Distance of every reached vertex from the source, -1 if not reached
+         */
+        private final int[] dist;
+
+        /**
+         * The vertex before every reached vertex on its shortest path
+         */
+        private final int[] parent;
+
+        /**
+         * Whether a vertex has been settled
+         */
+        private final boolean[] settledFlag;
+
+        /**
+         * Every vertex reached by the last search
+         */
+        private final int[] touched;
+
+        /**
+         * Number of entries in {@link #touched}
+         */
+        private int touchedCount;
+
+        /**
+         * Number of vertices settled by the last search
+         */
+        private int settled;
+
+        /**
+         * The priority queue
+         */
+        private final IntPriorityQueue queue;
+
+        /**
+         * Reads the neighbor lists
+         */
+        private final NeighborReader reader;
+
+        /**
+         * Creates buffers for a graph of n vertices
+         * @param n number of vertices
+         */
+        private Buffers(int n) {
+            dist = new int[n];
+            parent = new int[n];
+            settledFlag = new boolean[n];
+            touched = new int[n];
+            Arrays.fill(dist, -1);
+            reader = new NeighborReader(adjacency, compressed);
+            queue = maxWeight <= BUCKET_LIMIT ? new BucketQueue(n, maxWeight) : new IndexedMinHeap(n);
+        }
+
+        /**
+         * Runs the search, stopping early once target is settled. {@link #reset()} must be called afterwards.
+         *
+         * @param source id of the vertex to search from
+         * @param target id of the vertex to stop at, -1 to search the whole graph
+         * @return distance to target, -1 if it is not reached or target is -1
+         */
+        private int run(int source, int target) {
+            settled = 0;
+            dist[source] = 0;
+            parent[source] = -1;
+            touched[touchedCount++] = source;
+            queue.insertOrDecrease(source, 0);
+            while(!queue.isEmpty()) {
+                int v = queue.removeMin();
+                settledFlag[v] = true;
+                settled++;
+                if(v == target) return dist[v];
+                int[] neighbors = reader.read(v);
+                int[] edgeWeights = weights == null ? null : weights[v];
+                for(int i = 0; i < reader.getDegree(); i++) {
+                    int w = neighbors[i];
+                    if(settledFlag[w]) continue;
+                    int d = dist[v] + (edgeWeights == null ? 1 : edgeWeights[i]);
+                    if(dist[w] == -1) touched[touchedCount++] = w;
+                    else if(dist[w] <= d) continue;
+                    dist[w] = d;
+                    parent[w] = v;
+                    queue.insertOrDecrease(w, d);
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Clears the state written by the last search
+         */
+        private void reset() {
+            for(int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                dist[v] = -1;
+                settledFlag[v] = false;
+            }
+            touchedCount = 0;
+            queue.clear();
+        }
+    }
+}
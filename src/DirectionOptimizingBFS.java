@@ -0,0 +1,477 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: DirectionOptimizingBFS.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+
+/**
+ * Direction-optimizing breadth first search over an unweighted, undirected graph (Beamer, Asanovic, Patterson).
+ *
+ * The search goes one level at a time. A top-down step scans the neighbors of every frontier vertex, as a plain BFS
+ * does. Once the frontier grows large, most of those neighbors are already visited and the scans are wasted, so a
+ * bottom-up step scans the unvisited vertices instead, each only until it finds a neighbor in the frontier. The step
+ * switches to bottom-up when the edges of the frontier outnumber 1/{@link #ALPHA} of the edges of the unvisited
+ * vertices, and back to top-down when the frontier shrinks below 1/{@link #BETA} of the vertices of the component.
+ * Every unvisited vertex also counts as {@link #VERTEX_COST} edges: a bottom-up step loads the adjacency of each one
+ * to read only a few entries of it, which on sparse graphs like one-edit word graphs, most words with a handful of
+ * neighbors, costs more than the edges themselves.
+ *
+ * The visited set and the frontier of a bottom-up step are bitsets, so a frontier check is one bit lookup. Only
+ * the component of the source can be reached, so the edge counts of the switch are those of the component, and a
+ * bottom-up step scans a list of the component's unvisited vertices that shrinks with every step, rather than the
+ * whole graph: a dictionary graph has a large component and many small ones. Either step records the parent of
+ * every vertex it reaches, so the parents always form a shortest path tree. Searches borrow their buffers from a
+ * bounded {@link SearchPool} and reset them in time proportional to the vertices reached.
+ */
+public class DirectionOptimizingBFS implements DistanceOracle {
+
+    /**
+     * Default ratio of unvisited edges to frontier edges below which a step goes bottom-up
+     */
+    public static final int ALPHA = 14;
+
+    /**
+     * Default ratio of vertices to frontier vertices above which a step goes back to top-down
+     */
+    public static final int BETA = 24;
+
+    /**
+     * Cost of visiting an unvisited vertex in a bottom-up step, in adjacency entries read
+     */
+    public static final int VERTEX_COST = 32;
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions; null when the graph
+     * is compressed
+     */
+    private final int[][] adjacency;
+
+    /**
+     * The graph in compressed form, null when it is held as {@link #adjacency}
+     */
+    private final CompressedIntGraph compressed;
+
+    /**
+     * component[v] is the number of the connected component of vertex v
+     */
+    private final int[] component;
+
+    /**
+     * componentEdges[c] is the number of edge ends in component c, the sum of the degrees of its vertices
+     */
+    private final long[] componentEdges;
+
+    /**
+     * The vertices grouped by component, component c from componentStart[c] to componentStart[c+1]
+     */
+    private final int[] members;
+
+    /**
+     * Start of every component in {@link #members}, with the number of vertices at the end
+     */
+    private final int[] componentStart;
+
+    /**
+     * Ratio of unvisited edges to frontier edges below which a step goes bottom-up, 0 for top-down steps only
+     */
+    private final int alpha;
+
+    /**
+     * Ratio of vertices to frontier vertices above which a step goes back to top-down
+     */
+    private final int beta;
+
+    /**
+     * Search buffers shared by all threads
+     */
+    private final SearchPool<Search> searches;
+
+    /**
+     * Bottom-up steps and edges examined by the last search of each thread
+     */
+    private final ThreadLocal<long[]> lastCounts = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * Constructs a search with the default thresholds
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     */
+    public DirectionOptimizingBFS(int[][] adjacency) {
+        this(adjacency, ALPHA, BETA);
+    }
+
+    /**
+     * Constructs a search
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     * @param alpha ratio of unvisited edges to frontier edges below which a step goes bottom-up, 0 for a plain
+     *              top-down search
+     * @param beta ratio of vertices to frontier vertices above which a step goes back to top-down, at least 1
+     */
+    public DirectionOptimizingBFS(int[][] adjacency, int alpha, int beta) {
+        this(adjacency, alpha, beta, SearchPool.defaultCapacity());
+    }
+
+    /**
+     * Constructs a search with a bound on the searches that run at the same time
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     * @param alpha ratio of unvisited edges to frontier edges below which a step goes bottom-up, 0 for a plain
+     *              top-down search
+     * @param beta ratio of vertices to frontier vertices above which a step goes back to top-down, at least 1
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public DirectionOptimizingBFS(int[][] adjacency, int alpha, int beta, int concurrency) {
+        this(adjacency, null, alpha, beta, concurrency);
+    }
+
+    /**
+     * Constructs a search over a compressed graph, which decodes the neighbor lists as it reads them
+     *
+     * @param compressed the graph
+     * @param alpha ratio of unvisited edges to frontier edges below which a step goes bottom-up, 0 for a plain
+     *              top-down search
+     * @param beta ratio of vertices to frontier vertices above which a step goes back to top-down, at least 1
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public DirectionOptimizingBFS(CompressedIntGraph compressed, int alpha, int beta, int concurrency) {
+        this(null, compressed, alpha, beta, concurrency);
+    }
+
+    /**
+     * Constructs a search over a graph in either form
+     * @param adjacency the adjacency arrays, null if compressed is given
+     * @param compressed the compressed graph, null if adjacency is given
+     * @param alpha ratio of unvisited edges to frontier edges below which a step goes bottom-up
+     * @param beta ratio of vertices to frontier vertices above which a step goes back to top-down
+     * @param concurrency largest number of sets of search buffers
+     */
+    private DirectionOptimizingBFS(int[][] adjacency, CompressedIntGraph compressed, int alpha, int beta,
+            int concurrency) {
+        if((adjacency == null) == (compressed == null) || alpha < 0 || beta < 1) throw new IllegalArgumentException();
+        this.adjacency = adjacency;
+        this.compressed = compressed;
+        this.alpha = alpha;
+        this.beta = beta;
+        int n = NeighborReader.order(adjacency, compressed);
+        NeighborReader reader = new NeighborReader(adjacency, compressed);
+        this.component = new int[n];
+        Arrays.fill(component, -1);
+        int[] queue = new int[n];
+        long[] edges = new long[n];
+        int components = 0;
+        for(int s = 0; s < n; s++) {										//label the components top-down
+            if(component[s] != -1) continue;
+            component[s] = components;
+            queue[0] = s;
+            for(int head = 0, tail = 1; head < tail; head++) {
+                int v = queue[head];
+                int[] neighbors = reader.read(v);
+                edges[components] += reader.getDegree();
+                for(int i = 0; i < reader.getDegree(); i++) {
+                    int w = neighbors[i];
+                    if(component[w] == -1) {
+                        component[w] = components;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            components++;
+        }
+        this.componentEdges = Arrays.copyOf(edges, components);
+        this.componentStart = new int[components+1];
+        for(int v = 0; v < n; v++) componentStart[component[v]+1]++;
+        for(int c = 0; c < components; c++) componentStart[c+1] += componentStart[c];
+        this.members = new int[n];
+        int[] next = Arrays.copyOf(componentStart, components);
+        for(int v = 0; v < n; v++) members[next[component[v]]++] = v;
+        this.searches = new SearchPool<Search>(() -> new Search(n), concurrency);
+    }
+
+    @Override
+    public int getDistance(int source, int target) {
+        Search s = searches.acquire();
+        try {
+            return s.run(source, target);
+        } finally {
+            release(s);
+        }
+    }
+
+    @Override
+    public int[] getPath(int source, int target) {
+        Search s = searches.acquire();
+        try {
+            if(s.run(source, target) < 0) return null;
+            int length = 1;
+            for(int v = target; v != source; v = s.parent[v]) length++;
+            int[] path = new int[length];
+            for(int i = length-1, v = target; i >= 0; i--, v = s.parent[v]) path[i] = v;
+            return path;
+        } finally {
+            release(s);
+        }
+    }
+
+    /**
+     * Computes shortest paths from one vertex to every vertex
+     *
+     * @param source id of the vertex to search from
+     * @param dist receives the number of edges of a shortest path to every vertex, -1 if there is no path
+     * @param parent receives the vertex before every vertex on its shortest path, -1 for the source and unreached vertices
+     */
+    public void singleSource(int source, int[] dist, int[] parent) {
+        Search s = searches.acquire();
+        try {
+            s.run(source, -1);
+            Arrays.fill(dist, -1);
+            Arrays.fill(parent, -1);
+            for(int i = 0; i < s.reached; i++) {
+                int v = s.queue[i];
+                dist[v] = s.dist[v];
+                parent[v] = s.parent[v];
+            }
+        } finally {
+            release(s);
+        }
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return FootprintReport.align(FootprintReport.OBJECT_HEADER + 8*FootprintReport.REFERENCE + 8)
+            + FootprintReport.array(component.length, 4) + FootprintReport.array(componentEdges.length, 8)
+            + FootprintReport.array(members.length, 4) + FootprintReport.array(componentStart.length, 4);
+    }
+
+    /**
+     * Gets the number of bottom-up steps of the last search of the calling thread
+     *
+     * @return number of levels reached bottom-up
+     */
+    public int getLastBottomUpSteps() {
+        return (int) lastCounts.get()[0];
+    }
+
+    /**
+     * Gets the number of adjacency entries read by the last search of the calling thread
+     *
+     * @return number of edges examined
+     */
+    public long getLastEdgesExamined() {
+        return lastCounts.get()[1];
+    }
+
+    /**
+     * Gets the largest number of searches that run at the same time
+     *
+     * @return the size bound of the buffer pool
+     */
+    public int getConcurrency() {
+        return searches.getCapacity();
+    }
+
+    /**
+     * Records the counts of a finished search for the calling thread, clears the buffers and returns them to the pool
+     * @param s buffers taken from {@link #searches}
+     */
+    private void release(Search s) {
+        long[] counts = lastCounts.get();
+        counts[0] = s.bottomUpSteps;
+        counts[1] = s.examined;
+        s.reset();
+        searches.release(s);
+    }
+
+    /**
+     * Search buffers, used by one search at a time. Between searches every entry of dist is -1 and both bitsets are empty.
+     */
+    private class Search {
+
+        /**
+         * Distance of every reached vertex from the source, -1 if not reached
+         */
+        private final int[] dist;
+
+        /**
+         * The vertex before every reached vertex on its shortest path
+         */
+        private final int[] parent;
+
+        /**
+         * The reached vertices level by level, the last level is the frontier
+         */
+        private final int[] queue;
+
+        /**
+         * Bit v is set when vertex v is reached
+         */
+        private final long[] visited;
+
+        /**
+         * Bit v is set when vertex v is in the frontier of a bottom-up step
+         */
+        private final long[] frontier;
+
+        /**
+         * Number of entries in {@link #queue}
+         */
+        private int reached;
+
+        /**
+         * Vertices of the component of the source not yet reached, as of the last bottom-up step
+         */
+        private final int[] unvisited;
+
+        /**
+         * Number of entries in {@link #unvisited}, -1 before the first bottom-up step of a search
+         */
+        private int unvisitedCount;
+
+        /**
+         * Number of bottom-up steps of the last search
+         */
+        private int bottomUpSteps;
+
+        /**
+         * Number of adjacency entries read by the last search
+         */
+        private long examined;
+
+        /**
+         * Reads the neighbor lists
+         */
+        private final NeighborReader reader;
+
+        /**
+         * Creates buffers for a graph of n vertices
+         * @param n number of vertices
+         */
+        private Search(int n) {
+            dist = new int[n];
+            parent = new int[n];
+            queue = new int[n];
+            visited = new long[(n+63) >>> 6];
+            frontier = new long[visited.length];
+            unvisited = new int[n];
+            reader = new NeighborReader(adjacency, compressed);
+            Arrays.fill(dist, -1);
+        }
+
+        /**
+         * Runs the search, stopping after the level that reaches target. {@link #reset()} must be called afterwards.
+         *
+         * @param source id of the vertex to search from
+         * @param target id of the vertex to stop at, -1 to search the whole graph
+         * @return distance to target, -1 if it is not reached or target is -1
+         */
+        private int run(int source, int target) {
+            int c = component[source];
+            if(target >= 0 && component[target] != c) return -1;				//not connected, nothing to search
+            int size = componentStart[c+1]-componentStart[c];
+            bottomUpSteps = 0;
+            unvisitedCount = -1;
+            examined = 0;
+            dist[source] = 0;
+            parent[source] = -1;
+            visited[source >>> 6] |= 1L << source;
+            queue[0] = source;
+            reached = 1;
+            int levelStart = 0;
+            long frontierEdges = reader.degree(source);
+            long unvisitedEdges = componentEdges[c] - frontierEdges;
+            boolean bottomUp = false;
+            for(int level = 1; levelStart < reached; level++) {
+                if(target >= 0 && dist[target] >= 0) return dist[target];
+                int frontierSize = reached-levelStart;
+                if(!bottomUp) bottomUp = frontierEdges*alpha > unvisitedEdges + (long) VERTEX_COST*(size-reached);
+                else bottomUp = (long) frontierSize*beta >= size;
+                int levelEnd = reached;
+                if(bottomUp) bottomUpStep(levelStart, levelEnd, level, c);
+                else topDownStep(levelStart, levelEnd, level);
+                frontierEdges = 0;
+                for(int i = levelEnd; i < reached; i++) frontierEdges += reader.degree(queue[i]);
+                unvisitedEdges -= frontierEdges;
+                levelStart = levelEnd;
+            }
+            return target >= 0 ? dist[target] : -1;
+        }
+
+        /**
+         * Reaches the next level from the neighbors of the frontier
+         * @param from first index of the frontier in {@link #queue}
+         * @param to end of the frontier in {@link #queue}
+         * @param level distance of the next level
+         */
+        private void topDownStep(int from, int to, int level) {
+            for(int i = from; i < to; i++) {
+                int v = queue[i];
+                int[] neighbors = reader.read(v);
+                int d = reader.getDegree();
+                examined += d;
+                for(int j = 0; j < d; j++) {
+                    int w = neighbors[j];
+                    if((visited[w >>> 6] & 1L << w) != 0) continue;
+                    visited[w >>> 6] |= 1L << w;
+                    dist[w] = level;
+                    parent[w] = v;
+                    queue[reached++] = w;
+                }
+            }
+        }
+
+        /**
+         * Reaches the next level by looking for a frontier neighbor of every unvisited vertex of the component
+         * @param from first index of the frontier in {@link #queue}
+         * @param to end of the frontier in {@link #queue}
+         * @param level distance of the next level
+         * @param reachable the component of the source, no other vertex can be reached
+         */
+        private void bottomUpStep(int from, int to, int level, int reachable) {
+            bottomUpSteps++;
+            if(unvisitedCount == -1) {										//first bottom-up step of the search
+                unvisitedCount = 0;
+                for(int i = componentStart[reachable]; i < componentStart[reachable+1]; i++) {
+                    int v = members[i];
+                    if((visited[v >>> 6] & 1L << v) == 0) unvisited[unvisitedCount++] = v;
+                }
+            }
+            for(int i = from; i < to; i++) frontier[queue[i] >>> 6] |= 1L << queue[i];
+            int left = 0;
+            for(int i = 0; i < unvisitedCount; i++) {
+                int v = unvisited[i];
+                if((visited[v >>> 6] & 1L << v) != 0) continue;					//reached by a top-down step since
+                boolean found = false;
+                int[] neighbors = reader.read(v);
+                for(int j = 0; j < reader.getDegree(); j++) {
+                    int w = neighbors[j];
+                    examined++;
+                    if((frontier[w >>> 6] & 1L << w) == 0) continue;
+                    visited[v >>> 6] |= 1L << v;									//not in the frontier, so safe to set now
+                    dist[v] = level;
+                    parent[v] = w;
+                    queue[reached++] = v;
+                    found = true;
+                    break;
+                }
+                if(!found) unvisited[left++] = v;
+            }
+            unvisitedCount = left;
+            for(int i = from; i < to; i++) frontier[queue[i] >>> 6] = 0;
+        }
+
+        /**
+         * Clears the state written by the last search
+         */
+        private void reset() {
+            for(int i = 0; i < reached; i++) {
+                int v = queue[i];
+                dist[v] = -1;
+                visited[v >>> 6] = 0;
+            }
+            reached = 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: DistanceOracle.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+/**
+ * A structure computed by {@link GraphProcessor#shortestPathPrecomputation()} that answers shortest path queries
+ * between vertices identified by their integer ids.
+ * 
+ * The ids are positions in the word index of the {@link GraphProcessor} that built the oracle, which converts
+ * words to ids and back, so implementations never handle Strings.
+ */
+public interface DistanceOracle {
+
+	/**
+	 * Gets the number of edges on a shortest path between two vertices
+	 * 
+	 * @param source id of the first vertex
+	 * @param target id of the second vertex
+	 * @return the distance between source and target, 0 if they are equal, -1 if there is no path
+	 */
+	public int getDistance(int source, int target);
+	
+	
+	/**
+	 * Gets the vertices on a shortest path between two vertices
+	 * 
+	 * @param source id of the first vertex
+	 * @param target id of the second vertex
+	 * @return ids of the vertices on the path, starting with source and ending with target, null if there is no path
+	 */
+	public int[] getPath(int source, int target);
+	
+	
+	/**
+	 * Estimates the heap retained by the oracle, not counting the adjacency arrays it was built from, which belong to
+	 * the snapshot, nor the search buffers each querying thread allocates
+	 * 
+	 * @return estimated bytes {@link FootprintReport}
+	 */
+	public long getMemoryBytes();
+}
@@ -0,0 +1,145 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: EditCosts.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+/**
+ * The cost of moving along an edge of the word graph, which depends on the edit that turns one word into the other.
+ *
+ * A 1 char replacement costs {@link #substitution}, or with keyboard costs, that amount times the distance between
+ * the two keys on a QWERTY keyboard (so CAT to VAT, with C next to V, is cheaper than CAT to PAT). A 1 char addition
+ * costs {@link #insertion} and a 1 char deletion costs {@link #deletion}; since an addition in one direction is a
+ * deletion in the other, edges between words of different lengths can cost more one way than the other.
+ */
+public class EditCosts {
+
+    /**
+     * The rows of a QWERTY keyboard
+     */
+    private static final String[] KEYBOARD = {"QWERTYUIOP", "ASDFGHJKL", "ZXCVBNM"};
+
+    /**
+     * How far each keyboard row is shifted right, in quarter keys
+     */
+    private static final int[] ROW_SHIFT = {0, 1, 3};
+
+    /**
+     * Cost of a 1 char replacement, per key of distance with keyboard costs
+     */
+    private final int substitution;
+
+    /**
+     * Cost of a 1 char addition
+     */
+    private final int insertion;
+
+    /**
+     * Cost of a 1 char deletion
+     */
+    private final int deletion;
+
+    /**
+     * Whether replacement costs grow with the keyboard distance between the two chars
+     */
+    private final boolean keyboard;
+
+    /**
+     * Constructs a cost model
+     *
+     * @param substitution cost of a 1 char replacement (per key of distance with keyboard costs), at least 1
+     * @param insertion cost of a 1 char addition, at least 1
+     * @param deletion cost of a 1 char deletion, at least 1
+     * @param keyboard true to scale replacement costs by the keyboard distance of the two chars
+     */
+    public EditCosts(int substitution, int insertion, int deletion, boolean keyboard) {
+        if(substitution < 1 || insertion < 1 || deletion < 1) throw new IllegalArgumentException();
+        this.substitution = substitution;
+        this.insertion = insertion;
+        this.deletion = deletion;
+        this.keyboard = keyboard;
+    }
+
+    /**
+     * Gets the cost model where every edit costs 1, which makes weighted distances equal to edge counts
+     *
+     * @return the unit cost model
+     */
+    public static EditCosts uniform() {
+        return new EditCosts(1, 1, 1, false);
+    }
+
+    /**
+     * Checks whether every edit costs 1, so every edge weighs 1 and no cost needs to be computed
+     *
+     * @return true for the unit cost model {@link #uniform()}
+     */
+    public boolean isUniform() {
+        return substitution == 1 && insertion == 1 && deletion == 1 && !keyboard;
+    }
+
+    /**
+     * Gets the cost of the single edit that turns one word into an adjacent word
+     * {@link WordProcessor#isAdjacent(String, String)}. Takes any CharSequence, so words can be priced in place
+     * inside a {@link WordArena}.
+     *
+     * @param from the word being changed
+     * @param to the word it is changed into
+     * @return the cost of the edit, -1 if the words are not adjacent
+     */
+    public int cost(CharSequence from, CharSequence to) {
+        if(from == null || to == null) throw new IllegalArgumentException();
+        if(WordProcessor.editDistance(from, to) != 1) return -1;
+        if(from.length() < to.length()) return insertion;
+        if(from.length() > to.length()) return deletion;
+        for(int i = 0; i < from.length(); i++) {
+            char a = Character.toUpperCase(from.charAt(i));
+            char b = Character.toUpperCase(to.charAt(i));
+            if(a != b) return keyboard ? substitution*keyDistance(a, b) : substitution;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the largest cost of any single edit, used to size bucket queues
+     *
+     * @return upper bound of {@link #cost(CharSequence, CharSequence)}
+     */
+    public int getMaxCost() {
+        int maxDistance = keyboard ? 10 : 1;
+        return Math.max(substitution*maxDistance, Math.max(insertion, deletion));
+    }
+
+    /**
+     * Distance between two keys: the larger of the row distance and the horizontal distance (rounded to whole keys),
+     * at least 1. Chars that are not letters are 10 keys away from everything.
+     *
+     * @param a first char, uppercase
+     * @param b second char, uppercase
+     * @return the key distance from 1 to 10
+     */
+    private static int keyDistance(char a, char b) {
+        int rowA = -1, rowB = -1, colA = 0, colB = 0;
+        for(int row = 0; row < KEYBOARD.length; row++) {
+            int i = KEYBOARD[row].indexOf(a);
+            if(i >= 0) {
+                rowA = row;
+                colA = 4*i + ROW_SHIFT[row];
+            }
+            int j = KEYBOARD[row].indexOf(b);
+            if(j >= 0) {
+                rowB = row;
+                colB = 4*j + ROW_SHIFT[row];
+            }
+        }
+        if(rowA < 0 || rowB < 0) return 10;
+        int horizontal = (Math.abs(colA-colB)+2)/4;
+        return Math.max(1, Math.max(Math.abs(rowA-rowB), horizontal));
+    }
+
+    @Override
+    public String toString() {
+        return "substitution=" + substitution + (keyboard ? "/key" : "") + ", insertion=" + insertion + ", deletion=" + deletion;
+    }
+}
@@ -0,0 +1,299 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: ExternalEdgeGenerator.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Finds the edges of {@link OneEditRule} with a bounded amount of heap, spilling its candidate keys to disk.
+ *
+ * The in-memory generator keeps a map from every pattern of every word to its words, which for a large dictionary
+ * takes many times the memory of the words themselves. Here every word instead writes one record per key:
+ *  - for each position, the position and the word without that char, shared by all words that differ from it only at
+ *    that position (a replacement);
+ *  - for each char, the word without it, shared with the shorter word that it equals (an addition or deletion);
+ *  - the word itself, under the same kind of key.
+ * The records are sorted by an {@link ExternalSorter}, so all records of a key arrive together and are paired up one
+ * key at a time. The edges found go through a second external sort, which orders them and drops repeats, and are
+ * written to an edge file of int pairs that {@link #readEdges(Path, AdjacencyRule.EdgeConsumer)} streams into a graph
+ * in the same order the in-memory generator gives.
+ *
+ * Only the words themselves, the sort buffers and the records of one key are in memory at a time.
+ */
+public class ExternalEdgeGenerator {
+
+    /**
+     * Key kind of a replacement: the position, then the word without that char
+     */
+    private static final byte REPLACEMENT = 'R';
+
+    /**
+     * Key kind of an addition or deletion: a word, or a word without one char
+     */
+    private static final byte DELETION = 'D';
+
+    /**
+     * Record payload of a word stored whole under a deletion key
+     */
+    private static final byte WHOLE = 0;
+
+    /**
+     * Record payload of a word with one char deleted
+     */
+    private static final byte SHORTENED = 1;
+
+    /**
+     * Bytes after the key of every record: the word id and the payload byte
+     */
+    private static final int PAYLOAD = 5;
+
+    /**
+     * Bytes of the buffer of the edge file
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Directory of the run files
+     */
+    private final Path directory;
+
+    /**
+     * Heap bytes each of the two sorts may keep in memory
+     */
+    private final long memoryBytes;
+
+    /**
+     * Runs written by the last generation
+     */
+    private int runs;
+
+    /**
+     * Constructs a generator
+     *
+     * @param directory the directory for run files
+     * @param memoryBytes heap bytes for sort buffers, split between the key sort and the edge sort
+     */
+    public ExternalEdgeGenerator(Path directory, long memoryBytes) {
+        if(directory == null || memoryBytes < 2) throw new IllegalArgumentException();
+        this.directory = directory;
+        this.memoryBytes = memoryBytes/2;
+    }
+
+    /**
+     * Gets the number of run files written by the last generation, 0 if everything fit in memory
+     *
+     * @return number of runs
+     */
+    public int getRunCount() {
+        return runs;
+    }
+
+    /**
+     * Finds every edge of {@link OneEditRule} and writes it to a file
+     *
+     * @param words the words, in upper case as loaded by {@link WordProcessor#loadWords(String, WordArena)}
+     * @param edgeFile the file to write, as pairs of ints (smaller id first) in increasing order without repeats
+     * @return the number of edges written
+     * @throws IOException if a file can not be written
+     */
+    public long generate(WordArena words, Path edgeFile) throws IOException {
+        try(ExternalSorter keys = new ExternalSorter(directory, memoryBytes);
+            ExternalSorter edges = new ExternalSorter(directory, memoryBytes)) {
+            for(int id = 0; id < words.size(); id++) writeKeys(words, id, keys);
+
+            KeyGroup group = new KeyGroup(edges);
+            keys.sorted(group::add);
+            group.pair();
+
+            long count = 0;
+            try(FileChannel channel = FileChannel.open(edgeFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+                byte[][] previous = new byte[1][];
+                edges.sorted(edge -> {
+                    if(Arrays.equals(edge, previous[0])) return;				//found under two keys
+                    previous[0] = edge;
+                    if(out.remaining() < edge.length) drain(channel, out);
+                    out.put(edge);
+                });
+                drain(channel, out);
+                count = channel.size()/8;
+            }
+            runs = keys.getRunCount() + edges.getRunCount();
+            return count;
+        }
+    }
+
+    /**
+     * Streams the edges of an edge file
+     *
+     * @param edgeFile a file written by {@link #generate(WordArena, Path)}
+     * @param edges receives the ids of the words of every edge, in the order of the file
+     * @throws IOException if the file can not be read
+     */
+    public static void readEdges(Path edgeFile, AdjacencyRule.EdgeConsumer edges) throws IOException {
+        try(FileChannel channel = FileChannel.open(edgeFile, StandardOpenOption.READ)) {
+            ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+            while(channel.read(in) >= 0) {
+                in.flip();
+                while(in.remaining() >= 8) edges.accept(in.getInt(), in.getInt());
+                in.compact();
+            }
+            if(in.position() != 0) throw new IOException("edge file ends inside an edge");
+        }
+    }
+
+    /**
+     * Writes the key records of one word
+     * @param words the words
+     * @param id the id of the word
+     * @param keys receives the records
+     * @throws IOException if a run can not be written
+     */
+    private static void writeKeys(WordArena words, int id, ExternalSorter keys) throws IOException {
+        int length = words.length(id);
+        char[] word = new char[length];
+        for(int i = 0; i < length; i++) word[i] = words.charAt(id, i);
+        int width = words.isLatin1() ? 1 : 2;							//bytes per char, the same for every key
+
+        keys.add(record(DELETION, -1, word, width, -1, id, WHOLE));
+        for(int i = 0; i < length; i++) {
+            keys.add(record(REPLACEMENT, i, word, width, i, id, WHOLE));
+            if(i > 0 && word[i] == word[i-1]) continue;					//deleting either of a double letter is the same
+            keys.add(record(DELETION, -1, word, width, i, id, SHORTENED));
+        }
+    }
+
+    /**
+     * Builds a record: the key kind, the position for replacements, the word without one char, the id, the payload
+     * @param kind {@link #REPLACEMENT} or {@link #DELETION}
+     * @param position the position written into the key, -1 for none
+     * @param word the chars of the word
+     * @param width bytes written per char, 1 while every word is Latin-1 and 2 otherwise
+     * @param skip the index of the char left out, -1 for none
+     * @param id the id of the word
+     * @param payload {@link #WHOLE} or {@link #SHORTENED}
+     * @return the record
+     */
+    private static byte[] record(byte kind, int position, char[] word, int width, int skip, int id, byte payload) {
+        int keyLength = 1 + (position >= 0 ? 2 : 0) + width*(word.length - (skip >= 0 ? 1 : 0));
+        ByteBuffer record = ByteBuffer.allocate(2 + keyLength + PAYLOAD);
+        record.putShort((short) keyLength);								//equal keys have equal prefixes
+        record.put(kind);
+        if(position >= 0) record.putShort((short) position);
+        for(int i = 0; i < word.length; i++) {
+            if(i == skip) continue;
+            if(width == 1) record.put((byte) word[i]);
+            else record.putChar(word[i]);
+        }
+        record.putInt(id);
+        record.put(payload);
+        return record.array();
+    }
+
+    /**
+     * Writes the bytes of a buffer to a file
+     * @param channel the file
+     * @param out the buffer, cleared afterwards
+     * @throws IOException if writing fails
+     */
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while(out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    /**
+     * The records of one key, collected as they arrive in sorted order and paired up when the key changes
+     */
+    private static class KeyGroup {
+
+        /**
+         * Receives the edges
+         */
+        private final ExternalSorter edges;
+
+        /**
+         * The key of the records collected, null before the first
+         */
+        private byte[] key;
+
+        /**
+         * Ids of the records collected
+         */
+        private int[] ids = new int[16];
+
+        /**
+         * Payload of the records collected
+         */
+        private byte[] payloads = new byte[16];
+
+        /**
+         * Number of records collected
+         */
+        private int size;
+
+        /**
+         * Constructs an empty group
+         * @param edges receives the edges
+         */
+        private KeyGroup(ExternalSorter edges) {
+            this.edges = edges;
+        }
+
+        /**
+         * Adds the next record in key order, pairing up the previous group if the key changes
+         * @param record the record
+         * @throws IOException if an edge can not be written
+         */
+        private void add(byte[] record) throws IOException {
+            int keyEnd = record.length-PAYLOAD;
+            if(key == null || !Arrays.equals(key, 0, key.length, record, 0, keyEnd)) {
+                pair();
+                key = Arrays.copyOf(record, keyEnd);
+            }
+            if(size == ids.length) {
+                ids = Arrays.copyOf(ids, 2*size);
+                payloads = Arrays.copyOf(payloads, 2*size);
+            }
+            ByteBuffer payload = ByteBuffer.wrap(record, keyEnd, PAYLOAD);
+            ids[size] = payload.getInt();
+            payloads[size++] = payload.get();
+        }
+
+        /**
+         * Writes the edges of the group collected and empties it. Under a replacement key every pair of words is an
+         * edge; under a deletion key every shortened word is joined to the whole word, if there is one.
+         * @throws IOException if an edge can not be written
+         */
+        private void pair() throws IOException {
+            if(size > 1) {
+                boolean replacement = key[2] == REPLACEMENT;
+                for(int a = 0; a < size-1; a++) {
+                    for(int b = a+1; b < size; b++) {
+                        if(replacement || payloads[a] != payloads[b]) edge(ids[a], ids[b]);
+                    }
+                }
+            }
+            size = 0;
+        }
+
+        /**
+         * Writes one edge as a record ordering by the smaller id, then the larger
+         * @param id1 one word
+         * @param id2 the other word
+         * @throws IOException if a run can not be written
+         */
+        private void edge(int id1, int id2) throws IOException {
+            edges.add(ByteBuffer.allocate(8).putInt(Math.min(id1, id2)).putInt(Math.max(id1, id2)).array());
+        }
+    }
+}
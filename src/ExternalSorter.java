@@ -0,0 +1,347 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: ExternalSorter.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts more byte records than fit in memory, in the unsigned lexicographic order of their bytes.
+ *
+ * Records are collected in memory until they take up the memory budget, then sorted and written to a run file. When
+ * the records are read back, the runs are merged through a priority queue of their next records, each run read with
+ * its own FileChannel and a small buffer. If there are more runs than {@link #MAX_FAN_IN}, groups of runs are first
+ * merged into longer runs, so the number of open files and buffers stays bounded too. The heap used is about the
+ * budget plus one buffer per merged run, whatever the number of records.
+ *
+ * Run files are created in a given directory and deleted by {@link #close()}.
+ */
+public class ExternalSorter implements AutoCloseable {
+
+    /**
+     * Receives the records in order
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+
+        /**
+         * Receives one record
+         *
+         * @param record the record, which the consumer may keep
+         * @throws IOException if handling the record fails
+         */
+        public void accept(byte[] record) throws IOException;
+    }
+
+    /**
+     * The most runs merged at once
+     */
+    static final int MAX_FAN_IN = 64;
+
+    /**
+     * Bytes of the buffer of every run being written or read
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Estimated heap bytes of a record besides its bytes: the array header and the reference to it
+     */
+    private static final int RECORD_OVERHEAD = 24;
+
+    /**
+     * Directory of the run files
+     */
+    private final Path directory;
+
+    /**
+     * Heap bytes the records held in memory may take
+     */
+    private final long memoryBytes;
+
+    /**
+     * Records not yet written to a run
+     */
+    private final List<byte[]> buffer;
+
+    /**
+     * Estimated heap bytes of {@link #buffer}
+     */
+    private long buffered;
+
+    /**
+     * Run files written and not yet merged away
+     */
+    private final List<Path> runs;
+
+    /**
+     * Number of run files written in all, including merged ones
+     */
+    private int runsWritten;
+
+    /**
+     * Constructs an empty sorter
+     *
+     * @param directory the directory to write run files to
+     * @param memoryBytes heap bytes the records held in memory may take, at least 1
+     */
+    public ExternalSorter(Path directory, long memoryBytes) {
+        if(directory == null || memoryBytes < 1) throw new IllegalArgumentException();
+        this.directory = directory;
+        this.memoryBytes = memoryBytes;
+        this.buffer = new ArrayList<byte[]>();
+        this.runs = new ArrayList<Path>();
+    }
+
+    /**
+     * Adds a record, writing a run if the memory budget is used up
+     *
+     * @param record the record, which must not be changed afterwards
+     * @throws IOException if a run can not be written
+     */
+    public void add(byte[] record) throws IOException {
+        buffer.add(record);
+        buffered += record.length + RECORD_OVERHEAD;
+        if(buffered >= memoryBytes) spill();
+    }
+
+    /**
+     * Gets the number of run files written so far, including those made by merging
+     *
+     * @return number of runs
+     */
+    public int getRunCount() {
+        return runsWritten;
+    }
+
+    /**
+     * Passes every record added, in order. Equal records are all passed.
+     *
+     * @param consumer receives the records
+     * @throws IOException if a run can not be read or written, or the consumer fails
+     */
+    public void sorted(RecordConsumer consumer) throws IOException {
+        if(runs.isEmpty()) {												//everything fit in memory
+            buffer.sort(Arrays::compareUnsigned);
+            for(byte[] record : buffer) consumer.accept(record);
+            return;
+        }
+        if(!buffer.isEmpty()) spill();
+        while(runs.size() > MAX_FAN_IN) {
+            List<Path> group = new ArrayList<Path>(runs.subList(0, MAX_FAN_IN));
+            runs.subList(0, MAX_FAN_IN).clear();
+            try(RunWriter out = new RunWriter(newRun())) {
+                merge(group, out::write);
+            }
+            for(Path run : group) Files.deleteIfExists(run);
+        }
+        merge(runs, consumer);
+    }
+
+    /**
+     * Deletes the run files
+     *
+     * @throws IOException if a file can not be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        for(Path run : runs) Files.deleteIfExists(run);
+        runs.clear();
+        buffer.clear();
+    }
+
+    /**
+     * Sorts the records in memory and writes them to a new run
+     * @throws IOException if the run can not be written
+     */
+    private void spill() throws IOException {
+        buffer.sort(Arrays::compareUnsigned);
+        Path run = newRun();
+        try(RunWriter out = new RunWriter(run)) {
+            for(byte[] record : buffer) out.write(record);
+        }
+        buffer.clear();
+        buffered = 0;
+    }
+
+    /**
+     * Creates an empty run file and adds it to {@link #runs}
+     * @return the path of the run
+     * @throws IOException if the file can not be created
+     */
+    private Path newRun() throws IOException {
+        Path run = Files.createTempFile(directory, "run" + runsWritten++ + "-", ".bin");
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * Merges sorted runs
+     * @param group the runs
+     * @param consumer receives their records in order
+     * @throws IOException if a run can not be read or the consumer fails
+     */
+    private static void merge(List<Path> group, RecordConsumer consumer) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<RunReader>(Math.max(1, group.size()),
+            (a, b) -> Arrays.compareUnsigned(a.head, b.head));
+        try {
+            for(Path run : group) {
+                RunReader reader = new RunReader(run);
+                if(reader.advance()) heads.add(reader);
+                else reader.close();
+            }
+            while(!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                consumer.accept(reader.head);
+                if(reader.advance()) heads.add(reader);
+                else reader.close();
+            }
+        } finally {
+            for(RunReader reader : heads) reader.close();
+        }
+    }
+
+    /**
+     * Writes records to a run file, each as its length followed by its bytes
+     */
+    private static class RunWriter implements AutoCloseable {
+
+        /**
+         * The run file
+         */
+        private final FileChannel channel;
+
+        /**
+         * Records not yet written to the file
+         */
+        private final ByteBuffer out;
+
+        /**
+         * Opens a run file for writing
+         * @param run the file
+         * @throws IOException if it can not be opened
+         */
+        private RunWriter(Path run) throws IOException {
+            channel = FileChannel.open(run, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            out = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        /**
+         * Appends a record
+         * @param record the record
+         * @throws IOException if writing fails
+         */
+        private void write(byte[] record) throws IOException {
+            if(out.remaining() < 4) flush();
+            out.putInt(record.length);
+            for(int written = 0; written < record.length; ) {
+                if(!out.hasRemaining()) flush();
+                int count = Math.min(out.remaining(), record.length-written);
+                out.put(record, written, count);
+                written += count;
+            }
+        }
+
+        /**
+         * Writes the buffered bytes to the file
+         * @throws IOException if writing fails
+         */
+        private void flush() throws IOException {
+            out.flip();
+            while(out.hasRemaining()) channel.write(out);
+            out.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the records of a run file one at a time
+     */
+    private static class RunReader implements AutoCloseable {
+
+        /**
+         * The run file
+         */
+        private final FileChannel channel;
+
+        /**
+         * Bytes read from the file and not yet parsed
+         */
+        private final ByteBuffer in;
+
+        /**
+         * The current record
+         */
+        private byte[] head;
+
+        /**
+         * Opens a run file for reading
+         * @param run the file
+         * @throws IOException if it can not be opened
+         */
+        private RunReader(Path run) throws IOException {
+            channel = FileChannel.open(run, StandardOpenOption.READ);
+            in = ByteBuffer.allocate(BUFFER_SIZE);
+            in.flip();
+        }
+
+        /**
+         * Reads the next record into {@link #head}
+         * @return false at the end of the run
+         * @throws IOException if reading fails
+         */
+        private boolean advance() throws IOException {
+            if(!fill(4)) return false;
+            head = new byte[in.getInt()];
+            for(int read = 0; read < head.length; ) {
+                if(!fill(1)) throw new IOException("run file ends inside a record");
+                int count = Math.min(in.remaining(), head.length-read);
+                in.get(head, read, count);
+                read += count;
+            }
+            return true;
+        }
+
+        /**
+         * Makes sure the buffer holds some unparsed bytes
+         * @param bytes the number of bytes needed, at most the buffer size
+         * @return false if the file ends before
+         * @throws IOException if reading fails
+         */
+        private boolean fill(int bytes) throws IOException {
+            while(in.remaining() < bytes) {
+                in.compact();
+                int read = channel.read(in);
+                in.flip();
+                if(read < 0) {
+                    if(in.hasRemaining()) throw new IOException("run file ends inside a record");
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: FootprintReport.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Estimated heap bytes retained by every structure of a {@link GraphProcessor}, taken at one moment by
+ * {@link GraphProcessor#getFootprint()}, next to what every {@link PathStrategy} would take for the same graph
+ * {@link StrategySelection#estimate(PathStrategy, int, int, int)}.
+ *
+ * The bytes are counted from the sizes of the arrays, maps and lists the structures hold, as laid out by a 64 bit
+ * JVM with compressed references: 12 byte object headers, 16 byte array headers, 4 byte references and every
+ * object padded to 8 bytes. Objects shared between structures, such as the adjacency arrays an oracle searches,
+ * are counted once, under the structure that owns them. The search buffers of the engines are not counted: they
+ * are created on demand, up to the query concurrency {@link GraphProcessor#setQueryConcurrency(int)}, and
+ * {@link StrategySelection} estimates them.
+ *
+ * The static helpers are the units every getMemoryBytes method of the graph structures is written in.
+ */
+public final class FootprintReport {
+
+    /**
+     * The structures a report accounts for
+     */
+    public enum Structure {
+
+        /**
+         * The integer graph the precomputations are built from
+         */
+        WORD_GRAPH,
+
+        /**
+         * The words of the snapshot, in their arena
+         */
+        WORDS,
+
+        /**
+         * The edit distance index over the words
+         */
+        WORD_INDEX,
+
+        /**
+         * The adjacency arrays, or the compressed lists that replace them, and the edge weights of the snapshot
+         */
+        ADJACENCY,
+
+        /**
+         * The shortest path data of the strategy in use: the predecessor matrix or the distance oracle
+         */
+        PATH_DATA,
+
+        /**
+         * The cached query answers, with their keys
+         */
+        QUERY_CACHE
+    }
+
+    /**
+     * Bytes of an object header
+     */
+    public static final int OBJECT_HEADER = 12;
+
+    /**
+     * Bytes of the header of an array object
+     */
+    public static final int ARRAY_HEADER = 16;
+
+    /**
+     * Bytes of a reference
+     */
+    public static final int REFERENCE = 4;
+
+    /**
+     * Bytes of a HashMap object without its table
+     */
+    private static final int HASH_MAP = 48;
+
+    /**
+     * Bytes of a HashMap entry
+     */
+    private static final int HASH_NODE = 32;
+
+    /**
+     * Bytes of an ArrayList object without its array
+     */
+    private static final int ARRAY_LIST = 24;
+
+    /**
+     * Bytes of a String object without its array
+     */
+    private static final int STRING = 24;
+
+    /**
+     * The strategy the shortest path data was built with
+     */
+    private final PathStrategy strategy;
+
+    /**
+     * Number of words of the graph
+     */
+    private final int words;
+
+    /**
+     * Estimated bytes of every structure
+     */
+    private final Map<Structure, Long> bytes;
+
+    /**
+     * Estimated bytes of the shortest path data of every strategy
+     */
+    private final Map<PathStrategy, Long> strategies;
+
+    /**
+     * Constructs an empty report, filled in by the processor
+     * @param strategy the strategy the shortest path data was built with
+     * @param words number of words of the graph
+     */
+    FootprintReport(PathStrategy strategy, int words) {
+        this.strategy = strategy;
+        this.words = words;
+        this.bytes = new EnumMap<Structure, Long>(Structure.class);
+        this.strategies = new EnumMap<PathStrategy, Long>(PathStrategy.class);
+        for(Structure structure : Structure.values()) bytes.put(structure, 0L);
+    }
+
+    /**
+     * Records the bytes of a structure
+     * @param structure the structure
+     * @param retained its estimated bytes
+     */
+    void put(Structure structure, long retained) {
+        bytes.put(structure, retained);
+    }
+
+    /**
+     * Records the estimated shortest path data of a strategy
+     * @param candidate the strategy
+     * @param estimate its estimated bytes
+     */
+    void putEstimate(PathStrategy candidate, long estimate) {
+        strategies.put(candidate, estimate);
+    }
+
+    /**
+     * Gets the strategy the shortest path data was built with
+     *
+     * @return the strategy of {@link Structure#PATH_DATA}
+     */
+    public PathStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the number of words of the graph
+     *
+     * @return number of words
+     */
+    public int getWordCount() {
+        return words;
+    }
+
+    /**
+     * Gets the estimated bytes of one structure
+     *
+     * @param structure the structure
+     * @return bytes, 0 for a structure not in use
+     */
+    public long getBytes(Structure structure) {
+        return bytes.get(structure);
+    }
+
+    /**
+     * Gets the estimated bytes of all structures
+     *
+     * @return the sum over every structure
+     */
+    public long getTotalBytes() {
+        long total = 0;
+        for(long retained : bytes.values()) total += retained;
+        return total;
+    }
+
+    /**
+     * Gets the estimated bytes of the shortest path data a strategy would build for this graph, before it is built
+     *
+     * @param candidate the strategy
+     * @return the estimate of {@link StrategySelection#estimate(PathStrategy, int, int, int)} for one querying thread
+     */
+    public long getEstimate(PathStrategy candidate) {
+        return strategies.get(candidate);
+    }
+
+    /**
+     * Reports every structure and every strategy estimate
+     *
+     * @return one line per structure, then one per strategy, the one in use marked with "*"
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(getTotalBytes()).append(" bytes for ").append(words).append(" words");
+        for(Structure structure : Structure.values()) {
+            report.append(System.lineSeparator()).append("   ").append(structure).append(": ")
+                .append(bytes.get(structure)).append(" bytes");
+        }
+        for(PathStrategy candidate : PathStrategy.values()) {
+            report.append(System.lineSeparator()).append(candidate == strategy ? " * " : "   ").append(candidate)
+                .append(" would take ").append(strategies.get(candidate)).append(" bytes");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Pads a size to the 8 byte alignment of objects
+     *
+     * @param bytes the unpadded size
+     * @return the padded size
+     */
+    public static long align(long bytes) {
+        return (bytes+7) & ~7L;
+    }
+
+    /**
+     * Estimates the bytes of an array
+     *
+     * @param length number of elements
+     * @param elementBytes bytes of one element
+     * @return bytes of the array object
+     */
+    public static long array(long length, int elementBytes) {
+        return align(ARRAY_HEADER + length*elementBytes);
+    }
+
+    /**
+     * Estimates the bytes of an array of int arrays
+     *
+     * @param rows the arrays, null rows are skipped
+     * @return bytes of the outer and every inner array, 0 if rows is null
+     */
+    public static long arrays(int[][] rows) {
+        if(rows == null) return 0;
+        long total = array(rows.length, REFERENCE);
+        for(int[] row : rows) if(row != null) total += array(row.length, 4);
+        return total;
+    }
+
+    /**
+     * Estimates the bytes of an array of short arrays
+     *
+     * @param rows the arrays, null rows are skipped
+     * @return bytes of the outer and every inner array, 0 if rows is null
+     */
+    public static long arrays(short[][] rows) {
+        if(rows == null) return 0;
+        long total = array(rows.length, REFERENCE);
+        for(short[] row : rows) if(row != null) total += array(row.length, 2);
+        return total;
+    }
+
+    /**
+     * Estimates the bytes of a HashMap or the map inside a HashSet, without its keys and values
+     *
+     * @param size number of entries
+     * @return bytes of the map, its table and its entries
+     */
+    public static long hashMap(int size) {
+        if(size == 0) return HASH_MAP;
+        long capacity = 16;
+        while(capacity*3/4 < size) capacity <<= 1;							//doubled past the load factor
+        return HASH_MAP + array(capacity, REFERENCE) + (long) size*HASH_NODE;
+    }
+
+    /**
+     * Estimates the bytes of an ArrayList grown one element at a time, without its elements
+     *
+     * @param size number of elements
+     * @return bytes of the list and its array, whose capacity grows from 10 by half at a time
+     */
+    public static long arrayList(int size) {
+        if(size == 0) return ARRAY_LIST + array(0, REFERENCE);
+        long capacity = 10;
+        while(capacity < size) capacity += capacity >> 1;
+        return ARRAY_LIST + array(capacity, REFERENCE);
+    }
+
+    /**
+     * Estimates the bytes of a String of Latin-1 chars, one byte each
+     *
+     * @param length number of chars
+     * @return bytes of the String and its array
+     */
+    public static long string(int length) {
+        return STRING + array(length, 1);
+    }
+
+    /**
+     * Estimates the bytes of a String, whose chars take one byte each while all of them are Latin-1 and two otherwise
+     *
+     * @param word the String
+     * @return bytes of the String and its array
+     */
+    public static long string(CharSequence word) {
+        for(int i = 0; i < word.length(); i++) {
+            if(word.charAt(i) > 0xFF) return STRING + array(word.length(), 2);
+        }
+        return string(word.length());
+    }
+}
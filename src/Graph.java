@@ -200,4 +200,20 @@ public class Graph<E> implements GraphADT<E> {
         return vertices;
     }
 
+    /**
+     * Estimates the heap used by the vertex set and the adjacency lists, not counting the vertex objects themselves
+     * 
+     * @return estimated bytes {@link FootprintReport}
+     */
+    public long getMemoryBytes() {
+        long bytes = FootprintReport.OBJECT_HEADER + 2*FootprintReport.REFERENCE;
+        bytes += FootprintReport.align(FootprintReport.OBJECT_HEADER + FootprintReport.REFERENCE)
+            + FootprintReport.hashMap(vertices.size());		//a HashSet wraps a HashMap
+        bytes += FootprintReport.hashMap(edge.size());
+        for (ArrayList<E> adjList : edge.values()) {
+            bytes += FootprintReport.arrayList(adjList.size());
+        }
+        return bytes;
+    }
+
 }
@@ -0,0 +1,714 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: GraphAnalytics.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Computes distance statistics of a whole graph: the eccentricity of every vertex, the diameter, the radius and the
+ * distribution of shortest path lengths.
+ *
+ * None of these are computed by materializing all pairs of shortest paths. The graph is copied once into integer
+ * adjacency arrays and every statistic is found with breadth first searches that run in parallel, each thread reusing
+ * its own distance and queue arrays.
+ * @see #getDiameter()
+ *  - uses the iFUB (iterative Fringe Upper Bound) algorithm, which usually needs only a handful of searches.
+ * @see #getEccentricities()
+ *  - uses the bounding algorithm of Takes and Kosters: every search tightens lower and upper bounds on the
+ *    eccentricities of all other vertices, and only vertices whose bounds have not met are searched from.
+ * @see #getDistanceDistribution()
+ *  - needs one search per vertex, so it is the most expensive statistic; the searches are spread over all cores.
+ * @see #getHyperAnf(int, long)
+ *  - estimates the same distribution, and the neighborhood of every vertex, from HyperLogLog counters in one pass
+ *    over the edges per distance.
+ *
+ * Distances are only measured inside a connected component, so the eccentricity of a vertex is the distance to the
+ * farthest vertex it can reach and unreachable pairs are never counted.
+ *
+ * @param <E> type of a vertex
+ */
+public class GraphAnalytics<E> {
+
+    /**
+     * All vertices of the graph. The position of a vertex in this list is its id in {@link #adjacency}.
+     */
+    private final List<E> vertices;
+
+    /**
+     * Maps every vertex to its id
+     */
+    private final HashMap<E, Integer> ids;
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the vertex with id v
+     */
+    private final int[][] adjacency;
+
+    /**
+     * component[v] is the id of the connected component containing v
+     */
+    private final int[] component;
+
+    /**
+     * componentSize[c] is the number of vertices in the component with id c
+     */
+    private final int[] componentSize;
+
+    /**
+     * Per thread search buffers, so parallel searches do not allocate arrays of the graph size
+     */
+    private final ThreadLocal<Search> searches;
+
+    /**
+     * The exact eccentricity of every vertex, computed on the first call to {@link #getEccentricities()}
+     */
+    private int[] eccentricity;
+
+    /**
+     * Two vertices whose distance equals the diameter, found by {@link #getDiameter()}
+     */
+    private int[] diametralPair;
+
+    /**
+     * Builds the analytics over the current vertices and edges of graph. Later changes to the graph are not seen.
+     *
+     * @param graph the graph to analyse
+     */
+    public GraphAnalytics(GraphADT<E> graph) {
+        this(verticesOf(graph), graph);
+    }
+
+    /**
+     * Copies the edges of a graph into integer adjacency arrays
+     * @param vertices the vertices of the graph, in the order of their ids
+     * @param graph the graph
+     */
+    private GraphAnalytics(List<E> vertices, GraphADT<E> graph) {
+        this(vertices, adjacencyOf(vertices, graph));
+    }
+
+    /**
+     * Builds the analytics over a graph that is already in integer adjacency arrays, which are not copied
+     *
+     * @param vertices the vertices, the position of a vertex is its id
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     */
+    GraphAnalytics(List<E> vertices, int[][] adjacency) {
+        this.vertices = vertices;
+        this.adjacency = adjacency;
+        ids = new HashMap<E, Integer>();
+        for(int v = 0; v < vertices.size(); v++) ids.put(vertices.get(v), v);
+        searches = ThreadLocal.withInitial(() -> new Search(adjacency.length));
+
+        //label the connected components
+        component = new int[adjacency.length];
+        Arrays.fill(component, -1);
+        List<Integer> sizes = new ArrayList<Integer>();
+        Search search = searches.get();
+        for(int v = 0; v < adjacency.length; v++) {
+            if(component[v] != -1) continue;
+            search.run(v);
+            for(int i = 0; i < search.reached; i++) component[search.queue[i]] = sizes.size();
+            sizes.add(search.reached);
+            search.reset();
+        }
+        componentSize = new int[sizes.size()];
+        for(int c = 0; c < componentSize.length; c++) componentSize[c] = sizes.get(c);
+    }
+
+    /**
+     * Lists the vertices of a graph
+     * @param graph the graph
+     * @return its vertices, in the order the graph gives them
+     */
+    private static <E> List<E> verticesOf(GraphADT<E> graph) {
+        List<E> vertices = new ArrayList<E>();
+        for(E vertex : graph.getAllVertices()) vertices.add(vertex);
+        return vertices;
+    }
+
+    /**
+     * Gives every vertex of a graph an id and lists the ids of its neighbors
+     * @param vertices the vertices of the graph, in the order of their ids
+     * @param graph the graph
+     * @return adjacency[v] holds the ids of all neighbors of the vertex with id v
+     */
+    private static <E> int[][] adjacencyOf(List<E> vertices, GraphADT<E> graph) {
+        HashMap<E, Integer> ids = new HashMap<E, Integer>();
+        for(int v = 0; v < vertices.size(); v++) ids.put(vertices.get(v), v);
+        int[][] adjacency = new int[vertices.size()][];
+        for(int v = 0; v < adjacency.length; v++) {
+            int[] list = new int[8];
+            int size = 0;
+            for(E neighbor : graph.getNeighbors(vertices.get(v))) {
+                Integer id = ids.get(neighbor);
+                if(id == null) continue;
+                if(size == list.length) list = Arrays.copyOf(list, size*2);
+                list[size++] = id;
+            }
+            adjacency[v] = Arrays.copyOf(list, size);
+        }
+        return adjacency;
+    }
+
+    /**
+     * Gets the number of vertices that were analysed
+     *
+     * @return number of vertices
+     */
+    public int getVertexCount() {
+        return adjacency.length;
+    }
+
+    /**
+     * Gets the id of a vertex, its index in per-vertex results such as those of {@link #getHyperAnf(int, long)}
+     *
+     * @param vertex the vertex
+     * @return the id of vertex, -1 if it is not in the graph
+     */
+    public int getId(E vertex) {
+        Integer id = ids.get(vertex);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Gets the number of connected components of the graph
+     *
+     * @return number of connected components
+     */
+    public int getComponentCount() {
+        return componentSize.length;
+    }
+
+    /**
+     * Gets the eccentricity of a single vertex, which is the distance to the farthest vertex reachable from it.
+     *
+     * @param vertex the vertex
+     * @return the eccentricity of vertex, -1 if vertex is not in the graph
+     */
+    public int getEccentricity(E vertex) {
+        Integer id = ids.get(vertex);
+        if(id == null) return -1;
+        if(eccentricity != null) return eccentricity[id];
+        Search search = searches.get();
+        int ecc = search.run(id);
+        search.reset();
+        return ecc;
+    }
+
+    /**
+     * Gets the exact eccentricity of every vertex.
+     *
+     * Each round searches from a batch of unresolved vertices in parallel, alternating between the vertices with the
+     * largest upper bound and the smallest lower bound. A search from v with eccentricity e gives every vertex w of
+     * the same component the bounds max(d(v,w), e-d(v,w)) <= ecc(w) <= e+d(v,w). A vertex is resolved once its two
+     * bounds meet, which on word graphs happens for most vertices after a small number of searches.
+     *
+     * @return map from every vertex to its eccentricity, in the order the vertices were read from the graph
+     */
+    public Map<E, Integer> getEccentricities() {
+        int[] ecc = computeEccentricities();
+        Map<E, Integer> result = new LinkedHashMap<E, Integer>();
+        for(int v = 0; v < ecc.length; v++) result.put(vertices.get(v), ecc[v]);
+        return result;
+    }
+
+    /**
+     * Gets the diameter of the graph, the longest shortest path between any two connected vertices.
+     *
+     * Components are processed from largest to smallest and skipped once they are too small to beat the best
+     * diameter found so far. Within a component the iFUB algorithm searches from a high degree vertex u, and then from
+     * the vertices farthest from u one level (fringe) at a time. Two vertices within distance i of u are at most 2i
+     * apart, so once the largest eccentricity found so far is at least twice the distance of the next level, no vertex
+     * left can do better and the search stops.
+     *
+     * @return the diameter, 0 if the graph has no edges
+     */
+    public int getDiameter() {
+        if(eccentricity != null) {
+            int best = 0;
+            for(int e : eccentricity) best = Math.max(best, e);
+            return best;
+        }
+
+        Integer[] order = new Integer[componentSize.length];
+        for(int c = 0; c < order.length; c++) order[c] = c;
+        Arrays.sort(order, (a, b) -> Integer.compare(componentSize[b], componentSize[a]));
+
+        int best = 0;
+        int[] bestPair = null;
+        Search search = searches.get();
+        for(int c : order) {
+            if(componentSize[c]-1 <= best) break;		//a component of s vertices has diameter at most s-1
+
+            //start from the vertex of highest degree in the component
+            int u = -1;
+            for(int v = 0; v < adjacency.length; v++) {
+                if(component[v] == c && (u == -1 || adjacency[v].length > adjacency[u].length)) u = v;
+            }
+            int eccU = search.run(u);
+            int lower = eccU;
+            int[] pair = new int[] {u, search.farthest};
+
+            //group the vertices of the component by their distance from u
+            int[][] fringes = new int[eccU+1][];
+            int[] counts = new int[eccU+1];
+            for(int i = 0; i < search.reached; i++) counts[search.dist[search.queue[i]]]++;
+            for(int d = 0; d <= eccU; d++) fringes[d] = new int[counts[d]];
+            Arrays.fill(counts, 0);
+            for(int i = 0; i < search.reached; i++) {
+                int w = search.queue[i];
+                int d = search.dist[w];
+                fringes[d][counts[d]++] = w;
+            }
+            search.reset();
+
+            for(int level = eccU; level > 0 && lower < 2*level; level--) {
+                int[] fringeBest = farthestFrom(fringes[level]);
+                if(fringeBest[0] > lower) {
+                    lower = fringeBest[0];
+                    pair = new int[] {fringeBest[1], fringeBest[2]};
+                }
+            }
+            if(lower > best) {
+                best = lower;
+                bestPair = pair;
+            }
+        }
+        diametralPair = bestPair;
+        return best;
+    }
+
+    /**
+     * Gets two vertices whose shortest path is as long as the diameter of the graph
+     *
+     * @return list with the two end points of a longest shortest path, empty if the graph has no edges
+     */
+    public List<E> getDiametralPair() {
+        if(diametralPair == null) getDiameter();
+        List<E> pair = new ArrayList<E>();
+        if(diametralPair == null) {
+            //getDiameter answered from the cached eccentricities, search again from a vertex that attains it
+            int[] ecc = computeEccentricities();
+            int u = 0;
+            for(int v = 0; v < ecc.length; v++) if(ecc[v] > ecc[u]) u = v;
+            if(ecc.length == 0 || ecc[u] == 0) return pair;
+            Search search = searches.get();
+            search.run(u);
+            diametralPair = new int[] {u, search.farthest};
+            search.reset();
+        }
+        pair.add(vertices.get(diametralPair[0]));
+        pair.add(vertices.get(diametralPair[1]));
+        return pair;
+    }
+
+    /**
+     * Gets a longest shortest path of every connected component, found from the exact eccentricities
+     * {@link #getEccentricities()}: a vertex of the largest eccentricity in the component and a vertex farthest
+     * from it.
+     *
+     * @return the two end points of a longest shortest path of every component with an edge, largest components first
+     */
+    public List<List<E>> getComponentDiametralPairs() {
+        int[] ecc = computeEccentricities();
+        int[] peripheral = new int[componentSize.length];
+        Arrays.fill(peripheral, -1);
+        for(int v = 0; v < ecc.length; v++) {
+            int c = component[v];
+            if(peripheral[c] == -1 || ecc[v] > ecc[peripheral[c]]) peripheral[c] = v;
+        }
+        Integer[] order = new Integer[componentSize.length];
+        for(int c = 0; c < order.length; c++) order[c] = c;
+        Arrays.sort(order, (a, b) -> Integer.compare(componentSize[b], componentSize[a]));
+
+        List<List<E>> pairs = new ArrayList<List<E>>();
+        Search search = searches.get();
+        for(int c : order) {
+            int u = peripheral[c];
+            if(ecc[u] == 0) continue;								//a single word
+            search.run(u);
+            List<E> pair = new ArrayList<E>(2);
+            pair.add(vertices.get(u));
+            pair.add(vertices.get(search.farthest));
+            search.reset();
+            pairs.add(pair);
+        }
+        return pairs;
+    }
+
+    /**
+     * Gets the radius of the largest connected component, the smallest eccentricity of any of its vertices.
+     * The radius of the whole graph is not used because every isolated word would make it 0.
+     *
+     * @return the radius of the largest component, 0 if the graph is empty
+     */
+    public int getRadius() {
+        if(componentSize.length == 0) return 0;
+        int largest = 0;
+        for(int c = 1; c < componentSize.length; c++) {
+            if(componentSize[c] > componentSize[largest]) largest = c;
+        }
+        int[] ecc = computeEccentricities();
+        int radius = Integer.MAX_VALUE;
+        for(int v = 0; v < ecc.length; v++) {
+            if(component[v] == largest) radius = Math.min(radius, ecc[v]);
+        }
+        return radius;
+    }
+
+    /**
+     * Gets the number of unordered pairs of vertices at every distance.
+     *
+     * One search runs from every vertex, spread over all cores. Each worker adds into its own histogram and the
+     * histograms are summed at the end, so the only shared state is the read-only adjacency.
+     *
+     * @return array where index d holds the number of pairs at distance d (index 0 is always 0)
+     */
+    public long[] getDistanceDistribution() {
+        long[] ordered = IntStream.range(0, adjacency.length).parallel().collect(() -> new long[1][1],
+            (histogram, source) -> {
+                Search search = searches.get();
+                search.run(source);
+                for(int i = 1; i < search.reached; i++) {
+                    int d = search.dist[search.queue[i]];
+                    if(d >= histogram[0].length) histogram[0] = Arrays.copyOf(histogram[0], Math.max(d+1, 2*histogram[0].length));
+                    histogram[0][d]++;
+                }
+                search.reset();
+            },
+            (a, b) -> {
+                if(b[0].length > a[0].length) {
+                    long[] temp = a[0];
+                    a[0] = b[0];
+                    b[0] = temp;
+                }
+                for(int d = 0; d < b[0].length; d++) a[0][d] += b[0][d];
+            })[0];
+
+        int length = ordered.length;
+        while(length > 1 && ordered[length-1] == 0) length--;
+        long[] pairs = new long[length];
+        for(int d = 1; d < length; d++) pairs[d] = ordered[d]/2;	//every pair was counted from both ends
+        return pairs;
+    }
+
+    /**
+     * Estimates the neighborhood function with HyperLogLog counters {@link HyperAnf}: the number of vertices within
+     * every distance of every vertex, the distribution of distances and the effective diameter. It takes one pass
+     * over the edges per distance instead of one search per vertex, so it suits graphs too large for
+     * {@link #getDistanceDistribution()}.
+     *
+     * @param log2m base two logarithm of the registers per counter, from 4 to 16; 7 gives about 9% error per vertex
+     * @param seed seed of the hash of the counters
+     * @return the estimates, indexed by the ids of {@link #getId(Object)}
+     */
+    public HyperAnf getHyperAnf(int log2m, long seed) {
+        return new HyperAnf(adjacency, log2m, seed);
+    }
+
+    /**
+     * Computes the exact eccentricity of every vertex with the bounding algorithm, caching the result
+     *
+     * @return eccentricity of every vertex id
+     */
+    private synchronized int[] computeEccentricities() {
+        if(eccentricity != null) return eccentricity;
+        int n = adjacency.length;
+        int[] lower = new int[n];
+        int[] upper = new int[n];
+        for(int v = 0; v < n; v++) upper[v] = componentSize[component[v]]-1;
+        boolean[] resolved = new boolean[n];
+        int unresolved = n;
+        for(int v = 0; v < n; v++) {
+            if(upper[v] == 0) {										//isolated vertex
+                resolved[v] = true;
+                unresolved--;
+            }
+        }
+
+        int batch = Math.max(2, Runtime.getRuntime().availableProcessors());
+        boolean pickUpper = true;
+        while(unresolved > 0) {
+            //select a batch of unresolved vertices, alternating the two selection rules
+            int[] sources = new int[Math.min(batch, unresolved)];
+            boolean[] chosen = new boolean[n];
+            for(int k = 0; k < sources.length; k++) {
+                int pick = -1;
+                for(int v = 0; v < n; v++) {
+                    if(resolved[v] || chosen[v]) continue;
+                    if(pick == -1) pick = v;
+                    else if(pickUpper ? upper[v] > upper[pick] || (upper[v] == upper[pick] && adjacency[v].length > adjacency[pick].length)
+                                      : lower[v] < lower[pick] || (lower[v] == lower[pick] && adjacency[v].length > adjacency[pick].length)) pick = v;
+                }
+                chosen[pick] = true;
+                sources[k] = pick;
+                pickUpper = !pickUpper;
+            }
+
+            //search from the whole batch in parallel, keeping a copy of every distance row
+            int[][] rows = new int[sources.length][];
+            int[] ecc = new int[sources.length];
+            IntStream.range(0, sources.length).parallel().forEach(k -> {
+                Search search = searches.get();
+                ecc[k] = search.run(sources[k]);
+                rows[k] = search.dist.clone();
+                search.reset();
+            });
+
+            //tighten the bounds of every vertex, each vertex is only written by one thread
+            for(int k = 0; k < sources.length; k++) {
+                int v = sources[k];
+                lower[v] = upper[v] = ecc[k];
+            }
+            IntStream.range(0, n).parallel().forEach(w -> {
+                if(resolved[w]) return;
+                for(int k = 0; k < rows.length; k++) {
+                    int d = rows[k][w];
+                    if(d < 0) continue;								//different component
+                    lower[w] = Math.max(lower[w], Math.max(d, ecc[k]-d));
+                    upper[w] = Math.min(upper[w], ecc[k]+d);
+                }
+            });
+            for(int w = 0; w < n; w++) {
+                if(!resolved[w] && lower[w] == upper[w]) {
+                    resolved[w] = true;
+                    unresolved--;
+                }
+            }
+        }
+        eccentricity = lower;
+        return eccentricity;
+    }
+
+    /**
+     * Searches from every vertex of a fringe in parallel and finds the largest eccentricity among them
+     *
+     * @param fringe the vertex ids to search from
+     * @return array of {largest eccentricity, vertex attaining it, vertex at that distance from it}
+     */
+    private int[] farthestFrom(int[] fringe) {
+        return IntStream.range(0, fringe.length).parallel().mapToObj(i -> {
+            Search search = searches.get();
+            int e = search.run(fringe[i]);
+            int[] result = new int[] {e, fringe[i], search.farthest};
+            search.reset();
+            return result;
+        }).reduce(new int[] {-1, -1, -1}, (a, b) -> a[0] >= b[0] ? a : b);
+    }
+
+    /**
+     * Gets the exact betweenness centrality of every vertex: the number of shortest paths between other pairs of
+     * vertices that pass through it, where a pair joined by several shortest paths gives each path an equal share.
+     *
+     * Uses Brandes' algorithm, one breadth first search per vertex followed by a pass that accumulates the
+     * dependencies of the source on every vertex in reverse order of distance. The searches run in parallel over
+     * all cores; every worker adds into its own array of scores and the arrays are summed at the end.
+     *
+     * @return map from every vertex to its betweenness, in the order the vertices were read from the graph
+     */
+    public Map<E, Double> getBetweenness() {
+        return toMap(betweenness(IntStream.range(0, adjacency.length).toArray(), 1));
+    }
+
+    /**
+     * Estimates the betweenness centrality of every vertex from a random sample of sources. Each score is the sum
+     * over the sampled sources scaled by the number of vertices over the number of samples, which is an unbiased
+     * estimate of {@link #getBetweenness()}; the hubs stand out after a few hundred samples.
+     *
+     * @param samples number of sources to search from, all vertices if at least the vertex count
+     * @param seed seed of the sample
+     * @return map from every vertex to its estimated betweenness, in the order the vertices were read from the graph
+     */
+    public Map<E, Double> getBetweenness(int samples, long seed) {
+        if(samples < 1) throw new IllegalArgumentException();
+        int n = adjacency.length;
+        if(samples >= n) return getBetweenness();
+        int[] sources = IntStream.range(0, n).toArray();
+        Random random = new Random(seed);
+        for(int i = 0; i < samples; i++) {								//the first samples of a shuffle
+            int j = i+random.nextInt(n-i);
+            int temp = sources[i];
+            sources[i] = sources[j];
+            sources[j] = temp;
+        }
+        return toMap(betweenness(Arrays.copyOf(sources, samples), (double) n/samples));
+    }
+
+    /**
+     * Gets the vertices with the highest betweenness, the hubs that carry the most shortest paths
+     *
+     * @param k the number of vertices to report
+     * @param samples number of sources to estimate from {@link #getBetweenness(int, long)}, 0 for the exact scores
+     * @param seed seed of the sample
+     * @return map from the k vertices with the highest betweenness to their scores, highest first
+     */
+    public Map<E, Double> getTopBetweenness(int k, int samples, long seed) {
+        Map<E, Double> scores = samples == 0 ? getBetweenness() : getBetweenness(samples, seed);
+        List<Map.Entry<E, Double>> entries = new ArrayList<Map.Entry<E, Double>>(scores.entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        Map<E, Double> top = new LinkedHashMap<E, Double>();
+        for(Map.Entry<E, Double> entry : entries.subList(0, Math.min(k, entries.size()))) {
+            top.put(entry.getKey(), entry.getValue());
+        }
+        return top;
+    }
+
+    /**
+     * Sums the dependencies of the sources on every vertex
+     *
+     * @param sources the vertices to search from
+     * @param scale factor applied to every sum
+     * @return betweenness of every vertex id
+     */
+    private double[] betweenness(int[] sources, double scale) {
+        int n = adjacency.length;
+        double[] sum = IntStream.of(sources).parallel().collect(() -> new double[n],
+            (scores, source) -> {
+                Search search = searches.get();
+                search.run(source);
+                search.accumulateDependencies(scores);
+                search.reset();
+            },
+            (a, b) -> {
+                for(int v = 0; v < n; v++) a[v] += b[v];
+            });
+        for(int v = 0; v < n; v++) sum[v] *= scale/2;						//every pair was counted from both ends
+        return sum;
+    }
+
+    /**
+     * Maps scores to vertices
+     *
+     * @param scores the score of every vertex id
+     * @return map from every vertex to its score, in the order of the ids
+     */
+    private Map<E, Double> toMap(double[] scores) {
+        Map<E, Double> result = new LinkedHashMap<E, Double>();
+        for(int v = 0; v < scores.length; v++) result.put(vertices.get(v), scores[v]);
+        return result;
+    }
+
+    /**
+     * Breadth first search buffers over {@link #adjacency}. After a search, queue[0..reached) holds the reached
+     * vertices in the order they were found and dist holds their distances; every other entry of dist is -1.
+     */
+    private class Search {
+
+        /**
+         * Distance of every vertex from the last source, -1 if not reached
+         */
+        private final int[] dist;
+
+        /**
+         * The reached vertices in order of discovery
+         */
+        private final int[] queue;
+
+        /**
+         * Number of vertices reached by the last search
+         */
+        private int reached;
+
+        /**
+         * The last vertex found by the last search, which is as far from the source as any vertex
+         */
+        private int farthest;
+
+        /**
+         * Number of shortest paths from the source to every vertex, allocated by the first betweenness search
+         */
+        private double[] sigma;
+
+        /**
+         * Dependency of the source on every vertex, allocated by the first betweenness search
+         */
+        private double[] delta;
+
+        /**
+         * Creates buffers for a graph of n vertices
+         * @param n number of vertices
+         */
+        private Search(int n) {
+            dist = new int[n];
+            queue = new int[n];
+            Arrays.fill(dist, -1);
+        }
+
+        /**
+         * Runs a breadth first search. {@link #reset()} must be called before the next search.
+         *
+         * @param source the id of the vertex to search from
+         * @return the eccentricity of source
+         */
+        private int run(int source) {
+            dist[source] = 0;
+            queue[0] = source;
+            int head = 0;
+            int tail = 1;
+            while(head < tail) {
+                int v = queue[head++];
+                int next = dist[v]+1;
+                for(int w : adjacency[v]) {
+                    if(dist[w] == -1) {
+                        dist[w] = next;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            reached = tail;
+            farthest = queue[tail-1];
+            return dist[farthest];
+        }
+
+        /**
+         * Adds the dependencies of the source of the last search on every other vertex (Brandes). Counts the
+         * shortest paths to every vertex in order of discovery, then passes the dependencies back from the farthest
+         * vertices to their predecessors, the neighbors one step closer to the source.
+         *
+         * @param scores receives the dependency of the source on every vertex
+         */
+        private void accumulateDependencies(double[] scores) {
+            if(sigma == null) {
+                sigma = new double[dist.length];
+                delta = new double[dist.length];
+            }
+            int source = queue[0];
+            sigma[source] = 1;
+            for(int i = 1; i < reached; i++) {
+                int v = queue[i];
+                double paths = 0;
+                for(int u : adjacency[v]) if(dist[u] == dist[v]-1) paths += sigma[u];
+                sigma[v] = paths;
+            }
+            for(int i = reached-1; i > 0; i--) {
+                int w = queue[i];
+                double share = (1+delta[w])/sigma[w];
+                for(int v : adjacency[w]) if(dist[v] == dist[w]-1) delta[v] += sigma[v]*share;
+                scores[w] += delta[w];
+            }
+            for(int i = 0; i < reached; i++) {
+                sigma[queue[i]] = 0;
+                delta[queue[i]] = 0;
+            }
+        }
+
+        /**
+         * Clears the distances written by the last search
+         */
+        private void reset() {
+            for(int i = 0; i < reached; i++) dist[queue[i]] = -1;
+            reached = 0;
+        }
+    }
+}
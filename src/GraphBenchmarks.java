@@ -0,0 +1,370 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: GraphBenchmarks.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks of the graph structures over a dictionary file, run from the command line as
+ * GraphBenchmarks name [dictionary [arguments]]. The dictionary defaults to word_list.txt; the arguments that follow
+ * it are read by the benchmark.
+ *  - labels: builds the pruned landmark labels and reports their size and build time next to the full distance
+ *    matrix of {@link MultiSourceBFS}
+ *  - astar [pairs]: compares the words expanded by {@link AStarSearch} and by breadth first search over random pairs,
+ *    1000 by default
+ *  - combos output distance|longest [perLength minLength maxLength seed]: writes the word pairs {@link ComboMiner}
+ *    finds at a distance, or the pairs at the largest distance of every length, to the output file
+ *  - bfs [sources]: times a search from every word, or from the first sources words, with {@link DijkstraSearch}, a
+ *    top-down breadth first search and {@link DirectionOptimizingBFS}; every search runs twice and the second, warmed
+ *    up run is reported
+ *  - orderings [strategy queries]: times the precomputation of a path strategy, {@link PathStrategy#ALL_PAIRS_DIJKSTRA}
+ *    by default, and random queries, 100000 by default, under every {@link VertexOrdering}
+ *  - compression [sources]: reports the bytes per edge of {@link CompressedIntGraph} in file order and in reverse
+ *    Cuthill-McKee order, and its breadth first search throughput next to int adjacency arrays
+ *  - analytics: prints the diameter, the radius, the distance distribution next to its {@link HyperAnf} estimate and
+ *    the words of highest betweenness {@link GraphAnalytics}
+ */
+public class GraphBenchmarks {
+
+    /**
+     * Runs one benchmark
+     *
+     * @param args the name of the benchmark, then optionally the path of the dictionary file and its arguments
+     * @throws IOException if a file can not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.out.println("usage: GraphBenchmarks labels|astar|combos|bfs|orderings|compression|analytics"
+                + " [dictionary [arguments]]");
+            return;
+        }
+        String filepath = args.length > 1 ? args[1] : "word_list.txt";
+        String[] rest = args.length > 2 ? Arrays.copyOfRange(args, 2, args.length) : new String[0];
+        switch(args[0]) {
+            case "labels":
+                labels(filepath);
+                break;
+            case "astar":
+                aStar(filepath, rest.length > 0 ? Integer.parseInt(rest[0]) : 1000);
+                break;
+            case "combos":
+                combos(filepath, rest);
+                break;
+            case "bfs":
+                bfs(filepath, rest.length > 0 ? Integer.parseInt(rest[0]) : Integer.MAX_VALUE);
+                break;
+            case "orderings":
+                orderings(filepath, rest.length > 0 ? PathStrategy.valueOf(rest[0]) : PathStrategy.ALL_PAIRS_DIJKSTRA,
+                    rest.length > 1 ? Integer.parseInt(rest[1]) : 100000);
+                break;
+            case "compression":
+                compression(filepath, rest.length > 0 ? Integer.parseInt(rest[0]) : Integer.MAX_VALUE);
+                break;
+            case "analytics":
+                analytics(filepath);
+                break;
+            default:
+                System.out.println("unknown benchmark " + args[0]);
+        }
+    }
+
+    /**
+     * Loads a dictionary file into a new processor
+     *
+     * @param filepath the path of the dictionary file
+     * @param strategy the path strategy to precompute, {@link PathStrategy#A_STAR_SEARCH} when only the graph is
+     *                 needed since it precomputes nothing
+     * @param ordering the numbering of the words
+     * @param byLength whether to number shorter words first
+     * @return the processor
+     * @throws IOException if the dictionary can not be read
+     */
+    private static GraphProcessor load(String filepath, PathStrategy strategy, VertexOrdering ordering,
+            boolean byLength) throws IOException {
+        GraphProcessor processor = new GraphProcessor();
+        processor.setPathStrategy(strategy);
+        processor.setVertexOrdering(ordering, byLength);
+        if(processor.populateGraph(filepath) < 0) throw new IOException("could not load " + filepath);
+        return processor;
+    }
+
+    /**
+     * Builds the pruned landmark labels of a dictionary and reports their size and build time next to the full
+     * distance matrix of {@link MultiSourceBFS}
+     *
+     * @param filepath the path of the dictionary file
+     * @throws IOException if the dictionary can not be read
+     */
+    private static void labels(String filepath) throws IOException {
+        GraphProcessor processor = load(filepath, PathStrategy.PRUNED_LANDMARK_LABELS, VertexOrdering.FILE, false);
+        PrunedLandmarkLabeling labels = (PrunedLandmarkLabeling) processor.getDistanceOracle();
+        System.out.println("pruned landmark labels: " + labels.getBuildTimeMillis() + " ms, "
+            + labels.getIndexSizeBytes() + " bytes, " + String.format("%.1f", labels.getAverageLabelSize())
+            + " entries per label");
+
+        long start = System.nanoTime();
+        processor.setPathStrategy(PathStrategy.MULTI_SOURCE_BFS);
+        processor.shortestPathPrecomputation();
+        long words = processor.getSnapshot().getWordCount();
+        System.out.println("all-pairs distance matrix: " + (System.nanoTime()-start)/1000000 + " ms, "
+            + (words*words*2 + words*16) + " bytes");
+    }
+
+    /**
+     * Compares the words expanded by {@link AStarSearch} and by breadth first search over random pairs of a
+     * dictionary
+     *
+     * @param filepath the path of the dictionary file
+     * @param pairs number of pairs
+     * @throws IOException if the dictionary can not be read
+     */
+    private static void aStar(String filepath, int pairs) throws IOException {
+        GraphProcessor processor = load(filepath, PathStrategy.A_STAR_SEARCH, VertexOrdering.FILE, false);
+        AStarSearch search = (AStarSearch) processor.getDistanceOracle();
+        int words = processor.getSnapshot().getWordCount();
+
+        Random random = new Random(67);
+        long aStar = 0, bfs = 0, evaluations = 0, connected = 0, aStarNanos = 0;
+        for(int i = 0; i < pairs; i++) {
+            int s = random.nextInt(words);
+            int t = random.nextInt(words);
+            long start = System.nanoTime();
+            int distance = search.getDistance(s, t);
+            aStarNanos += System.nanoTime()-start;
+            if(distance < 0) continue;
+            connected++;
+            aStar += search.getLastExpandedCount();
+            evaluations += search.getLastHeuristicCount();
+            bfs += search.countBreadthFirstExpanded(s, t);
+        }
+        System.out.println(connected + " connected pairs out of " + pairs);
+        System.out.println("expanded by A*: " + aStar + " (" + evaluations + " distance bounds), by BFS: " + bfs
+            + String.format(" (%.1f%%)", bfs == 0 ? 0 : 100.0*aStar/bfs));
+        System.out.println("average A* query: " + aStarNanos/Math.max(1, pairs)/1000 + " us");
+    }
+
+    /**
+     * Mines the word pairs of a dictionary at a distance and writes them to a file
+     *
+     * @param filepath the path of the dictionary file
+     * @param args the output file, the distance or "longest", then optionally the pairs per length (0 for all), the
+     *             shortest and longest first word and the seed
+     * @throws IOException if a file can not be read or written
+     */
+    private static void combos(String filepath, String[] args) throws IOException {
+        if(args.length < 2) {
+            System.out.println("usage: GraphBenchmarks combos dictionary output distance|longest"
+                + " [perLength minLength maxLength seed]");
+            return;
+        }
+        GraphProcessor processor = load(filepath, PathStrategy.A_STAR_SEARCH, VertexOrdering.FILE, false);
+        ComboMiner miner = processor.getComboMiner();
+        long start = System.nanoTime();
+        long count;
+        try(Writer out = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            if(args[1].equalsIgnoreCase("longest")) {
+                count = miner.mineLongest(2, out);
+            } else {
+                count = miner.mine(Integer.parseInt(args[1]), args.length > 3 ? Integer.parseInt(args[3]) : 1,
+                    args.length > 4 ? Integer.parseInt(args[4]) : Integer.MAX_VALUE,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 100, args.length > 5 ? Long.parseLong(args[5]) : 67,
+                    out);
+            }
+        }
+        System.out.println(count + " pairs written to " + args[0] + " in " + (System.nanoTime()-start)/1000000 + " ms");
+    }
+
+    /**
+     * Times a search from every word of a dictionary, top-down only and direction-optimizing, next to
+     * {@link DijkstraSearch}. Every search runs twice and the second, warmed up run is reported.
+     *
+     * @param filepath the path of the dictionary file
+     * @param sources number of sources, the first words of the dictionary
+     * @throws IOException if the dictionary can not be read
+     */
+    private static void bfs(String filepath, int sources) throws IOException {
+        GraphProcessor processor = load(filepath, PathStrategy.A_STAR_SEARCH, VertexOrdering.FILE, false);
+        int[][] adjacency = processor.getSnapshot().getAdjacency();
+        int n = adjacency.length;
+        sources = Math.min(n, sources);
+        int[] dist = new int[n], parent = new int[n];
+
+        DijkstraSearch dijkstra = new DijkstraSearch(adjacency, null);
+        long elapsed = 0;
+        for(int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for(int s = 0; s < sources; s++) dijkstra.singleSource(s, dist, parent);
+            elapsed = System.nanoTime()-start;
+        }
+        System.out.println("dijkstra: " + elapsed/1000000 + " ms");
+
+        for(int alpha : new int[] {0, DirectionOptimizingBFS.ALPHA}) {
+            DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(adjacency, alpha, DirectionOptimizingBFS.BETA);
+            long examined = 0, bottomUp = 0;
+            for(int round = 0; round < 2; round++) {
+                examined = 0;
+                bottomUp = 0;
+                long start = System.nanoTime();
+                for(int s = 0; s < sources; s++) {
+                    bfs.singleSource(s, dist, parent);
+                    examined += bfs.getLastEdgesExamined();
+                    bottomUp += bfs.getLastBottomUpSteps();
+                }
+                elapsed = System.nanoTime()-start;
+            }
+            System.out.println((alpha == 0 ? "top-down bfs: " : "direction-optimizing bfs: ") + elapsed/1000000
+                + " ms, " + examined + " edges examined, " + bottomUp + " bottom-up steps");
+        }
+    }
+
+    /**
+     * Times the precomputation and random queries of a dictionary under every ordering
+     *
+     * @param filepath the path of the dictionary file
+     * @param strategy the path strategy
+     * @param queries number of queries
+     * @throws IOException if the dictionary can not be read
+     */
+    private static void orderings(String filepath, PathStrategy strategy, int queries) throws IOException {
+        List<String> words = null;
+        String[][] pairs = null;
+        for(int round = 0; round < 2; round++) {								//the first round warms up
+            for(VertexOrdering ordering : VertexOrdering.values()) {
+                for(boolean byLength : new boolean[] {false, true}) {
+                    if(ordering == VertexOrdering.FILE && byLength) continue;
+                    GraphProcessor processor = load(filepath, strategy, ordering, byLength);
+                    GraphSnapshot snapshot = processor.getSnapshot();
+                    if(pairs == null) {											//the same queries for every ordering
+                        words = new ArrayList<String>();
+                        for(int v = 0; v < snapshot.getWordCount(); v++) words.add(snapshot.getWord(v));
+                        Collections.sort(words);
+                        Random random = new Random(67);
+                        pairs = new String[queries][];
+                        for(int i = 0; i < queries; i++) {
+                            pairs[i] = new String[] {words.get(random.nextInt(words.size())),
+                                words.get(random.nextInt(words.size()))};
+                        }
+                    }
+                    long start = System.nanoTime();
+                    processor.shortestPathPrecomputation();
+                    long precomputation = System.nanoTime()-start;
+                    start = System.nanoTime();
+                    long total = 0;
+                    for(String[] pair : pairs) total += processor.getShortestDistance(pair[0], pair[1]);
+                    long answered = System.nanoTime()-start;
+                    if(round == 0) continue;
+                    System.out.println(String.format("%-21s %-9s gap %8.1f, precomputation %6d ms, %d queries %6d ms"
+                        + " (checksum %d)", ordering, byLength ? "by length" : "",
+                        VertexReordering.averageGap(snapshot.getAdjacency()), precomputation/1000000, queries,
+                        answered/1000000, total));
+                }
+            }
+        }
+    }
+
+    /**
+     * Compresses a dictionary in file order and in reverse Cuthill-McKee order, and reports the bytes per edge and
+     * the breadth first search throughput of the compressed lists next to int adjacency arrays
+     *
+     * @param filepath the path of the dictionary file
+     * @param sources number of sources, the first words of the dictionary
+     * @throws IOException if the dictionary can not be read
+     */
+    private static void compression(String filepath, int sources) throws IOException {
+        VertexOrdering[] orderings = {VertexOrdering.FILE, VertexOrdering.REVERSE_CUTHILL_MCKEE};
+        for(VertexOrdering ordering : orderings) {
+            GraphProcessor processor = load(filepath, PathStrategy.A_STAR_SEARCH, ordering, false);
+            int[][] adjacency = processor.getSnapshot().getAdjacency();
+            CompressedIntGraph compressed = new CompressedIntGraph(adjacency);
+            long ends = 2L*compressed.size();
+            System.out.println(String.format("%s: %d words, %d edges, compressed %.2f bytes per edge end (%d bytes,"
+                + " lists alone %.2f), int arrays %.2f (%d bytes)", ordering, compressed.order(), compressed.size(),
+                (double) compressed.getMemoryBytes()/Math.max(1, ends), compressed.getMemoryBytes(),
+                (double) compressed.getEncodedBytes()/Math.max(1, ends),
+                (double) compressed.getUncompressedBytes()/Math.max(1, ends), compressed.getUncompressedBytes()));
+
+            int n = adjacency.length;
+            int searched = Math.min(n, sources);
+            int[] dist = new int[n], queue = new int[n];
+            long arrayTime = 0, compressedTime = 0, visited = 0;
+            for(int round = 0; round < 2; round++) {							//the first round warms up
+                visited = 0;
+                long start = System.nanoTime();
+                for(int s = 0; s < searched; s++) {
+                    Arrays.fill(dist, -1);
+                    dist[s] = 0;
+                    queue[0] = s;
+                    int tail = 1;
+                    for(int head = 0; head < tail; head++) {
+                        int v = queue[head];
+                        visited += adjacency[v].length;
+                        for(int w : adjacency[v]) {
+                            if(dist[w] == -1) {
+                                dist[w] = dist[v]+1;
+                                queue[tail++] = w;
+                            }
+                        }
+                    }
+                }
+                arrayTime = System.nanoTime()-start;
+                start = System.nanoTime();
+                for(int s = 0; s < searched; s++) compressed.breadthFirst(s, dist);
+                compressedTime = System.nanoTime()-start;
+            }
+            System.out.println(String.format("  bfs from %d sources: int arrays %d ms (%.0f M edges/s),"
+                + " compressed %d ms (%.0f M edges/s)", searched, arrayTime/1000000,
+                visited*1000.0/Math.max(1, arrayTime), compressedTime/1000000,
+                visited*1000.0/Math.max(1, compressedTime)));
+        }
+    }
+
+    /**
+     * Computes the analytics of a dictionary and prints them
+     *
+     * @param filepath the path of the dictionary file
+     * @throws IOException if the dictionary can not be read
+     */
+    private static void analytics(String filepath) throws IOException {
+        GraphProcessor processor = load(filepath, PathStrategy.A_STAR_SEARCH, VertexOrdering.FILE, false);
+        GraphAnalytics<String> analytics = processor.getGraphAnalytics();
+
+        long start = System.nanoTime();
+        int diameter = analytics.getDiameter();
+        System.out.println("diameter: " + diameter + " " + analytics.getDiametralPair()
+            + " (" + (System.nanoTime()-start)/1000000 + " ms)");
+        start = System.nanoTime();
+        System.out.println("radius of largest component: " + analytics.getRadius()
+            + " (" + (System.nanoTime()-start)/1000000 + " ms)");
+        start = System.nanoTime();
+        long[] distribution = analytics.getDistanceDistribution();
+        System.out.println("distance distribution (" + (System.nanoTime()-start)/1000000 + " ms):");
+        HyperAnf anf = analytics.getHyperAnf(7, 67);
+        double[] estimated = anf.getDistanceDistribution();
+        for(int d = 1; d < Math.max(distribution.length, estimated.length); d++) {
+            System.out.println("  " + d + " : " + (d < distribution.length ? distribution[d] : 0) + ", estimated "
+                + String.format("%.0f", d < estimated.length ? estimated[d] : 0.0));
+        }
+        System.out.println(String.format("estimated by HyperANF in %d ms (%.1f%% error per counter, %d bytes),"
+            + " effective diameter %.2f", anf.getBuildTimeMillis(), 100*anf.getRelativeStandardError(),
+            anf.getMemoryBytes(), anf.getEffectiveDiameter(0.9)));
+        start = System.nanoTime();
+        Map<String, Double> hubs = analytics.getTopBetweenness(10, 0, 0);
+        System.out.println("top betweenness (" + (System.nanoTime()-start)/1000000 + " ms):");
+        for(Map.Entry<String, Double> hub : hubs.entrySet()) {
+            System.out.println("  " + hub.getKey() + " : " + String.format("%.1f", hub.getValue()));
+        }
+    }
+}
@@ -6,27 +6,34 @@
 //Known Bugs: None
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
  * This class adds additional functionality to the graph as a whole.
  * 
- * Contains an instance variable, {@link #graph}, which stores information for all the vertices and edges.
+ * Contains an instance variable, {@link #snapshot}, which stores information for all the vertices and edges.
  * @see #populateGraph(String)
  *  - loads a dictionary of words as vertices in the graph.
  *  - finds possible edges between all pairs of vertices and adds these edges in the graph.
  *  - returns number of vertices added as Integer.
- *  - every call to this method will add to the existing graph.
+ *  - every call to this method replaces the graph with the words of the new dictionary.
  *  - this method needs to be invoked first for other methods on shortest path computation to work.
  * @see #shortestPathPrecomputation()
  *  - applies a shortest path algorithm to precompute data structures (that store shortest path data)
@@ -34,6 +41,7 @@ import java.util.stream.Stream;
  *    to quickly find the shortest path and distance between two vertices.
  *  - this method is called after any call to populateGraph.
  *  - It is not called again unless new graph information is added via populateGraph().
+ *  - the data structures it builds depend on the strategy chosen with {@link #setPathStrategy(PathStrategy)}.
  * @see #getShortestPath(String, String)
  *  - returns a list of vertices that constitute the shortest path between two given vertices, 
  *    computed using the precomputed data structures computed as part of {@link #shortestPathPrecomputation()}.
@@ -42,6 +50,19 @@ import java.util.stream.Stream;
  *  - returns distance (number of edges) as an Integer for the shortest path between two given vertices
  *  - this is computed using the precomputed data structures computed as part of {@link #shortestPathPrecomputation()}.
  *  - {@link #shortestPathPrecomputation()} must have been invoked once before invoking this method.
+ * @see #findSimilarWords(String, int)
+ *  - returns the dictionary words within a given edit distance of any query string.
+ * @see #snapToDictionary(String)
+ *  - maps a query word that is not in the dictionary to its nearest dictionary word, 
+ *    which lets the shortest path methods accept words that are not vertices of the graph.
+ * @see #getWeightedShortestPath(String, String)
+ *  - returns the cheapest path between two words when each kind of edit has its own cost {@link #setEditCosts(EditCosts)}.
+ * @see #publishShortestPaths(Stream, int, Executor)
+ *  - answers a stream of queries as they are computed, as fast as the subscriber asks for the answers.
+ * @see #getFootprint()
+ *  - estimates the heap retained by every structure, and what every strategy would take for the same words.
+ * @see #getGraphAnalytics()
+ *  - returns eccentricity, diameter, radius and distance distribution statistics of the graph.
  *  
  * @author sapan (sapan@cs.wisc.edu)
  * 
@@ -49,31 +70,241 @@ import java.util.stream.Stream;
 public class GraphProcessor {
 
     /**
-     * Graph which stores the dictionary words and their associated connections
+     * Key of a cached query answer
      */
-    private GraphADT<String> graph;
+    private static final class QueryKey {
+        
+        /**
+         * {@link GraphProcessor#queryVersion} when the answer was computed
+         */
+        private final long version;
+        
+        /**
+         * true for a path, false for a distance
+         */
+        private final boolean path;
+        
+        /**
+         * The query words as given
+         */
+        private final String word1, word2;
+        
+        /**
+         * Constructs a key
+         * @param version the query version
+         * @param path true for a path, false for a distance
+         * @param word1 first query word
+         * @param word2 second query word
+         */
+        private QueryKey(long version, boolean path, String word1, String word2) {
+            this.version = version;
+            this.path = path;
+            this.word1 = word1;
+            this.word2 = word2;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof QueryKey)) return false;
+            QueryKey key = (QueryKey) other;
+            return version == key.version && path == key.path && Objects.equals(word1, key.word1) 
+                    && Objects.equals(word2, key.word2);
+        }
+        
+        @Override
+        public int hashCode() {
+            return (Objects.hashCode(word1)*31 + Objects.hashCode(word2))*31 + Long.hashCode(version) + (path ? 1 : 0);
+        }
+    }
+    
+    /**
+     * Cached in place of a path that does not exist, since the cache holds no nulls
+     */
+    private static final Object NO_PATH = new Object();
+
+    /**
+     * The words of the last dictionary loaded and the edges between them, keyed by their ids in the arena of the
+     * current snapshot. Precomputations and edit cost changes read this graph.
+     */
+    private IntGraph wordGraph;
+    
+    /**
+     * Everything queries read: word ids, adjacency, edge weights and the precomputed shortest path data. It is 
+     * replaced as a whole at the end of every rebuild and never changed in place, so every query reads it once and 
+     * answers from a consistent state even while populateGraph runs.
+     */
+    private volatile GraphSnapshot snapshot;
+    
+    /**
+     * Held by every method that changes the graph, so rebuilds run one at a time. Queries never take it.
+     */
+    private final Object rebuildLock;
+    
+    /**
+     * Number of snapshots published so far
+     */
+    private long epoch;
+    
+    /**
+     * Incremented by every precomputation; a background precomputation whose number is no longer current has been 
+     * replaced by a newer one and stops without publishing
+     */
+    private volatile long generation;
+    
+    /**
+     * Whether populateGraph and shortestPathPrecomputation return before the precomputation is done
+     * {@link #setBackgroundPrecomputation(boolean)}
+     */
+    private boolean background;
+    
+    /**
+     * Completes with the snapshot holding the result of the last precomputation
+     */
+    private volatile CompletableFuture<GraphSnapshot> precomputation;
+    
+    /**
+     * The rows of the precomputation in progress, which measure its progress for {@link PathStrategy#ALL_PAIRS_DIJKSTRA};
+     * null once it is done
+     */
+    private volatile IncrementalPathMatrix pendingRows;
+    
+    /**
+     * The largest edit distance a query word may be moved by {@link #snapToDictionary(String)}
+     */
+    private volatile int snapDistance;
+    
+    /**
+     * The strategy used by the next call to {@link #shortestPathPrecomputation()}
+     */
+    private PathStrategy strategy;
+    
+    /**
+     * Caches the answers of getShortestPath and getShortestDistance, null when disabled 
+     * {@link #setQueryCacheSize(int)}. Paths are cached as lists, or {@link #NO_PATH}, and distances as Integers.
+     */
+    private volatile TinyLfuCache<QueryKey, Object> queryCache;
+    
+    /**
+     * Changes whenever a cached answer may have become wrong: a new snapshot or a new query setting. It is part of 
+     * every cache key, so answers computed before the change are never served after it.
+     */
+    private final AtomicLong queryVersion;
     
     /**
-     * The input stream from the given file name
+     * Decides which words are joined by an edge
      */
-    private Stream<String> words;
+    private AdjacencyRule adjacencyRule;
     
     /**
-     * An arraylist of all words that present in the graph
+     * Directory the candidate keys of edge generation are spilled to, null to find edges in memory
+     * {@link #setExternalEdgeGeneration(Path, long)}
      */
-    private List<String> wordIndex;
+    private Path spillDirectory;
     
     /**
-     * The shortest path that connects any two points in the graph. For example, if the index of "cat" and index of
-     * "hat" are 1 and 3 in the wordIndex list, then the shortest path from "cat" to "hat" would be shortestPath[1][3]. 
+     * Heap bytes the sort buffers of external edge generation may take
      */
-    private List<String>[][] shortestPath;
+    private long spillMemory;
+    
+    /**
+     * How populateGraph numbers the words {@link #setVertexOrdering(VertexOrdering, boolean)}
+     */
+    private VertexOrdering vertexOrdering;
+    
+    /**
+     * Whether populateGraph numbers shorter words first
+     */
+    private boolean orderByLength;
+    
+    /**
+     * Bytes the shortest path data may use, 0 to always use {@link #strategy}
+     */
+    private long memoryBudget;
+    
+    /**
+     * The decision made under {@link #memoryBudget} by the last precomputation, null without a budget
+     */
+    private volatile StrategySelection selection;
+    
+    /**
+     * Largest number of shortest path searches that run at the same time, which bounds the search buffers
+     * {@link #setQueryConcurrency(int)}
+     */
+    private volatile int queryConcurrency;
+    
+    /**
+     * Whether snapshots keep their adjacency as a {@link CompressedIntGraph} {@link #setCompressedAdjacency(boolean)}
+     */
+    private boolean compressedAdjacency;
+    
+    /**
+     * Number of landmarks used by {@link PathStrategy#LANDMARKS}
+     */
+    private int landmarkCount;
+    
+    /**
+     * How the landmarks of {@link PathStrategy#LANDMARKS} are chosen
+     */
+    private LandmarkIndex.Selection landmarkSelection;
+    
+    /**
+     * File the rows of {@link PathStrategy#ALL_PAIRS_DIJKSTRA} are saved to while they are computed, null to not save
+     * them {@link #setCheckpoint(Path, int)}
+     */
+    private Path checkpointFile;
+    
+    /**
+     * Number of rows computed between two saves to {@link #checkpointFile}
+     */
+    private int checkpointInterval;
+    
+    /**
+     * Held while the checkpoint file is read or written, so a replaced background precomputation never writes to
+     * the file its successor has opened
+     */
+    private final Object checkpointLock;
+    
+    /**
+     * Number of rows the last precomputation read back from the checkpoint file
+     */
+    private volatile int restoredRows;
+    
+    /**
+     * Whether {@link #getShortestDistance(String, String)} must be exact. When false and the landmark strategy is in
+     * use, the landmark upper bound is returned without searching.
+     */
+    private volatile boolean exactDistances;
+    
+    /**
+     * The cost of each kind of edit, which gives the weights of the edges in {@link #wordGraph}
+     */
+    private EditCosts editCosts;
     
     /**
      * Constructor for this class. Initializes instances variables to set the starting state of the object
      */
     public GraphProcessor() {
-        this.graph = new Graph<>();
+        this.wordGraph = new IntGraph();
+        this.rebuildLock = new Object();
+        this.checkpointLock = new Object();
+        this.queryVersion = new AtomicLong();
+        this.epoch = 0;
+        this.generation = 0;
+        this.background = false;
+        this.snapDistance = 2;
+        this.strategy = PathStrategy.ALL_PAIRS_DIJKSTRA;
+        this.memoryBudget = 0;
+        this.queryConcurrency = SearchPool.defaultCapacity();
+        this.compressedAdjacency = false;
+        this.adjacencyRule = new OneEditRule();
+        this.vertexOrdering = VertexOrdering.FILE;
+        this.orderByLength = false;
+        this.landmarkCount = 16;
+        this.landmarkSelection = LandmarkIndex.Selection.FARTHEST;
+        this.exactDistances = true;
+        this.editCosts = EditCosts.uniform();
+        this.snapshot = GraphSnapshot.empty(strategy);
+        this.precomputation = CompletableFuture.completedFuture(snapshot);
     }
         
     /**
@@ -84,8 +315,13 @@ public class GraphProcessor {
      * Reads a word from the file and adds it as a vertex to a graph.
      * Repeat for all words.
      * 
-     * For all possible pairs of vertices, finds if the pair of vertices is adjacent {@link WordProcessor#isAdjacent(String, String)}
-     * If a pair is adjacent, adds an undirected and unweighted edge between the pair of vertices in the graph.
+     * Finds every pair of adjacent vertices with the adjacency rule {@link #setAdjacencyRule(AdjacencyRule)}, one edit
+     * apart by default {@link WordProcessor#isAdjacent(String, String)}, from the candidates of its index rather
+     * than by testing all pairs. Adds an undirected edge between every adjacent pair in the graph.
+     *
+     * Queries made while this method runs are answered from the previous snapshot {@link #getSnapshot()}; the new
+     * words become visible all at once when their precomputation is done, or as soon as their edges exist with
+     * {@link #setBackgroundPrecomputation(boolean)}. If loading fails, the previous snapshot stays in use.
      *
      * Log any issues encountered (print the issue details)
      * 
@@ -93,20 +329,39 @@ public class GraphProcessor {
      * @return Integer the number of vertices (words) added; return -1 if file not found or if encountering other exceptions
      */
     public Integer populateGraph(String filepath) {
-       boolean edgeNeeded = false;
+       int wordsRead;
+       synchronized(rebuildLock) {
+        WordArena dictionary = new WordArena();
+        BKTree dictionaryIndex = new BKTree(dictionary);
+        IntGraph loaded;
         try {
-            words = WordProcessor.getWordStream(filepath);
-            wordIndex =  words.collect(Collectors.toList());
-            for(String word : wordIndex) {
-                graph.addVertex(word); //adds all the strings to the graph
+            wordsRead = WordProcessor.loadWords(filepath, dictionary);
+            loaded = new IntGraph(dictionary.size());
+            for(int i = 0; i < dictionary.size(); i++) {
+                loaded.addVertex();
+                dictionaryIndex.add(i);
             }
             
-            for(int i = 0; i < wordIndex.size()-1; i++) {
-                for(int j = i+1; j < wordIndex.size(); j++) {
-                   edgeNeeded = WordProcessor.isAdjacent((String)wordIndex.get(i), (String)wordIndex.get(j)); //checking each word with each other word
-                   if(edgeNeeded) {
-                       graph.addEdge((String)wordIndex.get(i), (String)wordIndex.get(j));
-                   }
+            boolean uniform = editCosts.isUniform();					//every edge weighs 1, as it is added
+            AdjacencyRule.EdgeConsumer addEdge = (i, j) -> {
+                loaded.addEdge(i, j);
+                if(!uniform) setEdgeWeights(loaded, i, j, dictionary.view(i), dictionary.view(j));
+            };
+            if(spillDirectory != null && adjacencyRule.getClass() == OneEditRule.class) {
+                Path edgeFile = Files.createTempFile(spillDirectory, "edges", ".bin");
+                try {														//candidates sorted on disk
+                    new ExternalEdgeGenerator(spillDirectory, spillMemory).generate(dictionary, edgeFile);
+                    ExternalEdgeGenerator.readEdges(edgeFile, addEdge);
+                } finally {
+                    Files.deleteIfExists(edgeFile);
+                }
+            } else {
+                LongStream.Builder found = LongStream.builder();
+                adjacencyRule.findEdges(dictionary, (id1, id2) -> {	//candidates from the index of the rule
+                    if(id1 != id2) found.add((long) Math.min(id1, id2) << 32 | Math.max(id1, id2));
+                });
+                for(long edge : found.build().sorted().distinct().toArray()) {	//in the order of the pairwise loop
+                    addEdge.accept((int) (edge >>> 32), (int) edge);
                 }
             }
             
@@ -120,8 +375,17 @@ public class GraphProcessor {
         	e.printStackTrace();
         	return -1;
         }
-        shortestPathPrecomputation();
-        return wordIndex.size();
+        if(vertexOrdering == VertexOrdering.FILE && !orderByLength) {
+            wordGraph = loaded;
+            publish(precompute(dictionary, dictionaryIndex, adjacencyRule));
+        } else {														//renumber the words for locality
+            int[] order = VertexReordering.order(loaded.toAdjacency(), dictionary, vertexOrdering, orderByLength);
+            WordArena renumbered = VertexReordering.renumber(dictionary, order);
+            wordGraph = loaded.renumber(order);
+            publish(precompute(renumbered, VertexReordering.index(renumbered, order), adjacencyRule));
+        }
+       }
+        return wordsRead;
     
     }
 
@@ -141,24 +405,42 @@ public class GraphProcessor {
      *     [cat, hat, heat, wheat]
      *
      * If word1 = word2, List will be empty. 
-     * Both the arguments will always be present in the graph.
-     * 
-     * Precondition: both words are present in the graph.
+     * A word that is not in the graph is first replaced by its nearest dictionary word {@link #snapToDictionary(String)};
+     * if either word has no dictionary word close enough, null is returned.
      * 
      * @param word1 first word
      * @param word2 second word
      * @return List<String> list of the words
      */
+    @SuppressWarnings("unchecked")
     public List<String> getShortestPath(String word1, String word2) {
-    	word1 = word1.toUpperCase();
-    	word2 = word2.toUpperCase();
+    	TinyLfuCache<QueryKey, Object> cache = queryCache;
+    	if(cache == null) return shortestPath(snapshot, word1, word2);
+    	QueryKey key = new QueryKey(queryVersion.get(), true, word1, word2);	//the version is read before the snapshot
+    	Object cached = cache.get(key);
+    	if(cached == null) {
+    		List<String> path = shortestPath(snapshot, word1, word2);
+    		cache.put(key, path == null ? NO_PATH : List.copyOf(path));
+    		return path;
+    	}
+    	return cached == NO_PATH ? null : new ArrayList<String>((List<String>) cached);	//callers may change their list
+    }
+    
+    /**
+     * Gets the shortest path between two words from one snapshot
+     * 
+     * @param current the snapshot
+     * @param word1 first word
+     * @param word2 second word
+     * @return the words of the path, as described in {@link #getShortestPath(String, String)}
+     */
+    private List<String> shortestPath(GraphSnapshot current, String word1, String word2) {
+    	word1 = current.snap(word1, snapDistance);
+    	word2 = current.snap(word2, snapDistance);
+    	if(word1 == null || word2 == null) return null;			//no dictionary word close to the query
     	if(word1.equals(word2)) return new ArrayList<String>();	//if two words equal, return an empty list
     	
-    	int index1 = wordIndex.indexOf(word1);
-    	int index2 = wordIndex.indexOf(word2);
-
-    	List<String> path = shortestPath[index1][index2];		//if they are not equal, return the shortest path
-        return path;
+    	return current.toWords(current.getPath(current.indexOf(word1), current.indexOf(word2)));	//if they are not equal, return the shortest path
     }
     
 
@@ -176,17 +458,553 @@ public class GraphProcessor {
      *   = 3 (the number of edges in the shortest path)
      *
      * Distance = -1 if no path found between words (true also for word1=word2)
-     * Both the arguments will always be present in the graph.
+     * Words that are not in the graph are handled as in {@link #getShortestPath(String, String)}.
      * 
      * @param word1 first word
      * @param word2 second word
      * @return Integer distance
      */
     public Integer getShortestDistance(String word1, String word2) {
-        List<String> shortest = getShortestPath(word1, word2); 	//call the previous method then count edges
-        if(word1.equals(word2) || shortest == null) return -1;	//if there is not a path or the words are equal, return
-        														//-1
-        return shortest.size()-1;
+    	TinyLfuCache<QueryKey, Object> cache = queryCache;
+    	if(cache == null) return distance(snapshot, word1, word2);
+    	QueryKey key = new QueryKey(queryVersion.get(), false, word1, word2);
+    	Object cached = cache.get(key);
+    	if(cached == null) {
+    		cached = distance(snapshot, word1, word2);
+    		cache.put(key, cached);
+    	}
+    	return (Integer) cached;
+    }
+    
+    /**
+     * Gets the list of words on the cheapest path between word1 and word2, where each step costs what 
+     * {@link #setEditCosts(EditCosts)} charges for its edit. Words are snapped to the dictionary as in 
+     * {@link #getShortestPath(String, String)}.
+     * 
+     * The path is found on demand with Dijkstra's algorithm {@link DijkstraSearch}, which stops as soon as word2 is 
+     * reached. With the uniform costs it has as few edges as the shortest path.
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return List<String> list of the words, empty if word1 = word2, null if there is no path
+     */
+    public List<String> getWeightedShortestPath(String word1, String word2) {
+        GraphSnapshot current = snapshot;
+        word1 = current.snap(word1, snapDistance);
+        word2 = current.snap(word2, snapDistance);
+        if(word1 == null || word2 == null) return null;
+        if(word1.equals(word2)) return new ArrayList<String>();
+        return current.toWords(current.getWeightedSearch().getPath(current.indexOf(word1), current.indexOf(word2)));
+    }
+    
+    /**
+     * Gets the total edit cost of the cheapest path between word1 and word2 {@link #getWeightedShortestPath(String, String)}
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return Integer the cost, -1 if no path found between words (true also for word1=word2)
+     */
+    public Integer getWeightedShortestDistance(String word1, String word2) {
+        GraphSnapshot current = snapshot;
+        word1 = current.snap(word1, snapDistance);
+        word2 = current.snap(word2, snapDistance);
+        if(word1 == null || word2 == null || word1.equals(word2)) return -1;
+        return current.getWeightedSearch().getDistance(current.indexOf(word1), current.indexOf(word2));
+    }
+    
+    /**
+     * Answers a stream of shortest path queries as they are computed, for a subscriber that may be slower than the
+     * searches {@link PathQueryPublisher}. Queries are read from the stream only as the subscriber requests answers,
+     * and at most parallelism run at once on the executor. Every answer carries the path, as
+     * {@link #getShortestPath(String, String)} returns it, and its distance. All answers come from the snapshot
+     * current when this method is called, so they agree with each other across rebuilds; the query cache is not used.
+     * 
+     * @param pairs the queries, each an array of two words; read by the first subscriber only
+     * @param parallelism most queries running at once, at least 1
+     * @param executor runs the queries, null for the common fork join pool
+     * @return Flow.Publisher the publisher of the answers, in the order they finish
+     */
+    public Flow.Publisher<PathQueryPublisher.Result> publishShortestPaths(Stream<String[]> pairs, int parallelism,
+            Executor executor) {
+        GraphSnapshot current = snapshot;
+        return new PathQueryPublisher(pairs, parallelism, executor == null ? ForkJoinPool.commonPool() : executor,
+            (index, word1, word2) -> {
+                List<String> path = shortestPath(current, word1, word2);
+                int distance = path == null || path.isEmpty() ? -1 : path.size()-1;
+                return new PathQueryPublisher.Result(index, word1, word2, path, distance);
+            });
+    }
+    
+    /**
+     * Answers a stream of shortest distance queries as they are computed, as
+     * {@link #publishShortestPaths(Stream, int, Executor)} does for paths. The answers carry no path, so the
+     * strategies that store distances need not rebuild one.
+     * 
+     * @param pairs the queries, each an array of two words; read by the first subscriber only
+     * @param parallelism most queries running at once, at least 1
+     * @param executor runs the queries, null for the common fork join pool
+     * @return Flow.Publisher the publisher of the answers, in the order they finish
+     */
+    public Flow.Publisher<PathQueryPublisher.Result> publishShortestDistances(Stream<String[]> pairs, int parallelism,
+            Executor executor) {
+        GraphSnapshot current = snapshot;
+        return new PathQueryPublisher(pairs, parallelism, executor == null ? ForkJoinPool.commonPool() : executor,
+            (index, word1, word2) -> new PathQueryPublisher.Result(index, word1, word2, null, distance(current, word1, word2)));
+    }
+    
+    /**
+     * Sets the cost of each kind of edit and updates the weights of all edges already in the graph.
+     * Only the weighted queries use the costs, the other shortest path methods count edges.
+     * 
+     * @param editCosts the cost model, {@link EditCosts#uniform()} by default
+     */
+    public void setEditCosts(EditCosts editCosts) {
+        if(editCosts == null) throw new IllegalArgumentException();
+        synchronized(rebuildLock) {
+            this.editCosts = editCosts;
+            GraphSnapshot current = snapshot;
+            WordArena words = current.getArena();
+            boolean uniform = editCosts.isUniform();
+            for(int v = 0; v < wordGraph.order(); v++) {
+                for(int i = 0; i < wordGraph.degree(v); i++) {
+                    int neighbor = wordGraph.getNeighbor(v, i);
+                    int weight = uniform ? 1 : edgeCost(words.view(v), words.view(neighbor));
+                    wordGraph.setEdgeWeight(v, neighbor, weight);
+                }
+            }
+            publish(current.withWeights(++epoch, wordGraph.toWeights()));
+        }
+    }
+    
+    /**
+     * Gets a lower and an upper bound on the distance of the shortest path between word1 and word2.
+     * 
+     * With {@link PathStrategy#LANDMARKS} the bounds come from the landmark distances alone and take O(k) time for
+     * k landmarks. With the other strategies both bounds equal the exact distance.
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return int[] {lower, upper}; upper is Integer.MAX_VALUE if it is unknown, both are -1 if there is no path 
+     *         (true also for word1=word2)
+     */
+    public int[] getDistanceBounds(String word1, String word2) {
+        GraphSnapshot current = snapshot;
+        String snapped1 = current.snap(word1, snapDistance);
+        String snapped2 = current.snap(word2, snapDistance);
+        DistanceOracle oracle = current.getDistanceOracle();
+        if(oracle instanceof LandmarkIndex && snapped1 != null && snapped2 != null && !snapped1.equals(snapped2)) {
+            return ((LandmarkIndex) oracle).getBounds(current.indexOf(snapped1), current.indexOf(snapped2));
+        }
+        int distance = distance(current, word1, word2);
+        return new int[] {distance, distance};
+    }
+    
+    /**
+     * Measures how much a distance bound guided A* search {@link AStarSearch} saves over a plain breadth first 
+     * search for one query: the number of words each of them expands before reaching word2. 
+     * Works with every strategy, since neither search uses precomputed data.
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return int[] {words expanded by A*, words expanded by breadth first search, bounds computed by A*},
+     *         null if either word can not be snapped to the dictionary
+     */
+    public int[] getSearchEffort(String word1, String word2) {
+        GraphSnapshot current = snapshot;
+        word1 = current.snap(word1, snapDistance);
+        word2 = current.snap(word2, snapDistance);
+        if(word1 == null || word2 == null) return null;
+        AStarSearch search = current.getAStarSearch();
+        int source = current.indexOf(word1);
+        int target = current.indexOf(word2);
+        search.getDistance(source, target);
+        return new int[] {search.getLastExpandedCount(), search.countBreadthFirstExpanded(source, target), 
+                search.getLastHeuristicCount()};
+    }
+    
+    /**
+     * Sets whether getShortestDistance must return exact distances. Only {@link PathStrategy#LANDMARKS} makes use
+     * of inexact answers: it then returns the upper bound {@link #getDistanceBounds(String, String)}, the length of a
+     * real path through a landmark, whenever one is known. Shortest paths are always exact.
+     * 
+     * @param exactDistances true (the default) for exact distances
+     */
+    public void setExactDistances(boolean exactDistances) {
+        this.exactDistances = exactDistances;
+        invalidateQueryCache();
+    }
+    
+    /**
+     * Sets the landmarks used by {@link PathStrategy#LANDMARKS}, taking effect on the next precomputation.
+     * 
+     * @param count number of landmarks, 16 by default
+     * @param selection how landmarks are chosen, {@link LandmarkIndex.Selection#FARTHEST} by default
+     */
+    public void setLandmarks(int count, LandmarkIndex.Selection selection) {
+        if(count < 1 || selection == null) throw new IllegalArgumentException();
+        this.landmarkCount = count;
+        this.landmarkSelection = selection;
+    }
+    
+    /**
+     * Finds the dictionary words within maxDistance edits (1 char replacements, additions or deletions) of word.
+     * The word does not need to be in the graph.
+     * 
+     * Example: Given the dictionary of {@link #getShortestPath(String, String)},
+     *  the words within distance 1 of "chat" are [CAT, HAT]
+     * 
+     * @param word the query word
+     * @param maxDistance the largest edit distance of a returned word
+     * @return List<String> the matching words ordered by their distance to word, then alphabetically
+     */
+    public List<String> findSimilarWords(String word, int maxDistance) {
+        if(word == null) return new ArrayList<String>();
+        return snapshot.findSimilarWords(word.trim().toUpperCase(), maxDistance);
+    }
+
+    /**
+     * Gets the words adjacent to a word {@link WordProcessor#isAdjacent(String, String)}, after snapping it to the
+     * dictionary as in {@link #getShortestPath(String, String)}.
+     *
+     * @param word the query word
+     * @return List<String> the neighbors of the word in the order their edges were added, by id when the adjacency is
+     *         compressed; null if the word can not be snapped
+     */
+    public List<String> getNeighbors(String word) {
+        GraphSnapshot current = snapshot;
+        word = current.snap(word, snapDistance);
+        if(word == null) return null;
+        return current.toWords(current.getNeighbors(current.indexOf(word)));
+    }
+
+    /**
+     * Maps a query word to a vertex of the graph. A word in the graph maps to itself, any other word maps to the 
+     * closest dictionary word within the snap distance {@link #setSnapDistance(int)}.
+     * 
+     * @param word the query word
+     * @return the dictionary word for the query, or null if no dictionary word is close enough
+     */
+    public String snapToDictionary(String word) {
+        return snapshot.snap(word, snapDistance);
+    }
+    
+    /**
+     * Sets the largest edit distance by which {@link #snapToDictionary(String)} may move a query word.
+     * A distance of 0 turns snapping off, so only words in the graph are accepted.
+     * 
+     * @param snapDistance the largest number of edits, negative values are treated as 0
+     */
+    public void setSnapDistance(int snapDistance) {
+        this.snapDistance = Math.max(0, snapDistance);
+        invalidateQueryCache();
+    }
+    
+    /**
+     * Puts a cache of query answers in front of getShortestPath and getShortestDistance. Entries are admitted by
+     * how often their query was asked lately {@link TinyLfuCache}, so a scan of one-off queries does not flush the 
+     * popular ones. The cache is emptied whenever the graph or a query setting changes.
+     * 
+     * @param entries the most answers to cache, 0 (the default) to disable the cache
+     */
+    public void setQueryCacheSize(int entries) {
+        if(entries < 0) throw new IllegalArgumentException();
+        queryCache = entries == 0 ? null : new TinyLfuCache<QueryKey, Object>(entries);
+    }
+    
+    /**
+     * Gets the hit, miss, eviction and rejection counts of the query cache
+     * 
+     * @return TinyLfuCache.Stats the counts since the cache was sized, null when the cache is disabled
+     */
+    public TinyLfuCache.Stats getQueryCacheStats() {
+        TinyLfuCache<QueryKey, Object> cache = queryCache;
+        return cache == null ? null : cache.getStats();
+    }
+    
+    /**
+     * Estimates the heap retained by every structure of the processor: the integer graph, the words and their index, the adjacency of the snapshot, the shortest path data and the query cache, together
+     * with the shortest path data every strategy would take for the same words {@link FootprintReport}. The
+     * estimate waits for a rebuild in progress to finish.
+     * 
+     * @return FootprintReport the estimates at this moment
+     */
+    public FootprintReport getFootprint() {
+        synchronized(rebuildLock) {
+            GraphSnapshot current = snapshot;
+            FootprintReport report = new FootprintReport(current.getStrategy(), current.getWordCount());
+            report.put(FootprintReport.Structure.WORD_GRAPH, wordGraph.getMemoryBytes());
+            report.put(FootprintReport.Structure.WORDS, current.getArena().getMemoryBytes());
+            report.put(FootprintReport.Structure.WORD_INDEX, current.getIndex().getMemoryBytes());
+            report.put(FootprintReport.Structure.ADJACENCY, current.getAdjacencyBytes());
+            report.put(FootprintReport.Structure.PATH_DATA, current.getPathDataBytes());
+            TinyLfuCache<QueryKey, Object> cache = queryCache;
+            if(cache != null) {
+                report.put(FootprintReport.Structure.QUERY_CACHE, cache.getMemoryBytes(
+                    key -> 32 + wordBytes(key.word1) + wordBytes(key.word2), GraphProcessor::cachedBytes));
+            }
+            for(PathStrategy candidate : PathStrategy.values()) {
+                report.putEstimate(candidate, StrategySelection.estimate(candidate, current.getWordCount(), landmarkCount,
+                    queryConcurrency));
+            }
+            return report;
+        }
+    }
+    
+    /**
+     * Estimates the bytes of a query word held by a cache key
+     * 
+     * @param word the word as given, may be null
+     * @return bytes of the String, 0 for null
+     */
+    private static long wordBytes(String word) {
+        return word == null ? 0 : FootprintReport.string(word);
+    }
+    
+    /**
+     * Estimates the bytes of a cached answer
+     * 
+     * @param answer a path, {@link #NO_PATH} or a distance
+     * @return bytes of the list and its words, 0 for shared objects
+     */
+    private static long cachedBytes(Object answer) {
+        if(!(answer instanceof List<?> path)) return answer instanceof Integer distance && distance > 127 ? 16 : 0;
+        long bytes = FootprintReport.align(FootprintReport.OBJECT_HEADER + FootprintReport.REFERENCE)
+            + FootprintReport.array(path.size(), FootprintReport.REFERENCE);
+        for(Object word : path) bytes += FootprintReport.string((String) word);
+        return bytes;
+    }
+    
+    /**
+     * Gets a miner of word pairs at a given distance over the current graph {@link ComboMiner}
+     * 
+     * @return ComboMiner the miner, which keeps mining the graph of this moment after a reload
+     */
+    public ComboMiner getComboMiner() {
+        GraphSnapshot current = snapshot;
+        return new ComboMiner(current.getAdjacency(), current.getArena());
+    }
+    
+    /**
+     * Gets distance statistics (eccentricities, diameter, radius, distance distribution) of the current graph.
+     * The statistics are computed with parallel searches over the adjacency of the current snapshot, not from the
+     * precomputed paths.
+     * 
+     * @return GraphAnalytics<String> analytics over the words and edges of the current snapshot, which keep 
+     *         describing that graph after a reload
+     */
+    public GraphAnalytics<String> getGraphAnalytics() {
+        GraphSnapshot current = snapshot;
+        List<String> vertices = new ArrayList<String>(current.getWordCount());
+        for(int v = 0; v < current.getWordCount(); v++) vertices.add(current.getWord(v));
+        return new GraphAnalytics<String>(vertices, current.getAdjacency());
+    }
+    
+    /**
+     * Makes {@link PathStrategy#ALL_PAIRS_DIJKSTRA} save the rows of the predecessor matrix to a file while it computes
+     * them {@link PrecomputationCheckpoint}, every interval rows, so a precomputation stopped by a restart or a crash
+     * resumes from the rows saved instead of starting over. A precomputation first reads back the rows saved for the
+     * same words, ids and edges; a file written for another graph, or cut short, is checked by its checksums and
+     * started over from the last good block. The file is kept once every row is saved, so the next run over the same
+     * dictionary only reads it. The other strategies build their data in one piece and are not checkpointed.
+     * 
+     * @param file the checkpoint file, null (the default) to not checkpoint
+     * @param interval number of rows computed between two saves, at least 1
+     */
+    public void setCheckpoint(Path file, int interval) {
+        if(file != null && interval < 1) throw new IllegalArgumentException();
+        synchronized(rebuildLock) {
+            this.checkpointFile = file;
+            this.checkpointInterval = interval;
+        }
+    }
+    
+    /**
+     * Gets the number of rows the last precomputation read back from its checkpoint file instead of computing them
+     * 
+     * @return rows restored, 0 without a checkpoint file
+     */
+    public int getRestoredRows() {
+        return restoredRows;
+    }
+    
+    /**
+     * Sets the strategy used to precompute shortest path data. The strategy takes effect on the next call to 
+     * {@link #shortestPathPrecomputation()}, which populateGraph makes after loading words, unless a memory budget
+     * is set {@link #setMemoryBudget(long)}.
+     * 
+     * @param strategy the precomputation strategy, {@link PathStrategy#ALL_PAIRS_DIJKSTRA} by default
+     */
+    public void setPathStrategy(PathStrategy strategy) {
+        if(strategy == null) throw new IllegalArgumentException();
+        this.strategy = strategy;
+    }
+    
+    /**
+     * Sets the rule deciding which words are joined by an edge. Takes effect on the next populateGraph.
+     * 
+     * @param rule the adjacency rule, {@link OneEditRule} by default
+     */
+    public void setAdjacencyRule(AdjacencyRule rule) {
+        if(rule == null) throw new IllegalArgumentException();
+        synchronized(rebuildLock) {
+            this.adjacencyRule = rule;
+        }
+    }
+    
+    /**
+     * Sets how populateGraph numbers the words once their edges are found {@link VertexReordering}. The ids of the
+     * words in the snapshot, and so the layout of every array of the precomputation, follow the ordering; the
+     * answers to queries do not change, except which of several shortest paths is returned. Takes effect on the 
+     * next populateGraph.
+     * 
+     * @param ordering the ordering, {@link VertexOrdering#FILE} by default
+     * @param byLength whether to number shorter words first, keeping the ordering among words of one length
+     */
+    public void setVertexOrdering(VertexOrdering ordering, boolean byLength) {
+        if(ordering == null) throw new IllegalArgumentException();
+        synchronized(rebuildLock) {
+            this.vertexOrdering = ordering;
+            this.orderByLength = byLength;
+        }
+    }
+    
+    /**
+     * Makes populateGraph find the edges of {@link OneEditRule} out of core {@link ExternalEdgeGenerator}: the 
+     * candidate keys of all words are sorted in run files on disk and merged, and the edges are streamed into the 
+     * graph from an edge file, so the heap taken by edge generation stays within a budget whatever the size of the
+     * dictionary. The graph built is the same. Other adjacency rules keep finding their edges in memory.
+     * 
+     * @param directory the directory for the run and edge files, null (the default) to find edges in memory
+     * @param memoryBytes heap bytes the sort buffers may take
+     */
+    public void setExternalEdgeGeneration(Path directory, long memoryBytes) {
+        if(directory != null && memoryBytes < 2) throw new IllegalArgumentException();
+        synchronized(rebuildLock) {
+            this.spillDirectory = directory;
+            this.spillMemory = memoryBytes;
+        }
+    }
+    
+    /**
+     * Sets a memory budget for the shortest path data. With a budget, every precomputation estimates the footprint
+     * of each strategy for the words loaded and uses the fastest one that fits {@link StrategySelection}, instead of
+     * the strategy set by {@link #setPathStrategy(PathStrategy)}. Takes effect on the next precomputation.
+     * 
+     * @param bytes the budget in bytes, 0 to always use the strategy set
+     */
+    public void setMemoryBudget(long bytes) {
+        if(bytes < 0) throw new IllegalArgumentException();
+        synchronized(rebuildLock) {
+            this.memoryBudget = bytes;
+        }
+    }
+    
+    /**
+     * Sets how many shortest path searches may run at the same time. Every search engine of a snapshot keeps at most
+     * this many sets of O(V) search buffers {@link SearchPool}, however many threads query it, and further queries
+     * wait for a free set. The strategy estimates under the memory budget count the same number of sets. Takes
+     * effect on the next precomputation.
+     * 
+     * @param concurrency the bound, at least 1; the default is the number of processors
+     */
+    public void setQueryConcurrency(int concurrency) {
+        if(concurrency < 1) throw new IllegalArgumentException();
+        synchronized(rebuildLock) {
+            this.queryConcurrency = concurrency;
+        }
+    }
+    
+    /**
+     * Sets whether snapshots keep their adjacency compressed {@link CompressedIntGraph}, about one byte per edge end
+     * after a locality ordering {@link #setVertexOrdering(VertexOrdering, boolean)} instead of four plus an array
+     * header per word. The searches that answer queries, {@link DirectionOptimizingBFS} for the rows of
+     * {@link PathStrategy#ALL_PAIRS_DIJKSTRA}, {@link LandmarkIndex}, {@link AStarSearch} and the weighted
+     * {@link DijkstraSearch}, then decode the neighbor lists as they read them, which makes them slower.
+     * {@link PathStrategy#MULTI_SOURCE_BFS} and {@link PathStrategy#PRUNED_LANDMARK_LABELS} are built from arrays
+     * decoded for the precomputation. Takes effect on the next precomputation.
+     * 
+     * @param compressed true to compress the adjacency, false (the default) to keep int arrays
+     */
+    public void setCompressedAdjacency(boolean compressed) {
+        synchronized(rebuildLock) {
+            this.compressedAdjacency = compressed;
+        }
+    }
+    
+    /**
+     * Gets how many shortest path searches may run at the same time
+     * 
+     * @return int the bound set by {@link #setQueryConcurrency(int)}
+     */
+    public int getQueryConcurrency() {
+        return queryConcurrency;
+    }
+    
+    /**
+     * Gets the decision made under the memory budget by the last precomputation
+     * 
+     * @return StrategySelection the strategy chosen and the estimates it was chosen from, null without a budget
+     */
+    public StrategySelection getStrategySelection() {
+        return selection;
+    }
+    
+    /**
+     * Gets the structure built by the last precomputation
+     * 
+     * @return DistanceOracle the oracle answering queries, null for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}
+     */
+    public DistanceOracle getDistanceOracle() {
+        return snapshot.getDistanceOracle();
+    }
+    
+    /**
+     * Sets whether the precomputation runs in the background. When true, populateGraph and 
+     * shortestPathPrecomputation return as soon as the words and edges are published, and the precomputation runs
+     * on its own thread {@link #getPrecomputation()}. Until it is done, shortest path queries are answered by a 
+     * search that stops at the target, or with {@link PathStrategy#ALL_PAIRS_DIJKSTRA} from the rows of the 
+     * predecessor matrix computed so far {@link IncrementalPathMatrix}. The answers are the same either way.
+     * 
+     * @param background true to precompute in the background, false (the default) to wait for the precomputation
+     */
+    public void setBackgroundPrecomputation(boolean background) {
+        synchronized(rebuildLock) {
+            this.background = background;
+        }
+    }
+    
+    /**
+     * Gets the last precomputation started by populateGraph or shortestPathPrecomputation. It completes with the 
+     * snapshot holding its result once that snapshot is published; it is cancelled if a newer precomputation 
+     * starts first, and completes exceptionally if the precomputation fails, in which case queries keep being 
+     * answered by search.
+     * 
+     * @return CompletableFuture<GraphSnapshot> the last precomputation, already complete when it did not run in the background
+     */
+    public CompletableFuture<GraphSnapshot> getPrecomputation() {
+        return precomputation;
+    }
+    
+    /**
+     * Gets how much of the last precomputation is done. Only {@link PathStrategy#ALL_PAIRS_DIJKSTRA} is measured 
+     * row by row; the other strategies report 0 until they are done.
+     * 
+     * @return double from 0 to 1
+     */
+    public double getPrecomputationProgress() {
+        if(precomputation.isDone()) return 1;
+        IncrementalPathMatrix rows = pendingRows;
+        return rows == null ? 0 : rows.getProgress();
+    }
+    
+    /**
+     * Gets the state queries are currently answered from. A caller that makes several queries and needs them to 
+     * agree with each other can keep the snapshot and query it directly, even after later rebuilds.
+     * 
+     * @return GraphSnapshot the snapshot published by the last rebuild
+     */
+    public GraphSnapshot getSnapshot() {
+        return snapshot;
     }
     
     /**
@@ -194,259 +1012,264 @@ public class GraphProcessor {
      * This method is called after every set of updates in the graph to recompute the path information.
      * Any shortest path algorithm can be used (Djikstra's or Floyd-Warshall recommended).
      * 
-     * This method uses Djikstra's to find the shortest path between every pair of vertices and stores the shortest 
-     * path in to the 2D array of lists shortestPath. The shortest path for a word to itself would contain only the word
-     * itself and the shortest path between two vertices that are not connected would be null. 
+     * This method runs a breadth first search {@link DirectionOptimizingBFS} from every vertex, since every edge counts
+     * one, and stores the word before the last one of each path in the 2D array predecessor, from which getShortestPath
+     * rebuilds the path. The entry for a word and itself is the word itself, and the entry for two vertices that are not 
+     * connected is -1.
+     * With a checkpoint file {@link #setCheckpoint(Path, int)}, the rows are saved as they are computed, and a run over
+     * the same graph reads them back instead of computing them again.
+     * 
+     * With {@link PathStrategy#MULTI_SOURCE_BFS} it instead stores the distance between every pair of vertices,
+     * computed by {@link MultiSourceBFS} in batches of 256 sources, and with {@link PathStrategy#LANDMARKS} it only
+     * stores the distances from the landmarks {@link #setLandmarks(int, LandmarkIndex.Selection)} to every vertex.
+     * {@link PathStrategy#PRUNED_LANDMARK_LABELS} builds a 2-hop label for every vertex, using all processors.
+     * {@link PathStrategy#A_STAR_SEARCH} precomputes nothing and searches for every query.
+     * 
+     * The result is published as a new snapshot; queries keep using the previous one until it is ready, unless the
+     * precomputation runs in the background {@link #setBackgroundPrecomputation(boolean)}.
      */
     public void shortestPathPrecomputation() {
-    	
-    	shortestPath = new ArrayList[wordIndex.size()][wordIndex.size()];	//initialize the 2D arraylist. 
-    	
-    	for(int n = 0; n < wordIndex.size(); n++) {
-	    	ArrayList<heapNode> visited = new ArrayList<heapNode>();		//A list of visited nodes. Words are added
-	    																	//to this list if the node is removed from
-	    																	//the priority queue. 
-	    	minHeap mh = new minHeap(wordIndex.size());						//The priority queue
-	    	String curWord = wordIndex.get(n);								//The starting word of the paths
-	    	heapNode curNode = new heapNode(curWord, null);
-	    	mh.insert(curNode);
-	    	
-	    	while(!mh.isEmpty()) {											//remove the element with the shortest path
-	    																	//until the priority queue is empty
-	    		heapNode min = mh.getMin();
-	    		visited.add(min);											//mark the node with shortest path visited
-	    		heapNode[] nodeList = mh.getList();
-	    		for(heapNode i : nodeList) {								//for every item in the priority queue
-	    			Iterable<String> neighbor = graph.getNeighbors(i.word);	//add all neighbors that are not marked 
-	    			if(neighbor == null)									//visited and are not already in the queue
-	    				continue;											//to the priority queue.
-	    			Iterator<String> neighbors = neighbor.iterator();
-	    			point: while(neighbors.hasNext()){
-	    				String newWord = neighbors.next();
-	    				for(heapNode j : visited) {
-	    					if(j.word.equals(newWord))
-								continue point;
-	    				}
-	    				heapNode oldWord = mh.findNode(newWord);
-	    				heapNode newWordNode = new heapNode(newWord, i);
-	    				if(oldWord == null)
-	    					mh.insert(new heapNode(newWord,i));
-	    				else
-	    					if(oldWord.distance > newWordNode.distance)	//update the word in queue if a shorter path is
-	    						oldWord.setDistance(i);					//found (not expected in this program since
-	    																//the distance is continuously increasing)
-	    			}
-	    		}
-	    		mh.removeMin();
-	    	}
-	    	
-	    	for(int m = 0; m < visited.size(); m++) {				//construct shortest paths between the starting 
-	    		List<String> path = new ArrayList<String>();		//vertex and every other vertex possible.
-	    		heapNode pathNode = visited.get(m);
-	    		path.add(pathNode.word);							//put the destination in the list
-	    		int destIndex = wordIndex.indexOf(pathNode.word);	//find the index of destination.
-	    		while(pathNode.ances != null) {						//this is true when it reaches the starting node.
-	    			pathNode = pathNode.ances;
-	    			path.add(0, pathNode.word);						//add the previous node to the beginning of the path
-	    		}
-	    		shortestPath[n][destIndex] = path;
-	    	}
+    	synchronized(rebuildLock) {
+    		GraphSnapshot current = snapshot;						//the words and their index never change, so they are shared
+    		publish(precompute(current.getArena(), current.getIndex(), current.getRule()));
     	}
     }
     
     /**
-     * This is a priority queue used in the Djikestra's algorithm. It compares the words distance and rank them in 
-     * ascending order. 
+     * Runs the precomputation of the current strategy, or of the one chosen under the memory budget, over
+     * {@link #wordGraph} and wraps the result in a snapshot.
+     * In the background mode, the snapshot returned answers by search and the result is published later by
+     * another thread. Must be called holding {@link #rebuildLock}.
      * 
-     * @author Suyan Qu
-     *
+     * @param dictionary the words of {@link #wordGraph}
+     * @param dictionaryIndex edit distance index over the words
+     * @param rule the adjacency rule the edges of {@link #wordGraph} were found with
+     * @return GraphSnapshot the snapshot to publish
      */
-    private class minHeap{
-    	
-    	/**
-    	 * Number of elements in the priority queue. 
-    	 */
-    	private int size;
-    	
-    	/**
-    	 * The list that stores the elements in the priority queue. 
-    	 */
-    	private heapNode[] list;
-    	
-    	/**
-    	 * Construct a priority queue with the given size. 
-    	 * @param a the size of the priority queue
-    	 */
-    	public minHeap(int a) {
-    		size = 0;
-    		list = new heapNode[a];
-    	}
-    	
-    	/**
-    	 * Checks if the priority queue is empty
-    	 * @return if the priority queue is empty. 
-    	 */
-    	public boolean isEmpty() {
-    		return size == 0;
-    	}
-    	
-    	/**
-    	 * This method finds the heapNode with the shortest distance (the heapNode with the highest priority).
-    	 * @return return the heapNode with the highest priority. 
-    	 */
-    	public heapNode getMin() {
-    		return list[0];
+    private GraphSnapshot precompute(WordArena dictionary, BKTree dictionaryIndex, AdjacencyRule rule) {
+    	long started = ++generation;											//a background run still going stops
+    	precomputation.cancel(false);
+    	if(compressedAdjacency) wordGraph.sortNeighbors();						//the order the compressed lists decode in
+    	int[][] adjacency = wordGraph.toAdjacency();
+    	CompressedIntGraph compressed = compressedAdjacency ? new CompressedIntGraph(adjacency) : null;
+    	IncrementalPathMatrix rows = compressed == null ? new IncrementalPathMatrix(adjacency, queryConcurrency)
+    			: new IncrementalPathMatrix(compressed, queryConcurrency);
+    	pendingRows = rows;
+    	selection = memoryBudget == 0 ? null : new StrategySelection(memoryBudget, adjacency.length, landmarkCount, 
+    			queryConcurrency);
+    	PathStrategy chosen = selection == null ? strategy : selection.getStrategy();
+    	if(!background) {
+    		DistanceOracle oracle = computeOracle(chosen, adjacency, compressed, dictionary, rule, rows, started);
+    		GraphSnapshot done = new GraphSnapshot(++epoch, dictionary, dictionaryIndex, rule,
+    				compressed == null ? adjacency : null, compressed, wordGraph.toWeights(), chosen, oracle,
+    				oracle == null ? rows.toMatrix() : null, queryConcurrency);
+    		precomputation = CompletableFuture.completedFuture(done);
+    		pendingRows = null;													//its search arrays are no longer needed
+    		return done;
     	}
     	
-    	/**
-    	 * This method adds a new element to the priority queue. 
-    	 * @param a	The heapNode object to be added to the priority queue. 
-    	 */
-    	public void insert(heapNode a) {
-    		list[size] = a;
-    		insertHelper(size++);
-    	}
-    	
-    	/**
-    	 * This method recursively restores the properties of a priority queue after an insertion is made.
-    	 * @param index	The index of the node currently checking for restoring properties. 
-    	 */
-    	private void insertHelper(int index) {
-    		if(index == 0) return;
-    		
-    		int parent = (index-1)/2;
-    		int diff = list[index].distance - list[parent].distance;
-    		
-    		if(diff < 0) {
-    			swap(index, parent);
-    			insertHelper(parent);
+    	GraphSnapshot pending = new GraphSnapshot(++epoch, dictionary, dictionaryIndex, rule,
+    			compressed == null ? adjacency : null, compressed, wordGraph.toWeights(), chosen, rows, null, queryConcurrency);
+    	precomputation = CompletableFuture.supplyAsync(() -> {
+    		DistanceOracle oracle = computeOracle(chosen, adjacency, compressed, dictionary, rule, rows, started);
+    		int[][] predecessor = oracle == null ? rows.toMatrix() : null;
+    		synchronized(rebuildLock) {
+    			if(started != generation) throw new CancellationException("replaced by a newer precomputation");
+    			GraphSnapshot done = snapshot.withPathData(++epoch, chosen, oracle, predecessor);	//keeps edit costs set meanwhile
+    			publish(done);
+    			if(pendingRows == rows) pendingRows = null;
+    			return done;
     		}
-    	}
-    	
-    	/**
-    	 * This method removes the heapNode object with the highest priority from the priority queue. 
-    	 * @return The heapNode with highest priority. 
-    	 */
-    	public heapNode removeMin() {
-    		if(size == 1) return list[--size];
-    		heapNode temp = list[0];
-    		swap(0, --size);
-    		removeHelper(0);
-    		return temp;
-    	}
-    	
-    	/**
-    	 * This method recursively restores the property of a priority queue after an deletion is made. 
-    	 * @param index The index of the node currently checking for restoring properties. 
-    	 */
-    	private void removeHelper(int index) {
-    		int lc = 2*index+1;
-    		int rc = 2*index+2;
-    		
-    		if(lc >= size) return;
-    		if(rc >= size) {
-    			if(list[index].distance - list[lc].distance <= 0) return;
-    			else {
-    				swap(index, lc);
-    				removeHelper(lc);
+    	}, task -> Thread.ofPlatform().name("graph-precomputation").daemon().start(task));
+    	return pending;
+    }
+    
+    /**
+     * Builds the shortest path data of a strategy
+     * 
+     * @param chosen the strategy
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the word with id v
+     * @param compressed the same adjacency in compressed form, which the searches read when it is not null
+     * @param dictionary the words of the graph
+     * @param rule the adjacency rule the edges were found with, which bounds the distances A* is guided by
+     * @param rows receives every row of the predecessor matrix for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}
+     * @param started the generation of this precomputation, which stops once a newer one starts
+     * @return DistanceOracle the oracle of the strategy, null for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}
+     */
+    private DistanceOracle computeOracle(PathStrategy chosen, int[][] adjacency, CompressedIntGraph compressed,
+    		WordArena dictionary, AdjacencyRule rule, IncrementalPathMatrix rows, long started) {
+    	switch(chosen) {
+    		case MULTI_SOURCE_BFS:
+    			return MultiSourceBFS.precompute(adjacency, 4);
+    		case LANDMARKS:
+    			if(compressed != null) {
+    				return new LandmarkIndex(compressed, landmarkCount, landmarkSelection, dictionary.size(), queryConcurrency);
     			}
-    		}else {
-    			if(list[lc].distance - list[rc].distance <= 0) {
-    					if(list[index].distance - list[lc].distance <= 0) return;
-    					else {
-    						swap(index, lc);
-    						removeHelper(lc);
-    					}
-    			}else {
-    				if(list[index].distance - list[rc].distance <= 0) return;
-    				else {
-    					swap(index, rc);
-    					removeHelper(rc);
-    				}
+    			return new LandmarkIndex(adjacency, landmarkCount, landmarkSelection, dictionary.size(), queryConcurrency);
+    		case PRUNED_LANDMARK_LABELS:
+    			return new PrunedLandmarkLabeling(adjacency, Runtime.getRuntime().availableProcessors());
+    		case A_STAR_SEARCH:
+    			return compressed == null ? new AStarSearch(adjacency, dictionary, rule, queryConcurrency)
+    					: new AStarSearch(compressed, dictionary, rule, queryConcurrency);
+    		default:
+    			computeRows(adjacency, dictionary, rows, started);
+    			return null;
+    	}
+    }
+    
+    /**
+     * Computes every row of the predecessor matrix that is missing, after reading back the rows saved in the
+     * checkpoint file and saving the new ones to it as they are computed. A checkpoint file that can not be read or
+     * written is reported and no longer used; the rows are still computed.
+     * 
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the word with id v
+     * @param dictionary the words of the graph
+     * @param rows receives every row
+     * @param started the generation of this precomputation, which stops once a newer one starts
+     */
+    private void computeRows(int[][] adjacency, WordArena dictionary, IncrementalPathMatrix rows, long started) {
+    	Path file = checkpointFile;
+    	PrecomputationCheckpoint checkpoint = null;
+    	restoredRows = 0;
+    	if(file != null) {
+    		synchronized(checkpointLock) {
+    			try {
+    				checkpoint = new PrecomputationCheckpoint(file, adjacency.length,
+    						PrecomputationCheckpoint.fingerprint(dictionary, adjacency));
+    				restoredRows = checkpoint.restore(rows);
+    			} catch(IOException e) {
+    				e.printStackTrace();
+    				checkpoint = close(checkpoint);
     			}
     		}
     	}
-    	
-    	/**
-    	 * This method returns the heapNode object that contains the given word. 
-    	 * @param word the word stored in the heapNode we are looking for. 
-    	 * @return the heapNode object in the priority queue that contains the given word. If the word is not in this 
-    	 * 			priority queue, reutrn null. 
-    	 */
-    	public heapNode findNode(String word) {
-    		for(int i = 0; i < size; i++) {
-    			if(list[i].word == word) return list[i];
+    	int[] unsaved = new int[Math.max(1, checkpointInterval)];
+    	int count = 0;
+    	try {
+    		for(int n = 0; n < dictionary.size(); n++) {
+    			if(started != generation) throw new CancellationException("replaced by a newer precomputation");
+    			if(rows.getRow(n) != null) continue;								//read back from the checkpoint
+    			rows.computeRow(n);													//distances and previous words from n
+    			if(checkpoint == null) continue;
+    			unsaved[count++] = n;
+    			if(count == unsaved.length) {
+    				checkpoint = save(checkpoint, rows, unsaved, count, started);
+    				count = 0;
+    			}
     		}
-    		return null;
-    	}
-    	
-    	/**
-    	 * This method swaps two heapNodes in the priority queue. 
-    	 * @param index1	the index of the first word to be swapped. 
-    	 * @param index2	the index of the second word to be swapped. 
-    	 */
-    	private void swap(int index1, int index2) {
-    		heapNode temp = list[index1];
-			list[index1] = list[index2];
-			list[index2] = temp;
-    	}
-    	
-    	/**
-    	 * This method returns a array of all elements stored in the priority queue. 
-    	 * @return	An array of heapNodes stored in the priority queue. 
-    	 */
-    	public heapNode[] getList() {
-    		return Arrays.copyOf(list, size);
+    		if(checkpoint != null) checkpoint = save(checkpoint, rows, unsaved, count, started);
+    	} finally {
+    		close(checkpoint);
     	}
     }
     
     /**
-     * This is the class for nodes used in priority queue. It stores the distance, the word, and the previous node
-     * @author Suyan Qu
-     *
+     * Appends rows to the checkpoint file, unless a newer precomputation has started
+     * 
+     * @param checkpoint the open checkpoint
+     * @param rows the matrix
+     * @param sources the sources of the rows to save
+     * @param count number of rows to save
+     * @param started the generation of this precomputation
+     * @return the checkpoint, or null if it failed and was closed
      */
-    private class heapNode{
-    	
-    	/**
-    	 * The distance from the starting vertex to this vertex. 
-    	 */
-    	public int distance;
-    	
-    	/**
-    	 * The word being stored in this heapNode. 
-    	 */
-    	public String word;
-    	
-    	/**
-    	 * The previous heapNode to the current node in the shortest path. 
-    	 */
-    	public heapNode ances;
-    	
-    	/**
-    	 * This method constructs a new heapNode object. 
-    	 * @param a	The word to be stored in this node
-    	 * @param b	The distance of this node
-    	 * @param an	The previous heapNode to this heapNode
-    	 */
-    	public heapNode(String a, heapNode an) {
-    		word = a;
-    		ances = an;
-    		distance = an == null? 0:1+an.distance;	//since this is an unweighted graph, the edge weight is always 1
+    private PrecomputationCheckpoint save(PrecomputationCheckpoint checkpoint, IncrementalPathMatrix rows, int[] sources,
+    		int count, long started) {
+    	synchronized(checkpointLock) {
+    		if(started != generation) return checkpoint;						//the file belongs to the newer one
+    		try {
+    			checkpoint.append(rows, sources, count);
+    			return checkpoint;
+    		} catch(IOException e) {
+    			e.printStackTrace();
+    			return close(checkpoint);
+    		}
     	}
-    	
-    	/**
-    	 * This method changes the value of this heapNode if a shorter path to this node is found. 
-    	 * @param an	The new heapNode to this current node on the shortest path. 
-    	 * @param val	The distance from the starting word to the current word. 
-    	 */
-    	public void setDistance(heapNode an) {
-    		distance = 1+an.distance;
-    		ances = an;
+    }
+    
+    /**
+     * Closes a checkpoint, reporting a failure
+     * 
+     * @param checkpoint the checkpoint, may be null
+     * @return null
+     */
+    private static PrecomputationCheckpoint close(PrecomputationCheckpoint checkpoint) {
+    	if(checkpoint == null) return null;
+    	try {
+    		checkpoint.close();
+    	} catch(IOException e) {
+    		e.printStackTrace();
     	}
-    	
-    	@Override
-    	public String toString() {
-    		return word;
+    	return null;
+    }
+    
+    /**
+     * Gets the distance between two words from one snapshot {@link #getShortestDistance(String, String)}
+     * 
+     * @param current the snapshot to answer from
+     * @param word1 first word
+     * @param word2 second word
+     * @return the distance, -1 if there is no path or the words are equal
+     */
+    private int distance(GraphSnapshot current, String word1, String word2) {
+    	word1 = current.snap(word1, snapDistance);
+    	word2 = current.snap(word2, snapDistance);
+    	if(word1 == null || word2 == null || word1.equals(word2)) return -1;	//no path, or the words are equal
+    	int index1 = current.indexOf(word1);
+    	int index2 = current.indexOf(word2);
+    	DistanceOracle oracle = current.getDistanceOracle();
+    	if(!exactDistances && oracle instanceof LandmarkIndex) {				//the length of the path through the best landmark
+    		int upper = ((LandmarkIndex) oracle).getBounds(index1, index2)[1];
+    		if(upper != Integer.MAX_VALUE) return upper;
     	}
+    	return current.getDistance(index1, index2);
+    }
+    
+    /**
+     * Makes a new snapshot the one queries read, and retires the cached answers of the previous one
+     * 
+     * @param next the snapshot to publish
+     */
+    private void publish(GraphSnapshot next) {
+    	snapshot = next;
+    	invalidateQueryCache();
+    }
+    
+    /**
+     * Retires every cached answer. Must be called after the change that made them wrong.
+     */
+    private void invalidateQueryCache() {
+    	queryVersion.incrementAndGet();
+    	TinyLfuCache<QueryKey, Object> cache = queryCache;
+    	if(cache != null) cache.clear();
+    }
+    
+    /**
+     * Gets the weight of an edge from its edit cost. Edges of adjacency rules that are not a single edit, such as
+     * swaps or anagrams, cost as much as the dearest single edit.
+     * 
+     * @param from the word the edge starts at
+     * @param to the word the edge ends at
+     * @return the weight of the edge
+     */
+    private int edgeCost(CharSequence from, CharSequence to) {
+    	int cost = editCosts.cost(from, to);
+    	return cost < 0 ? editCosts.getMaxCost() : cost;
+    }
+    
+    /**
+     * Gives the edge between two adjacent words the edit cost of each direction
+     * 
+     * @param target the int graph being built
+     * @param id1 id of the first word
+     * @param id2 id of the second word
+     * @param word1 first word, read in place from the arena
+     * @param word2 second word, read in place from the arena
+     */
+    private void setEdgeWeights(IntGraph target, int id1, int id2, CharSequence word1, CharSequence word2) {
+    	int forward = edgeCost(word1, word2);
+    	int backward = edgeCost(word2, word1);
+    	target.setEdgeWeight(id1, id2, forward);
+    	target.setEdgeWeight(id2, id1, backward);
     }
 }
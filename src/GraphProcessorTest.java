@@ -13,7 +13,31 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import org.junit.After;
@@ -309,5 +333,1037 @@ public class GraphProcessorTest {
         flag = !g.isAdjacent("cat", "at");
         if (flag) fail("Expected: true Got:" + flag);
     }
+    
+    @Test
+    /**
+     * Tests that findSimilarWords returns the dictionary words within the given 
+     * edit distance of a word that is not in the dictionary, closest first.
+     */
+    public void test_18_findSimilarWords() {
+        testFile("cat,hat,hate,hater,hit,car");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        boolean flag = false;
+        List<String> p = g.findSimilarWords("chat", 1);
+        flag = flag || (p.size() != 2);
+        flag = flag || (!p.get(0).equals("CAT"));
+        flag = flag || (!p.get(1).equals("HAT"));
+        if (flag) fail("Expected [ CAT,HAT ], got [ " + String.join(",", p) + " ]");
+    }
+    
+    @Test
+    /**
+     * Tests that getShortestDistance snaps a word that is not in the dictionary 
+     * to its nearest dictionary word before finding the path.
+     */
+    public void test_19_shortestDistanceSnapsUnknownWord() {
+        testFile("cat,hat,hate,hater,hit,car");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        boolean flag = false;
+        int n = g.getShortestDistance("caat","haters");
+        flag = (n!=3);
+        if (flag) fail("Expected 3, got " + n );
+    }
+    
+    @Test
+    /**
+     * Tests that getShortestDistance returns -1 when a word is further than the 
+     * snap distance from every dictionary word.
+     */
+    public void test_20_shortestDistanceUnknownWordTooFar() {
+        testFile("cat,hat,hate,hater,hit,car");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        g.setSnapDistance(1);
+        boolean flag = false;
+        int n = g.getShortestDistance("octopus","cat");
+        flag = (n!=-1);
+        if (flag) fail("Expected -1, got " + n );
+    }
+    
+    @Test
+    /**
+     * Tests that the graph analytics find the diameter, radius and number of 
+     * pairs at each distance of a small dictionary.
+     */
+    public void test_21_graphAnalytics() {
+        testFile("cat,hat,hate,hater,hit,car");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        GraphAnalytics<String> a = g.getGraphAnalytics();
+        boolean flag = false;
+        flag = flag || (a.getDiameter() != 4);
+        flag = flag || (a.getRadius() != 2);
+        long[] d = a.getDistanceDistribution();
+        flag = flag || (d.length != 5 || d[1] != 5 || d[2] != 5 || d[3] != 4 || d[4] != 1);
+        if (flag) fail("Expected diameter 4, radius 2 and distribution [0,5,5,4,1], got diameter " 
+        + a.getDiameter() + ", radius " + a.getRadius() + " and " + Arrays.toString(d));
+    }
+    
+    @Test
+    /**
+     * Tests that the multi-source BFS strategy finds the same distance as the
+     * Dijkstra strategy for every pair of words, and returns valid paths.
+     */
+    public void test_22_multiSourceBFSMatchesDijkstra() {
+        String list = "cat,hat,hate,hater,hit,car,bat,bait,wait,what,wheat,heat,neat,kit,apple";
+        testFile(list);
+        GraphProcessor dijkstra = new GraphProcessor();
+        dijkstra.populateGraph(fileName);
+        GraphProcessor bfs = new GraphProcessor();
+        bfs.setPathStrategy(PathStrategy.MULTI_SOURCE_BFS);
+        bfs.populateGraph(fileName);
+        String[] words = list.split(",");
+        for (String w1 : words) {
+            for (String w2 : words) {
+                int expected = dijkstra.getShortestDistance(w1, w2);
+                int n = bfs.getShortestDistance(w1, w2);
+                if (n != expected) fail("Expected " + expected + " between " + w1 + " and " + w2 + ", got " + n);
+                List<String> p = bfs.getShortestPath(w1, w2);
+                if (expected > 0 && (p.size() != expected+1 || !p.get(0).equalsIgnoreCase(w1) 
+                        || !p.get(expected).equalsIgnoreCase(w2))) {
+                    fail("Expected a path of " + (expected+1) + " words from " + w1 + " to " + w2 + ", got " + p);
+                }
+            }
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that the landmark strategy finds the same distance as the Dijkstra 
+     * strategy for every pair of words with each landmark selection, and that
+     * the landmark bounds contain the exact distance.
+     */
+    public void test_23_landmarksMatchDijkstra() {
+        String list = "cat,hat,hate,hater,hit,car,bat,bait,wait,what,wheat,heat,neat,kit,apple";
+        testFile(list);
+        GraphProcessor dijkstra = new GraphProcessor();
+        dijkstra.populateGraph(fileName);
+        String[] words = list.split(",");
+        for (LandmarkIndex.Selection selection : LandmarkIndex.Selection.values()) {
+            GraphProcessor landmarks = new GraphProcessor();
+            landmarks.setPathStrategy(PathStrategy.LANDMARKS);
+            landmarks.setLandmarks(2, selection);
+            landmarks.populateGraph(fileName);
+            for (String w1 : words) {
+                for (String w2 : words) {
+                    int expected = dijkstra.getShortestDistance(w1, w2);
+                    int n = landmarks.getShortestDistance(w1, w2);
+                    if (n != expected) fail(selection + ": expected " + expected + " between " + w1 + " and " + w2 + ", got " + n);
+                    int[] bounds = landmarks.getDistanceBounds(w1, w2);
+                    if (expected > 0 && (bounds[0] > expected || bounds[1] < expected)) {
+                        fail(selection + ": bounds " + Arrays.toString(bounds) + " between " + w1 + " and " + w2 + " miss " + expected);
+                    }
+                    List<String> p = landmarks.getShortestPath(w1, w2);
+                    if (expected > 0 && p.size() != expected+1) fail(selection + ": expected " + (expected+1) + " words, got " + p);
+                }
+            }
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that the pruned landmark labels find the same distance as the
+     * Dijkstra strategy for every pair of words, and return valid paths.
+     */
+    public void test_24_prunedLandmarkLabelsMatchDijkstra() {
+        String list = "cat,hat,hate,hater,hit,car,bat,bait,wait,what,wheat,heat,neat,kit,apple";
+        testFile(list);
+        GraphProcessor dijkstra = new GraphProcessor();
+        dijkstra.populateGraph(fileName);
+        GraphProcessor labels = new GraphProcessor();
+        labels.setPathStrategy(PathStrategy.PRUNED_LANDMARK_LABELS);
+        labels.populateGraph(fileName);
+        String[] words = list.split(",");
+        for (String w1 : words) {
+            for (String w2 : words) {
+                int expected = dijkstra.getShortestDistance(w1, w2);
+                int n = labels.getShortestDistance(w1, w2);
+                if (n != expected) fail("Expected " + expected + " between " + w1 + " and " + w2 + ", got " + n);
+                List<String> p = labels.getShortestPath(w1, w2);
+                if (expected > 0 && (p.size() != expected+1 || !p.get(0).equalsIgnoreCase(w1) 
+                        || !p.get(expected).equalsIgnoreCase(w2))) {
+                    fail("Expected a path of " + (expected+1) + " words from " + w1 + " to " + w2 + ", got " + p);
+                }
+                for (int i = 1; expected > 0 && i < p.size(); i++) {
+                    if (!WordProcessor.isAdjacent(p.get(i-1), p.get(i))) fail("Path " + p + " is not a word ladder");
+                }
+            }
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that weighted distances equal edge counts with uniform costs, and 
+     * follow the cost of each edit (and its direction) with custom costs.
+     */
+    public void test_25_weightedShortestDistance() {
+        String list = "cat,hat,hate,hater,hit,car,cart,vat";
+        testFile(list);
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        String[] words = list.split(",");
+        for (String w1 : words) {
+            for (String w2 : words) {
+                int expected = g.getShortestDistance(w1, w2);
+                int n = g.getWeightedShortestDistance(w1, w2);
+                if (n != expected) fail("Expected " + expected + " between " + w1 + " and " + w2 + ", got " + n);
+            }
+        }
+        g.setEditCosts(new EditCosts(1, 5, 2, true));
+        boolean flag = false;
+        flag = flag || (g.getWeightedShortestDistance("cat", "cart") != 5);
+        flag = flag || (g.getWeightedShortestDistance("cart", "cat") != 2);
+        flag = flag || (g.getWeightedShortestDistance("cat", "vat") != 1);
+        flag = flag || (g.getWeightedShortestDistance("hate", "cart") != 10);
+        List<String> p = g.getWeightedShortestPath("cart", "hater");
+        flag = flag || (p.size() != 5);
+        if (flag) fail("Expected costs 5, 2, 1, 10 and a path of 5 words, got " 
+        + g.getWeightedShortestDistance("cat", "cart") + ", " + g.getWeightedShortestDistance("cart", "cat") + ", "
+        + g.getWeightedShortestDistance("cat", "vat") + ", " + g.getWeightedShortestDistance("hate", "cart") + " and " + p);
+    }
+    
+    @Test
+    /**
+     * Tests that the A* strategy finds the same distance as the Dijkstra 
+     * strategy for every pair of words, without expanding more words than 
+     * a breadth first search.
+     */
+    public void test_26_aStarMatchesDijkstra() {
+        String list = "cat,hat,hate,hater,hit,car,bat,bait,wait,what,wheat,heat,neat,kit,apple";
+        testFile(list);
+        GraphProcessor dijkstra = new GraphProcessor();
+        dijkstra.populateGraph(fileName);
+        GraphProcessor aStar = new GraphProcessor();
+        aStar.setPathStrategy(PathStrategy.A_STAR_SEARCH);
+        aStar.populateGraph(fileName);
+        String[] words = list.split(",");
+        for (String w1 : words) {
+            for (String w2 : words) {
+                int expected = dijkstra.getShortestDistance(w1, w2);
+                int n = aStar.getShortestDistance(w1, w2);
+                if (n != expected) fail("Expected " + expected + " between " + w1 + " and " + w2 + ", got " + n);
+                List<String> p = aStar.getShortestPath(w1, w2);
+                if (expected > 0 && p.size() != expected+1) fail("Expected " + (expected+1) + " words, got " + p);
+                int[] effort = aStar.getSearchEffort(w1, w2);
+                if (expected > 0 && effort[0] > effort[1]) {
+                    fail("A* expanded " + effort[0] + " words between " + w1 + " and " + w2 + ", BFS only " + effort[1]);
+                }
+            }
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that words kept in a WordArena are found, compared and copied out like the Strings they came from,
+     * and that repeated words are counted by populateGraph but stored once
+     */
+    public void test_27_wordArena() {
+        String list = "cat,hat,hate,hater,hit,car,bat,bait,wait,what,wheat,heat,neat,kit,apple,cat";
+        String[] words = list.toUpperCase().split(",");
+        WordArena arena = new WordArena();
+        for (String w : words) arena.add(w);
+        if (arena.size() != words.length-1) fail("Expected " + (words.length-1) + " words, got " + arena.size());
+        for (int i = 0; i < arena.size(); i++) {
+            if (!arena.getWord(i).equals(words[i])) fail("Expected " + words[i] + ", got " + arena.getWord(i));
+            if (arena.indexOf(words[i]) != i) fail("Expected id " + i + " for " + words[i]);
+            if (!arena.view(i).toString().equals(words[i])) fail("View of " + words[i] + " is " + arena.view(i));
+            if (arena.length(i) != words[i].length()) fail("Expected length " + words[i].length() + " for " + words[i]);
+            for (int j = 0; j < words[i].length(); j++) {
+                if (arena.charAt(i, j) != words[i].charAt(j)) fail("Char " + j + " of " + words[i] + " differs");
+            }
+        }
+        if (arena.indexOf("DOG") != -1) fail("DOG is not in the arena");
+        
+        testFile(list);
+        GraphProcessor g = new GraphProcessor();
+        int n = g.populateGraph(fileName);
+        if (n != words.length) fail("Expected " + words.length + " words read, got " + n);
+        if (g.getShortestDistance("cat", "wheat") != 3) fail("Expected 3, got " + g.getShortestDistance("cat", "wheat"));
+    }
+    
+    @Test
+    /**
+     * Tests the replies of the query server and that a load run over real connections gets no errors
+     */
+    public void test_28_queryServer() throws Exception {
+        testFile("cat,hat,hate,hater,hit,car");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        try (WordGraphServer server = new WordGraphServer(g)) {
+            String reply = server.handle("PATH cat hater");
+            if (!reply.equals("OK CAT HAT HATE HATER")) fail("Expected OK CAT HAT HATE HATER, got " + reply);
+            reply = server.handle("dist cat hater");
+            if (!reply.equals("OK 3")) fail("Expected OK 3, got " + reply);
+            reply = server.handle("NEIGHBORS hat");
+            if (!reply.equals("OK CAT HATE HIT")) fail("Expected OK CAT HATE HIT, got " + reply);
+            reply = server.handle("PATH cat");
+            if (!reply.startsWith("ERR")) fail("Expected an error for a missing word, got " + reply);
+            if (server.handle("QUIT") != null) fail("QUIT should close the connection");
+            
+            int port = server.start(0);
+            WordGraphLoadClient.Report report = WordGraphLoadClient.run(port, 
+                    Arrays.asList("CAT", "HAT", "HATE", "HATER", "HIT", "CAR"), 8, 50, 1);
+            if (report.requests != 400 || report.errors != 0) fail("Expected 400 requests without errors, got " + report);
+            if (report.getPercentile(50) > report.getPercentile(99)) fail("Percentiles out of order: " + report);
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that queries made while populateGraph reloads other dictionaries always see one complete dictionary,
+     * and that a snapshot kept by a caller still answers after it is replaced
+     */
+    public void test_29_snapshotDuringReload() throws Exception {
+        String first = "cat,hat,hate,hater,hit,car";
+        String second = "cat,bat,bate,bater,hater";
+        List<String> firstPath = Arrays.asList("CAT", "HAT", "HATE", "HATER");
+        List<String> secondPath = Arrays.asList("CAT", "BAT", "BATE", "BATER", "HATER");
+        testFile(first);
+        GraphProcessor g = new GraphProcessor();
+        g.setSnapDistance(0);
+        g.populateGraph(fileName);
+        GraphSnapshot kept = g.getSnapshot();
+        
+        AtomicReference<String> error = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                List<String> p = g.getShortestPath("cat", "hater");
+                if (!firstPath.equals(p) && !secondPath.equals(p)) error.compareAndSet(null, "Half built path " + p);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20; i++) {
+            testFile(i % 2 == 0 ? second : first);
+            g.populateGraph(fileName);
+        }
+        done.set(true);
+        reader.join();
+        if (error.get() != null) fail(error.get());
+        
+        if (g.getSnapshot().getEpoch() != kept.getEpoch()+20) fail("Expected 20 new snapshots");
+        List<String> p = kept.toWords(kept.getPath(kept.indexOf("CAT"), kept.indexOf("HATER")));
+        if (!firstPath.equals(p)) fail("Expected " + firstPath + " from the kept snapshot, got " + p);
+    }
+    
+    @Test
+    /**
+     * Tests that a background precomputation answers the same paths while it runs and after it is done,
+     * and that a reload before it finishes replaces it
+     */
+    public void test_30_backgroundPrecomputation() throws Exception {
+        testFile("cat,hat,hate,hater,hit,car,bat,bate");
+        GraphProcessor blocking = new GraphProcessor();
+        blocking.populateGraph(fileName);
+        GraphProcessor g = new GraphProcessor();
+        g.setBackgroundPrecomputation(true);
+        g.populateGraph(fileName);
+        String[] words = {"CAT", "HAT", "HATE", "HATER", "HIT", "CAR", "BAT", "BATE"};
+        for (String w1 : words) {
+            for (String w2 : words) {
+                if (!blocking.getShortestPath(w1, w2).equals(g.getShortestPath(w1, w2))) {
+                    fail("Expected the same path from " + w1 + " to " + w2 + " while precomputing");
+                }
+            }
+        }
+        GraphSnapshot done = g.getPrecomputation().get();
+        if (g.getPrecomputationProgress() != 1) fail("Expected the precomputation to be done");
+        if (done != g.getSnapshot() || done.getDistanceOracle() != null) fail("Expected the predecessor matrix");
+        for (String w1 : words) {
+            for (String w2 : words) {
+                if (blocking.getShortestDistance(w1, w2) != g.getShortestDistance(w1, w2)) {
+                    fail("Expected the same distance from " + w1 + " to " + w2 + " after precomputing");
+                }
+            }
+        }
+        
+        CompletableFuture<GraphSnapshot> replaced = g.getPrecomputation();
+        g.populateGraph(fileName);
+        testFile("cat,hat");
+        g.populateGraph(fileName);
+        g.getPrecomputation().get();
+        if (!Arrays.asList("CAT", "HAT").equals(g.getShortestPath("cat", "hat"))) fail("Expected the last dictionary");
+        if (g.getSnapshot().indexOf("HATE") != -1) fail("Expected HATE to be gone");
+        if (!replaced.isDone()) fail("Expected the first precomputation to be done");
+    }
+    
+    @Test
+    /**
+     * Tests that a memory budget picks the fastest strategy that fits and that every choice answers the same paths
+     */
+    public void test_31_memoryBudget() {
+        testFile("cat,hat,hate,hater,hit,car,bat,bate");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        if (g.getStrategySelection() != null) fail("Expected no selection without a budget");
+        List<String> expected = g.getShortestPath("car", "bate");
+        
+        long[] budgets = {1L << 40, StrategySelection.estimate(PathStrategy.MULTI_SOURCE_BFS, 8, 16, 
+                Runtime.getRuntime().availableProcessors()), 1};
+        PathStrategy[] chosen = {PathStrategy.ALL_PAIRS_DIJKSTRA, PathStrategy.MULTI_SOURCE_BFS, 
+                PathStrategy.A_STAR_SEARCH};
+        for (int i = 0; i < budgets.length; i++) {
+            g.setMemoryBudget(budgets[i]);
+            g.shortestPathPrecomputation();
+            StrategySelection selection = g.getStrategySelection();
+            if (selection.getStrategy() != chosen[i] || g.getSnapshot().getStrategy() != chosen[i]) {
+                fail("Expected " + chosen[i] + " for a budget of " + budgets[i] + ", got " + selection);
+            }
+            if (!expected.equals(g.getShortestPath("car", "bate"))) fail("Expected the same path with " + chosen[i]);
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that the edges found by the index of every adjacency rule are exactly the pairs its predicate accepts
+     */
+    public void test_32_adjacencyRules() {
+        testFile("tea,eat,ate,rate,tear,tears,stare,form,from,forms,foam,cat,act,at,aa,aaa,baa");
+        AdjacencyRule[] rules = {new OneEditRule(), new TranspositionRule(), new AnagramRule()};
+        for (AdjacencyRule rule : rules) {
+            GraphProcessor g = new GraphProcessor();
+            g.setAdjacencyRule(rule);
+            g.populateGraph(fileName);
+            GraphSnapshot s = g.getSnapshot();
+            for (int i = 0; i < s.getWordCount(); i++) {
+                HashSet<Integer> found = new HashSet<Integer>();
+                for (int neighbor : s.getNeighbors(i)) {
+                    if (!found.add(neighbor)) fail("Expected one edge from " + s.getWord(i) + " to " + s.getWord(neighbor));
+                }
+                for (int j = 0; j < s.getWordCount(); j++) {
+                    if (rule.isAdjacent(s.getWord(i), s.getWord(j)) != found.contains(j)) {
+                        fail(rule.getClass().getSimpleName() + " disagrees on " + s.getWord(i) + " and " + s.getWord(j));
+                    }
+                }
+            }
+        }
+        
+        GraphProcessor g = new GraphProcessor();
+        g.setAdjacencyRule(new TranspositionRule());
+        g.populateGraph(fileName);
+        if (!Arrays.asList("FORMS", "FORM", "FROM").equals(g.getShortestPath("forms", "from"))) fail("Expected a swap");
+        g.setAdjacencyRule(new AnagramRule());
+        g.populateGraph(fileName);
+        if (g.getShortestDistance("ate", "stare") != 2) fail("Expected a ladder of anagrams");
+        if (g.getWeightedShortestDistance("ate", "stare") != 2) fail("Expected anagram edges to cost one edit");
+    }
+    
+    @Test
+    /**
+     * Tests that the query cache keeps a popular query through a scan of one-off queries, gives the same answers 
+     * as no cache, and is emptied by a reload
+     */
+    public void test_33_queryCache() {
+        testFile("cat,hat,hate,hater,hit,car,bat,bate,rat,rate,mat,mate");
+        GraphProcessor plain = new GraphProcessor();
+        plain.populateGraph(fileName);
+        GraphProcessor g = new GraphProcessor();
+        g.setQueryCacheSize(16);
+        g.populateGraph(fileName);
+        for (int i = 0; i < 20; i++) {
+            if (!plain.getShortestPath("car", "hater").equals(g.getShortestPath("car", "hater"))) fail("Expected the same path");
+        }
+        String[] words = {"CAT", "HAT", "HATE", "HIT", "BAT", "BATE", "RAT", "RATE", "MAT", "MATE", "ZZZZZZ"};
+        for (String w1 : words) {
+            for (String w2 : words) {
+                if (!Objects.equals(plain.getShortestPath(w1, w2), g.getShortestPath(w1, w2))) fail("Expected the same path");
+                if (!plain.getShortestDistance(w1, w2).equals(g.getShortestDistance(w1, w2))) fail("Expected the same distance");
+            }
+        }
+        long hits = g.getQueryCacheStats().hits;
+        g.getShortestPath("car", "hater");
+        TinyLfuCache.Stats stats = g.getQueryCacheStats();
+        if (stats.hits != hits+1) fail("Expected the popular query to survive the scan: " + stats);
+        if (stats.rejections == 0 || stats.size > 16) fail("Expected one-off queries to be rejected: " + stats);
+        
+        testFile("car,bar,bat");
+        g.populateGraph(fileName);
+        if (g.getQueryCacheStats().size != 0) fail("Expected the reload to empty the cache");
+        if (g.getShortestPath("car", "hater") != null) fail("Expected the answer of the new dictionary");
+    }
+    
+    @Test
+    /**
+     * Tests that mined pairs are at the distance asked for, that enumeration finds every such pair once, and that
+     * the longest shortest path of every component is found
+     */
+    public void test_34_comboMining() throws IOException {
+        testFile("cat,hat,hate,hater,hit,car,bat,bate,rat,rate,mat,mate,dog,dot,jot");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        ComboMiner miner = g.getComboMiner();
+        long[] distribution = g.getGraphAnalytics().getDistanceDistribution();
+        for (int d = 1; d < distribution.length; d++) {
+            StringWriter out = new StringWriter();
+            if (miner.mine(d, 0, 10, 0, 1, out) != distribution[d]) fail("Expected every pair at distance " + d);
+            HashSet<String> pairs = new HashSet<String>();
+            for (String line : out.toString().split("\n")) {
+                String[] words = line.split(" : ")[0].split(":");
+                if (!line.endsWith(" : " + d) || g.getShortestDistance(words[0], words[1]) != d) fail("Bad pair " + line);
+                if (!pairs.add(words[0].compareTo(words[1]) < 0 ? line : words[1] + ":" + words[0])) fail("Repeated " + line);
+            }
+        }
+        
+        StringWriter sampled = new StringWriter();
+        if (miner.mine(2, 3, 4, 2, 67, sampled) != 4) fail("Expected 2 pairs for each word length");
+        StringWriter longest = new StringWriter();
+        miner.mineLongest(1, longest);
+        String[] lines = longest.toString().split("\n");
+        if (lines.length != 2 || !lines[0].endsWith(" : " + g.getGraphAnalytics().getDiameter())) {
+            fail("Expected the diameter first, got " + longest);
+        }
+        if (!lines[1].endsWith(" : 2")) fail("Expected DOG, DOT and JOT to span 2, got " + lines[1]);
+    }
+    
+    @Test
+    /**
+     * Tests betweenness centrality on a path and a cycle, where the scores are known, and on a larger graph, where 
+     * the scores must add up to the number of inner vertices over all shortest paths
+     */
+    public void test_35_betweenness() {
+        testFile("cat,hat,hate,hater,dog,dot,log,lot");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        Map<String, Double> b = g.getGraphAnalytics().getBetweenness();
+        if (b.get("CAT") != 0 || b.get("HAT") != 2 || b.get("HATE") != 2 || b.get("HATER") != 0) fail("Bad path scores " + b);
+        if (b.get("DOG") != 0.5 || b.get("DOT") != 0.5 || b.get("LOT") != 0.5) fail("Expected shared paths " + b);
+        
+        testFile("cat,hat,hate,hater,hit,car,bat,bate,rat,rate,mat,mate,bar,bare,care,core,cure");
+        g = new GraphProcessor();
+        g.populateGraph(fileName);
+        GraphAnalytics<String> a = g.getGraphAnalytics();
+        long[] distribution = a.getDistanceDistribution();
+        long inner = 0;
+        for (int d = 2; d < distribution.length; d++) inner += distribution[d]*(d-1);
+        double total = 0;
+        for (double score : a.getBetweenness().values()) total += score;
+        if (Math.abs(total-inner) > 1e-6) fail("Expected scores adding up to " + inner + ", got " + total);
+        if (!a.getBetweenness(1000, 1).equals(a.getBetweenness())) fail("Expected every source to give the exact scores");
+        Map<String, Double> top = a.getTopBetweenness(3, 0, 0);
+        double best = Collections.max(a.getBetweenness().values());
+        if (top.size() != 3 || top.values().iterator().next() != best) fail("Expected the top hub first " + top);
+    }
+    
+    @Test
+    /**
+     * Tests that edges generated out of core with a tiny memory budget, which forces many runs and a merge of merges,
+     * build the same graph as edges found in memory, and that no run files are left behind
+     */
+    public void test_36_externalEdgeGeneration() throws IOException {
+        StringBuilder words = new StringBuilder("a,b,ab,ba,aab,abba,eddie");
+        for (char x = 'a'; x <= 'e'; x++) {
+            for (char y = 'a'; y <= 'e'; y++) {
+                words.append(',').append(x).append(y);
+                for (char z = 'a'; z <= 'e'; z++) words.append(',').append(x).append(y).append(z);
+            }
+        }
+        testFile(words.toString());
+        GraphProcessor memory = new GraphProcessor();
+        memory.populateGraph(fileName);
+        Path directory = Files.createTempDirectory("spill");
+        try {
+            GraphProcessor g = new GraphProcessor();
+            g.setExternalEdgeGeneration(directory, 2048);
+            g.populateGraph(fileName);
+            GraphSnapshot expected = memory.getSnapshot(), actual = g.getSnapshot();
+            if (actual.getWordCount() != expected.getWordCount()) fail("Expected the same words");
+            for (int v = 0; v < expected.getWordCount(); v++) {
+                if (!Arrays.equals(expected.getNeighbors(v), actual.getNeighbors(v))) {
+                    fail("Expected the same neighbors of " + expected.getWord(v));
+                }
+            }
+            
+            ExternalEdgeGenerator generator = new ExternalEdgeGenerator(directory, 2048);
+            Path edgeFile = directory.resolve("edges.bin");
+            generator.generate(expected.getArena(), edgeFile);
+            if (generator.getRunCount() <= ExternalSorter.MAX_FAN_IN) fail("Expected more runs than one merge takes");
+            Files.delete(edgeFile);
+            try (Stream<Path> left = Files.list(directory)) {
+                if (left.count() != 0) fail("Expected the run files to be deleted");
+            }
+        } finally {
+            try (Stream<Path> left = Files.list(directory)) {
+                left.forEach(f -> f.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that the direction-optimizing search goes bottom-up on a dense graph and still finds the distances of
+     * Dijkstra's algorithm, with parents that form shortest paths
+     */
+    public void test_37_directionOptimizingBFS() {
+        StringBuilder words = new StringBuilder("a,b,ab,ba,aab,abba,eddie,hello,jello");
+        for (char x = 'a'; x <= 'e'; x++) {
+            for (char y = 'a'; y <= 'e'; y++) words.append(',').append(x).append(y).append(',').append(x).append(y).append('q');
+        }
+        testFile(words.toString());
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        int[][] adjacency = g.getSnapshot().getAdjacency();
+        int n = adjacency.length;
+        DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(adjacency);
+        DirectionOptimizingBFS topDown = new DirectionOptimizingBFS(adjacency, 0, DirectionOptimizingBFS.BETA);
+        DijkstraSearch dijkstra = new DijkstraSearch(adjacency, null);
+        int[] dist = new int[n], parent = new int[n], expected = new int[n], unused = new int[n];
+        int bottomUp = 0;
+        for (int s = 0; s < n; s++) {
+            bfs.singleSource(s, dist, parent);
+            bottomUp += bfs.getLastBottomUpSteps();
+            dijkstra.singleSource(s, expected, unused);
+            if (!Arrays.equals(dist, expected)) fail("Expected the distances of Dijkstra from " + g.getSnapshot().getWord(s));
+            for (int t = 0; t < n; t++) {
+                if (t != s && dist[t] > 0 && dist[parent[t]] != dist[t]-1) fail("Expected a shortest path tree");
+                if (bfs.getDistance(s, t) != expected[t]) fail("Expected the distance of Dijkstra");
+                int[] path = bfs.getPath(s, t);
+                if ((path == null) != (expected[t] == -1) || (path != null && path.length != expected[t]+1)) {
+                    fail("Expected a shortest path");
+                }
+            }
+            topDown.singleSource(s, dist, parent);
+            if (topDown.getLastBottomUpSteps() != 0 || !Arrays.equals(dist, expected)) fail("Expected plain top-down steps");
+        }
+        if (bottomUp == 0) fail("Expected some bottom-up steps on a dense graph");
+    }
+    
+    @Test
+    /**
+     * Tests that every vertex ordering gives the same distances and neighbors as the file order, that reverse
+     * Cuthill-McKee brings neighbors closer, and that grouping by length puts shorter words first
+     */
+    public void test_38_vertexOrdering() {
+        String[] words = {"warm","cat","cord","hater","ward","hat","cold","bat","card","hate"};
+        testFile(String.join(",", words));
+        GraphProcessor file = new GraphProcessor();
+        file.populateGraph(fileName);
+        double fileGap = VertexReordering.averageGap(file.getSnapshot().getAdjacency());
+        for (VertexOrdering ordering : VertexOrdering.values()) {
+            for (boolean byLength : new boolean[] {false, true}) {
+                GraphProcessor g = new GraphProcessor();
+                g.setVertexOrdering(ordering, byLength);
+                g.populateGraph(fileName);
+                GraphSnapshot snapshot = g.getSnapshot();
+                for (String word1 : words) {
+                    if (!new HashSet<String>(g.getNeighbors(word1)).equals(new HashSet<String>(file.getNeighbors(word1)))) {
+                        fail("Expected the same neighbors of " + word1 + " with " + ordering);
+                    }
+                    for (String word2 : words) {
+                        if (!g.getShortestDistance(word1, word2).equals(file.getShortestDistance(word1, word2))) {
+                            fail("Expected the same distance from " + word1 + " to " + word2 + " with " + ordering);
+                        }
+                    }
+                }
+                for (int v = 1; byLength && v < snapshot.getWordCount(); v++) {
+                    if (snapshot.getWord(v).length() < snapshot.getWord(v-1).length()) fail("Expected shorter words first");
+                }
+                if (ordering == VertexOrdering.REVERSE_CUTHILL_MCKEE && !byLength
+                        && VertexReordering.averageGap(snapshot.getAdjacency()) >= fileGap) {
+                    fail("Expected neighbors closer than in the file order");
+                }
+            }
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that the HyperANF estimates of the distance distribution are close to the exact counts on a small
+     * dictionary, where linear counting makes the counters nearly exact
+     */
+    public void test_39_hyperAnf() {
+        String[] words = {"warm","cat","cord","hater","ward","hat","cold","bat","card","hate"};
+        testFile(String.join(",", words));
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        GraphAnalytics<String> analytics = g.getGraphAnalytics();
+        long[] exact = analytics.getDistanceDistribution();
+        HyperAnf anf = analytics.getHyperAnf(10, 67);
+        double[] estimated = anf.getDistanceDistribution();
+        for (int d = 1; d < Math.max(exact.length, estimated.length); d++) {
+            long pairs = d < exact.length ? exact[d] : 0;
+            double estimate = d < estimated.length ? estimated[d] : 0;
+            if (Math.abs(estimate-pairs) > 0.5 + 0.1*pairs) fail("Expected about " + pairs + " pairs at distance " + d);
+        }
+        for (String word : words) {
+            if (Math.abs(anf.getNeighborhoodSize(analytics.getId(word.toUpperCase()), 0)-1) > 0.1) fail("Expected a word alone at distance 0");
+        }
+        double effective = anf.getEffectiveDiameter(0.9);
+        if (effective <= 0 || effective > analytics.getDiameter()) fail("Expected an effective diameter within the diameter");
+    }
+    
+    @Test
+    /**
+     * Tests that the publisher of path answers reads no more queries than were requested, answers every query as
+     * getShortestPath does, completes once and closes the stream
+     */
+    public void test_40_publishShortestPaths() throws InterruptedException {
+        String[] words = {"warm","cat","cord","hater","ward","hat","cold","bat","card","hate"};
+        testFile(String.join(",", words));
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        String[][] pairs = new String[100][];
+        for (int i = 0; i < pairs.length; i++) pairs[i] = new String[] {words[i % 10], words[i / 10]};
+        AtomicLong read = new AtomicLong();
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<String[]> queries = Arrays.stream(pairs).peek(pair -> read.incrementAndGet()).onClose(() -> closed.set(true));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        PathQueryPublisher.Result[] answers = new PathQueryPublisher.Result[pairs.length];
+        List<String> problems = new ArrayList<String>();
+        CountDownLatch completed = new CountDownLatch(1);
+        g.publishShortestPaths(queries, 3, executor).subscribe(new Flow.Subscriber<PathQueryPublisher.Result>() {
+            private Flow.Subscription subscription;
+            private long requested;
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                requested = 2;
+                subscription.request(2);
+            }
+            public void onNext(PathQueryPublisher.Result result) {
+                if (read.get() > requested) problems.add("read " + read.get() + " queries for " + requested + " requested");
+                answers[(int) result.getIndex()] = result;
+                requested++;
+                subscription.request(1);
+            }
+            public void onError(Throwable throwable) {
+                problems.add(throwable.toString());
+                completed.countDown();
+            }
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        if (!completed.await(10, TimeUnit.SECONDS)) fail("Expected the publisher to complete");
+        executor.shutdown();
+        if (!problems.isEmpty()) fail(problems.get(0));
+        if (!closed.get()) fail("Expected the stream to be closed");
+        for (int i = 0; i < pairs.length; i++) {
+            List<String> path = g.getShortestPath(pairs[i][0], pairs[i][1]);
+            if (answers[i] == null || !Objects.equals(answers[i].getPath(), path)
+                    || answers[i].getDistance() != g.getShortestDistance(pairs[i][0], pairs[i][1])) {
+                fail("Expected the answer of getShortestPath from " + pairs[i][0] + " to " + pairs[i][1]);
+            }
+        }
+    }
+    
+    @Test
+    /**
+     * Tests the footprint report: the predecessor matrix is counted exactly, every structure of a dense dictionary
+     * stays under its ceiling in bytes per word, the query cache is counted once it holds answers, and the server
+     * reports the same total
+     */
+    public void test_41_footprint() {
+        StringBuilder dictionary = new StringBuilder();
+        for (char x = 'a'; x <= 'h'; x++) {
+            for (char y = 'a'; y <= 'h'; y++) {
+                for (char z = 'a'; z <= 'h'; z++) dictionary.append(dictionary.length() == 0 ? "" : ",").append(x).append(y).append(z);
+            }
+        }
+        testFile(dictionary.toString());
+        int n = 512;
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        FootprintReport report = g.getFootprint();
+        long matrix = FootprintReport.array(n, 4)*(n+1);
+        if (report.getBytes(FootprintReport.Structure.PATH_DATA) != matrix) {
+            fail("Expected " + matrix + " bytes of predecessor matrix, got " + report);
+        }
+        if (Math.abs(report.getEstimate(PathStrategy.ALL_PAIRS_DIJKSTRA)-matrix) > matrix/100) fail("Expected the estimate to match " + report);
+        
+        g = new GraphProcessor();
+        g.setPathStrategy(PathStrategy.A_STAR_SEARCH);
+        g.populateGraph(fileName);
+        report = g.getFootprint();
+        long[] ceilings = {192, 24, 200, 136, 1, 0};					//bytes per word of every structure
+        long total = 0;
+        for (FootprintReport.Structure structure : FootprintReport.Structure.values()) {
+            long bytes = report.getBytes(structure);
+            total += bytes;
+            if (bytes > ceilings[structure.ordinal()]*n) fail("Expected " + structure + " under " + ceilings[structure.ordinal()] + " bytes per word, got " + report);
+            if (bytes == 0 && structure != FootprintReport.Structure.QUERY_CACHE) fail("Expected " + structure + " to be counted");
+        }
+        if (report.getTotalBytes() != total) fail("Expected the total to be the sum of the structures");
+        
+        g.setQueryCacheSize(64);
+        for (int i = 0; i < 10; i++) g.getShortestPath("abc", "hgf");
+        if (g.getFootprint().getBytes(FootprintReport.Structure.QUERY_CACHE) == 0) fail("Expected the cached path to be counted");
+        g.getShortestPath(null, "abc");										//cached under a key without a first word
+        g.getShortestDistance("abc", null);
+        if (g.getFootprint().getTotalBytes() <= 0) fail("Expected a footprint with null query words cached");
+        try (WordGraphServer server = new WordGraphServer(g)) {
+            String reply = server.handle("FOOTPRINT");
+            if (!reply.startsWith("OK " + g.getFootprint().getTotalBytes() + " WORD_GRAPH=")) fail("Expected the total of the report, got " + reply);
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that the checkpoint file is read back by a later precomputation over the same graph, that a file cut
+     * short or corrupted resumes from its last good block, that a file of another graph is started over, and that
+     * the answers are the same as without a checkpoint
+     */
+    public void test_42_checkpoint() throws IOException {
+        String[] words = {"warm","cat","cord","hater","ward","hat","cold","bat","card","hate"};
+        testFile(String.join(",", words));
+        GraphProcessor plain = new GraphProcessor();
+        plain.populateGraph(fileName);
+        Path checkpoint = Files.createTempFile("checkpoint", ".bin");
+        try {
+            int[] expected = {0, 10, 9, 3, 10};								//rows restored by every run
+            for (int run = 0; run < expected.length; run++) {
+                if (run == 2) {												//a crash while the last block was written
+                    try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+                        channel.truncate(channel.size()-10);
+                    }
+                } else if (run == 3) {										//a flipped byte in the second block
+                    byte[] bytes = Files.readAllBytes(checkpoint);
+                    bytes[24 + 8 + 3*44 + 20] ^= 1;
+                    Files.write(checkpoint, bytes);
+                }
+                GraphProcessor g = new GraphProcessor();
+                g.setCheckpoint(checkpoint, 3);
+                g.populateGraph(fileName);
+                if (g.getRestoredRows() != expected[run]) fail("Expected " + expected[run] + " rows restored in run " + run + ", got " + g.getRestoredRows());
+                if (Files.size(checkpoint) != 24 + 4*8 + 10*44) fail("Expected a header and 4 blocks, got " + Files.size(checkpoint) + " bytes");
+                for (String word1 : words) {
+                    for (String word2 : words) {
+                        if (!Objects.equals(g.getShortestPath(word1, word2), plain.getShortestPath(word1, word2))) {
+                            fail("Expected the path from " + word1 + " to " + word2 + " without a checkpoint");
+                        }
+                    }
+                }
+            }
+            testFile("cat,hat,hate");
+            GraphProcessor other = new GraphProcessor();
+            other.setCheckpoint(checkpoint, 3);
+            other.populateGraph(fileName);
+            if (other.getRestoredRows() != 0) fail("Expected no rows restored for another dictionary");
+            if (other.getShortestDistance("cat", "hate") != 2) fail("Expected 2, got " + other.getShortestDistance("cat", "hate"));
+        } finally {
+            Files.deleteIfExists(checkpoint);
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that the diameter is found when the search starts at the center of a path, where the last fringe
+     * holds both ends of the longest path
+     */
+    public void test_43_diameterFromCenter() {
+        testFile("at,cat,it");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        GraphAnalytics<String> a = g.getGraphAnalytics();
+        if (a.getDiameter() != 2) fail("Expected diameter 2, got " + a.getDiameter());
+        if (!new HashSet<String>(a.getDiametralPair()).equals(new HashSet<String>(Arrays.asList("CAT", "IT")))) {
+            fail("Expected the pair [CAT, IT], got " + a.getDiametralPair());
+        }
+        testFile("at,cat,it,cats,its,pits,spits");
+        g = new GraphProcessor();
+        g.populateGraph(fileName);
+        a = g.getGraphAnalytics();
+        int diameter = a.getDiameter();
+        int expected = 0;
+        for (int e : a.getEccentricities().values()) expected = Math.max(expected, e);
+        if (diameter != expected) fail("Expected diameter " + expected + ", got " + diameter);
+    }
+    
+    @Test
+    /**
+     * Tests that words with chars beyond Latin-1 are loaded and joined like any other, in memory and out of core
+     */
+    public void test_44_wideChars() throws IOException {
+        testFile("cat,hat,\u0142\u0105ka,\u0142\u0105ki,m\u00b5");
+        GraphProcessor g = new GraphProcessor();
+        int count = g.populateGraph(fileName);
+        if (count != 5) fail("Expected 5 words, got " + count);
+        List<String> path = g.getShortestPath("\u0141\u0104KA", "\u0141\u0104KI");
+        if (!path.equals(Arrays.asList("\u0141\u0104KA", "\u0141\u0104KI"))) {
+            fail("Expected the words to be adjacent, got " + path);
+        }
+        if (g.getShortestDistance("CAT", "HAT") != 1) fail("Expected CAT and HAT to stay adjacent");
+        if (g.getShortestDistance("M\u039c", "CAT") != -1) fail("Expected M\u039c to be loaded apart from the others");
+        
+        Path directory = Files.createTempDirectory("wide");
+        try {
+            GraphProcessor external = new GraphProcessor();
+            external.setExternalEdgeGeneration(directory, 1 << 20);
+            external.populateGraph(fileName);
+            GraphSnapshot expected = g.getSnapshot(), actual = external.getSnapshot();
+            for (int v = 0; v < expected.getWordCount(); v++) {
+                if (!Arrays.equals(expected.getNeighbors(v), actual.getNeighbors(v))) {
+                    fail("Expected the same neighbors of " + expected.getWord(v));
+                }
+            }
+        } finally {
+            try (Stream<Path> left = Files.list(directory)) {
+                left.forEach(f -> f.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that the A* strategy finds the same distances as the Dijkstra strategy under adjacency rules whose
+     * edges span more than one edit, where the edit distance overestimates the distance left
+     */
+    public void test_45_aStarMatchesDijkstraUnderEveryRule() {
+        List<String> all = new ArrayList<String>();
+        for (int length = 1; length <= 4; length++) {
+            for (int code = 0; code < 1 << 2*length; code++) {
+                StringBuilder word = new StringBuilder();
+                for (int i = 0; i < length; i++) word.append("abde".charAt(code >> 2*i & 3));
+                all.add(word.toString());
+            }
+        }
+        Collections.shuffle(all, new Random(67));
+        List<String> words = new ArrayList<String>(all.subList(0, 120));
+        words.addAll(Arrays.asList("eb", "aae", "bae", "dddb"));
+        testFile(String.join(",", new LinkedHashSet<String>(words)));
+        for (AdjacencyRule rule : new AdjacencyRule[] {new TranspositionRule(), new AnagramRule()}) {
+            GraphProcessor dijkstra = new GraphProcessor();
+            dijkstra.setAdjacencyRule(rule);
+            dijkstra.populateGraph(fileName);
+            GraphProcessor aStar = new GraphProcessor();
+            aStar.setAdjacencyRule(rule);
+            aStar.setPathStrategy(PathStrategy.A_STAR_SEARCH);
+            aStar.populateGraph(fileName);
+            for (String w1 : words) {
+                for (String w2 : words) {
+                    int expected = dijkstra.getShortestDistance(w1, w2);
+                    int n = aStar.getShortestDistance(w1, w2);
+                    if (n != expected) {
+                        fail("Expected " + expected + " between " + w1 + " and " + w2 + " under "
+                            + rule.getClass().getName() + ", got " + n);
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that a reload replaces the graph the analytics and the footprint describe, instead of adding to it
+     */
+    public void test_46_reloadReplacesGraph() {
+        testFile("cat,hat,hate");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        testFile("dog,dot");
+        g.populateGraph(fileName);
+        if (g.getShortestPath("cat", "hate") != null) fail("Expected the words of the first dictionary to be gone");
+        GraphAnalytics<String> a = g.getGraphAnalytics();
+        if (a.getVertexCount() != 2) fail("Expected 2 words, got " + a.getVertexCount());
+        if (a.getComponentCount() != 1) fail("Expected 1 component, got " + a.getComponentCount());
+        if (a.getDiameter() != 1) fail("Expected diameter 1, got " + a.getDiameter());
+    }
+    
+    @Test
+    /**
+     * Tests that many threads share a pool of two sets of search buffers and still get correct distances
+     */
+    public void test_47_pooledSearchBuffers() throws Exception {
+        int n = 200;
+        int[][] adjacency = new int[n][];
+        for (int v = 0; v < n; v++) {
+            adjacency[v] = v == 0 ? new int[] {1} : v == n-1 ? new int[] {n-2} : new int[] {v-1, v+1};
+        }
+        DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(adjacency, DirectionOptimizingBFS.ALPHA,
+            DirectionOptimizingBFS.BETA, 2);
+        if (bfs.getConcurrency() != 2) fail("Expected a pool of 2, got " + bfs.getConcurrency());
+        ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Integer>> distances = new ArrayList<Future<Integer>>();
+        for (int i = 0; i < 1000; i++) {
+            int source = i % n, target = (7*i) % n;
+            distances.add(threads.submit(() -> bfs.getDistance(source, target) - Math.abs(source - target)));
+        }
+        for (Future<Integer> d : distances) if (d.get() != 0) fail("Expected the distance along the path");
+        threads.shutdown();
+    }
+    
+    @Test
+    /**
+     * Tests that the query concurrency bounds the search buffers of the snapshot and of the strategy estimates
+     */
+    public void test_48_queryConcurrency() {
+        testFile("cat,hat,hate,hater,cot");
+        GraphProcessor g = new GraphProcessor();
+        g.setQueryConcurrency(3);
+        g.setMemoryBudget(1);
+        g.populateGraph(fileName);
+        if (g.getQueryConcurrency() != 3) fail("Expected a concurrency of 3, got " + g.getQueryConcurrency());
+        if (g.getStrategySelection().getStrategy() != PathStrategy.A_STAR_SEARCH) fail("Expected A* under a tiny budget");
+        long one = StrategySelection.estimate(PathStrategy.A_STAR_SEARCH, 5, 16, 1);
+        long estimate = g.getStrategySelection().getEstimate(PathStrategy.A_STAR_SEARCH);
+        if (estimate != 3*one) fail("Expected 3 sets of search buffers, got " + estimate + " bytes for " + one + " each");
+        if (((AStarSearch) g.getDistanceOracle()).getConcurrency() != 3) fail("Expected the A* pool to hold 3 sets");
+        if (g.getSnapshot().getWeightedSearch().getConcurrency() != 3) fail("Expected the Dijkstra pool to hold 3 sets");
+        if (g.getShortestDistance("cat", "hater") != 3) fail("Expected distance 3");
+    }
+    
+    @Test
+    /**
+     * Tests that a compressed adjacency answers like the int arrays under every strategy that searches it,
+     * including weighted queries, and takes less memory
+     */
+    public void test_49_compressedAdjacency() {
+        testFile("cat,hat,hate,hater,cot,cog,dog,dot,hot,heat,mat,mate,later,late,rate");
+        String[] words = {"cat", "hat", "hate", "hater", "cot", "cog", "dog", "dot", "hot", "heat", "later"};
+        PathStrategy[] strategies = {PathStrategy.ALL_PAIRS_DIJKSTRA, PathStrategy.LANDMARKS,
+            PathStrategy.A_STAR_SEARCH};
+        for (PathStrategy strategy : strategies) {
+            GraphProcessor plain = new GraphProcessor();
+            GraphProcessor compressed = new GraphProcessor();
+            plain.setPathStrategy(strategy);
+            compressed.setPathStrategy(strategy);
+            compressed.setCompressedAdjacency(true);
+            plain.populateGraph(fileName);
+            compressed.populateGraph(fileName);
+            if (!compressed.getSnapshot().isCompressed()) fail("Expected a compressed snapshot for " + strategy);
+            plain.setEditCosts(new EditCosts(1, 5, 2, true));
+            compressed.setEditCosts(new EditCosts(1, 5, 2, true));
+            for (String a : words) {
+                for (String b : words) {
+                    if (!Objects.equals(plain.getShortestDistance(a, b), compressed.getShortestDistance(a, b))
+                            || !Objects.equals(plain.getWeightedShortestDistance(a, b),
+                                compressed.getWeightedShortestDistance(a, b))) {
+                        fail(strategy + ": expected the same distances from " + a + " to " + b);
+                    }
+                    List<String> path = compressed.getShortestPath(a, b);
+                    int expected = a.equals(b) ? 0 : plain.getShortestPath(a, b).size();
+                    if (path == null || path.size() != expected) {
+                        fail(strategy + ": expected a shortest path from " + a + " to " + b);
+                    }
+                }
+            }
+            Set<String> neighbors = new HashSet<String>(plain.getNeighbors("hat"));
+            if (!neighbors.equals(new HashSet<String>(compressed.getNeighbors("hat")))) {
+                fail("Expected the same neighbors of hat");
+            }
+            long plainBytes = plain.getFootprint().getBytes(FootprintReport.Structure.ADJACENCY);
+            long compressedBytes = compressed.getFootprint().getBytes(FootprintReport.Structure.ADJACENCY);
+            if (compressedBytes >= plainBytes) {
+                fail("Expected fewer adjacency bytes, got " + compressedBytes + " vs " + plainBytes);
+            }
+        }
+    }
+    
+    @Test
+    /**
+     * Tests that a snapshot shares one A* search between its callers
+     */
+    public void test_50_sharedAStarSearch() {
+        testFile("cat,hat,hate,hater");
+        GraphProcessor g = new GraphProcessor();
+        g.populateGraph(fileName);
+        GraphSnapshot snapshot = g.getSnapshot();
+        if (snapshot.getAStarSearch() != snapshot.getAStarSearch()) fail("Expected the same A* search on every call");
+        if (snapshot.getAStarSearch().getDistance(snapshot.indexOf("CAT"), snapshot.indexOf("HATER")) != 3) {
+            fail("Expected distance 3");
+        }
+    }
      
 }
@@ -0,0 +1,387 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: GraphSnapshot.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything a query reads, frozen at the end of one rebuild: the words and their ids, the adjacency and edge
+ * weights, the fuzzy lookup index and the precomputed shortest path data.
+ *
+ * A snapshot is never changed after it is constructed. {@link GraphProcessor} builds a new one on every
+ * populateGraph, precomputation or change of edit costs, and swaps it in with a single volatile write, so a query
+ * that read the previous snapshot finishes against it undisturbed while the next one is built. The old snapshot is
+ * freed once the last query using it returns.
+ */
+public final class GraphSnapshot {
+
+    /**
+     * Number of snapshots published before this one by the same processor
+     */
+    private final long epoch;
+
+    /**
+     * The words of the graph, the id of a word is its index in every other structure
+     */
+    private final WordArena words;
+
+    /**
+     * Edit distance index over {@link #words}
+     */
+    private final BKTree index;
+
+    /**
+     * The rule the edges were found with
+     */
+    private final AdjacencyRule rule;
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the word with id v, null when the adjacency is compressed
+     */
+    private final int[][] adjacency;
+
+    /**
+     * The adjacency in compressed form, null when it is held as {@link #adjacency}
+     */
+    private final CompressedIntGraph compressed;
+
+    /**
+     * weights[v][i] is the edit cost of the edge from v to adjacency[v][i], null when every edge costs 1
+     */
+    private final int[][] weights;
+
+    /**
+     * The strategy the precomputed data was built with
+     */
+    private final PathStrategy strategy;
+
+    /**
+     * Answers shortest path queries, null for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}. While a background
+     * precomputation runs it is an {@link IncrementalPathMatrix} whose rows fill in as they are computed.
+     */
+    private final DistanceOracle oracle;
+
+    /**
+     * predecessor[s][t] is the word before t on a shortest path from s, s itself when t = s and -1 when there is no
+     * path; null unless the strategy is {@link PathStrategy#ALL_PAIRS_DIJKSTRA}
+     */
+    private final int[][] predecessor;
+
+    /**
+     * Dijkstra search over {@link #weights}
+     */
+    private final DijkstraSearch weightedSearch;
+
+    /**
+     * A* search over the adjacency, the oracle itself for {@link PathStrategy#A_STAR_SEARCH}
+     */
+    private final AStarSearch aStarSearch;
+
+    /**
+     * Largest number of searches of this snapshot that run at the same time
+     */
+    private final int concurrency;
+
+    /**
+     * Constructs a snapshot. The arrays and objects passed in must not be changed afterwards.
+     *
+     * @param epoch number of snapshots published before this one
+     * @param words the words of the graph
+     * @param index edit distance index over the words
+     * @param rule the rule the edges were found with
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the word with id v, null if compressed is given
+     * @param compressed the adjacency in compressed form, null if adjacency is given
+     * @param weights edit cost of every edge in the layout of adjacency, or in increasing order of neighbor ids when
+     *                it is compressed; null when every edge costs 1
+     * @param strategy the strategy of the precomputed data
+     * @param oracle the oracle built by the strategy, null for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}
+     * @param predecessor the predecessor matrix for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}, null otherwise
+     * @param concurrency largest number of sets of buffers of the searches the snapshot builds {@link SearchPool}
+     */
+    GraphSnapshot(long epoch, WordArena words, BKTree index, AdjacencyRule rule, int[][] adjacency,
+            CompressedIntGraph compressed, int[][] weights, PathStrategy strategy, DistanceOracle oracle,
+            int[][] predecessor, int concurrency) {
+        this.epoch = epoch;
+        this.words = words;
+        this.index = index;
+        this.rule = rule;
+        this.adjacency = adjacency;
+        this.compressed = compressed;
+        this.weights = weights;
+        this.strategy = strategy;
+        this.oracle = oracle;
+        this.predecessor = predecessor;
+        this.concurrency = concurrency;
+        this.weightedSearch = compressed == null ? new DijkstraSearch(adjacency, weights, concurrency)
+            : new DijkstraSearch(compressed, weights, concurrency);
+        if(oracle instanceof AStarSearch) this.aStarSearch = (AStarSearch) oracle;
+        else if(compressed == null) this.aStarSearch = new AStarSearch(adjacency, words, rule, concurrency);
+        else this.aStarSearch = new AStarSearch(compressed, words, rule, concurrency);
+    }
+
+    /**
+     * Constructs a snapshot of an empty graph
+     *
+     * @param strategy the strategy to report
+     * @return the empty snapshot, with epoch 0
+     */
+    static GraphSnapshot empty(PathStrategy strategy) {
+        WordArena words = new WordArena();
+        return new GraphSnapshot(0, words, new BKTree(words), new OneEditRule(), new int[0][], null, null, strategy,
+            null,
+            new int[0][], 1);
+    }
+
+    /**
+     * Copies this snapshot with other edge weights, keeping the precomputed data, which only counts edges
+     *
+     * @param epoch number of snapshots published before the copy
+     * @param weights edit cost of every edge in the layout of the adjacency, null when every edge costs 1
+     * @return the new snapshot
+     */
+    GraphSnapshot withWeights(long epoch, int[][] weights) {
+        return new GraphSnapshot(epoch, words, index, rule, adjacency, compressed, weights, strategy, oracle,
+            predecessor, concurrency);
+    }
+
+    /**
+     * Copies this snapshot with other precomputed data, keeping the words, edges and weights
+     *
+     * @param epoch number of snapshots published before the copy
+     * @param strategy the strategy of the precomputed data
+     * @param oracle the oracle built by the strategy, null for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}
+     * @param predecessor the predecessor matrix for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}, null otherwise
+     * @return the new snapshot
+     */
+    GraphSnapshot withPathData(long epoch, PathStrategy strategy, DistanceOracle oracle, int[][] predecessor) {
+        return new GraphSnapshot(epoch, words, index, rule, adjacency, compressed, weights, strategy, oracle,
+            predecessor, concurrency);
+    }
+
+    /**
+     * Gets the arena of the words, which must not be changed
+     *
+     * @return the words of the graph
+     */
+    WordArena getArena() {
+        return words;
+    }
+
+    /**
+     * Gets the adjacency arrays, which must not be changed. A compressed adjacency is decoded into new arrays on
+     * every call.
+     *
+     * @return adjacency[v] holds the ids of all neighbors of the word with id v
+     */
+    int[][] getAdjacency() {
+        return compressed == null ? adjacency : compressed.toAdjacency();
+    }
+
+    /**
+     * Checks whether the adjacency is held in compressed form {@link GraphProcessor#setCompressedAdjacency(boolean)}
+     *
+     * @return true if the searches of this snapshot decode the neighbor lists as they read them
+     */
+    public boolean isCompressed() {
+        return compressed != null;
+    }
+
+    /**
+     * Gets the edit distance index over the words, which must not be changed
+     *
+     * @return the index
+     */
+    BKTree getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the rule the edges were found with
+     *
+     * @return the adjacency rule
+     */
+    AdjacencyRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Gets the number of snapshots published before this one
+     *
+     * @return the epoch of this snapshot
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Gets the number of words
+     *
+     * @return number of words in the graph
+     */
+    public int getWordCount() {
+        return words.size();
+    }
+
+    /**
+     * Gets the strategy the precomputed data was built with
+     *
+     * @return the strategy
+     */
+    public PathStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the oracle built by the strategy
+     *
+     * @return the oracle, null for {@link PathStrategy#ALL_PAIRS_DIJKSTRA}
+     */
+    public DistanceOracle getDistanceOracle() {
+        return oracle;
+    }
+
+    /**
+     * Estimates the heap used by the adjacency arrays and the edge weights
+     *
+     * @return estimated bytes {@link FootprintReport}
+     */
+    long getAdjacencyBytes() {
+        long lists = compressed == null ? FootprintReport.arrays(adjacency) : compressed.getMemoryBytes();
+        return lists + FootprintReport.arrays(weights);
+    }
+
+    /**
+     * Estimates the heap used by the precomputed shortest path data, the predecessor matrix or the oracle
+     *
+     * @return estimated bytes {@link FootprintReport}
+     */
+    long getPathDataBytes() {
+        return FootprintReport.arrays(predecessor) + (oracle == null ? 0 : oracle.getMemoryBytes());
+    }
+
+    /**
+     * Gets the id of a word
+     *
+     * @param word an uppercase word
+     * @return its id, -1 if it is not in the graph
+     */
+    public int indexOf(String word) {
+        return words.indexOf(word);
+    }
+
+    /**
+     * Gets the word with an id
+     *
+     * @param id the id of a word
+     * @return the word
+     */
+    public String getWord(int id) {
+        return words.getWord(id);
+    }
+
+    /**
+     * Maps a query word to a word of the graph: the word itself if it is in the graph, otherwise the closest word
+     * within maxDistance edits
+     *
+     * @param word the query word
+     * @param maxDistance the largest number of edits
+     * @return the uppercase dictionary word, null if none is close enough
+     */
+    public String snap(String word, int maxDistance) {
+        if(word == null) return null;
+        word = word.trim().toUpperCase();
+        if(words.contains(word)) return word;
+        return index.nearest(word, maxDistance);
+    }
+
+    /**
+     * Finds the words within maxDistance edits of a query word {@link BKTree#search(String, int)}
+     *
+     * @param word the uppercase query word
+     * @param maxDistance the largest edit distance of a returned word
+     * @return the matching words ordered by distance, then alphabetically
+     */
+    public List<String> findSimilarWords(String word, int maxDistance) {
+        return index.search(word, maxDistance);
+    }
+
+    /**
+     * Gets the ids on a shortest path between two words
+     *
+     * @param source id of the first word
+     * @param target id of the second word
+     * @return ids of the words on the path from source to target, null if there is no path
+     */
+    public int[] getPath(int source, int target) {
+        if(oracle != null) return oracle.getPath(source, target);
+        int[] previous = predecessor[source];
+        if(previous[target] == -1) return null;
+        int length = 1;
+        for(int v = target; v != source; v = previous[v]) length++;
+        int[] path = new int[length];
+        for(int i = length-1, v = target; i >= 0; i--, v = previous[v]) path[i] = v;	//walk back to the source
+        return path;
+    }
+
+    /**
+     * Gets the distance between two words
+     *
+     * @param source id of the first word
+     * @param target id of the second word
+     * @return the number of edges on a shortest path, -1 if there is no path
+     */
+    public int getDistance(int source, int target) {
+        if(oracle != null) return oracle.getDistance(source, target);
+        int[] previous = predecessor[source];
+        if(previous[target] == -1) return -1;
+        int distance = 0;
+        for(int v = target; v != source; v = previous[v]) distance++;
+        return distance;
+    }
+
+    /**
+     * Gets the ids of the neighbors of a word
+     *
+     * @param id the id of the word
+     * @return a copy of its neighbor ids
+     */
+    public int[] getNeighbors(int id) {
+        return compressed == null ? adjacency[id].clone() : compressed.getNeighbors(id);
+    }
+
+    /**
+     * Gets the Dijkstra search over the edit costs of the edges
+     *
+     * @return the weighted search
+     */
+    public DijkstraSearch getWeightedSearch() {
+        return weightedSearch;
+    }
+
+    /**
+     * Gets the A* search over this graph, the oracle itself for {@link PathStrategy#A_STAR_SEARCH}. It is built
+     * with the snapshot and shared by every caller, so its search buffers are pooled like those of the oracle.
+     *
+     * @return the search
+     */
+    public AStarSearch getAStarSearch() {
+        return aStarSearch;
+    }
+
+    /**
+     * Converts ids to words
+     *
+     * @param path ids of words, may be null
+     * @return the words, null if path is null
+     */
+    public List<String> toWords(int[] path) {
+        if(path == null) return null;
+        List<String> result = new ArrayList<String>(path.length);
+        for(int id : path) result.add(words.getWord(id));
+        return result;
+    }
+}
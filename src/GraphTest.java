@@ -359,4 +359,75 @@ public class GraphTest {
 			}
 		}
 	}
+	
+	@Test
+	public final void intGraphEdgesAndWeights() {
+		IntGraph ints = new IntGraph(2);
+		for (int i = 0; i < vertices.size(); i++) assertEquals("id of added vertex", i, ints.addVertex());
+		assertEquals("add edge", true, ints.addEdge(0, 1));
+		assertEquals("add duplicate edge", false, ints.addEdge(1, 0));
+		assertEquals("add self loop", false, ints.addEdge(2, 2));
+		assertEquals("add edge to missing vertex", false, ints.addEdge(0, vertices.size()));
+		assertEquals("add edge", true, ints.addEdge(0, 2));
+		assertEquals("add edge", true, ints.addEdge(1, 2));
+		assertEquals("number of edges", 3, ints.size());
+		assertEquals("degree", 2, ints.degree(0));
+		assertEquals("adjacency", true, ints.isAdjacent(2, 0));
+		
+		assertEquals("default weight", 1, ints.getEdgeWeight(0, 1));
+		assertEquals("set weight", true, ints.setEdgeWeight(0, 1, 7));
+		assertEquals("weight in one direction", 7, ints.getEdgeWeight(0, 1));
+		assertEquals("weight in the other direction", 1, ints.getEdgeWeight(1, 0));
+		assertEquals("weight of missing edge", -1, ints.getEdgeWeight(0, 3));
+		
+		int[] sum = new int[1];
+		ints.forEachNeighbor(0, w -> sum[0] += w);
+		assertEquals("sum of neighbors of 0", 3, sum[0]);
+		
+		assertEquals("remove edge", true, ints.removeEdge(1, 0));
+		assertEquals("remove missing edge", false, ints.removeEdge(0, 1));
+		assertEquals("number of edges", 2, ints.size());
+		assertEquals("neighbor left after removal", 2, ints.getNeighbor(0, 0));
+		assertEquals("weight left after removal", 1, ints.getNeighborWeight(0, 0));
+		assertEquals("neighbor past the degree", -1, ints.getNeighbor(0, 1));
+		assertEquals("adjacency snapshot", "[[2], [2], [0, 1]]", 
+				java.util.Arrays.deepToString(java.util.Arrays.copyOf(ints.toAdjacency(), 3)));
+	}
+	
+	@Test
+	public final void compressedIntGraph() {
+		IntGraph ints = new IntGraph();
+		for (int i = 0; i < 100000; i++) ints.addVertex();
+		int[][] edges = {{5, 3}, {5, 7}, {5, 99999}, {0, 99999}, {70000, 5}, {70000, 70001}, {3, 4}};
+		for (int[] edge : edges) ints.addEdge(edge[0], edge[1]);
+		CompressedIntGraph compressed = new CompressedIntGraph(ints);
+		assertEquals("same lists from adjacency arrays", java.util.Arrays.deepToString(compressed.toAdjacency()),
+				java.util.Arrays.deepToString(new CompressedIntGraph(ints.toAdjacency()).toAdjacency()));
+		assertEquals("number of vertices", 100000, compressed.order());
+		assertEquals("number of edges", edges.length, compressed.size());
+		assertEquals("degree", 4, compressed.degree(5));
+		assertEquals("sorted neighbors", "[3, 7, 70000, 99999]", 
+				java.util.Arrays.toString(compressed.toAdjacency()[5]));
+		assertEquals("neighbor below the vertex", 3, compressed.getNeighbor(5, 0));
+		assertEquals("neighbor far above the vertex", 99999, compressed.getNeighbor(5, 3));
+		assertEquals("neighbor past the degree", -1, compressed.getNeighbor(5, 4));
+		assertEquals("adjacency", true, compressed.isAdjacent(99999, 0));
+		assertEquals("no adjacency", false, compressed.isAdjacent(5, 6));
+		assertEquals("weight", 1, compressed.getEdgeWeight(70001, 70000));
+		assertEquals("read only", false, compressed.addEdge(1, 2));
+		assertEquals("read only", false, compressed.setEdgeWeight(5, 3, 4));
+		
+		CompressedIntGraph.Cursor cursor = compressed.cursor();
+		int sum = 0;
+		for (cursor.reset(70000); cursor.hasNext(); ) sum += cursor.next();
+		assertEquals("sum of neighbors of 70000", 70006, sum);
+		int[] dist = new int[compressed.order()];
+		assertEquals("vertices reached", 8, compressed.breadthFirst(4, dist));
+		assertEquals("distance", 4, dist[70001]);
+		assertEquals("distance", 4, dist[0]);
+		assertEquals("unreachable", -1, dist[1]);
+		assertEquals("about a byte per edge end for close neighbors", true, 
+				new CompressedIntGraph(new int[][] {{1}, {0, 2}, {1, 3}, {2}}).getMemoryBytes() < 
+				new CompressedIntGraph(new int[][] {{1}, {0, 2}, {1, 3}, {2}}).getUncompressedBytes());
+	}
 }
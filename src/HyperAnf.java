@@ -0,0 +1,275 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: HyperAnf.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Approximate neighborhood function of a graph (HyperANF, Boldi, Rosa and Vigna): estimates, for every vertex v and
+ * distance t, the number of vertices within t edges of v, and from the sum over all vertices the distribution of
+ * distances and the effective diameter.
+ *
+ * Every vertex keeps a HyperLogLog counter of m = 2^log2m registers of one byte, which estimates the number of
+ * distinct vertices added to it with a relative standard error of about 1.04/sqrt(m). At t = 0 the counter of v
+ * holds v alone. The ball of radius t+1 around v is v's ball of radius t joined with the balls of radius t of its
+ * neighbors, and the union of HyperLogLog counters is the register-wise maximum, so each iteration is one pass over
+ * the edges. The counters of iteration t+1 are written into a second array while the first is read, vertices in
+ * parallel, each thread writing only the registers of its own vertices. A vertex none of whose neighbors changed in
+ * the last iteration can not change and copies its registers. The iterations stop when no counter changes.
+ *
+ * Memory is 2m bytes per vertex for the counters plus 4 bytes per vertex and distance for the estimates, instead of
+ * the one breadth first search per vertex of {@link GraphAnalytics#getDistanceDistribution()}.
+ */
+public class HyperAnf {
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     */
+    private final int[][] adjacency;
+
+    /**
+     * Number of registers of every counter, a power of two
+     */
+    private final int m;
+
+    /**
+     * Base two logarithm of {@link #m}
+     */
+    private final int log2m;
+
+    /**
+     * sizes[t][v] is the estimated number of vertices within distance t of v
+     */
+    private final float[][] sizes;
+
+    /**
+     * function[t] is the estimated number of ordered pairs of vertices (including a vertex and itself) at most t apart
+     */
+    private final double[] function;
+
+    /**
+     * Time the estimation took
+     */
+    private final long buildMillis;
+
+    /**
+     * Estimates the neighborhood function, iterating until no counter changes
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     * @param log2m base two logarithm of the number of registers per counter, from 4 to 16
+     * @param seed seed of the hash that places vertices in registers
+     */
+    public HyperAnf(int[][] adjacency, int log2m, long seed) {
+        if(adjacency == null || log2m < 4 || log2m > 16) throw new IllegalArgumentException();
+        long start = System.nanoTime();
+        this.adjacency = adjacency;
+        this.log2m = log2m;
+        this.m = 1 << log2m;
+        int n = adjacency.length;
+        if((long) n*m > Integer.MAX_VALUE-8) throw new IllegalArgumentException("too many registers for one array");
+        byte[] read = new byte[n*m];
+        byte[] write = new byte[n*m];
+        float[] row = new float[n];
+        for(int v = 0; v < n; v++) {
+            add(read, v, seed);
+            row[v] = (float) estimate(read, v);
+        }
+        List<float[]> rows = new ArrayList<float[]>();
+        rows.add(row);
+        boolean[] dirty = new boolean[n];
+        Arrays.fill(dirty, true);
+        boolean[] marked = new boolean[n];
+        while(iterate(read, write, dirty, marked, rows)) {
+            byte[] registers = read;											//the new counters are read next
+            read = write;
+            write = registers;
+            boolean[] flags = dirty;
+            dirty = marked;
+            marked = flags;
+        }
+        this.sizes = rows.toArray(new float[rows.size()][]);
+        this.function = new double[sizes.length];
+        for(int t = 0; t < sizes.length; t++) {
+            float[] ball = sizes[t];
+            function[t] = IntStream.range(0, n).parallel().mapToDouble(v -> ball[v]).sum();
+        }
+        this.buildMillis = (System.nanoTime()-start)/1000000;
+    }
+
+    /**
+     * Gets the largest distance estimated, the number of iterations before no counter changed
+     *
+     * @return the last distance at which some neighborhood still grew
+     */
+    public int getLastDistance() {
+        return sizes.length-1;
+    }
+
+    /**
+     * Gets the estimated number of vertices within a distance of a vertex, itself included
+     *
+     * @param vertex id of the vertex
+     * @param distance the distance, at least 0; beyond {@link #getLastDistance()} the neighborhood no longer grows
+     * @return the estimated size of the neighborhood
+     */
+    public double getNeighborhoodSize(int vertex, int distance) {
+        if(vertex < 0 || vertex >= adjacency.length || distance < 0) throw new IllegalArgumentException();
+        return sizes[Math.min(distance, sizes.length-1)][vertex];
+    }
+
+    /**
+     * Gets the estimated neighborhood function
+     *
+     * @return array where index t holds the estimated number of ordered pairs of vertices at most t apart, with
+     *         every vertex paired with itself at index 0
+     */
+    public double[] getNeighborhoodFunction() {
+        return function.clone();
+    }
+
+    /**
+     * Estimates the number of unordered pairs of vertices at every distance, the approximate counterpart of
+     * {@link GraphAnalytics#getDistanceDistribution()}
+     *
+     * @return array where index d holds the estimated number of pairs at distance d (index 0 is always 0)
+     */
+    public double[] getDistanceDistribution() {
+        double[] pairs = new double[function.length];
+        for(int d = 1; d < function.length; d++) pairs[d] = Math.max(0, function[d]-function[d-1])/2;
+        return pairs;
+    }
+
+    /**
+     * Estimates the effective diameter: the distance within which a given share of all connected pairs lie,
+     * interpolated linearly between whole distances
+     *
+     * @param share the share of the connected pairs, from 0 to 1, usually 0.9
+     * @return the effective diameter, 0 for a graph without edges
+     */
+    public double getEffectiveDiameter(double share) {
+        if(share <= 0 || share > 1) throw new IllegalArgumentException();
+        double self = function[0], all = function[function.length-1]-self;
+        if(all <= 0) return 0;
+        double goal = self + share*all;
+        for(int t = 1; t < function.length; t++) {
+            if(function[t] >= goal) return t-1 + (goal-function[t-1])/(function[t]-function[t-1]);
+        }
+        return function.length-1;
+    }
+
+    /**
+     * Gets the relative standard error of every counter
+     *
+     * @return about 1.04/sqrt(m)
+     */
+    public double getRelativeStandardError() {
+        return 1.04/Math.sqrt(m);
+    }
+
+    /**
+     * Gets the heap taken while estimating: two arrays of counters, the change flags and the estimates kept
+     *
+     * @return estimated bytes {@link FootprintReport}
+     */
+    public long getMemoryBytes() {
+        long n = adjacency.length;
+        long estimates = FootprintReport.array(sizes.length, FootprintReport.REFERENCE);
+        for(float[] row : sizes) estimates += FootprintReport.array(row.length, 4);
+        return 2*FootprintReport.array(n*m, 1) + 2*FootprintReport.array(n, 1) + estimates;
+    }
+
+    /**
+     * Gets the time the estimation took
+     *
+     * @return milliseconds
+     */
+    public long getBuildTimeMillis() {
+        return buildMillis;
+    }
+
+    /**
+     * Runs one iteration: every counter becomes the union of its own and those of its neighbors
+     * @param read the counters of distance t
+     * @param write receives the counters of distance t+1
+     * @param dirty which counters changed in the last iteration
+     * @param marked receives which counters change in this one
+     * @param rows the estimates of every distance so far, which receives those of distance t+1 if any counter changed
+     * @return true if some counter changed
+     */
+    private boolean iterate(byte[] read, byte[] write, boolean[] dirty, boolean[] marked, List<float[]> rows) {
+        float[] previous = rows.get(rows.size()-1);
+        float[] row = new float[adjacency.length];
+        int grown = IntStream.range(0, adjacency.length).parallel().map(v -> {
+            System.arraycopy(read, v*m, write, v*m, m);
+            boolean grew = false;
+            for(int w : adjacency[v]) {
+                if(dirty[w]) grew |= union(write, v, read, w);					//unchanged neighbors add nothing new
+            }
+            marked[v] = grew;
+            row[v] = grew ? (float) estimate(write, v) : previous[v];
+            return grew ? 1 : 0;
+        }).sum();
+        if(grown > 0) rows.add(row);
+        return grown > 0;
+    }
+
+    /**
+     * Adds a vertex to its own counter
+     * @param registers the counters
+     * @param v the vertex
+     * @param seed seed of the hash
+     */
+    private void add(byte[] registers, int v, long seed) {
+        long h = v*0x9E3779B97F4A7C15L + seed;								//splitmix64
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        int register = (int) (h >>> (64-log2m));
+        int rank = Math.min(Long.numberOfLeadingZeros(h << log2m), 64-log2m) + 1;
+        registers[v*m + register] = (byte) Math.max(registers[v*m + register], rank);
+    }
+
+    /**
+     * Merges the counter of w into the counter of v
+     * @param into the counters written
+     * @param v the vertex whose counter grows
+     * @param from the counters read
+     * @param w the neighbor
+     * @return true if some register of v grew
+     */
+    private boolean union(byte[] into, int v, byte[] from, int w) {
+        boolean grew = false;
+        for(int i = v*m, j = w*m, end = i+m; i < end; i++, j++) {
+            if(from[j] > into[i]) {
+                into[i] = from[j];
+                grew = true;
+            }
+        }
+        return grew;
+    }
+
+    /**
+     * Estimates the number of distinct vertices in a counter (HyperLogLog, with linear counting for small counts)
+     * @param registers the counters
+     * @param v the vertex of the counter
+     * @return the estimate
+     */
+    private double estimate(byte[] registers, int v) {
+        double sum = 0;
+        int zeros = 0;
+        for(int i = v*m, end = i+m; i < end; i++) {
+            sum += Math.scalb(1.0, -registers[i]);
+            if(registers[i] == 0) zeros++;
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213/(1 + 1.079/m);
+        double estimate = alpha*m*m/sum;
+        if(estimate <= 2.5*m && zeros > 0) estimate = m*Math.log((double) m/zeros);
+        return estimate;
+    }
+}
@@ -0,0 +1,215 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: IncrementalPathMatrix.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A predecessor matrix that is filled one row at a time while it already answers queries.
+ *
+ * Row s holds, for every vertex t, the vertex before t on a shortest path from s. Rows are computed by
+ * {@link #computeRow(int)}, usually on a background thread, and become visible to queries as soon as each one is
+ * done. A query between s and t reads row s if it is ready, or row t and reverses the path (the graph is
+ * undirected), and otherwise runs a breadth first search that stops at t. Every answer is exact; only its cost
+ * changes as the matrix fills up. Rows and queries both use a {@link DirectionOptimizingBFS}, which goes bottom-up
+ * on the levels where the frontier covers much of the graph.
+ */
+public class IncrementalPathMatrix implements DistanceOracle {
+
+    /**
+     * rows.get(s)[t] is the vertex before t on a shortest path from s, s for t = s, -1 if there is no path;
+     * null while row s is not computed
+     */
+    private final AtomicReferenceArray<int[]> rows;
+
+    /**
+     * Search used to compute rows and to answer queries between vertices whose rows are missing
+     */
+    private final DirectionOptimizingBFS search;
+
+    /**
+     * Number of rows computed
+     */
+    private final AtomicInteger completed;
+
+    /**
+     * Constructs an empty matrix
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     */
+    public IncrementalPathMatrix(int[][] adjacency) {
+        this(adjacency, SearchPool.defaultCapacity());
+    }
+
+    /**
+     * Constructs an empty matrix with a bound on the searches that run at the same time
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, in both directions
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public IncrementalPathMatrix(int[][] adjacency, int concurrency) {
+        this(new DirectionOptimizingBFS(adjacency, DirectionOptimizingBFS.ALPHA, DirectionOptimizingBFS.BETA,
+            concurrency), adjacency.length);
+    }
+
+    /**
+     * Constructs an empty matrix over a compressed graph, whose rows are searched without decoding it
+     *
+     * @param compressed the graph
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public IncrementalPathMatrix(CompressedIntGraph compressed, int concurrency) {
+        this(new DirectionOptimizingBFS(compressed, DirectionOptimizingBFS.ALPHA, DirectionOptimizingBFS.BETA,
+            concurrency), compressed.order());
+    }
+
+    /**
+     * Constructs an empty matrix
+     * @param search the search over the graph
+     * @param n number of vertices
+     */
+    private IncrementalPathMatrix(DirectionOptimizingBFS search, int n) {
+        this.rows = new AtomicReferenceArray<int[]>(n);
+        this.search = search;
+        this.completed = new AtomicInteger();
+    }
+
+    /**
+     * Computes one row, unless it is already computed
+     *
+     * @param source the vertex of the row
+     */
+    public void computeRow(int source) {
+        if(rows.get(source) != null) return;
+        int n = rows.length();
+        int[] dist = new int[n];
+        int[] previous = new int[n];
+        search.singleSource(source, dist, previous);
+        previous[source] = source;
+        if(rows.compareAndSet(source, null, previous)) completed.incrementAndGet();
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        long bytes = FootprintReport.align(FootprintReport.OBJECT_HEADER + 3*FootprintReport.REFERENCE)
+            + FootprintReport.array(rows.length(), FootprintReport.REFERENCE)
+            + FootprintReport.align(FootprintReport.OBJECT_HEADER + 4) + search.getMemoryBytes();		//the AtomicInteger
+        for(int s = 0; s < rows.length(); s++) {
+            int[] row = rows.get(s);
+            if(row != null) bytes += FootprintReport.array(row.length, 4);
+        }
+        return bytes;
+    }
+
+    /**
+     * Sets a row computed earlier, such as one read back from a {@link PrecomputationCheckpoint}, unless the row is
+     * already computed
+     *
+     * @param source the vertex of the row
+     * @param row row[t] is the vertex before t on a shortest path from source, source for t = source, -1 if there
+     *            is no path; it must not be changed afterwards
+     * @return true if the row was set
+     */
+    public boolean restoreRow(int source, int[] row) {
+        if(row == null || row.length != rows.length()) throw new IllegalArgumentException();
+        if(!rows.compareAndSet(source, null, row)) return false;
+        completed.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gets a computed row, which must not be changed
+     *
+     * @param source the vertex of the row
+     * @return row[t] is the vertex before t on a shortest path from source, null while the row is not computed
+     */
+    public int[] getRow(int source) {
+        return rows.get(source);
+    }
+
+    /**
+     * Gets the number of rows computed
+     *
+     * @return number of computed rows
+     */
+    public int getCompletedRows() {
+        return completed.get();
+    }
+
+    /**
+     * Gets the share of rows computed
+     *
+     * @return from 0 to 1, 1 for an empty graph
+     */
+    public double getProgress() {
+        return rows.length() == 0 ? 1 : (double) completed.get()/rows.length();
+    }
+
+    /**
+     * Copies the rows into a plain matrix once every row is computed
+     *
+     * @return matrix[s][t], the vertex before t on a shortest path from s
+     * @throws IllegalStateException if some row is not computed
+     */
+    public int[][] toMatrix() {
+        int[][] matrix = new int[rows.length()][];
+        for(int s = 0; s < matrix.length; s++) {
+            matrix[s] = rows.get(s);
+            if(matrix[s] == null) throw new IllegalStateException("row " + s + " is not computed");
+        }
+        return matrix;
+    }
+
+    @Override
+    public int getDistance(int source, int target) {
+        int[] row = rows.get(source);
+        int from = source, to = target;
+        if(row == null) {
+            row = rows.get(target);
+            from = target;
+            to = source;
+        }
+        if(row == null) return search.getDistance(source, target);		//neither row is ready, search now
+        if(row[to] == -1) return -1;
+        int distance = 0;
+        for(int v = to; v != from; v = row[v]) distance++;
+        return distance;
+    }
+
+    @Override
+    public int[] getPath(int source, int target) {
+        int[] row = rows.get(source);
+        if(row != null) return walk(row, source, target);
+        row = rows.get(target);
+        if(row == null) return search.getPath(source, target);			//neither row is ready, search now
+        int[] path = walk(row, target, source);
+        if(path != null) {												//reverse the path from target
+            for(int i = 0, j = path.length-1; i < j; i++, j--) {
+                int temp = path[i];
+                path[i] = path[j];
+                path[j] = temp;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Rebuilds a path from a computed row
+     * @param row the row of from
+     * @param from the first vertex of the path
+     * @param to the last vertex of the path
+     * @return the vertices from "from" to "to", null if there is no path
+     */
+    private static int[] walk(int[] row, int from, int to) {
+        if(row[to] == -1) return null;
+        int length = 1;
+        for(int v = to; v != from; v = row[v]) length++;
+        int[] path = new int[length];
+        for(int i = length-1, v = to; i >= 0; i--, v = row[v]) path[i] = v;
+        return path;
+    }
+}
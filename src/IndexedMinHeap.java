@@ -0,0 +1,147 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: IndexedMinHeap.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+
+/**
+ * A binary min heap of int ids with int priorities, stored in primitive arrays.
+ * 
+ * The position of every id in the heap is kept in {@link #position}, so finding an id is O(1) and lowering its
+ * priority is an O(log n) sift up. Sifting is done with loops that move a hole instead of swapping at every level.
+ */
+public class IndexedMinHeap implements IntPriorityQueue {
+    
+    /**
+     * The queued ids in heap order
+     */
+    private final int[] heap;
+    
+    /**
+     * position[id] is the index of id in {@link #heap}, -1 if id is not queued
+     */
+    private final int[] position;
+    
+    /**
+     * priority[id] is the priority of id while it is queued
+     */
+    private final int[] priority;
+    
+    /**
+     * Number of queued ids
+     */
+    private int size;
+    
+    /**
+     * Constructs an empty heap for the ids 0..capacity-1
+     * @param capacity number of possible ids
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        priority = new int[capacity];
+        Arrays.fill(position, -1);
+        size = 0;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Gets the number of queued ids
+     * @return number of queued ids
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Checks whether an id is queued
+     * @param id the id
+     * @return true if id is in the heap
+     */
+    public boolean contains(int id) {
+        return position[id] != -1;
+    }
+    
+    @Override
+    public boolean insertOrDecrease(int id, int priority) {
+        if(position[id] == -1) {
+            this.priority[id] = priority;
+            position[id] = size;
+            heap[size++] = id;
+        }else if(priority < this.priority[id]) {
+            this.priority[id] = priority;
+        }else {
+            return false;
+        }
+        siftUp(position[id]);
+        return true;
+    }
+    
+    @Override
+    public int removeMin() {
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if(size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+    
+    @Override
+    public void clear() {
+        for(int i = 0; i < size; i++) position[heap[i]] = -1;
+        size = 0;
+    }
+    
+    /**
+     * Moves the id at index up until its parent has a smaller or equal priority
+     * @param index the index of the id in the heap
+     */
+    private void siftUp(int index) {
+        int id = heap[index];
+        int key = priority[id];
+        while(index > 0) {
+            int parent = (index-1) >>> 1;
+            int parentId = heap[parent];
+            if(priority[parentId] <= key) break;
+            heap[index] = parentId;						//move the parent down into the hole
+            position[parentId] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+    
+    /**
+     * Moves the id at index down until both children have larger or equal priorities
+     * @param index the index of the id in the heap
+     */
+    private void siftDown(int index) {
+        int id = heap[index];
+        int key = priority[id];
+        int half = size >>> 1;
+        while(index < half) {
+            int child = 2*index+1;
+            int right = child+1;
+            if(right < size && priority[heap[right]] < priority[heap[child]]) child = right;
+            int childId = heap[child];
+            if(key <= priority[childId]) break;
+            heap[index] = childId;						//move the smaller child up into the hole
+            position[childId] = index;
+            index = child;
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+}
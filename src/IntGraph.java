@@ -0,0 +1,308 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: IntGraph.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Undirected weighted graph over int vertex ids, stored as one growable int array of neighbors per vertex.
+ *
+ * Weights live in a parallel array per vertex that is only allocated once an edge of that vertex gets a weight other
+ * than 1, so an unweighted graph costs 4 bytes per edge end. {@link #toAdjacency()} and {@link #toWeights()} copy
+ * the graph into the trimmed arrays taken by the search engines ({@link DijkstraSearch}, {@link MultiSourceBFS},
+ * {@link LandmarkIndex} and the others).
+ */
+public class IntGraph implements IntGraphADT {
+
+    /**
+     * neighbors[v] holds the ids of the neighbors of v in its first degree[v] entries
+     */
+    private int[][] neighbors;
+
+    /**
+     * weights[v][i] is the weight of the edge from v to neighbors[v][i]; null for a vertex whose edges all weigh 1
+     */
+    private int[][] weights;
+
+    /**
+     * Number of neighbors of every vertex
+     */
+    private int[] degree;
+
+    /**
+     * Number of vertices
+     */
+    private int order;
+
+    /**
+     * Number of edges
+     */
+    private int size;
+
+    /**
+     * Constructs an empty graph
+     */
+    public IntGraph() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty graph with room for a number of vertices
+     *
+     * @param capacity the number of vertices expected
+     */
+    public IntGraph(int capacity) {
+        capacity = Math.max(1, capacity);
+        neighbors = new int[capacity][];
+        weights = new int[capacity][];
+        degree = new int[capacity];
+        order = 0;
+        size = 0;
+    }
+
+    @Override
+    public int addVertex() {
+        if(order == neighbors.length) {
+            int capacity = 2*order;
+            neighbors = Arrays.copyOf(neighbors, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+        }
+        neighbors[order] = new int[4];
+        return order++;
+    }
+
+    @Override
+    public boolean addEdge(int vertex1, int vertex2) {
+        if(!exists(vertex1) || !exists(vertex2) || vertex1 == vertex2) return false;
+        if(indexOf(vertex1, vertex2) != -1) return false;
+        append(vertex1, vertex2);
+        append(vertex2, vertex1);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(int vertex1, int vertex2) {
+        if(!exists(vertex1) || !exists(vertex2) || vertex1 == vertex2) return false;
+        int i = indexOf(vertex1, vertex2);
+        if(i == -1) return false;
+        remove(vertex1, i);
+        remove(vertex2, indexOf(vertex2, vertex1));
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean isAdjacent(int vertex1, int vertex2) {
+        if(!exists(vertex1) || !exists(vertex2)) return false;
+        return indexOf(vertex1, vertex2) != -1;
+    }
+
+    @Override
+    public boolean setEdgeWeight(int from, int to, int weight) {
+        if(!exists(from) || !exists(to) || weight < 1) return false;
+        int i = indexOf(from, to);
+        if(i == -1) return false;
+        if(weights[from] == null) {
+            if(weight == 1) return true;
+            weights[from] = new int[neighbors[from].length];
+            Arrays.fill(weights[from], 1);
+        }
+        weights[from][i] = weight;
+        return true;
+    }
+
+    @Override
+    public int getEdgeWeight(int from, int to) {
+        if(!exists(from) || !exists(to)) return -1;
+        int i = indexOf(from, to);
+        if(i == -1) return -1;
+        return weights[from] == null ? 1 : weights[from][i];
+    }
+
+    @Override
+    public int degree(int vertex) {
+        return exists(vertex) ? degree[vertex] : 0;
+    }
+
+    @Override
+    public int getNeighbor(int vertex, int index) {
+        if(!exists(vertex) || index < 0 || index >= degree[vertex]) return -1;
+        return neighbors[vertex][index];
+    }
+
+    @Override
+    public int getNeighborWeight(int vertex, int index) {
+        if(!exists(vertex) || index < 0 || index >= degree[vertex]) return -1;
+        return weights[vertex] == null ? 1 : weights[vertex][index];
+    }
+
+    @Override
+    public void forEachNeighbor(int vertex, IntConsumer action) {
+        if(!exists(vertex) || action == null) return;
+        int[] list = neighbors[vertex];
+        for(int i = 0; i < degree[vertex]; i++) action.accept(list[i]);
+    }
+
+    @Override
+    public int order() {
+        return order;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap used by the neighbor and weight arrays, counting their spare capacity
+     *
+     * @return estimated bytes {@link FootprintReport}
+     */
+    public long getMemoryBytes() {
+        return FootprintReport.align(FootprintReport.OBJECT_HEADER + 3*FootprintReport.REFERENCE + 8)
+            + FootprintReport.arrays(neighbors) + FootprintReport.arrays(weights) + FootprintReport.array(degree.length, 4);
+    }
+
+    /**
+     * Copies the neighbors of every vertex into arrays of their exact length
+     *
+     * @return array where entry v holds the ids of all neighbors of v
+     */
+    public int[][] toAdjacency() {
+        int[][] adjacency = new int[order][];
+        for(int v = 0; v < order; v++) adjacency[v] = Arrays.copyOf(neighbors[v], degree[v]);
+        return adjacency;
+    }
+
+    /**
+     * Copies the edge weights in the layout of {@link #toAdjacency()}
+     *
+     * @return array where entry v holds the weight of the edge from v to each neighbor, null if every edge weighs 1
+     */
+    public int[][] toWeights() {
+        boolean weighted = false;
+        for(int v = 0; v < order && !weighted; v++) weighted = weights[v] != null;
+        if(!weighted) return null;
+        int[][] copy = new int[order][];
+        for(int v = 0; v < order; v++) {
+            if(weights[v] != null) copy[v] = Arrays.copyOf(weights[v], degree[v]);
+            else {
+                copy[v] = new int[degree[v]];
+                Arrays.fill(copy[v], 1);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Sorts the neighbor list of every vertex by id, keeping each weight with its edge, so that
+     * {@link #toAdjacency()} and {@link #toWeights()} list the neighbors in the order a {@link CompressedIntGraph}
+     * decodes them
+     */
+    public void sortNeighbors() {
+        for(int v = 0; v < order; v++) {
+            int d = degree[v];
+            int[] list = neighbors[v];
+            boolean sorted = true;
+            for(int i = 1; i < d && sorted; i++) sorted = list[i-1] < list[i];
+            if(sorted) continue;
+            long[] keys = new long[d];										//neighbor id, then its index
+            for(int i = 0; i < d; i++) keys[i] = (long) list[i] << 32 | i;
+            Arrays.sort(keys);
+            int[] old = weights[v] == null ? null : Arrays.copyOf(weights[v], d);
+            for(int i = 0; i < d; i++) {
+                list[i] = (int) (keys[i] >>> 32);
+                if(old != null) weights[v][i] = old[(int) keys[i]];
+            }
+        }
+    }
+
+    /**
+     * Copies the graph with its vertices renumbered. Every neighbor list of the copy is sorted by id, so a vertex's
+     * neighbors are read in the order they lie in memory.
+     *
+     * @param order order[v] is the id in this graph of the vertex that gets id v, a permutation of all ids
+     * @return the renumbered graph, with the same edges and weights
+     */
+    public IntGraph renumber(int[] order) {
+        if(order == null || order.length != this.order) throw new IllegalArgumentException();
+        int[] rank = new int[this.order];
+        Arrays.fill(rank, -1);
+        for(int v = 0; v < order.length; v++) {
+            if(!exists(order[v]) || rank[order[v]] != -1) throw new IllegalArgumentException("not a permutation");
+            rank[order[v]] = v;
+        }
+        IntGraph copy = new IntGraph(this.order);
+        for(int v = 0; v < this.order; v++) {
+            int old = order[v];
+            int d = degree[old];
+            long[] sorted = new long[d];								//new id of the neighbor, then its index
+            for(int i = 0; i < d; i++) sorted[i] = (long) rank[neighbors[old][i]] << 32 | i;
+            Arrays.sort(sorted);
+            copy.neighbors[v] = new int[Math.max(d, 1)];
+            if(weights[old] != null) copy.weights[v] = new int[Math.max(d, 1)];
+            for(int i = 0; i < d; i++) {
+                copy.neighbors[v][i] = (int) (sorted[i] >>> 32);
+                if(weights[old] != null) copy.weights[v][i] = weights[old][(int) sorted[i]];
+            }
+            copy.degree[v] = d;
+        }
+        copy.order = this.order;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Checks whether a vertex exists
+     * @param vertex id of the vertex
+     * @return true if it is a vertex of the graph
+     */
+    private boolean exists(int vertex) {
+        return vertex >= 0 && vertex < order;
+    }
+
+    /**
+     * Finds the position of a neighbor in the list of a vertex
+     * @param vertex id of the vertex
+     * @param neighbor id of the neighbor
+     * @return its index in neighbors[vertex], -1 if the vertices are not adjacent
+     */
+    private int indexOf(int vertex, int neighbor) {
+        int[] list = neighbors[vertex];
+        for(int i = 0; i < degree[vertex]; i++) if(list[i] == neighbor) return i;
+        return -1;
+    }
+
+    /**
+     * Adds a neighbor at the end of the list of a vertex, with weight 1
+     * @param vertex id of the vertex
+     * @param neighbor id of the neighbor
+     */
+    private void append(int vertex, int neighbor) {
+        int d = degree[vertex];
+        if(d == neighbors[vertex].length) {
+            neighbors[vertex] = Arrays.copyOf(neighbors[vertex], 2*d);
+            if(weights[vertex] != null) weights[vertex] = Arrays.copyOf(weights[vertex], 2*d);
+        }
+        neighbors[vertex][d] = neighbor;
+        if(weights[vertex] != null) weights[vertex][d] = 1;
+        degree[vertex]++;
+    }
+
+    /**
+     * Removes a neighbor from the list of a vertex by moving the last neighbor into its place
+     * @param vertex id of the vertex
+     * @param index position of the neighbor to remove
+     */
+    private void remove(int vertex, int index) {
+        int last = --degree[vertex];
+        neighbors[vertex][index] = neighbors[vertex][last];
+        if(weights[vertex] != null) weights[vertex][index] = weights[vertex][last];
+    }
+}
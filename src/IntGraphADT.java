@@ -0,0 +1,144 @@
+import java.util.function.IntConsumer;
+
+/**
+ *
+ * A graph whose vertices are the ints 0 to {@link #order()}-1, for code that already maps its vertices to ids and
+ * should not pay for boxing them. Every edge is undirected (it exists in both directions or in neither) and has an
+ * integer weight in each direction, 1 unless it is changed with {@link #setEdgeWeight(int, int, int)}.
+ *
+ * Neighbors are visited either with a cursor, {@link #degree(int)} and {@link #getNeighbor(int, int)}, or with
+ * {@link #forEachNeighbor(int, IntConsumer)}; neither creates an object per neighbor.
+ *
+ * (none of the methods throw exceptions)
+ */
+public interface IntGraphADT {
+
+	/**
+	 * Add a new vertex with the next free id
+	 *
+	 * @return the id of the new vertex
+	 */
+	public int addVertex();
+
+
+	/**
+	 * Add an edge of weight 1 between two vertices
+	 *
+	 * Valid argument conditions:
+	 * 1. both the vertices should exist in the graph
+	 * 2. vertex1 should not equal vertex2
+	 *
+	 * @param vertex1 id of the first vertex
+	 * @param vertex2 id of the second vertex
+	 * @return true if edge added, else return false if edge can not be added (also if it already exists or valid conditions are violated)
+	 */
+	public boolean addEdge(int vertex1, int vertex2);
+
+
+	/**
+	 * Remove the edge between two vertices
+	 *
+	 * Valid argument conditions:
+	 * 1. both the vertices should exist in the graph
+	 * 2. vertex1 should not equal vertex2
+	 *
+	 * @param vertex1 id of the first vertex
+	 * @param vertex2 id of the second vertex
+	 * @return true if edge removed, else return false if edge can not be removed (also if valid conditions are violated)
+	 */
+	public boolean removeEdge(int vertex1, int vertex2);
+
+
+	/**
+	 * Check whether the two vertices are adjacent
+	 *
+	 * @param vertex1 id of the first vertex
+	 * @param vertex2 id of the second vertex
+	 * @return true if both the vertices have an edge with each other, else return false (also if valid conditions are violated)
+	 */
+	public boolean isAdjacent(int vertex1, int vertex2);
+
+
+	/**
+	 * Change the weight of an existing edge in one direction
+	 *
+	 * Valid argument conditions:
+	 * 1. both the vertices should exist in the graph and be adjacent
+	 * 2. weight should be positive
+	 *
+	 * @param from id of the vertex the edge is traversed from
+	 * @param to id of the vertex the edge is traversed to
+	 * @param weight the new weight of the edge from "from" to "to"
+	 * @return true if the weight was changed, else return false (also if valid conditions are violated)
+	 */
+	public boolean setEdgeWeight(int from, int to, int weight);
+
+
+	/**
+	 * Get the weight of an edge in one direction
+	 *
+	 * @param from id of the vertex the edge is traversed from
+	 * @param to id of the vertex the edge is traversed to
+	 * @return the weight of the edge from "from" to "to", -1 if there is no such edge (also if valid conditions are violated)
+	 */
+	public int getEdgeWeight(int from, int to);
+
+
+	/**
+	 * Get the number of neighbors of a vertex
+	 *
+	 * @param vertex id of the vertex
+	 * @return the number of neighbors, 0 if the vertex does not exist
+	 */
+	public int degree(int vertex);
+
+
+	/**
+	 * Get one neighbor of a vertex. Together with {@link #degree(int)} this is a cursor over the neighbors:
+	 * index 0 to degree-1 visits each of them once, in the order the edges were added unless edges were removed.
+	 *
+	 * Valid argument conditions:
+	 * 1. vertex should exist in the graph
+	 * 2. index should be from 0 to degree(vertex)-1
+	 *
+	 * @param vertex id of the vertex
+	 * @param index position of the neighbor
+	 * @return id of the neighbor, -1 if valid conditions are violated
+	 */
+	public int getNeighbor(int vertex, int index);
+
+
+	/**
+	 * Get the weight of the edge to one neighbor of a vertex, with the same cursor as {@link #getNeighbor(int, int)}
+	 *
+	 * @param vertex id of the vertex
+	 * @param index position of the neighbor
+	 * @return the weight of the edge from vertex to getNeighbor(vertex, index), -1 if valid conditions are violated
+	 */
+	public int getNeighborWeight(int vertex, int index);
+
+
+	/**
+	 * Pass every neighbor of a vertex to an action
+	 *
+	 * @param vertex id of the vertex
+	 * @param action receives the id of each neighbor
+	 */
+	public void forEachNeighbor(int vertex, IntConsumer action);
+
+
+	/**
+	 * Get the number of vertices
+	 *
+	 * @return the number of vertices, which is also the next id {@link #addVertex()} gives out
+	 */
+	public int order();
+
+
+	/**
+	 * Get the number of edges
+	 *
+	 * @return the number of undirected edges
+	 */
+	public int size();
+}
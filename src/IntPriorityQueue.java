@@ -0,0 +1,43 @@
+/**
+ * 
+ * A priority queue of vertex ids 0..n-1 with integer priorities, where each id is in the queue at most once
+ * and its priority can only be lowered while it is queued.
+ * 
+ * (none of the methods throw exceptions for valid ids)
+ */
+public interface IntPriorityQueue {
+
+	/**
+	 * Check whether the queue is empty
+	 * 
+	 * @return true if no id is queued
+	 */
+	public boolean isEmpty();
+	
+	
+	/**
+	 * Queue an id, or lower its priority if it is already queued with a higher one
+	 * 
+	 * @param id the id to be queued
+	 * @param priority the priority of the id, smaller values are removed first
+	 * @return true if the id was queued or its priority lowered, false if it was already queued with a priority at most priority
+	 */
+	public boolean insertOrDecrease(int id, int priority);
+	
+	
+	/**
+	 * Remove the id with the smallest priority
+	 * 
+	 * Valid conditions:
+	 * 1. the queue should not be empty
+	 * 
+	 * @return the removed id
+	 */
+	public int removeMin();
+	
+	
+	/**
+	 * Remove every id from the queue
+	 */
+	public void clear();
+}
@@ -0,0 +1,437 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: LandmarkIndex.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * A distance oracle that stores the distances from k landmark vertices to every vertex, k*V entries instead of the
+ * V*V of an all-pairs matrix.
+ *
+ * By the triangle inequality, every landmark l bounds the distance between u and v:
+ *     |d(l,u) - d(l,v)| <= d(u,v) <= d(l,u) + d(l,v)
+ * {@link #getBounds(int, int)} combines these bounds over all landmarks in O(k) time. Exact queries run an A* search
+ * (the ALT algorithm: A*, Landmarks, Triangle inequality) whose heuristic is the landmark lower bound to the target.
+ * The heuristic is consistent, so the search settles every vertex once and stops as soon as the target is settled.
+ * It also stops straight away when the lower and upper bounds already agree.
+ */
+public class LandmarkIndex implements DistanceOracle {
+
+    /**
+     * How landmarks are chosen
+     */
+    public enum Selection {
+        /**
+         * The vertices with the most neighbors
+         */
+        DEGREE,
+        /**
+         * Uniformly random vertices
+         */
+        RANDOM,
+        /**
+         * Each landmark is the vertex farthest from all landmarks chosen before it, so landmarks end up on the edges
+         * of the graph and in every large component
+         */
+        FARTHEST
+    }
+
+    /**
+     * Stored distance of a vertex that a landmark can not reach
+     */
+    private static final short UNREACHABLE = -1;
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the vertex with id v, null when the graph is compressed
+     */
+    private final int[][] adjacency;
+
+    /**
+     * The graph in compressed form, null when it is held as {@link #adjacency}
+     */
+    private final CompressedIntGraph compressed;
+
+    /**
+     * Ids of the landmark vertices
+     */
+    private final int[] landmarks;
+
+    /**
+     * distances[i][v] is the distance from the i-th landmark to v, {@link #UNREACHABLE} if there is no path
+     */
+    private final short[][] distances;
+
+    /**
+     * Search buffers for exact queries, shared by all threads
+     */
+    private final SearchPool<Search> searches;
+
+    /**
+     * Number of vertices settled by the last exact query of each thread
+     */
+    private final ThreadLocal<int[]> lastSettled = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Builds the index, searching from every landmark in parallel
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param count the number of landmarks, at most the number of vertices are used
+     * @param selection how the landmarks are chosen
+     * @param seed seed for {@link Selection#RANDOM} and for the first {@link Selection#FARTHEST} landmark
+     */
+    public LandmarkIndex(int[][] adjacency, int count, Selection selection, long seed) {
+        this(adjacency, count, selection, seed, SearchPool.defaultCapacity());
+    }
+
+    /**
+     * Builds the index with a bound on the exact queries that run at the same time
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param count the number of landmarks, at most the number of vertices are used
+     * @param selection how the landmarks are chosen
+     * @param seed seed for {@link Selection#RANDOM} and for the first {@link Selection#FARTHEST} landmark
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public LandmarkIndex(int[][] adjacency, int count, Selection selection, long seed, int concurrency) {
+        this(adjacency, null, count, selection, seed, concurrency);
+    }
+
+    /**
+     * Builds the index over a compressed graph, which is decoded as it is searched
+     *
+     * @param compressed the graph
+     * @param count the number of landmarks, at most the number of vertices are used
+     * @param selection how the landmarks are chosen
+     * @param seed seed for {@link Selection#RANDOM} and for the first {@link Selection#FARTHEST} landmark
+     * @param concurrency largest number of sets of search buffers, at least 1
+     */
+    public LandmarkIndex(CompressedIntGraph compressed, int count, Selection selection, long seed, int concurrency) {
+        this(null, compressed, count, selection, seed, concurrency);
+    }
+
+    /**
+     * Builds the index over a graph in either form
+     * @param adjacency the adjacency arrays, null if compressed is given
+     * @param compressed the compressed graph, null if adjacency is given
+     * @param count the number of landmarks
+     * @param selection how the landmarks are chosen
+     * @param seed seed of the random choices
+     * @param concurrency largest number of sets of search buffers
+     */
+    private LandmarkIndex(int[][] adjacency, CompressedIntGraph compressed, int count, Selection selection, long seed,
+            int concurrency) {
+        if((adjacency == null) == (compressed == null) || count < 0 || selection == null) {
+            throw new IllegalArgumentException();
+        }
+        this.adjacency = adjacency;
+        this.compressed = compressed;
+        int n = NeighborReader.order(adjacency, compressed);
+        NeighborReader reader = new NeighborReader(adjacency, compressed);
+        count = Math.min(count, n);
+        this.landmarks = new int[count];
+        this.distances = new short[count][];
+        this.searches = new SearchPool<Search>(() -> new Search(n), concurrency);
+
+        Random random = new Random(seed);
+        switch(selection) {
+            case DEGREE:
+                Integer[] order = new Integer[n];
+                for(int v = 0; v < n; v++) order[v] = v;
+                Arrays.sort(order, (a, b) -> Integer.compare(reader.degree(b), reader.degree(a)));
+                for(int i = 0; i < count; i++) landmarks[i] = order[i];
+                break;
+            case RANDOM:
+                int[] shuffled = IntStream.range(0, n).toArray();
+                for(int i = 0; i < count; i++) {
+                    int j = i+random.nextInt(n-i);
+                    int temp = shuffled[i];
+                    shuffled[i] = shuffled[j];
+                    shuffled[j] = temp;
+                    landmarks[i] = shuffled[i];
+                }
+                break;
+            case FARTHEST:
+                //closest[v] is the distance from v to the nearest landmark so far, unreachable counts as infinite
+                int[] closest = new int[n];
+                Arrays.fill(closest, Integer.MAX_VALUE);
+                int next = n == 0 ? 0 : random.nextInt(n);
+                for(int i = 0; i < count; i++) {
+                    landmarks[i] = next;
+                    distances[i] = bfs(next);
+                    for(int v = 0; v < n; v++) {
+                        if(distances[i][v] != UNREACHABLE) closest[v] = Math.min(closest[v], distances[i][v]);
+                    }
+                    for(int v = 0; v < n; v++) {
+                        if(closest[v] > closest[next] || (closest[v] == closest[next] && reader.degree(v) > reader.degree(next))) next = v;
+                    }
+                }
+                return;												//the distances are already computed
+        }
+        IntStream.range(0, count).parallel().forEach(i -> distances[i] = bfs(landmarks[i]));
+    }
+
+    /**
+     * Gets the ids of the landmark vertices
+     *
+     * @return the landmark ids
+     */
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Gets bounds on the distance between two vertices from the landmark distances alone.
+     *
+     * @param source id of the first vertex
+     * @param target id of the second vertex
+     * @return array {lower, upper} with lower <= d(source, target) <= upper; upper is Integer.MAX_VALUE if no landmark
+     *         reaches both vertices, and both are -1 if a landmark shows that the vertices are not connected
+     */
+    public int[] getBounds(int source, int target) {
+        if(source == target) return new int[] {0, 0};
+        int lower = 1;
+        int upper = Integer.MAX_VALUE;
+        for(short[] row : distances) {
+            int ds = row[source];
+            int dt = row[target];
+            if(ds == UNREACHABLE && dt == UNREACHABLE) continue;
+            if(ds == UNREACHABLE || dt == UNREACHABLE) return new int[] {-1, -1};	//only one is in the landmark's component
+            lower = Math.max(lower, Math.abs(ds-dt));
+            upper = Math.min(upper, ds+dt);
+        }
+        return new int[] {lower, upper};
+    }
+
+    @Override
+    public int getDistance(int source, int target) {
+        int[] bounds = getBounds(source, target);
+        if(bounds[0] == bounds[1]) return bounds[0];
+        Search search = searches.acquire();
+        try {
+            return search.run(source, target);
+        } finally {
+            release(search);
+        }
+    }
+
+    @Override
+    public int[] getPath(int source, int target) {
+        if(getBounds(source, target)[0] == -1) return null;
+        Search search = searches.acquire();
+        try {
+            int distance = search.run(source, target);
+            if(distance < 0) return null;
+            int[] path = new int[distance+1];
+            for(int i = distance, v = target; i >= 0; i--, v = search.parent[v]) path[i] = v;
+            return path;
+        } finally {
+            release(search);
+        }
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return FootprintReport.align(FootprintReport.OBJECT_HEADER + 6*FootprintReport.REFERENCE)
+            + FootprintReport.array(landmarks.length, 4) + FootprintReport.arrays(distances);
+    }
+
+    /**
+     * Gets the number of vertices settled by the last exact query of the calling thread
+     *
+     * @return number of settled vertices
+     */
+    public int getLastSettledCount() {
+        return lastSettled.get()[0];
+    }
+
+    /**
+     * Records the settled count for the calling thread, clears the buffers and returns them to the pool
+     * @param search buffers taken from {@link #searches}
+     */
+    private void release(Search search) {
+        lastSettled.get()[0] = search.settled;
+        search.reset();
+        searches.release(search);
+    }
+
+    /**
+     * Lower bound on the distance from v to target used as the A* heuristic
+     *
+     * @param v id of a vertex
+     * @param target id of the target
+     * @return a lower bound on d(v, target)
+     */
+    private int heuristic(int v, int target) {
+        int h = 0;
+        for(short[] row : distances) {
+            int dv = row[v];
+            int dt = row[target];
+            if(dv != UNREACHABLE && dt != UNREACHABLE) h = Math.max(h, Math.abs(dv-dt));
+        }
+        return h;
+    }
+
+    /**
+     * Breadth first search from a single vertex
+     *
+     * @param source id of the vertex to search from
+     * @return distance from source to every vertex, {@link #UNREACHABLE} if there is no path
+     */
+    private short[] bfs(int source) {
+        NeighborReader reader = new NeighborReader(adjacency, compressed);				//each landmark on its own thread
+        short[] dist = new short[NeighborReader.order(adjacency, compressed)];
+        Arrays.fill(dist, UNREACHABLE);
+        int[] queue = new int[dist.length];
+        dist[source] = 0;
+        queue[0] = source;
+        for(int head = 0, tail = 1; head < tail; head++) {
+            int v = queue[head];
+            int[] neighbors = reader.read(v);
+            for(int i = 0; i < reader.getDegree(); i++) {
+                int w = neighbors[i];
+                if(dist[w] == UNREACHABLE) {
+                    dist[w] = (short) (dist[v]+1);
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * A* search buffers. Open vertices are kept in buckets by their estimated total distance f = g + h; since both
+     * are integers and f never decreases along the search, the buckets are scanned in increasing order.
+     */
+    private class Search {
+
+        /**
+         * Distance from the source to every reached vertex, -1 if not reached
+         */
+        private final int[] g;
+
+        /**
+         * The vertex before every reached vertex on its shortest path
+         */
+        private final int[] parent;
+
+        /**
+         * Whether a vertex has been settled
+         */
+        private final boolean[] closed;
+
+        /**
+         * Every vertex reached by the last search, to reset the buffers
+         */
+        private int[] touched;
+
+        /**
+         * Number of entries in {@link #touched}
+         */
+        private int touchedCount;
+
+        /**
+         * buckets[f] holds the open vertices with estimate f, bucketSize[f] their number
+         */
+        private int[][] buckets;
+
+        /**
+         * Number of vertices in each bucket
+         */
+        private int[] bucketSize;
+
+        /**
+         * Number of vertices settled by the last search
+         */
+        private int settled;
+
+        /**
+         * Reads the neighbor lists
+         */
+        private final NeighborReader reader;
+
+        /**
+         * Creates buffers for a graph of n vertices
+         * @param n number of vertices
+         */
+        private Search(int n) {
+            reader = new NeighborReader(adjacency, compressed);
+            g = new int[n];
+            parent = new int[n];
+            closed = new boolean[n];
+            touched = new int[16];
+            buckets = new int[16][];
+            bucketSize = new int[16];
+            Arrays.fill(g, -1);
+        }
+
+        /**
+         * Runs the search. {@link #reset()} must be called before the next search.
+         *
+         * @param source id of the first vertex
+         * @param target id of the second vertex
+         * @return the distance from source to target, -1 if there is no path
+         */
+        private int run(int source, int target) {
+            settled = 0;
+            reach(source, 0, -1, heuristic(source, target));
+            int f = 0;
+            while(true) {
+                while(f < buckets.length && bucketSize[f] == 0) f++;
+                if(f == buckets.length) return -1;					//every reachable vertex is settled
+                int v = buckets[f][--bucketSize[f]];
+                if(closed[v]) continue;								//stale entry of a vertex reached again
+                closed[v] = true;
+                settled++;
+                if(v == target) return g[v];
+                int[] neighbors = reader.read(v);
+                for(int i = 0; i < reader.getDegree(); i++) {
+                    int w = neighbors[i];
+                    if(closed[w] || (g[w] != -1 && g[w] <= g[v]+1)) continue;
+                    reach(w, g[v]+1, v, g[v]+1+heuristic(w, target));
+                }
+            }
+        }
+
+        /**
+         * Records a new or shorter distance to a vertex and puts it in the bucket of its estimate
+         * @param v id of the vertex reached
+         * @param distance distance from the source to v
+         * @param from the vertex before v on the path, -1 for the source
+         * @param f estimated length of a path through v to the target
+         */
+        private void reach(int v, int distance, int from, int f) {
+            if(g[v] == -1) {
+                if(touchedCount == touched.length) touched = Arrays.copyOf(touched, 2*touchedCount);
+                touched[touchedCount++] = v;
+            }
+            g[v] = distance;
+            parent[v] = from;
+            if(f >= buckets.length) {
+                int size = Math.max(f+1, 2*buckets.length);
+                buckets = Arrays.copyOf(buckets, size);
+                bucketSize = Arrays.copyOf(bucketSize, size);
+            }
+            if(buckets[f] == null) buckets[f] = new int[8];
+            if(bucketSize[f] == buckets[f].length) buckets[f] = Arrays.copyOf(buckets[f], 2*bucketSize[f]);
+            buckets[f][bucketSize[f]++] = v;
+        }
+
+        /**
+         * Clears the state written by the last search
+         */
+        private void reset() {
+            for(int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                g[v] = -1;
+                closed[v] = false;
+            }
+            touchedCount = 0;
+            Arrays.fill(bucketSize, 0);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: MultiSourceBFS.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Bit-parallel multi-source breadth first search (MS-BFS).
+ *
+ * Instead of one search per source, a batch of up to 64*lanes sources is searched at once. Every vertex keeps a
+ * bitset with one bit per source of the batch: seen marks the sources that have reached the vertex, and the frontier
+ * marks the sources that reached it in the last level. Expanding a vertex pushes its whole frontier bitset to each
+ * neighbor with a few word-wide AND/OR operations, so each adjacency list is scanned once per level of the batch
+ * rather than once per source. This cuts the number of adjacency scans (and the memory traffic they cause) by up to
+ * the batch size while producing exactly the distances of separate searches.
+ *
+ * Batches are independent and run in parallel, each with its own bitsets.
+ */
+public class MultiSourceBFS {
+
+    /**
+     * Value stored for pairs of vertices that are not connected
+     */
+    public static final short UNREACHABLE = -1;
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the vertex with id v
+     */
+    private final int[][] adjacency;
+
+    /**
+     * Number of 64 bit words in the bitset of a vertex, a batch has 64*lanes sources
+     */
+    private final int lanes;
+
+    /**
+     * Constructs a search over the given graph
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param lanes number of 64 bit words per vertex bitset, at least 1
+     */
+    public MultiSourceBFS(int[][] adjacency, int lanes) {
+        if(adjacency == null || lanes < 1) throw new IllegalArgumentException();
+        this.adjacency = adjacency;
+        this.lanes = lanes;
+    }
+
+    /**
+     * Gets the number of sources searched together in one batch
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return 64*lanes;
+    }
+
+    /**
+     * Computes the distance between every pair of vertices.
+     *
+     * @return matrix where row s holds the distance from vertex s to every vertex, {@link #UNREACHABLE} if there is
+     *         no path
+     */
+    public short[][] allPairsDistances() {
+        int n = adjacency.length;
+        short[][] distances = new short[n][];
+        int batchSize = getBatchSize();
+        int batches = (n+batchSize-1)/batchSize;
+        IntStream.range(0, batches).parallel().forEach(b -> {
+            int first = b*batchSize;
+            int count = Math.min(batchSize, n-first);
+            short[][] rows = new short[count][n];
+            for(short[] row : rows) Arrays.fill(row, UNREACHABLE);
+            search(first, count, rows);
+            for(int i = 0; i < count; i++) distances[first+i] = rows[i];
+        });
+        return distances;
+    }
+
+    /**
+     * Searches from the consecutive vertices first, first+1, ... first+count-1 at once.
+     *
+     * @param first id of the first source
+     * @param count number of sources, at most {@link #getBatchSize()}
+     * @param rows rows[i] receives the distances from source first+i, entries must start as {@link #UNREACHABLE}
+     */
+    private void search(int first, int count, short[][] rows) {
+        int n = adjacency.length;
+        long[] seen = new long[n*lanes];
+        long[] frontier = new long[n*lanes];
+        long[] next = new long[n*lanes];
+
+        for(int i = 0; i < count; i++) {
+            int source = first+i;
+            long bit = 1L << (i & 63);
+            seen[source*lanes + (i >>> 6)] |= bit;
+            frontier[source*lanes + (i >>> 6)] |= bit;
+            rows[i][source] = 0;
+        }
+
+        boolean active = true;
+        for(short level = 1; active; level++) {
+            active = false;
+            for(int v = 0; v < n; v++) {
+                int base = v*lanes;
+                boolean any = false;
+                for(int l = 0; l < lanes; l++) {
+                    if(frontier[base+l] != 0) {
+                        any = true;
+                        break;
+                    }
+                }
+                if(!any) continue;
+                for(int w : adjacency[v]) {
+                    int wBase = w*lanes;
+                    for(int l = 0; l < lanes; l++) {
+                        long discovered = frontier[base+l] & ~seen[wBase+l];	//sources reaching w for the first time
+                        if(discovered == 0) continue;
+                        seen[wBase+l] |= discovered;
+                        next[wBase+l] |= discovered;
+                        active = true;
+                        while(discovered != 0) {
+                            int i = (l << 6) + Long.numberOfTrailingZeros(discovered);
+                            rows[i][w] = level;
+                            discovered &= discovered-1;
+                        }
+                    }
+                }
+            }
+            long[] temp = frontier;
+            frontier = next;
+            next = temp;
+            Arrays.fill(next, 0);
+        }
+    }
+
+    /**
+     * Computes the distance between every pair of vertices and wraps it as a {@link DistanceOracle}
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param lanes number of 64 bit words per vertex bitset, at least 1
+     * @return the distance matrix of the graph
+     */
+    public static DistanceMatrix precompute(int[][] adjacency, int lanes) {
+        return new DistanceMatrix(adjacency, new MultiSourceBFS(adjacency, lanes).allPairsDistances());
+    }
+
+    /**
+     * A {@link DistanceOracle} backed by a full matrix of distances. A path is rebuilt by walking back from the
+     * target, each step moving to a neighbor one edge closer to the source.
+     */
+    public static class DistanceMatrix implements DistanceOracle {
+
+        /**
+         * adjacency[v] holds the ids of all neighbors of the vertex with id v
+         */
+        private final int[][] adjacency;
+
+        /**
+         * distances[s][t] is the distance from s to t, {@link MultiSourceBFS#UNREACHABLE} if there is no path
+         */
+        private final short[][] distances;
+
+        /**
+         * Constructs the oracle
+         * @param adjacency the graph the distances were computed on
+         * @param distances distance between every pair of vertices
+         */
+        public DistanceMatrix(int[][] adjacency, short[][] distances) {
+            this.adjacency = adjacency;
+            this.distances = distances;
+        }
+
+        @Override
+        public int getDistance(int source, int target) {
+            return distances[source][target];
+        }
+
+        @Override
+        public int[] getPath(int source, int target) {
+            short[] row = distances[source];
+            if(row[target] == UNREACHABLE) return null;
+            int[] path = new int[row[target]+1];
+            int cur = target;
+            for(int i = path.length-1; i > 0; i--) {
+                path[i] = cur;
+                for(int w : adjacency[cur]) {
+                    if(row[w] == row[cur]-1) {
+                        cur = w;
+                        break;
+                    }
+                }
+            }
+            path[0] = source;
+            return path;
+        }
+
+        @Override
+        public long getMemoryBytes() {
+            return FootprintReport.align(FootprintReport.OBJECT_HEADER + 2*FootprintReport.REFERENCE)
+                + FootprintReport.arrays(distances);
+        }
+    }
+}
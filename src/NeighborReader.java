@@ -0,0 +1,96 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: NeighborReader.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+/**
+ * Reads the neighbor lists of a graph held either as int adjacency arrays or as a {@link CompressedIntGraph}, so
+ * a search has one loop for both.
+ *
+ * Over arrays, {@link #read(int)} returns the list of the vertex itself. Compressed lists are decoded into one
+ * array that is reused for every vertex, so the list read last is only valid until the next call. A reader is not
+ * thread safe; every search buffer holds its own.
+ */
+public class NeighborReader {
+
+    /**
+     * adjacency[v] holds the ids of all neighbors of the vertex with id v, null when the graph is compressed
+     */
+    private final int[][] adjacency;
+
+    /**
+     * Cursor over the compressed lists, null when the graph is held as arrays
+     */
+    private final CompressedIntGraph.Cursor cursor;
+
+    /**
+     * The decoded list of the vertex read last, when the graph is compressed
+     */
+    private final int[] decoded;
+
+    /**
+     * Number of neighbors of the vertex read last
+     */
+    private int degree;
+
+    /**
+     * Constructs a reader over exactly one of the two forms of a graph
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v, null if compressed is given
+     * @param compressed the compressed graph, null if adjacency is given
+     */
+    public NeighborReader(int[][] adjacency, CompressedIntGraph compressed) {
+        if((adjacency == null) == (compressed == null)) throw new IllegalArgumentException();
+        this.adjacency = adjacency;
+        this.cursor = compressed == null ? null : compressed.cursor();
+        this.decoded = compressed == null ? null : new int[compressed.getMaxDegree()];
+    }
+
+    /**
+     * Gets the number of vertices of a graph in either form
+     *
+     * @param adjacency the adjacency arrays, or null
+     * @param compressed the compressed graph, or null
+     * @return the number of vertices of the one given
+     */
+    public static int order(int[][] adjacency, CompressedIntGraph compressed) {
+        return adjacency != null ? adjacency.length : compressed.order();
+    }
+
+    /**
+     * Reads the neighbors of a vertex
+     *
+     * @param vertex id of the vertex
+     * @return array holding its neighbor ids in the first {@link #getDegree()} entries, not to be changed
+     */
+    public int[] read(int vertex) {
+        if(adjacency != null) {
+            int[] list = adjacency[vertex];
+            degree = list.length;
+            return list;
+        }
+        degree = cursor.read(vertex, decoded);
+        return decoded;
+    }
+
+    /**
+     * Gets the number of neighbors of the vertex read last
+     *
+     * @return its degree
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Gets the number of neighbors of a vertex without reading them
+     *
+     * @param vertex id of the vertex
+     * @return its degree
+     */
+    public int degree(int vertex) {
+        return adjacency != null ? adjacency[vertex].length : cursor.reset(vertex);
+    }
+}
@@ -0,0 +1,81 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: OneEditRule.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Words are adjacent when one char replaced, added or deleted turns one into the other
+ * {@link WordProcessor#isAdjacent(String, String)}. This is the default rule of {@link GraphProcessor}.
+ *
+ * Edges are found without comparing every pair of words:
+ *  - replacements: every word is filed under each of its patterns, the position of one char followed by the word with
+ *    that char replaced by a wildcard. Two words share a pattern exactly when they differ only at its wildcard, so
+ *    every pair within a pattern is an edge.
+ *  - additions and deletions: every char of a word is deleted in turn and the shorter word is looked up in the arena.
+ * The work grows with the total length of the words and the number of edges, not with the square of the word count.
+ */
+public class OneEditRule implements AdjacencyRule {
+
+    /**
+     * Stands for the replaced char in a pattern. A word may hold this char too, since the pattern also names the
+     * position of the wildcard.
+     */
+    protected static final char WILDCARD = '\uFFFF';
+
+    @Override
+    public boolean isAdjacent(CharSequence word1, CharSequence word2) {
+        if(word1 == null || word2 == null) throw new IllegalArgumentException();
+        if(Math.abs(word1.length()-word2.length()) > 1) return false;
+        return WordProcessor.editDistance(word1, word2) == 1;
+    }
+
+    /**
+     * Every edge is one edit, so the edit distance between two words is at most their distance in the graph
+     */
+    @Override
+    public int getDistanceBound(CharSequence word1, CharSequence word2) {
+        return WordProcessor.editDistance(word1, word2);
+    }
+
+    /**
+     * Every edge changes the length by at most 1
+     */
+    @Override
+    public int getLengthBound(int length1, int length2) {
+        return Math.abs(length1-length2);
+    }
+
+    @Override
+    public void findEdges(WordArena words, EdgeConsumer edges) {
+        Map<String, List<Integer>> patterns = new HashMap<String, List<Integer>>();
+        for(int id = 0; id < words.size(); id++) {
+            char[] chars = words.getWord(id).toCharArray();
+            for(int i = 0; i < chars.length; i++) {
+                char replaced = chars[i];
+                chars[i] = WILDCARD;
+                patterns.computeIfAbsent((char) i + new String(chars), pattern -> new ArrayList<Integer>(2)).add(id);
+                chars[i] = replaced;
+            }
+
+            String word = new String(chars);
+            for(int i = 0; i < chars.length; i++) {
+                if(i > 0 && chars[i] == chars[i-1]) continue;			//deleting either of a double letter is the same
+                int shorter = words.indexOf(word.substring(0, i) + word.substring(i+1));
+                if(shorter >= 0) edges.accept(shorter, id);
+            }
+        }
+
+        for(List<Integer> ids : patterns.values()) {
+            for(int a = 0; a < ids.size()-1; a++) {
+                for(int b = a+1; b < ids.size(); b++) edges.accept(ids.get(a), ids.get(b));
+            }
+        }
+    }
+}
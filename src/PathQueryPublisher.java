@@ -0,0 +1,395 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: PathQueryPublisher.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Answers a stream of shortest path queries for one subscriber, emitting every answer as soon as it is computed
+ * instead of collecting all of them in a list first.
+ *
+ * Queries are taken from the stream only when there is demand for their answers: at most as many queries are
+ * started as the subscriber has requested answers, and at most parallelism of them run at once on the executor.
+ * A slow subscriber therefore holds back the queries, and no more than parallelism answers wait in memory. The
+ * answers are emitted in the order they finish, each with the position of its query in the stream.
+ *
+ * All signals to the subscriber and every read of the stream happen in one drain loop, which whichever thread
+ * finds work (a request, a finished query or a cancellation) runs while no other thread is in it. The stream is
+ * closed when the publisher completes, fails or is cancelled.
+ */
+public class PathQueryPublisher implements Flow.Publisher<PathQueryPublisher.Result> {
+
+    /**
+     * Computes the answer to one query
+     */
+    @FunctionalInterface
+    public interface Query {
+
+        /**
+         * Answers a query
+         *
+         * @param index position of the query in the stream
+         * @param word1 first word
+         * @param word2 second word
+         * @return the answer
+         */
+        Result answer(long index, String word1, String word2);
+    }
+
+    /**
+     * The answer to one query
+     */
+    public static final class Result {
+
+        /**
+         * Position of the query in the stream, from 0
+         */
+        private final long index;
+
+        /**
+         * The query words as given
+         */
+        private final String word1, word2;
+
+        /**
+         * The words of the shortest path, null if only the distance was asked for or there is no path
+         */
+        private final List<String> path;
+
+        /**
+         * The distance, -1 if there is no path or the words are equal
+         */
+        private final int distance;
+
+        /**
+         * Constructs an answer
+         * @param index position of the query in the stream
+         * @param word1 first word
+         * @param word2 second word
+         * @param path the words of the shortest path, null if not asked for or if there is none
+         * @param distance the distance, -1 if there is no path or the words are equal
+         */
+        public Result(long index, String word1, String word2, List<String> path, int distance) {
+            this.index = index;
+            this.word1 = word1;
+            this.word2 = word2;
+            this.path = path;
+            this.distance = distance;
+        }
+
+        /**
+         * Gets the position of the query in the stream
+         *
+         * @return index from 0
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        /**
+         * Gets the first word of the query
+         *
+         * @return the word as given
+         */
+        public String getWord1() {
+            return word1;
+        }
+
+        /**
+         * Gets the second word of the query
+         *
+         * @return the word as given
+         */
+        public String getWord2() {
+            return word2;
+        }
+
+        /**
+         * Gets the shortest path, as {@link GraphProcessor#getShortestPath(String, String)} returns it
+         *
+         * @return the words of the path, null if only distances were asked for or there is no path
+         */
+        public List<String> getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the distance, as {@link GraphProcessor#getShortestDistance(String, String)} returns it
+         *
+         * @return the number of edges, -1 if there is no path or the words are equal
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return index + ": " + word1 + " -> " + word2 + " = " + distance + (path == null ? "" : " " + path);
+        }
+    }
+
+    /**
+     * The pairs of words to answer
+     */
+    private final Stream<String[]> pairs;
+
+    /**
+     * Most queries running at once
+     */
+    private final int parallelism;
+
+    /**
+     * Runs the queries
+     */
+    private final Executor executor;
+
+    /**
+     * Computes every answer
+     */
+    private final Query query;
+
+    /**
+     * Whether a subscriber has taken the stream
+     */
+    private final AtomicBoolean subscribed;
+
+    /**
+     * Constructs a publisher of the answers to a stream of queries
+     *
+     * @param pairs the queries, each an array of two words; read once, by the first subscriber
+     * @param parallelism most queries running at once, at least 1
+     * @param executor runs the queries
+     * @param query computes the answer to one query
+     */
+    public PathQueryPublisher(Stream<String[]> pairs, int parallelism, Executor executor, Query query) {
+        if(pairs == null || parallelism < 1 || executor == null || query == null) throw new IllegalArgumentException();
+        this.pairs = pairs;
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.query = query;
+        this.subscribed = new AtomicBoolean();
+    }
+
+    /**
+     * Subscribes to the answers. The stream can be read only once, so every subscriber after the first gets an
+     * IllegalStateException.
+     *
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Result> subscriber) {
+        if(subscriber == null) throw new NullPointerException();
+        if(!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                public void request(long n) {}
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("the queries have already been subscribed to"));
+            return;
+        }
+        Subscription subscription = new Subscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    /**
+     * The state of the one subscription. Fields without a concurrent type are only touched in {@link #drain()}.
+     */
+    private final class Subscription implements Flow.Subscription {
+
+        /**
+         * The subscriber
+         */
+        private final Flow.Subscriber<? super Result> subscriber;
+
+        /**
+         * Answers finished and not yet emitted
+         */
+        private final Queue<Result> ready;
+
+        /**
+         * Total answers requested, Long.MAX_VALUE for unbounded
+         */
+        private final AtomicLong requested;
+
+        /**
+         * Queries started and not yet finished
+         */
+        private final AtomicInteger running;
+
+        /**
+         * Signals for the drain loop not yet handled; the loop runs while it is not 0
+         */
+        private final AtomicInteger work;
+
+        /**
+         * The first failure, of a query or of a request
+         */
+        private final AtomicReference<Throwable> error;
+
+        /**
+         * Set once the subscriber cancels
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * The queries, opened on the first drain
+         */
+        private Iterator<String[]> queries;
+
+        /**
+         * Queries started, which is also the index of the next one
+         */
+        private long started;
+
+        /**
+         * Answers emitted
+         */
+        private long emitted;
+
+        /**
+         * Whether the stream has no more queries
+         */
+        private boolean exhausted;
+
+        /**
+         * Whether onComplete or onError has been signalled, or the subscription cancelled
+         */
+        private boolean done;
+
+        /**
+         * Constructs the subscription of a subscriber
+         * @param subscriber the subscriber
+         */
+        private Subscription(Flow.Subscriber<? super Result> subscriber) {
+            this.subscriber = subscriber;
+            this.ready = new ConcurrentLinkedQueue<Result>();
+            this.requested = new AtomicLong();
+            this.running = new AtomicInteger();
+            this.work = new AtomicInteger();
+            this.error = new AtomicReference<Throwable>();
+        }
+
+        @Override
+        public void request(long n) {
+            if(n <= 0) {
+                error.compareAndSet(null, new IllegalArgumentException("non-positive request " + n));
+            } else {
+                requested.getAndUpdate(r -> r+n < 0 ? Long.MAX_VALUE : r+n);			//demand saturates
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        /**
+         * Emits the answers the subscriber has asked for, starts the queries it will ask for next and signals the
+         * end, then repeats while other threads signalled meanwhile
+         */
+        private void drain() {
+            if(work.getAndIncrement() != 0) return;								//the thread in the loop will see it
+            int missed = 1;
+            do {
+                if(!done) {
+                    emit();
+                    launch();
+                    finish();
+                }
+                if(done) ready.clear();
+                missed = work.addAndGet(-missed);
+            } while(missed != 0);
+        }
+
+        /**
+         * Passes finished answers on while there is demand for them
+         */
+        private void emit() {
+            while(!cancelled && error.get() == null && emitted < requested.get()) {
+                Result result = ready.poll();
+                if(result == null) break;
+                emitted++;
+                subscriber.onNext(result);
+            }
+        }
+
+        /**
+         * Starts queries while fewer than parallelism run and fewer have been started than requested
+         */
+        private void launch() {
+            try {
+                if(queries == null) queries = pairs.iterator();
+                while(!exhausted && !cancelled && error.get() == null && started < requested.get()
+                        && running.get() < parallelism) {
+                    if(!queries.hasNext()) {
+                        exhausted = true;
+                        break;
+                    }
+                    String[] pair = queries.next();
+                    if(pair == null || pair.length != 2) throw new IllegalArgumentException("query " + started
+                        + " is not a pair of words");
+                    long index = started++;
+                    running.incrementAndGet();
+                    try {
+                        executor.execute(() -> run(index, pair[0], pair[1]));
+                    } catch(RuntimeException e) {
+                        running.decrementAndGet();
+                        throw e;
+                    }
+                }
+            } catch(RuntimeException e) {										//a failing stream or a rejected task
+                error.compareAndSet(null, e);
+            }
+        }
+
+        /**
+         * Signals the end once the subscription is cancelled, something failed, or every answer has been emitted
+         */
+        private void finish() {
+            Throwable failure = error.get();
+            boolean complete = failure == null && exhausted && running.get() == 0 && ready.isEmpty();	//a query offers its answer before it stops running
+            if(!cancelled && failure == null && !complete) return;
+            done = true;
+            pairs.close();														//closed before the subscriber hears of the end
+            if(cancelled) return;
+            if(failure != null) {
+                subscriber.onError(failure);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+
+        /**
+         * Answers one query on the executor and hands the answer to the drain loop
+         * @param index position of the query
+         * @param word1 first word
+         * @param word2 second word
+         */
+        private void run(long index, String word1, String word2) {
+            try {
+                if(!cancelled) ready.offer(query.answer(index, word1, word2));
+            } catch(Throwable t) {
+                error.compareAndSet(null, t);
+            } finally {
+                running.decrementAndGet();
+            }
+            drain();
+        }
+    }
+}
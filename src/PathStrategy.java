@@ -0,0 +1,47 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: PathStrategy.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+/**
+ * The ways {@link GraphProcessor#shortestPathPrecomputation()} can prepare the graph for shortest path queries.
+ * 
+ * @see GraphProcessor#setPathStrategy(PathStrategy)
+ */
+public enum PathStrategy {
+
+    /**
+     * Runs a breadth first search {@link DirectionOptimizingBFS} from every vertex and stores its row of an int
+     * predecessor matrix, the word before each target on a shortest path from the source; paths are rebuilt from
+     * the rows when they are asked for, and the rows fill in while queries are answered {@link IncrementalPathMatrix}.
+     * The name is kept from when every path was found by Dijkstra's algorithm and stored as a list of words: edges
+     * count one for the precomputed paths, and no Dijkstra search runs.
+     */
+    ALL_PAIRS_DIJKSTRA,
+
+    /**
+     * Runs bit-parallel breadth first searches from batches of vertices {@link MultiSourceBFS} and stores the 
+     * distance between every pair of vertices. Paths are rebuilt from the distances when they are asked for.
+     */
+    MULTI_SOURCE_BFS,
+
+    /**
+     * Stores the distances from a few landmark vertices to every vertex {@link LandmarkIndex}. Distances are bounded
+     * from the landmarks and made exact by a goal-directed search, so memory grows linearly with the graph.
+     */
+    LANDMARKS,
+
+    /**
+     * Builds a 2-hop label for every vertex {@link PrunedLandmarkLabeling}. Exact distances are found by merging two
+     * short sorted labels, and paths by walking from both ends to their common hub.
+     */
+    PRUNED_LANDMARK_LABELS,
+
+    /**
+     * Precomputes nothing. Every query runs an A* search {@link AStarSearch} guided by a lower bound on the number
+     * of edges left to the target word, the edit distance under {@link OneEditRule}.
+     */
+    A_STAR_SEARCH
+}
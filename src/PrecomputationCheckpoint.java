@@ -0,0 +1,290 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: PrecomputationCheckpoint.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A file holding the rows of an {@link IncrementalPathMatrix} computed so far, so a precomputation that is stopped
+ * (a restart, a crash, the process killed for memory) resumes from the rows it had finished instead of from none.
+ *
+ * The file starts with a header: a magic number, the format version, the number of vertices and a fingerprint of
+ * the words in id order and of their adjacency {@link #fingerprint(WordArena, int[][])}, closed by the CRC32 of the
+ * header. Rows are appended in blocks: the number of rows, then every row as its source followed by its n entries,
+ * closed by the CRC32 of the block. A block is forced to the disk before the next one is computed.
+ *
+ * On opening, a header that does not match the graph (another dictionary, another adjacency rule or vertex
+ * ordering, another format) starts the file over. The blocks are read back in order up to the first one that is
+ * cut short or fails its checksum, which is where the last run stopped while writing; the file is truncated there
+ * and later blocks are appended after the last good one. All ints are big endian.
+ */
+public class PrecomputationCheckpoint implements AutoCloseable {
+
+    /**
+     * First int of every checkpoint file, "WGCP"
+     */
+    public static final int MAGIC = 0x57474350;
+
+    /**
+     * Version of the file format
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Bytes of the header: magic, version, vertices, fingerprint and checksum
+     */
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 4;
+
+    /**
+     * The open file
+     */
+    private final FileChannel channel;
+
+    /**
+     * Number of vertices, the length of every row
+     */
+    private final int n;
+
+    /**
+     * Fingerprint of the graph the rows belong to
+     */
+    private final long fingerprint;
+
+    /**
+     * Buffer of one row record: its source and its entries
+     */
+    private final ByteBuffer record;
+
+    /**
+     * Number of rows restored when the file was opened
+     */
+    private int restored;
+
+    /**
+     * Opens a checkpoint file for a graph, creating it if it does not exist
+     *
+     * @param file the checkpoint file
+     * @param n number of vertices of the graph
+     * @param fingerprint fingerprint of the graph {@link #fingerprint(WordArena, int[][])}
+     * @throws IOException if the file can not be opened
+     */
+    public PrecomputationCheckpoint(Path file, int n, long fingerprint) throws IOException {
+        if(file == null || n < 0) throw new IllegalArgumentException();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.n = n;
+        this.fingerprint = fingerprint;
+        this.record = ByteBuffer.allocate(4 + 4*n);
+    }
+
+    /**
+     * Computes the fingerprint of a graph: a 64 bit FNV-1a hash of the number of vertices, every word in id order and
+     * every adjacency list. Rows computed for one graph are only valid for the same words with the same ids and
+     * edges.
+     *
+     * @param words the words, the id of a word is its index in adjacency
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @return the fingerprint
+     */
+    public static long fingerprint(WordArena words, int[][] adjacency) {
+        long hash = 0xCBF29CE484222325L;
+        hash = mix(hash, adjacency.length);
+        for(int v = 0; v < adjacency.length; v++) {
+            CharSequence word = words.view(v);
+            hash = mix(hash, word.length());
+            for(int i = 0; i < word.length(); i++) hash = mix(hash, word.charAt(i));
+            hash = mix(hash, adjacency[v].length);
+            for(int w : adjacency[v]) hash = mix(hash, w);
+        }
+        return hash;
+    }
+
+    /**
+     * Reads the rows saved in the file into a matrix, and prepares the file for the rows computed next. A file that
+     * belongs to another graph is started over.
+     *
+     * @param rows the matrix, which receives every saved row
+     * @return number of rows restored
+     * @throws IOException if the file can not be read or written
+     */
+    public int restore(IncrementalPathMatrix rows) throws IOException {
+        restored = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if(!readFully(header, 0) || !validHeader(header)) {
+            channel.truncate(0);
+            header.clear();
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putLong(fingerprint);
+            header.putInt(checksum(header.array(), HEADER_BYTES-4));
+            header.flip();
+            write(header, 0);
+            channel.force(true);
+            return 0;
+        }
+        long position = HEADER_BYTES;
+        ByteBuffer count = ByteBuffer.allocate(4);
+        ByteBuffer check = ByteBuffer.allocate(4);
+        CRC32 crc = new CRC32();
+        while(readFully(count.clear(), position)) {
+            int rowsInBlock = count.getInt(0);
+            if(rowsInBlock < 1 || rowsInBlock > n) break;
+            crc.reset();
+            crc.update(count.array());
+            List<int[]> block = new ArrayList<int[]>();
+            List<Integer> sources = new ArrayList<Integer>();
+            long at = position+4;
+            boolean complete = true;
+            for(int i = 0; i < rowsInBlock && complete; i++, at += record.capacity()) {
+                complete = readFully(record.clear(), at);
+                if(!complete) break;
+                crc.update(record.array());
+                int source = record.getInt(0);
+                int[] row = new int[n];
+                record.position(4);
+                record.asIntBuffer().get(row);
+                complete = source >= 0 && source < n && validRow(row, source);
+                sources.add(source);
+                block.add(row);
+            }
+            if(!complete || !readFully(check.clear(), at) || check.getInt(0) != (int) crc.getValue()) break;
+            for(int i = 0; i < block.size(); i++) {
+                if(rows.restoreRow(sources.get(i), block.get(i))) restored++;
+            }
+            position = at+4;
+        }
+        channel.truncate(position);										//drops a block cut short by a crash
+        return restored;
+    }
+
+    /**
+     * Appends computed rows to the file as one block and forces it to the disk
+     *
+     * @param rows the matrix
+     * @param sources the sources of the rows to save, each computed
+     * @param count number of sources to save
+     * @throws IOException if the file can not be written
+     */
+    public void append(IncrementalPathMatrix rows, int[] sources, int count) throws IOException {
+        if(count == 0) return;
+        long position = channel.size();
+        CRC32 crc = new CRC32();
+        ByteBuffer small = ByteBuffer.allocate(4).putInt(0, count);
+        crc.update(small.array());
+        write(small, position);
+        position += 4;
+        for(int i = 0; i < count; i++) {
+            int[] row = rows.getRow(sources[i]);
+            if(row == null) throw new IllegalStateException("row " + sources[i] + " is not computed");
+            record.clear();
+            record.putInt(sources[i]);
+            record.asIntBuffer().put(row);
+            crc.update(record.array());
+            write(record.clear(), position);
+            position += record.capacity();
+        }
+        write(small.clear().putInt(0, (int) crc.getValue()), position);
+        channel.force(false);
+    }
+
+    /**
+     * Gets the number of rows read back when the file was restored
+     *
+     * @return rows restored
+     */
+    public int getRestoredRows() {
+        return restored;
+    }
+
+    /**
+     * Closes the file
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Checks that a header was written by this format for this graph
+     * @param header the header bytes
+     * @return true if every field and the checksum match
+     */
+    private boolean validHeader(ByteBuffer header) {
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getInt(8) == n
+            && header.getLong(12) == fingerprint && header.getInt(20) == checksum(header.array(), HEADER_BYTES-4);
+    }
+
+    /**
+     * Checks that a row read back is a predecessor row of its source
+     * @param row the row
+     * @param source its source
+     * @return true if every entry is a vertex or -1 and the source is its own predecessor
+     */
+    private boolean validRow(int[] row, int source) {
+        if(row[source] != source) return false;
+        for(int previous : row) if(previous < -1 || previous >= n) return false;
+        return true;
+    }
+
+    /**
+     * Fills a buffer from the file
+     * @param buffer the buffer, filled up to its limit
+     * @param position where to read in the file
+     * @return false if the file ends first
+     * @throws IOException if reading fails
+     */
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if(read < 0) return false;
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * Writes a whole buffer to the file
+     * @param buffer the buffer, written from its position to its limit
+     * @param position where to write in the file
+     * @throws IOException if writing fails
+     */
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) position += channel.write(buffer, position);
+    }
+
+    /**
+     * Computes the CRC32 of the start of an array
+     * @param bytes the array
+     * @param length number of bytes to check
+     * @return the checksum
+     */
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Adds one value to an FNV-1a hash
+     * @param hash the hash so far
+     * @param value the value
+     * @return the new hash
+     */
+    private static long mix(long hash, int value) {
+        for(int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+}
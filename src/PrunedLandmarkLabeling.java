@@ -0,0 +1,337 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: PrunedLandmarkLabeling.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * An exact distance oracle based on pruned landmark labeling (a 2-hop cover).
+ *
+ * Every vertex v gets a label: a list of (hub, distance) pairs such that for any two connected vertices s and t,
+ * some hub on a shortest s-t path appears in both labels. The distance is then the minimum of d(s,h) + d(h,t) over
+ * the common hubs h, found by merging the two labels, which are sorted by hub.
+ *
+ * The labels are built by a breadth first search from every vertex in order of decreasing degree. A search from
+ * root r does not label (or expand) a vertex u that the labels built so far already connect to r at a distance no
+ * larger than the search distance. High degree words sit on many shortest paths, so searching from them first lets
+ * later searches stop after a few levels and keeps labels short.
+ *
+ * The build runs roots in batches of the thread count. The searches of one batch only see labels from earlier
+ * batches, which makes them prune a little less than a sequential build but keeps every label exact.
+ *
+ * Each label entry also stores the next vertex towards its hub, so a shortest path can be rebuilt by walking from
+ * both ends to the common hub.
+ */
+public class PrunedLandmarkLabeling implements DistanceOracle {
+
+    /**
+     * Number of vertices
+     */
+    private final int n;
+
+    /**
+     * order[i] is the id of the vertex of rank i; lower ranks have higher degree and are searched first
+     */
+    private final int[] order;
+
+    /**
+     * hubs[v] holds the ranks of the hubs in the label of v, in increasing order
+     */
+    private final int[][] hubs;
+
+    /**
+     * distances[v][i] is the distance from v to the hub hubs[v][i]
+     */
+    private final short[][] distances;
+
+    /**
+     * parents[v][i] is the neighbor of v one step closer to the hub hubs[v][i], -1 if v is the hub
+     */
+    private final int[][] parents;
+
+    /**
+     * Time taken to build the labels in milliseconds
+     */
+    private final long buildTimeMillis;
+
+    /**
+     * Builds the labels of a graph
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param threads number of searches run at the same time, at least 1
+     */
+    public PrunedLandmarkLabeling(int[][] adjacency, int threads) {
+        if(adjacency == null || threads < 1) throw new IllegalArgumentException();
+        long start = System.nanoTime();
+        n = adjacency.length;
+
+        Integer[] byDegree = new Integer[n];
+        for(int v = 0; v < n; v++) byDegree[v] = v;
+        Arrays.sort(byDegree, (a, b) -> adjacency[b].length != adjacency[a].length
+            ? Integer.compare(adjacency[b].length, adjacency[a].length) : Integer.compare(a, b));
+        order = new int[n];
+        for(int i = 0; i < n; i++) order[i] = byDegree[i];
+
+        hubs = new int[n][];
+        distances = new short[n][];
+        parents = new int[n][];
+        int[] size = new int[n];
+        for(int v = 0; v < n; v++) {
+            hubs[v] = new int[4];
+            distances[v] = new short[4];
+            parents[v] = new int[4];
+        }
+
+        ThreadLocal<PrunedSearch> searches = ThreadLocal.withInitial(() -> new PrunedSearch(adjacency, size));
+        for(int first = 0; first < n; first += threads) {
+            int batchStart = first;
+            int[][] found = new int[Math.min(threads, n-first)][];
+            //search from every root of the batch, reading only the labels committed by earlier batches
+            IntStream.range(0, found.length).parallel().forEach(k ->
+                found[k] = searches.get().run(batchStart+k));
+
+            //commit the batch in rank order so every label stays sorted by hub rank
+            for(int k = 0; k < found.length; k++) {
+                int rank = batchStart+k;
+                int[] entries = found[k];
+                for(int i = 0; i < entries.length; i += 3) {
+                    int v = entries[i];
+                    if(size[v] == hubs[v].length) {
+                        int capacity = 2*size[v];
+                        hubs[v] = Arrays.copyOf(hubs[v], capacity);
+                        distances[v] = Arrays.copyOf(distances[v], capacity);
+                        parents[v] = Arrays.copyOf(parents[v], capacity);
+                    }
+                    hubs[v][size[v]] = rank;
+                    distances[v][size[v]] = (short) entries[i+1];
+                    parents[v][size[v]] = entries[i+2];
+                    size[v]++;
+                }
+            }
+        }
+        for(int v = 0; v < n; v++) {
+            hubs[v] = Arrays.copyOf(hubs[v], size[v]);
+            distances[v] = Arrays.copyOf(distances[v], size[v]);
+            parents[v] = Arrays.copyOf(parents[v], size[v]);
+        }
+        buildTimeMillis = (System.nanoTime()-start)/1000000;
+    }
+
+    @Override
+    public int getDistance(int source, int target) {
+        int[] best = bestHub(source, target);
+        return best == null ? -1 : best[1];
+    }
+
+    @Override
+    public int[] getPath(int source, int target) {
+        int[] best = bestHub(source, target);
+        if(best == null) return null;
+        int hub = best[0];
+        int[] path = new int[best[1]+1];
+        int i = 0;
+        for(int v = source; v != -1; v = parentTowards(v, hub)) path[i++] = v;		//source up to the hub
+        int j = path.length-1;
+        for(int v = target; v != order[hub]; v = parentTowards(v, hub)) path[j--] = v;	//target back to the hub
+        return path;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return FootprintReport.align(FootprintReport.OBJECT_HEADER + 4*FootprintReport.REFERENCE + 12)
+            + FootprintReport.array(order.length, 4) + FootprintReport.arrays(hubs) + FootprintReport.arrays(distances)
+            + FootprintReport.arrays(parents);
+    }
+
+    /**
+     * Gets the total number of label entries
+     *
+     * @return number of (hub, distance) pairs over all labels
+     */
+    public long getLabelEntries() {
+        long entries = 0;
+        for(int[] label : hubs) entries += label.length;
+        return entries;
+    }
+
+    /**
+     * Gets the average number of entries in a label
+     *
+     * @return the average label size, 0 for an empty graph
+     */
+    public double getAverageLabelSize() {
+        return n == 0 ? 0 : (double) getLabelEntries()/n;
+    }
+
+    /**
+     * Estimates the memory used by the labels, counting 10 bytes per entry (hub, distance and parent) plus the
+     * headers of the three arrays of every label
+     *
+     * @return estimated index size in bytes
+     */
+    public long getIndexSizeBytes() {
+        return getLabelEntries()*10 + (long) n*3*FootprintReport.ARRAY_HEADER + (long) n*4;
+    }
+
+    /**
+     * Gets the time taken to build the labels
+     *
+     * @return build time in milliseconds
+     */
+    public long getBuildTimeMillis() {
+        return buildTimeMillis;
+    }
+
+    /**
+     * Finds the common hub of two labels that gives the shortest distance
+     *
+     * @param source id of the first vertex
+     * @param target id of the second vertex
+     * @return array {hub rank, distance}, null if the labels share no hub
+     */
+    private int[] bestHub(int source, int target) {
+        int[] h1 = hubs[source];
+        int[] h2 = hubs[target];
+        short[] d1 = distances[source];
+        short[] d2 = distances[target];
+        int best = Integer.MAX_VALUE;
+        int bestHub = -1;
+        for(int i = 0, j = 0; i < h1.length && j < h2.length; ) {
+            if(h1[i] < h2[j]) i++;
+            else if(h1[i] > h2[j]) j++;
+            else {
+                int d = d1[i]+d2[j];
+                if(d < best) {
+                    best = d;
+                    bestHub = h1[i];
+                }
+                i++;
+                j++;
+            }
+        }
+        return bestHub == -1 ? null : new int[] {bestHub, best};
+    }
+
+    /**
+     * Gets the neighbor of v one step closer to a hub in its label
+     *
+     * @param v id of a vertex whose label holds the hub
+     * @param hub rank of the hub
+     * @return id of the next vertex towards the hub, -1 if v is the hub
+     */
+    private int parentTowards(int v, int hub) {
+        return parents[v][Arrays.binarySearch(hubs[v], hub)];
+    }
+
+    /**
+     * Pruned breadth first search buffers
+     */
+    private class PrunedSearch {
+
+        /**
+         * adjacency[v] holds the ids of all neighbors of the vertex with id v
+         */
+        private final int[][] adjacency;
+
+        /**
+         * Number of committed entries in each label; entries past it may be written by the commit step
+         */
+        private final int[] size;
+
+        /**
+         * Distance of every vertex from the root, -1 if not reached
+         */
+        private final int[] dist;
+
+        /**
+         * The vertex each reached vertex was found from
+         */
+        private final int[] from;
+
+        /**
+         * Reached vertices in order of discovery
+         */
+        private final int[] queue;
+
+        /**
+         * rootLabel[h] is the distance from the root to the hub of rank h, -1 if not in the root's label
+         */
+        private final int[] rootLabel;
+
+        /**
+         * Creates buffers for the graph
+         * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+         * @param size number of committed entries in each label
+         */
+        private PrunedSearch(int[][] adjacency, int[] size) {
+            this.adjacency = adjacency;
+            this.size = size;
+            dist = new int[n];
+            from = new int[n];
+            queue = new int[n];
+            rootLabel = new int[n];
+            Arrays.fill(dist, -1);
+            Arrays.fill(rootLabel, -1);
+        }
+
+        /**
+         * Runs the pruned search from the vertex of the given rank
+         *
+         * @param rank rank of the root
+         * @return flat array of {vertex, distance, parent} triples, one for every vertex labeled with the root
+         */
+        private int[] run(int rank) {
+            int root = order[rank];
+            int rootSize = size[root];
+            for(int i = 0; i < rootSize; i++) rootLabel[hubs[root][i]] = distances[root][i];
+
+            int[] entries = new int[48];
+            int count = 0;
+            dist[root] = 0;
+            from[root] = -1;
+            queue[0] = root;
+            int tail = 1;
+            for(int head = 0; head < tail; head++) {
+                int v = queue[head];
+                if(covered(v, dist[v])) continue;			//the committed labels already give this distance
+                if(count+3 > entries.length) entries = Arrays.copyOf(entries, 2*entries.length);
+                entries[count++] = v;
+                entries[count++] = dist[v];
+                entries[count++] = from[v];
+                for(int w : adjacency[v]) {
+                    if(dist[w] == -1) {
+                        dist[w] = dist[v]+1;
+                        from[w] = v;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+
+            for(int i = 0; i < tail; i++) dist[queue[i]] = -1;
+            for(int i = 0; i < rootSize; i++) rootLabel[hubs[root][i]] = -1;
+            return Arrays.copyOf(entries, count);
+        }
+
+        /**
+         * Checks whether the committed labels connect the root and v within a distance
+         *
+         * @param v id of the vertex
+         * @param d the search distance of v from the root
+         * @return true if some common hub gives a distance of at most d
+         */
+        private boolean covered(int v, int d) {
+            int[] label = hubs[v];
+            short[] labelDist = distances[v];
+            int labelSize = size[v];
+            for(int i = 0; i < labelSize; i++) {
+                int r = rootLabel[label[i]];
+                if(r != -1 && r+labelDist[i] <= d) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: SearchPool.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of search buffers shared by all threads that query one search engine.
+ *
+ * Buffers hold O(V) arrays, so keeping one set per thread costs O(V) per connection once queries run on virtual
+ * threads. Here at most {@link #getCapacity()} sets are ever created, lazily, and a thread that finds them all in
+ * use waits until one is released. Callers must release every buffer they acquire, in a finally block.
+ *
+ * @param <T> type of the buffers
+ */
+public class SearchPool<T> {
+
+    /**
+     * Creates a new set of buffers when none is idle
+     */
+    private final Supplier<T> factory;
+
+    /**
+     * One permit per set of buffers that may exist
+     */
+    private final Semaphore permits;
+
+    /**
+     * Buffers created so far and not in use
+     */
+    private final ConcurrentLinkedQueue<T> idle;
+
+    /**
+     * Largest number of sets of buffers
+     */
+    private final int capacity;
+
+    /**
+     * Constructs an empty pool
+     *
+     * @param factory creates one set of buffers
+     * @param capacity largest number of searches that run at the same time, at least 1
+     */
+    public SearchPool(Supplier<T> factory, int capacity) {
+        if(factory == null || capacity < 1) throw new IllegalArgumentException();
+        this.factory = factory;
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+        this.idle = new ConcurrentLinkedQueue<T>();
+    }
+
+    /**
+     * Gets the default bound on concurrent searches, one per processor
+     *
+     * @return number of available processors
+     */
+    public static int defaultCapacity() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Takes a set of buffers, waiting while all of them are in use
+     *
+     * @return buffers reset by their last user
+     */
+    public T acquire() {
+        permits.acquireUninterruptibly();
+        T buffers = idle.poll();
+        if(buffers != null) return buffers;
+        try {
+            return factory.get();
+        } catch(RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives back a set of buffers taken by {@link #acquire()}
+     *
+     * @param buffers the buffers, reset for the next search
+     */
+    public void release(T buffers) {
+        idle.offer(buffers);
+        permits.release();
+    }
+
+    /**
+     * Gets the largest number of sets of buffers
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
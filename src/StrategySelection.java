@@ -0,0 +1,149 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: StrategySelection.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Picks the fastest {@link PathStrategy} whose shortest path data fits in a memory budget.
+ *
+ * The footprint of every strategy is estimated from the number of vertices before anything is built, so a strategy
+ * that would run out of heap is never attempted. Only the data a strategy adds is counted; the words and edges are
+ * the same for all of them. The strategies are tried from the fastest queries to the slowest:
+ *  - {@link PathStrategy#ALL_PAIRS_DIJKSTRA}: an int predecessor matrix, n*n*4 bytes
+ *  - {@link PathStrategy#MULTI_SOURCE_BFS}: a short distance matrix, n*n*2 bytes
+ *  - {@link PathStrategy#PRUNED_LANDMARK_LABELS}: 2-hop labels, 10 bytes per entry; the entries per label are
+ *    guessed as 4*log2(n), which is far more than dictionary graphs need
+ *  - {@link PathStrategy#LANDMARKS}: a short distance row per landmark plus a search buffer per concurrent query
+ *  - {@link PathStrategy#A_STAR_SEARCH}: a search buffer per concurrent query only
+ * The searches share a {@link SearchPool} of buffers, so the concurrent queries are the bound of that pool
+ * {@link GraphProcessor#setQueryConcurrency(int)}, not the number of threads, which is unbounded under virtual threads.
+ * A* is chosen when nothing else fits, even if its buffers exceed the budget, since queries must still be answered.
+ */
+public final class StrategySelection {
+
+    /**
+     * All strategies, the fastest queries first
+     */
+    private static final PathStrategy[] FASTEST_FIRST = {PathStrategy.ALL_PAIRS_DIJKSTRA, PathStrategy.MULTI_SOURCE_BFS,
+        PathStrategy.PRUNED_LANDMARK_LABELS, PathStrategy.LANDMARKS, PathStrategy.A_STAR_SEARCH};
+
+    /**
+     * The memory budget in bytes
+     */
+    private final long budget;
+
+    /**
+     * Number of vertices the estimates are for
+     */
+    private final int vertices;
+
+    /**
+     * Estimated bytes of every strategy
+     */
+    private final Map<PathStrategy, Long> estimates;
+
+    /**
+     * The fastest strategy within the budget
+     */
+    private final PathStrategy strategy;
+
+    /**
+     * Estimates every strategy for a graph and picks the fastest one within the budget
+     *
+     * @param budget the memory budget in bytes for the shortest path data
+     * @param vertices number of vertices of the graph
+     * @param landmarkCount number of landmarks {@link PathStrategy#LANDMARKS} would use
+     * @param concurrency largest number of queries that search at once, each with its own search buffers
+     */
+    public StrategySelection(long budget, int vertices, int landmarkCount, int concurrency) {
+        if(budget <= 0 || vertices < 0 || landmarkCount < 0 || concurrency < 1) throw new IllegalArgumentException();
+        this.budget = budget;
+        this.vertices = vertices;
+        this.estimates = new EnumMap<PathStrategy, Long>(PathStrategy.class);
+        PathStrategy chosen = null;
+        for(PathStrategy candidate : FASTEST_FIRST) {
+            long bytes = estimate(candidate, vertices, landmarkCount, concurrency);
+            estimates.put(candidate, bytes);
+            if(chosen == null && bytes <= budget) chosen = candidate;
+        }
+        this.strategy = chosen == null ? PathStrategy.A_STAR_SEARCH : chosen;
+    }
+
+    /**
+     * Estimates the bytes of shortest path data a strategy builds for a graph
+     *
+     * @param strategy the strategy
+     * @param vertices number of vertices of the graph
+     * @param landmarkCount number of landmarks {@link PathStrategy#LANDMARKS} uses
+     * @param concurrency largest number of queries that search at once
+     * @return the estimated bytes
+     */
+    public static long estimate(PathStrategy strategy, int vertices, int landmarkCount, int concurrency) {
+        long n = vertices;
+        long searchBuffers = concurrency*(n*18 + 6*FootprintReport.ARRAY_HEADER);						//distances, parents, flags, queue
+        switch(strategy) {
+            case ALL_PAIRS_DIJKSTRA:
+                return n*FootprintReport.array(n, 4) + FootprintReport.array(n, FootprintReport.REFERENCE);
+            case MULTI_SOURCE_BFS:
+                return n*FootprintReport.array(n, 2) + FootprintReport.array(n, FootprintReport.REFERENCE);
+            case PRUNED_LANDMARK_LABELS:
+                long entries = 4*(64-Long.numberOfLeadingZeros(n));				//4*log2(n), rounded up
+                return n*(Math.min(n, entries)*10 + 3*FootprintReport.ARRAY_HEADER + 4);
+            case LANDMARKS:
+                return landmarkCount*FootprintReport.array(n, 2) + searchBuffers;
+            default:
+                return searchBuffers;
+        }
+    }
+
+    /**
+     * Gets the memory budget
+     *
+     * @return the budget in bytes
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Gets the strategy chosen
+     *
+     * @return the fastest strategy within the budget, {@link PathStrategy#A_STAR_SEARCH} if none fits
+     */
+    public PathStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the estimated footprint of a strategy
+     *
+     * @param strategy the strategy
+     * @return the estimated bytes of its shortest path data
+     */
+    public long getEstimate(PathStrategy strategy) {
+        return estimates.get(strategy);
+    }
+
+    /**
+     * Reports the decision and the estimate of every strategy
+     *
+     * @return one line per strategy, the chosen one marked with "*"
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(strategy).append(" chosen for ").append(vertices).append(" words within a budget of ")
+            .append(budget).append(" bytes");
+        for(PathStrategy candidate : FASTEST_FIRST) {
+            long bytes = estimates.get(candidate);
+            report.append(System.lineSeparator()).append(candidate == strategy ? " * " : "   ").append(candidate)
+                .append(": ").append(bytes).append(" bytes").append(bytes <= budget ? "" : " (over budget)");
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,338 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: TinyLfuCache.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded cache that admits a new entry only if it is asked for more often than the entry it would evict
+ * (TinyLFU).
+ *
+ * Every lookup, hit or miss, is counted in a count-min sketch: four small counters per key, one in each of four rows,
+ * of which the smallest is the estimate. All counters are halved after every 10*capacity lookups, so old popularity
+ * fades. The rows have about as many counters as there are lookups between halvings, 32 to 64 bytes per entry.
+ * When the cache is full, a new entry is compared with the least recently used entry: the new one replaces it only
+ * if its estimated frequency is higher, and is dropped otherwise. A scan of keys asked for once can therefore
+ * not flush the popular entries, as it would from a plain LRU cache.
+ *
+ * Lookups read a ConcurrentHashMap without locking. The sketch and the recency order are kept under one lock, which
+ * a hit only tries to take: under contention the hit is served but not recorded, which only blurs the estimates.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values, not null
+ */
+public class TinyLfuCache<K, V> {
+
+    /**
+     * A snapshot of the counters of a cache
+     */
+    public static class Stats {
+
+        /**
+         * Lookups that found their key
+         */
+        public final long hits;
+
+        /**
+         * Lookups that did not find their key
+         */
+        public final long misses;
+
+        /**
+         * Entries removed to make room for a more frequent one
+         */
+        public final long evictions;
+
+        /**
+         * New entries dropped because they were less frequent than the entry they would have evicted
+         */
+        public final long rejections;
+
+        /**
+         * Entries held
+         */
+        public final int size;
+
+        /**
+         * Constructs a snapshot of the counters
+         * @param hits lookups that found their key
+         * @param misses lookups that did not
+         * @param evictions entries evicted
+         * @param rejections entries not admitted
+         * @param size entries held
+         */
+        private Stats(long hits, long misses, long evictions, long rejections, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.rejections = rejections;
+            this.size = size;
+        }
+
+        /**
+         * Gets the share of lookups that found their key
+         *
+         * @return from 0 to 1, 0 before any lookup
+         */
+        public double getHitRate() {
+            return hits+misses == 0 ? 0 : (double) hits/(hits+misses);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d rejections, %d entries",
+                hits, misses, 100*getHitRate(), evictions, rejections, size);
+        }
+    }
+
+    /**
+     * Largest value of a sketch counter
+     */
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * Number of entries the cache holds at most
+     */
+    private final int capacity;
+
+    /**
+     * The entries
+     */
+    private final ConcurrentHashMap<K, V> entries;
+
+    /**
+     * The keys of the entries, least recently used first, guarded by {@link #lock}
+     */
+    private final LinkedHashMap<K, Boolean> recency;
+
+    /**
+     * Four rows of frequency counters, one after the other, guarded by {@link #lock}
+     */
+    private final byte[] sketch;
+
+    /**
+     * Counters per row of the sketch minus one, the row width is a power of two
+     */
+    private final int mask;
+
+    /**
+     * Lookups counted since the counters were last halved, guarded by {@link #lock}
+     */
+    private int samples;
+
+    /**
+     * Guards the sketch and the recency order
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * Counters of {@link Stats}
+     */
+    private final LongAdder hits, misses, evictions, rejections;
+
+    /**
+     * Constructs an empty cache
+     *
+     * @param capacity the most entries the cache holds, at least 1
+     */
+    public TinyLfuCache(int capacity) {
+        if(capacity < 1) throw new IllegalArgumentException();
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<K, V>();
+        this.recency = new LinkedHashMap<K, Boolean>(16, 0.75f, true);
+        int width = Integer.highestOneBit(Math.max(64, 8*capacity-1)) << 1;	//about one counter per lookup between halvings
+        this.sketch = new byte[4*width];
+        this.mask = width-1;
+        this.lock = new ReentrantLock();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.rejections = new LongAdder();
+    }
+
+    /**
+     * Gets the most entries the cache holds
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Looks a key up and counts the lookup towards its frequency
+     *
+     * @param key the key
+     * @return the value, null if the key is not cached
+     */
+    public V get(K key) {
+        V value = entries.get(key);
+        if(value == null) {
+            misses.increment();
+            lock.lock();											//a miss is about to compute, so waiting is cheap
+            try {
+                increment(key);
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            hits.increment();
+            if(lock.tryLock()) {
+                try {
+                    increment(key);
+                    recency.get(key);								//mark as most recently used
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Offers an entry to the cache. A new key is admitted if there is room, or if it is asked for more often than
+     * the least recently used entry, which it then evicts.
+     *
+     * @param key the key
+     * @param value the value, not null
+     */
+    public void put(K key, V value) {
+        if(key == null || value == null) throw new IllegalArgumentException();
+        lock.lock();
+        try {
+            if(entries.containsKey(key)) {
+                entries.put(key, value);
+                recency.get(key);
+                return;
+            }
+            if(recency.size() >= capacity) {
+                Iterator<K> eldest = recency.keySet().iterator();
+                K victim = eldest.next();
+                if(frequency(key) <= frequency(victim)) {
+                    rejections.increment();
+                    return;
+                }
+                eldest.remove();
+                entries.remove(victim);
+                evictions.increment();
+            }
+            recency.put(key, Boolean.TRUE);
+            entries.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every entry and forgets every frequency
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            recency.clear();
+            entries.clear();
+            Arrays.fill(sketch, (byte) 0);
+            samples = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of entries
+     *
+     * @return entries held
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Estimates the heap used by the cache: the sketch, the entries in both maps and the keys and values
+     *
+     * @param keyBytes estimates the bytes of a key
+     * @param valueBytes estimates the bytes of a value, 0 for one shared with other entries
+     * @return estimated bytes {@link FootprintReport}
+     */
+    public long getMemoryBytes(ToLongFunction<? super K> keyBytes, ToLongFunction<? super V> valueBytes) {
+        long bytes = FootprintReport.array(sketch.length, 1);
+        int size = 0;
+        for(Map.Entry<K, V> entry : entries.entrySet()) {
+            bytes += keyBytes.applyAsLong(entry.getKey()) + valueBytes.applyAsLong(entry.getValue());
+            size++;
+        }
+        bytes += FootprintReport.hashMap(size);								//the nodes of the concurrent map
+        bytes += FootprintReport.hashMap(size) + 8L*size;					//linked entries are 8 bytes larger
+        return bytes;
+    }
+
+    /**
+     * Gets the counters of the cache
+     *
+     * @return a snapshot of the hit, miss, eviction and rejection counts
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), entries.size());
+    }
+
+    /**
+     * Estimates how often a key was looked up lately
+     *
+     * @param key the key
+     * @return the smallest of its four counters
+     */
+    private int frequency(K key) {
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for(int row = 0; row < 4; row++) min = Math.min(min, sketch[index(hash, row)]);
+        return min;
+    }
+
+    /**
+     * Counts one lookup of a key, halving every counter once enough lookups are counted. Must hold {@link #lock}.
+     * @param key the key looked up
+     */
+    private void increment(K key) {
+        int hash = spread(key.hashCode());
+        for(int row = 0; row < 4; row++) {
+            int i = index(hash, row);
+            if(sketch[i] < MAX_COUNT) sketch[i]++;
+        }
+        if(++samples >= 10*capacity) {								//age: recent lookups count more
+            for(int i = 0; i < sketch.length; i++) sketch[i] >>= 1;
+            samples /= 2;
+        }
+    }
+
+    /**
+     * Gets the position of the counter of a hash in one row
+     * @param hash the spread hash of a key
+     * @param row the row, from 0 to 3
+     * @return index into the sketch
+     */
+    private int index(int hash, int row) {
+        int h = (hash + row*0x9E3779B9) * 0x85EBCA6B;						//a different mix per row
+        h ^= h >>> 15;
+        return row*(mask+1) + (h & mask);
+    }
+
+    /**
+     * Spreads the bits of a hash code
+     * @param hashCode the hash code of a key
+     * @return the mixed hash
+     */
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x7FEB352D;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,86 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: TranspositionRule.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+/**
+ * Words are adjacent when one Damerau edit turns one into the other: a char replaced, added or deleted
+ * {@link OneEditRule}, or two neighboring chars swapped, so FORM and FROM are adjacent.
+ *
+ * Swaps are found by swapping every pair of neighboring chars of a word in turn and looking the result up in the
+ * arena, on top of the edges of {@link OneEditRule}.
+ */
+public class TranspositionRule extends OneEditRule {
+
+    @Override
+    public boolean isAdjacent(CharSequence word1, CharSequence word2) {
+        return super.isAdjacent(word1, word2) || isTransposition(word1, word2);
+    }
+
+    /**
+     * A swap is two edits, so half the edit distance is at most the distance in the graph. Swaps keep the length, so
+     * the difference in length still is too.
+     */
+    @Override
+    public int getDistanceBound(CharSequence word1, CharSequence word2) {
+        int edits = WordProcessor.editDistance(word1, word2);
+        return Math.max(getLengthBound(word1.length(), word2.length()), (edits+1)/2);
+    }
+
+    @Override
+    public void findEdges(WordArena words, EdgeConsumer edges) {
+        super.findEdges(words, edges);
+        for(int id = 0; id < words.size(); id++) {
+            char[] chars = words.getWord(id).toCharArray();
+            for(int i = 0; i+1 < chars.length; i++) {
+                if(chars[i] == chars[i+1]) continue;
+                swap(chars, i);
+                int swapped = words.indexOf(new String(chars));
+                if(swapped > id) edges.accept(id, swapped);					//the other word finds the same edge
+                swap(chars, i);
+            }
+        }
+    }
+
+    /**
+     * Checks whether two words differ only by two neighboring chars swapped, ignoring case
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @return true if swapping two neighboring chars turns word1 into word2
+     */
+    public static boolean isTransposition(CharSequence word1, CharSequence word2) {
+        if(word1.length() != word2.length()) return false;
+        int i = 0;
+        while(i < word1.length() && same(word1.charAt(i), word2.charAt(i))) i++;
+        if(i+1 >= word1.length()) return false;
+        if(!same(word1.charAt(i), word2.charAt(i+1)) || !same(word1.charAt(i+1), word2.charAt(i))) return false;
+        for(int j = i+2; j < word1.length(); j++) {
+            if(!same(word1.charAt(j), word2.charAt(j))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Swaps a char with the next one
+     * @param chars the chars of a word
+     * @param i index of the first char
+     */
+    private static void swap(char[] chars, int i) {
+        char temp = chars[i];
+        chars[i] = chars[i+1];
+        chars[i+1] = temp;
+    }
+
+    /**
+     * Compares two chars ignoring case
+     * @param a first char
+     * @param b second char
+     * @return true if they are the same letter
+     */
+    private static boolean same(char a, char b) {
+        return Character.toUpperCase(a) == Character.toUpperCase(b);
+    }
+}
@@ -0,0 +1,37 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: VertexOrdering.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+/**
+ * The ways populateGraph can number the words of the graph {@link VertexReordering}. Searches read the arrays of a
+ * vertex's neighbors next, so the closer the ids of neighbors are, the more of a search stays in the cache.
+ *
+ * @see GraphProcessor#setVertexOrdering(VertexOrdering, boolean)
+ */
+public enum VertexOrdering {
+
+    /**
+     * Keeps the order of the words in the dictionary file.
+     */
+    FILE,
+
+    /**
+     * Numbers the vertices in the order a breadth first search reaches them, one connected component after another,
+     * so every level of a search is a few runs of nearby ids.
+     */
+    BFS,
+
+    /**
+     * Reverse Cuthill-McKee: a breadth first search from a peripheral vertex of every component that visits
+     * neighbors by increasing degree, reversed. It keeps the ids of neighbors within a narrow band.
+     */
+    REVERSE_CUTHILL_MCKEE,
+
+    /**
+     * Numbers the vertices by decreasing degree, so the hubs most searches pass through share a few cache lines.
+     */
+    DEGREE
+}
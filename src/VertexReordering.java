@@ -0,0 +1,221 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: VertexReordering.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.util.Arrays;
+
+/**
+ * Renumbers the words of a graph so that neighbors get nearby ids.
+ *
+ * Words are numbered in the order of the dictionary file, which scatters the neighbors of a word over the whole
+ * id range: every step of a search then loads the distance, parent and adjacency entries of vertices far apart in
+ * memory, one cache miss each. An ordering {@link VertexOrdering} is a permutation of the ids computed from the
+ * adjacency, optionally grouped by word length (one-edit neighbors differ in length by at most one). The arena of
+ * the words, its index and the graph are then rebuilt in the new order, and every array built from them after that,
+ * from the adjacency to the predecessor matrix, follows it.
+ */
+public class VertexReordering {
+
+    /**
+     * Most breadth first searches run to find a peripheral start vertex for {@link VertexOrdering#REVERSE_CUTHILL_MCKEE}
+     */
+    private static final int PERIPHERAL_SEARCHES = 4;
+
+    /**
+     * Computes a new order of the vertices
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @param words the words of the vertices, the id of a word is its index in adjacency
+     * @param ordering how to order the vertices
+     * @param byLength whether to put shorter words first, keeping the ordering among words of one length
+     * @return order[v] is the current id of the vertex that gets id v
+     */
+    public static int[] order(int[][] adjacency, WordArena words, VertexOrdering ordering, boolean byLength) {
+        if(adjacency == null || words == null || ordering == null || adjacency.length != words.size()) {
+            throw new IllegalArgumentException();
+        }
+        int n = adjacency.length;
+        int[] order;
+        switch(ordering) {
+            case BFS:
+                order = breadthFirst(adjacency, false);
+                break;
+            case REVERSE_CUTHILL_MCKEE:
+                order = breadthFirst(adjacency, true);
+                for(int i = 0, j = n-1; i < j; i++, j--) {
+                    int temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+                }
+                break;
+            case DEGREE:
+                long[] keys = new long[n];										//most neighbors first, then by id
+                for(int v = 0; v < n; v++) keys[v] = (long) (Integer.MAX_VALUE-adjacency[v].length) << 32 | v;
+                Arrays.sort(keys);
+                order = new int[n];
+                for(int i = 0; i < n; i++) order[i] = (int) keys[i];
+                break;
+            default:
+                order = new int[n];
+                for(int v = 0; v < n; v++) order[v] = v;
+        }
+        return byLength ? groupByLength(order, words) : order;
+    }
+
+    /**
+     * Copies the words of an arena in a new order
+     *
+     * @param words the arena
+     * @param order order[v] is the id in words of the word that gets id v
+     * @return a new arena holding word order[v] as word v
+     */
+    public static WordArena renumber(WordArena words, int[] order) {
+        if(words == null || order == null || order.length != words.size()) throw new IllegalArgumentException();
+        WordArena renumbered = new WordArena();
+        for(int id : order) renumbered.add(words.view(id));
+        return renumbered;
+    }
+
+    /**
+     * Builds the edit distance index over a renumbered arena. The words are added in their old order, which gives
+     * the tree the same shape as the index of the old arena, so lookups return the same words.
+     *
+     * @param renumbered the arena returned by {@link #renumber(WordArena, int[])}
+     * @param order the order it was renumbered with
+     * @return the index over every word of the arena
+     */
+    public static BKTree index(WordArena renumbered, int[] order) {
+        int[] rank = new int[order.length];
+        for(int v = 0; v < order.length; v++) rank[order[v]] = v;
+        BKTree index = new BKTree(renumbered);
+        for(int old = 0; old < rank.length; old++) index.add(rank[old]);
+        return index;
+    }
+
+    /**
+     * Gets the average difference between the ids of two neighbors, a measure of how far apart in memory a search
+     * has to read
+     *
+     * @param adjacency adjacency[v] holds the ids of all neighbors of the vertex with id v
+     * @return the mean of |v-w| over all edges, 0 if there are none
+     */
+    public static double averageGap(int[][] adjacency) {
+        long sum = 0, ends = 0;
+        for(int v = 0; v < adjacency.length; v++) {
+            for(int w : adjacency[v]) sum += Math.abs(v-w);
+            ends += adjacency[v].length;
+        }
+        return ends == 0 ? 0 : (double) sum/ends;
+    }
+
+    /**
+     * Orders the vertices one component after another, each in the order a breadth first search reaches them
+     * @param adjacency the graph
+     * @param cuthillMcKee whether to start every component at a peripheral vertex of low degree and to visit the
+     *                     neighbors of a vertex by increasing degree, rather than at its lowest id and in list order
+     * @return the vertices in the order they are reached
+     */
+    private static int[] breadthFirst(int[][] adjacency, boolean cuthillMcKee) {
+        int n = adjacency.length;
+        int[] order = new int[n];
+        boolean[] placed = new boolean[n];
+        int[] starts = new int[n];
+        if(cuthillMcKee) {
+            long[] keys = new long[n];											//fewest neighbors first
+            for(int v = 0; v < n; v++) keys[v] = (long) adjacency[v].length << 32 | v;
+            Arrays.sort(keys);
+            for(int i = 0; i < n; i++) starts[i] = (int) keys[i];
+        } else {
+            for(int v = 0; v < n; v++) starts[v] = v;
+        }
+        int[] dist = new int[n];
+        Arrays.fill(dist, -1);
+        long[] neighbors = new long[0];
+        int count = 0;
+        for(int start : starts) {
+            if(placed[start]) continue;
+            int root = cuthillMcKee ? peripheral(adjacency, start, dist, order, count) : start;
+            placed[root] = true;
+            order[count++] = root;
+            for(int head = count-1; head < count; head++) {
+                int[] list = adjacency[order[head]];
+                if(!cuthillMcKee) {
+                    for(int w : list) {
+                        if(placed[w]) continue;
+                        placed[w] = true;
+                        order[count++] = w;
+                    }
+                    continue;
+                }
+                if(neighbors.length < list.length) neighbors = new long[list.length];
+                int found = 0;
+                for(int w : list) if(!placed[w]) neighbors[found++] = (long) adjacency[w].length << 32 | w;
+                Arrays.sort(neighbors, 0, found);								//by degree, then by id
+                for(int i = 0; i < found; i++) {
+                    int w = (int) neighbors[i];
+                    placed[w] = true;
+                    order[count++] = w;
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Finds a vertex far from the others of its component (George and Liu): searches from a vertex, moves to the
+     * vertex of lowest degree on the last level, and repeats while the last level gets farther away
+     * @param adjacency the graph
+     * @param start a vertex of the component, not yet placed
+     * @param dist scratch distances, all -1, left all -1
+     * @param order the vertices placed so far in its first placed entries; the rest is used as a queue
+     * @param placed number of vertices placed
+     * @return the start vertex for the component
+     */
+    private static int peripheral(int[][] adjacency, int start, int[] dist, int[] order, int placed) {
+        int root = start, eccentricity = -1;
+        for(int search = 0; search < PERIPHERAL_SEARCHES; search++) {
+            dist[root] = 0;
+            order[placed] = root;
+            int tail = placed+1;
+            for(int head = placed; head < tail; head++) {
+                int v = order[head];
+                for(int w : adjacency[v]) {
+                    if(dist[w] == -1) {
+                        dist[w] = dist[v]+1;
+                        order[tail++] = w;
+                    }
+                }
+            }
+            int last = dist[order[tail-1]];
+            int next = order[tail-1];
+            for(int i = tail-1; i >= placed && dist[order[i]] == last; i--) {
+                if(adjacency[order[i]].length < adjacency[next].length) next = order[i];
+            }
+            for(int i = placed; i < tail; i++) dist[order[i]] = -1;
+            if(last <= eccentricity) break;										//no farther than the last root
+            eccentricity = last;
+            root = next;
+        }
+        return root;
+    }
+
+    /**
+     * Stably sorts vertices by the length of their word
+     * @param order the vertices
+     * @param words the words of the vertices
+     * @return the vertices of the shortest words first, each length in the order it had in order
+     */
+    private static int[] groupByLength(int[] order, WordArena words) {
+        int longest = 0;
+        for(int v : order) longest = Math.max(longest, words.length(v));
+        int[] start = new int[longest+2];
+        for(int v : order) start[words.length(v)+1]++;
+        for(int length = 0; length <= longest; length++) start[length+1] += start[length];
+        int[] grouped = new int[order.length];
+        for(int v : order) grouped[start[words.length(v)]++] = v;
+        return grouped;
+    }
+}
@@ -0,0 +1,154 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: WeightedGraph.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+
+import java.util.HashMap;
+
+/**
+ * Undirected graph implementation whose edges carry a weight in each direction
+ * 
+ * @param <E> type of a vertex
+ */
+public class WeightedGraph<E> extends Graph<E> implements WeightedGraphADT<E> {
+    
+    //weight of every edge that is not 1, keyed by the vertex it is traversed from and then the vertex it leads to
+    HashMap<E,HashMap<E,Integer>> weight;
+    
+    /**
+     * Instance variables and constructors
+     */
+    public WeightedGraph() {
+        super();
+        weight = new HashMap<E,HashMap<E,Integer>>();
+    }
+
+    /**
+     * Remove the vertex, its edges and their weights from the graph
+     * 
+     * @param vertex the vertex to be removed
+     * @return vertex if vertex removed, else return null if vertex and associated edges can not be removed (also if valid conditions are violated)
+     */
+    @Override
+    public E removeVertex(E vertex) {
+        if(super.removeVertex(vertex) == null) return null;
+        weight.remove(vertex);
+        for (HashMap<E,Integer> weights : weight.values()) {
+            weights.remove(vertex);
+        }
+        return vertex;
+    }
+
+    /**
+     * Add an edge of weight 1 between two vertices
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @return true if edge added, else return false if edge can not be added (also if valid conditions are violated)
+     */
+    @Override
+    public boolean addEdge(E vertex1, E vertex2) {
+        return addEdge(vertex1, vertex2, 1);
+    }
+
+    /**
+     * Add a weighted edge between two vertices, with the same weight in both directions
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @param weight the weight of the edge
+     * @return true if edge added, else return false if edge can not be added (also if valid conditions are violated)
+     */
+    @Override
+    public boolean addEdge(E vertex1, E vertex2, int weight) {
+        if(weight <= 0 || !super.addEdge(vertex1, vertex2)) return false;
+        putWeight(vertex1, vertex2, weight);
+        putWeight(vertex2, vertex1, weight);
+        return true;
+    }
+
+    /**
+     * Remove the edge between two vertices along with its weights
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @return true if edge removed, else return false if edge can not be removed (also if valid conditions are violated)
+     */
+    @Override
+    public boolean removeEdge(E vertex1, E vertex2) {
+        if(!super.removeEdge(vertex1, vertex2)) return false;
+        putWeight(vertex1, vertex2, 1);
+        putWeight(vertex2, vertex1, 1);
+        return true;
+    }
+
+    /**
+     * Change the weight of an existing edge in one direction
+     * 
+     * @param from the vertex the edge is traversed from
+     * @param to the vertex the edge is traversed to
+     * @param weight the new weight of the edge from "from" to "to"
+     * @return true if the weight was changed, else return false (also if valid conditions are violated)
+     */
+    @Override
+    public boolean setEdgeWeight(E from, E to, int weight) {
+        if(weight <= 0 || !isAdjacent(from, to)) return false;
+        putWeight(from, to, weight);
+        return true;
+    }
+
+    /**
+     * Get the weight of an edge in one direction
+     * 
+     * @param from the vertex the edge is traversed from
+     * @param to the vertex the edge is traversed to
+     * @return the weight of the edge from "from" to "to", -1 if there is no such edge (also if valid conditions are violated)
+     */
+    @Override
+    public int getEdgeWeight(E from, E to) {
+        if(!isAdjacent(from, to)) return -1;
+        HashMap<E,Integer> weights = weight.get(from);
+        if(weights == null || !weights.containsKey(to)) return 1;
+        return weights.get(to);
+    }
+    
+    /**
+     * Estimates the heap used by the vertex set, the adjacency lists and the weights that are not 1, not counting
+     * the vertex objects themselves
+     * 
+     * @return estimated bytes {@link FootprintReport}
+     */
+    @Override
+    public long getMemoryBytes() {
+        long bytes = super.getMemoryBytes() + FootprintReport.REFERENCE + FootprintReport.hashMap(weight.size());
+        for (HashMap<E,Integer> weights : weight.values()) {
+            bytes += FootprintReport.hashMap(weights.size());
+            for (int w : weights.values()) {
+                if (w > 127) {		//Integers up to 127 are shared
+                    bytes += FootprintReport.align(FootprintReport.OBJECT_HEADER + 4);
+                }
+            }
+        }
+        return bytes;
+    }
+    
+    /**
+     * Store the weight of an edge in one direction; weight 1 is not stored since it is the default
+     * 
+     * @param from the vertex the edge is traversed from
+     * @param to the vertex the edge is traversed to
+     * @param weight the weight of the edge from "from" to "to"
+     */
+    private void putWeight(E from, E to, int weight) {
+        if(weight == 1) {
+            HashMap<E,Integer> weights = this.weight.get(from);
+            if(weights != null) weights.remove(to);
+        }else {
+            this.weight.computeIfAbsent(from, k -> new HashMap<E,Integer>()).put(to, weight);
+        }
+    }
+
+}
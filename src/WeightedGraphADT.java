@@ -0,0 +1,56 @@
+/**
+ * 
+ * A graph whose edges carry integer weights. Every edge is undirected (it exists in both
+ * directions or in neither), but the weight may differ between the two directions.
+ * 
+ * Edges added through {@link GraphADT#addEdge(Object, Object)} have weight 1 in both directions.
+ * 
+ * (none of the methods throw exceptions)
+ * 
+ * @param <E> type of a vertex
+ */
+public interface WeightedGraphADT<E> extends GraphADT<E> {
+
+	/**
+	 * Add a weighted edge between two vertices, with the same weight in both directions
+	 * 
+	 * Valid argument conditions:
+	 * 1. both the vertices should exist in the graph
+	 * 2. vertex1 should not equal vertex2
+	 * 3. weight should be positive
+	 *  
+	 * @param vertex1 the first vertex
+	 * @param vertex2 the second vertex
+	 * @param weight the weight of the edge
+	 * @return true if edge added, else return false if edge can not be added (also if valid conditions are violated)
+	 */
+	public boolean addEdge(E vertex1, E vertex2, int weight);
+	
+	
+	/**
+	 * Change the weight of an existing edge in one direction
+	 * 
+	 * Valid argument conditions:
+	 * 1. both the vertices should exist in the graph and be adjacent
+	 * 2. weight should be positive
+	 *  
+	 * @param from the vertex the edge is traversed from
+	 * @param to the vertex the edge is traversed to
+	 * @param weight the new weight of the edge from "from" to "to"
+	 * @return true if the weight was changed, else return false (also if valid conditions are violated)
+	 */
+	public boolean setEdgeWeight(E from, E to, int weight);
+	
+	
+	/**
+	 * Get the weight of an edge in one direction
+	 * 
+	 * Valid argument conditions:
+	 * 1. both the vertices should exist in the graph and be adjacent
+	 *  
+	 * @param from the vertex the edge is traversed from
+	 * @param to the vertex the edge is traversed to
+	 * @return the weight of the edge from "from" to "to", -1 if there is no such edge (also if valid conditions are violated)
+	 */
+	public int getEdgeWeight(E from, E to);
+}
@@ -0,0 +1,316 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: WordArena.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Stores every word of a dictionary in one contiguous array with an offset table that marks where each word starts.
+ * Word i occupies the array from offsets[i] to offsets[i+1]-1.
+ *
+ * A String costs an object header, a separate backing array and a cached hash for every word; here a word costs its
+ * chars plus one int. Words are addressed by their id (the order they were added in), and exposed either as
+ * zero-copy {@link CharSequence} views over the shared array or, only where a caller needs one, as a new String.
+ * An open-addressing table of ids finds the id of a word without any String objects.
+ *
+ * While every char is at most U+00FF (ASCII and Latin-1) the chars are held one byte each. The first word with any
+ * other char inflates the whole arena to a char array, two bytes per char, the way String switches between its
+ * Latin-1 and UTF-16 forms; ids and offsets stay the same.
+ */
+public class WordArena {
+
+    /**
+     * The chars of all words, back to back, one byte each; null once the arena is inflated
+     */
+    private byte[] bytes;
+
+    /**
+     * The chars of all words, back to back, once some word has a char beyond U+00FF; null until then
+     */
+    private char[] chars;
+
+    /**
+     * offsets[i] is the index in {@link #bytes} or {@link #chars} where word i starts, offsets[size] is the end of the last word
+     */
+    private int[] offsets;
+
+    /**
+     * Number of words
+     */
+    private int size;
+
+    /**
+     * Open-addressing hash table of word ids plus one, 0 marks an empty slot; its length is a power of two
+     */
+    private int[] table;
+
+    /**
+     * Constructs an empty arena
+     */
+    public WordArena() {
+        bytes = new byte[1024];
+        offsets = new int[129];
+        table = new int[256];
+        size = 0;
+    }
+
+    /**
+     * Adds a word unless it is already in the arena
+     *
+     * @param word the word to be added
+     * @return the id of the word, whether it was just added or already present
+     */
+    public int add(CharSequence word) {
+        if(word == null) throw new IllegalArgumentException();
+        int existing = indexOf(word);
+        if(existing != -1) return existing;
+
+        int start = offsets[size];
+        int end = start+word.length();
+        if(chars == null) {
+            for(int i = 0; i < word.length(); i++) {
+                if(word.charAt(i) > 0xFF) {							//the first wide char, from here on two bytes each
+                    inflate();
+                    break;
+                }
+            }
+        }
+        if(chars == null) {
+            if(end > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(end, 2*bytes.length));
+            for(int i = 0; i < word.length(); i++) bytes[start+i] = (byte) word.charAt(i);
+        } else {
+            if(end > chars.length) chars = Arrays.copyOf(chars, Math.max(end, 2*chars.length));
+            for(int i = 0; i < word.length(); i++) chars[start+i] = word.charAt(i);
+        }
+        if(size+2 > offsets.length) offsets = Arrays.copyOf(offsets, 2*offsets.length);
+        offsets[size+1] = end;
+        size++;
+
+        if(2*size > table.length) rehash();
+        insert(size-1);
+        return size-1;
+    }
+
+    /**
+     * Finds the id of a word
+     *
+     * @param word the word to look up
+     * @return its id, -1 if the word is not in the arena
+     */
+    public int indexOf(CharSequence word) {
+        if(word == null) return -1;
+        int mask = table.length-1;
+        for(int slot = hash(word) & mask; table[slot] != 0; slot = (slot+1) & mask) {
+            int id = table[slot]-1;
+            if(equals(id, word)) return id;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a word is in the arena
+     *
+     * @param word the word to look up
+     * @return true if the word is in the arena
+     */
+    public boolean contains(CharSequence word) {
+        return indexOf(word) != -1;
+    }
+
+    /**
+     * Gets the number of words
+     *
+     * @return number of words in the arena
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of chars of a word
+     *
+     * @param id the id of the word
+     * @return its length
+     */
+    public int length(int id) {
+        return offsets[id+1]-offsets[id];
+    }
+
+    /**
+     * Gets one char of a word
+     *
+     * @param id the id of the word
+     * @param index the position of the char in the word
+     * @return the char
+     */
+    public char charAt(int id, int index) {
+        return at(offsets[id]+index);
+    }
+
+    /**
+     * Checks whether every char of the arena fits in one byte
+     *
+     * @return true while no word has a char beyond U+00FF
+     */
+    public boolean isLatin1() {
+        return chars == null;
+    }
+
+    /**
+     * Gets a view of a word that reads straight from the arena, without copying its chars
+     *
+     * @param id the id of the word
+     * @return CharSequence over the chars of the word
+     */
+    public CharSequence view(int id) {
+        return new WordView(offsets[id], offsets[id+1]);
+    }
+
+    /**
+     * Copies a word out of the arena, for callers that need a String
+     *
+     * @param id the id of the word
+     * @return the word as a new String
+     */
+    public String getWord(int id) {
+        return string(offsets[id], offsets[id+1]);
+    }
+
+    /**
+     * Estimates the memory used by the arena
+     *
+     * @return bytes used by the char array, the offset table and the hash table {@link FootprintReport}
+     */
+    public long getMemoryBytes() {
+        long text = chars == null ? FootprintReport.array(bytes.length, 1) : FootprintReport.array(chars.length, 2);
+        return FootprintReport.align(FootprintReport.OBJECT_HEADER + 4*FootprintReport.REFERENCE + 4) + text
+            + FootprintReport.array(offsets.length, 4) + FootprintReport.array(table.length, 4);
+    }
+
+    /**
+     * Gets the char at an index of the shared array, in either form
+     * @param index index in {@link #bytes} or {@link #chars}
+     * @return the char
+     */
+    private char at(int index) {
+        return chars == null ? (char) (bytes[index] & 0xFF) : chars[index];
+    }
+
+    /**
+     * Copies a range of the shared array into a String
+     * @param start index of the first char
+     * @param end index after the last char
+     * @return the chars as a new String
+     */
+    private String string(int start, int end) {
+        if(chars != null) return new String(chars, start, end-start);
+        return new String(bytes, start, end-start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Widens every char added so far from one byte to two, keeping their indices
+     */
+    private void inflate() {
+        chars = new char[bytes.length];
+        for(int i = 0; i < offsets[size]; i++) chars[i] = (char) (bytes[i] & 0xFF);
+        bytes = null;
+    }
+
+    /**
+     * Checks whether a word of the arena has exactly the given chars
+     * @param id id of the word in the arena
+     * @param word the chars to compare with
+     * @return true if they are equal
+     */
+    private boolean equals(int id, CharSequence word) {
+        int start = offsets[id];
+        int length = offsets[id+1]-start;
+        if(length != word.length()) return false;
+        for(int i = 0; i < length; i++) {
+            if(at(start+i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hash of a char sequence, spread so that linear probing works with a power of two table
+     * @param word the chars to hash
+     * @return the hash
+     */
+    private static int hash(CharSequence word) {
+        int h = 0;
+        for(int i = 0; i < word.length(); i++) h = 31*h + word.charAt(i);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Puts a word id in the hash table, which must have a free slot
+     * @param id the id of the word
+     */
+    private void insert(int id) {
+        int mask = table.length-1;
+        int slot = hash(view(id)) & mask;
+        while(table[slot] != 0) slot = (slot+1) & mask;
+        table[slot] = id+1;
+    }
+
+    /**
+     * Doubles the hash table and inserts every word again
+     */
+    private void rehash() {
+        table = new int[2*table.length];
+        for(int id = 0; id < size; id++) insert(id);
+    }
+
+    /**
+     * A word of the arena seen as a CharSequence. It reads the shared array directly.
+     */
+    private class WordView implements CharSequence {
+
+        /**
+         * Index of the first char in the shared array
+         */
+        private final int start;
+
+        /**
+         * Index after the last char in the shared array
+         */
+        private final int end;
+
+        /**
+         * Constructs a view
+         * @param start index of the first char
+         * @param end index after the last char
+         */
+        private WordView(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end-start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if(index < 0 || start+index >= end) throw new IndexOutOfBoundsException();
+            return at(start+index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if(from < 0 || to > length() || from > to) throw new IndexOutOfBoundsException();
+            return new WordView(start+from, start+to);
+        }
+
+        @Override
+        public String toString() {
+            return string(start, end);
+        }
+    }
+}
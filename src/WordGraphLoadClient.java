@@ -0,0 +1,201 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: WordGraphLoadClient.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Load generator for {@link WordGraphServer}. It opens a number of connections, each on its own virtual thread, and
+ * sends random queries over every connection one at a time, timing each round trip. It reports the throughput and
+ * the latency percentiles over all requests.
+ */
+public class WordGraphLoadClient {
+
+    /**
+     * The result of a load run
+     */
+    public static class Report {
+
+        /**
+         * Number of requests sent
+         */
+        public final int requests;
+
+        /**
+         * Number of replies starting with "ERR"
+         */
+        public final int errors;
+
+        /**
+         * Wall clock time of the run in nanoseconds
+         */
+        public final long elapsedNanos;
+
+        /**
+         * Latency of every request in nanoseconds, sorted
+         */
+        private final long[] latencies;
+
+        /**
+         * Constructs a report
+         * @param latencies latency of every request in nanoseconds
+         * @param errors number of error replies
+         * @param elapsedNanos wall clock time of the run
+         */
+        private Report(long[] latencies, int errors, long elapsedNanos) {
+            this.latencies = latencies.clone();
+            Arrays.sort(this.latencies);
+            this.requests = latencies.length;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Gets the number of requests answered per second
+         *
+         * @return throughput of the run
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : requests*1e9/elapsedNanos;
+        }
+
+        /**
+         * Gets a latency percentile
+         *
+         * @param percentile from 0 to 100
+         * @return the latency in nanoseconds that this share of the requests did not exceed, 0 if there were none
+         */
+        public long getPercentile(double percentile) {
+            if(latencies.length == 0) return 0;
+            int rank = (int) Math.ceil(percentile/100*latencies.length)-1;
+            return latencies[Math.max(0, Math.min(latencies.length-1, rank))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%d errors) in %d ms: %.0f requests/s, p50 %.1f us, p99 %.1f us, "
+                + "p99.9 %.1f us, max %.1f us", requests, errors, elapsedNanos/1000000, getThroughput(),
+                getPercentile(50)/1e3, getPercentile(99)/1e3, getPercentile(99.9)/1e3, getPercentile(100)/1e3);
+        }
+    }
+
+    /**
+     * Sends random DIST and PATH queries to a server
+     *
+     * @param port the port of the server on the loopback address
+     * @param words words to pick query pairs from
+     * @param connections number of concurrent connections
+     * @param requestsPerConnection number of requests sent over every connection
+     * @param seed seed of the random query pairs
+     * @return the report of the run
+     * @throws IOException if a connection fails
+     */
+    public static Report run(int port, List<String> words, int connections, int requestsPerConnection, long seed)
+            throws IOException {
+        if(words == null || words.isEmpty() || connections < 1 || requestsPerConnection < 0) {
+            throw new IllegalArgumentException();
+        }
+        long[] latencies = new long[connections*requestsPerConnection];
+        List<Future<Integer>> clients = new ArrayList<Future<Integer>>();
+        long start = System.nanoTime();
+        try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(int c = 0; c < connections; c++) {
+                int first = c*requestsPerConnection;
+                Random random = new Random(seed+c);
+                clients.add(executor.submit(() -> client(port, words, random, latencies, first, requestsPerConnection)));
+            }
+            int errors = 0;
+            for(Future<Integer> client : clients) errors += client.get();
+            return new Report(latencies, errors, System.nanoTime()-start);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch(java.util.concurrent.ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs one connection
+     * @param port the port of the server
+     * @param words words to pick query pairs from
+     * @param random source of the query pairs
+     * @param latencies receives the latency of every request
+     * @param first index in latencies of the first request of this connection
+     * @param count number of requests to send
+     * @return number of error replies
+     * @throws IOException if the connection fails
+     */
+    private static int client(int port, List<String> words, Random random, long[] latencies, int first, int count)
+            throws IOException {
+        int errors = 0;
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            for(int i = 0; i < count; i++) {
+                String word1 = words.get(random.nextInt(words.size()));
+                String word2 = words.get(random.nextInt(words.size()));
+                String command = random.nextBoolean() ? "DIST " : "PATH ";
+                long start = System.nanoTime();
+                out.write(command + word1 + " " + word2 + "\n");
+                out.flush();
+                String reply = in.readLine();
+                latencies[first+i] = System.nanoTime()-start;
+                if(reply == null) throw new IOException("server closed the connection");
+                if(reply.startsWith("ERR")) errors++;
+            }
+            out.write("QUIT\n");
+            out.flush();
+        }
+        return errors;
+    }
+
+    /**
+     * Loads a dictionary into a server in this process, or connects to a running one, and reports the load results
+     *
+     * @param args the path of the dictionary file, then optionally the number of connections, the requests per
+     *             connection and the port of a running server (without it a server is started here)
+     * @throws IOException if the dictionary can not be read or a connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        String filepath = args.length > 0 ? args[0] : "word_list.txt";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        List<String> words;
+        try(java.util.stream.Stream<String> stream = WordProcessor.getWordStream(filepath)) {
+            words = stream.distinct().collect(Collectors.toList());
+        }
+
+        if(args.length > 3) {
+            System.out.println(run(Integer.parseInt(args[3]), words, connections, requests, 67));
+            return;
+        }
+        GraphProcessor processor = new GraphProcessor();
+        if(processor.populateGraph(filepath) < 0) throw new IOException("could not load " + filepath);
+        try(WordGraphServer server = new WordGraphServer(processor)) {
+            int port = server.start(0);
+            run(port, words, connections, Math.max(1, requests/10), 1);			//warm up
+            System.out.println(run(port, words, connections, requests, 67));
+        }
+    }
+}
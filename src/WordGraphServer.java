@@ -0,0 +1,275 @@
+//Assignment Name: P4 Dictionary Graph
+//File Name: WordGraphServer.java
+//Author: X-Team 67
+//Due Date: Apr 16, 2018
+//Other Source: -
+//Known Bugs: None
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A line based TCP server on localhost that answers word graph queries from one warm {@link GraphProcessor}, so many
+ * clients can share a single loaded dictionary and its precomputed paths.
+ *
+ * Every request is one line of words separated by spaces, and every reply is one line:
+ *  - PATH word1 word2 replies "OK" followed by the words of the shortest path, or "NONE" if there is no path
+ *  - DIST word1 word2 replies "OK" followed by the shortest distance (-1 if there is no path)
+ *  - NEIGHBORS word replies "OK" followed by the neighbors of the word, or "NONE" if the word can not be snapped
+ *  - FOOTPRINT replies "OK" followed by the total estimated heap bytes and then structure=bytes for every structure
+ *    of the processor {@link GraphProcessor#getFootprint()}
+ *  - PING replies "OK"
+ *  - QUIT closes the connection
+ * Anything else replies "ERR" followed by the reason. Commands are not case sensitive.
+ *
+ * Every connection is served by its own virtual thread, so thousands of mostly idle clients cost little more than
+ * their sockets. Every request is answered from the snapshot the processor has published at that moment
+ * {@link GraphProcessor#getSnapshot()}, so the processor can be reloaded while the server runs without stalling or
+ * breaking requests. Searches take their O(V) buffers from a pool bounded by the processor, not one set per
+ * connection, so a burst of connections waits for a free set instead of allocating more.
+ */
+public class WordGraphServer implements AutoCloseable {
+
+    /**
+     * The processor answering queries
+     */
+    private final GraphProcessor processor;
+
+    /**
+     * The listening socket, null until {@link #start(int)}
+     */
+    private ServerSocket serverSocket;
+
+    /**
+     * Runs one virtual thread per connection
+     */
+    private ExecutorService connections;
+
+    /**
+     * Thread accepting new connections
+     */
+    private Thread acceptor;
+
+    /**
+     * Number of requests answered
+     */
+    private final AtomicLong requests;
+
+    /**
+     * Constructs a server for a populated processor
+     *
+     * @param processor the processor answering queries
+     */
+    public WordGraphServer(GraphProcessor processor) {
+        if(processor == null) throw new IllegalArgumentException();
+        this.processor = processor;
+        this.requests = new AtomicLong();
+    }
+
+    /**
+     * Starts listening on the loopback address
+     *
+     * @param port the port to listen on, 0 for any free port
+     * @return the port the server listens on
+     * @throws IOException if the port can not be bound
+     */
+    public synchronized int start(int port) throws IOException {
+        if(serverSocket != null) throw new IllegalStateException("server already started");
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        connections = Executors.newVirtualThreadPerTaskExecutor();
+        ServerSocket listening = serverSocket;
+        acceptor = Thread.ofPlatform().name("word-graph-acceptor").daemon().start(() -> acceptLoop(listening));
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the port the server listens on
+     *
+     * @return the local port, -1 if the server is not started
+     */
+    public synchronized int getPort() {
+        return serverSocket == null ? -1 : serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of requests answered since the server started
+     *
+     * @return number of requests
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones
+     */
+    @Override
+    public synchronized void close() {
+        if(serverSocket == null) return;
+        try {
+            serverSocket.close();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+        connections.shutdownNow();
+        try {
+            acceptor.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        serverSocket = null;
+    }
+
+    /**
+     * Answers one request line
+     *
+     * @param line the request
+     * @return the reply, without the line break, or null to close the connection
+     */
+    public String handle(String line) {
+        String[] parts = line.trim().split("\\s+");
+        String command = parts[0].toUpperCase();
+        requests.incrementAndGet();
+        switch(command) {
+            case "PATH":
+                if(parts.length != 3) return "ERR usage: PATH word1 word2";
+                List<String> path = processor.getShortestPath(parts[1], parts[2]);
+                return path == null ? "NONE" : join(path);
+            case "DIST":
+                if(parts.length != 3) return "ERR usage: DIST word1 word2";
+                return "OK " + processor.getShortestDistance(parts[1], parts[2]);
+            case "NEIGHBORS":
+                if(parts.length != 2) return "ERR usage: NEIGHBORS word";
+                List<String> neighbors = processor.getNeighbors(parts[1]);
+                return neighbors == null ? "NONE" : join(neighbors);
+            case "FOOTPRINT":
+                if(parts.length != 1) return "ERR usage: FOOTPRINT";
+                FootprintReport footprint = processor.getFootprint();
+                StringBuilder reply = new StringBuilder("OK ").append(footprint.getTotalBytes());
+                for(FootprintReport.Structure structure : FootprintReport.Structure.values()) {
+                    reply.append(' ').append(structure).append('=').append(footprint.getBytes(structure));
+                }
+                return reply.toString();
+            case "PING":
+                return "OK";
+            case "QUIT":
+                return null;
+            default:
+                return "ERR unknown command " + parts[0];
+        }
+    }
+
+    /**
+     * Accepts connections until the server socket is closed
+     *
+     * @param listening the server socket
+     */
+    private void acceptLoop(ServerSocket listening) {
+        while(true) {
+            Socket socket;
+            try {
+                socket = listening.accept();
+            } catch(IOException e) {
+                return;											//closed by close()
+            }
+            try {
+                connections.submit(() -> serve(socket));
+            } catch(RuntimeException e) {						//the executor is shutting down
+                closeQuietly(socket);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of one connection until the client quits or disconnects
+     *
+     * @param socket the connection
+     */
+    private void serve(Socket socket) {
+        try(Socket s = socket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+            s.setTcpNoDelay(true);
+            String line;
+            while((line = in.readLine()) != null) {
+                if(line.trim().isEmpty()) continue;
+                String reply;
+                try {
+                    reply = handle(line);
+                } catch(RuntimeException e) {
+                    reply = "ERR " + e;
+                }
+                if(reply == null) break;
+                out.write(reply);
+                out.write('\n');
+                if(!in.ready()) out.flush();					//flush once per batch of pipelined requests
+            }
+        } catch(SocketException e) {
+            //the client disconnected or the server is closing
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Builds an "OK" reply listing words
+     * @param words the words of the reply
+     * @return the reply line
+     */
+    private static String join(List<String> words) {
+        StringBuilder reply = new StringBuilder("OK");
+        for(String word : words) reply.append(' ').append(word);
+        return reply.toString();
+    }
+
+    /**
+     * Closes a socket ignoring errors
+     * @param socket the socket to close
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch(IOException e) {
+            //nothing left to do with it
+        }
+    }
+
+    /**
+     * Loads a dictionary and serves it until the process is stopped
+     *
+     * @param args the path of the dictionary file, optionally followed by the port and the {@link PathStrategy}
+     * @throws IOException if the dictionary can not be read or the port can not be bound
+     * @throws InterruptedException if the main thread is interrupted while serving
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String filepath = args.length > 0 ? args[0] : "word_list.txt";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 4567;
+        GraphProcessor processor = new GraphProcessor();
+        if(args.length > 2) processor.setPathStrategy(PathStrategy.valueOf(args[2]));
+        processor.setQueryCacheSize(1 << 16);										//popular pairs skip the search
+        long start = System.nanoTime();
+        int words = processor.populateGraph(filepath);
+        if(words < 0) throw new IOException("could not load " + filepath);
+        WordGraphServer server = new WordGraphServer(processor);
+        port = server.start(port);
+        System.out.println("loaded " + words + " words in " + (System.nanoTime()-start)/1000000 + " ms, listening on "
+            + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port);
+        server.acceptor.join();									//serve until the process is stopped
+    }
+}
@@ -79,6 +79,27 @@ public class WordProcessor {
 											   .map(String::toUpperCase);
 	}
 	
+	/**
+	 * Reads the words of a file into a {@link WordArena}. The words are trimmed, non-empty and UPPERCASE as in 
+	 * {@link #getWordStream(String)}; each line is only a String until its chars are copied into the arena.
+	 * 
+	 * @param filepath file path to the dictionary file
+	 * @param arena the arena receiving the words, a word already in it keeps its id
+	 * @return int number of words read, counting repeated words every time they appear
+	 * @throws IOException exception resulting from accessing the filepath
+	 */
+	public static int loadWords(String filepath, WordArena arena) throws IOException {
+		if(arena == null) throw new IllegalArgumentException();
+		int count = 0;
+		try(Stream<String> lines = getWordStream(filepath)) {
+			for(String word : (Iterable<String>) lines::iterator) {
+				arena.add(word);
+				count++;
+			}
+		}
+		return count;
+	}
+	
 	/**
 	 * Adjacency between word1 and word2 is defined by:
 	 * if the difference between word1 and word2 is of
@@ -145,4 +166,48 @@ public class WordProcessor {
 		return true;	
 	}
 	
+	/**
+	 * Computes the edit (Levenshtein) distance between word1 and word2, which is
+	 * the least number of 1 char replacements, additions and deletions needed 
+	 * to turn word1 into word2. Like {@link #isAdjacent(String, String)}, the
+	 * comparison ignores case.
+	 * 
+	 * Two words are adjacent exactly when their edit distance is 1.
+	 * Takes any CharSequence, so words can be compared in place inside a {@link WordArena}.
+	 * 
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @return the edit distance between word1 and word2
+	 */
+	public static int editDistance(CharSequence word1, CharSequence word2) {
+		if(word1 == null || word2 == null) throw new IllegalArgumentException();
+		if(word1.length() < word2.length()) {
+			// keep the shorter word in the inner loop so the rows stay small
+			CharSequence temp = word1;
+			word1 = word2;
+			word2 = temp;
+		}
+		
+		// the chars of the shorter word are read once, so the inner loop only touches arrays
+		char[] column = new char[word2.length()];
+		for(int j = 0; j < column.length; j++) column[j] = Character.toUpperCase(word2.charAt(j));
+		int[] prev = new int[column.length+1];
+		int[] cur = new int[column.length+1];
+		for(int j = 0; j <= column.length; j++) prev[j] = j;
+		
+		for(int i = 1; i <= word1.length(); i++) {
+			cur[0] = i;
+			char c1 = Character.toUpperCase(word1.charAt(i-1));
+			for(int j = 1; j <= column.length; j++) {
+				int cost = c1 == column[j-1] ? 0 : 1;
+				cur[j] = Math.min(prev[j-1]+cost, Math.min(prev[j]+1, cur[j-1]+1));
+				// replacement, deletion and addition respectively
+			}
+			int[] temp = prev;
+			prev = cur;
+			cur = temp;
+		}
+		return prev[column.length];
+	}
+	
 }